@@ -3,7 +3,9 @@
 -- Devsu - Proyecto de Microservicios
 -- =====================================================
 -- Este script crea las bases de datos, tablas y datos iniciales
--- para los microservicios de Clientes y Cuentas
+-- para los microservicios de Clientes y Cuentas. Las tablas solo existen aquí
+-- para cargar los datos de prueba: el esquema lo mantienen las migraciones Flyway
+-- de cada servicio, que sobre esta base parten del baseline 0
 -- =====================================================
 
 -- =====================================================
@@ -45,9 +47,7 @@ CREATE TABLE IF NOT EXISTS clientes_schema.clientes (
     estado BOOLEAN NOT NULL DEFAULT TRUE
 );
 
--- Índices para mejorar el rendimiento
-CREATE INDEX IF NOT EXISTS idx_clientes_cliente_id ON clientes_schema.clientes(cliente_id);
-CREATE INDEX IF NOT EXISTS idx_personas_identificacion ON clientes_schema.personas(identificacion);
+-- Índices: los crean las migraciones Flyway del servicio (db/migration) al arrancar
 
 -- =====================================================
 -- BASE DE DATOS: cuentasdb
@@ -62,21 +62,28 @@ CREATE SCHEMA IF NOT EXISTS cuentas_schema;
 -- Establecer el schema por defecto
 SET search_path TO cuentas_schema, public;
 
+-- Secuencias de ids con incremento 50: Hibernate reserva bloques de ids (optimizador pooled)
+-- y puede agrupar los INSERT en batches JDBC. Los INSERT manuales usan el DEFAULT de la columna.
+CREATE SEQUENCE IF NOT EXISTS cuentas_schema.cuentas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cuentas_schema.movimientos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cuentas_schema.saldo_fracciones_seq START WITH 1 INCREMENT BY 50;
+
 -- Tabla Cuentas
 CREATE TABLE IF NOT EXISTS cuentas_schema.cuentas (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('cuentas_schema.cuentas_seq'),
     numero_cuenta VARCHAR(20) UNIQUE NOT NULL,
     tipo_cuenta VARCHAR(50) NOT NULL,
     saldo_inicial DECIMAL(15,2) NOT NULL,
     saldo_actual DECIMAL(15,2) NOT NULL,
     estado BOOLEAN NOT NULL DEFAULT TRUE,
     cliente_id VARCHAR(50) NOT NULL,
-    cliente_nombre VARCHAR(100)
+    cliente_nombre VARCHAR(100),
+    saldo_fraccionado BOOLEAN NOT NULL DEFAULT FALSE
 );
 
 -- Tabla Movimientos
 CREATE TABLE IF NOT EXISTS cuentas_schema.movimientos (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('cuentas_schema.movimientos_seq'),
     fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     tipo_movimiento VARCHAR(50) NOT NULL,
     valor DECIMAL(15,2) NOT NULL,
@@ -85,11 +92,31 @@ CREATE TABLE IF NOT EXISTS cuentas_schema.movimientos (
     FOREIGN KEY (cuenta_id) REFERENCES cuentas_schema.cuentas(id) ON DELETE CASCADE
 );
 
--- Índices para mejorar el rendimiento
-CREATE INDEX IF NOT EXISTS idx_cuentas_numero_cuenta ON cuentas_schema.cuentas(numero_cuenta);
-CREATE INDEX IF NOT EXISTS idx_cuentas_cliente_id ON cuentas_schema.cuentas(cliente_id);
-CREATE INDEX IF NOT EXISTS idx_movimientos_cuenta_id ON cuentas_schema.movimientos(cuenta_id);
-CREATE INDEX IF NOT EXISTS idx_movimientos_fecha ON cuentas_schema.movimientos(fecha);
+-- Fracciones del saldo de cuentas calientes (saldo_fraccionado = TRUE): el saldo es la suma de sus fracciones
+CREATE TABLE IF NOT EXISTS cuentas_schema.cuentas_saldo_fracciones (
+    id BIGINT PRIMARY KEY DEFAULT nextval('cuentas_schema.saldo_fracciones_seq'),
+    cuenta_id BIGINT NOT NULL,
+    slot INTEGER NOT NULL,
+    saldo DECIMAL(15,2) NOT NULL,
+    CONSTRAINT uk_saldo_fracciones_cuenta_slot UNIQUE (cuenta_id, slot),
+    FOREIGN KEY (cuenta_id) REFERENCES cuentas_schema.cuentas(id) ON DELETE CASCADE
+);
+
+-- Checkpoint del journal de movimientos: último lsn volcado a la tabla movimientos
+CREATE TABLE IF NOT EXISTS cuentas_schema.movimientos_journal_checkpoint (
+    id INTEGER PRIMARY KEY,
+    lsn BIGINT NOT NULL
+);
+
+-- Claves de idempotencia de POST /movimientos con la respuesta original (respuesta NULL = en curso)
+CREATE TABLE IF NOT EXISTS cuentas_schema.movimientos_idempotencia (
+    clave VARCHAR(100) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    respuesta VARCHAR(4000),
+    expira_en TIMESTAMP NOT NULL
+);
+
+-- Índices: los crean las migraciones Flyway del servicio (db/migration) al arrancar
 
 -- =====================================================
 -- DATOS INICIALES DE PRUEBA
@@ -0,0 +1,22 @@
+package com.devsu.clientesapp.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de una consulta por keyset. siguienteCursor es null en la última página; en otro caso se
+ * envía tal cual en el parámetro cursor para obtener la siguiente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaDto<T> {
+
+    private List<T> contenido;
+    private String siguienteCursor;
+}
@@ -5,15 +5,20 @@ import com.devsu.clientesapp.application.dto.ClienteEventDto;
 import com.devsu.clientesapp.application.dto.ClienteRequestDto;
 import com.devsu.clientesapp.application.dto.ClienteResponseDto;
 import com.devsu.clientesapp.application.dto.CuentaInfoDto;
+import com.devsu.clientesapp.application.dto.PaginaDto;
 import com.devsu.clientesapp.application.mapper.ClienteMapper;
+import com.devsu.clientesapp.application.pagination.Cursor;
 import com.devsu.clientesapp.application.usecase.*;
 import com.devsu.clientesapp.domain.exception.ClienteAlreadyExistsException;
 import com.devsu.clientesapp.domain.exception.ClienteNotFoundException;
+import com.devsu.clientesapp.domain.exception.CursorInvalidoException;
 import com.devsu.clientesapp.domain.model.Cliente;
 import com.devsu.clientesapp.domain.repository.ClienteRepository;
 import com.devsu.clientesapp.infrastructure.messaging.ClienteMessagePublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -104,11 +109,19 @@ public class ClienteService implements
 
     @Override
     @Transactional(readOnly = true)
-    public List<ClienteResponseDto> obtenerTodos() {
-        log.info("Obteniendo todos los clientes");
-        return clienteRepository.findAll().stream()
-                .map(clienteMapper::toDto)
-                .toList();
+    public PaginaDto<ClienteResponseDto> obtenerPagina(Boolean estado, String cursor, int tamano) {
+        log.info("Obteniendo página de clientes (estado: {}, tamaño: {})", estado, tamano);
+        Slice<Cliente> clientes = clienteRepository.findPagina(idDesde(cursor), estado, PageRequest.ofSize(tamano));
+
+        String siguienteCursor = null;
+        if (clientes.hasNext()) {
+            List<Cliente> contenido = clientes.getContent();
+            siguienteCursor = Cursor.codificar(contenido.get(contenido.size() - 1).getId());
+        }
+        return PaginaDto.<ClienteResponseDto>builder()
+                .contenido(clientes.map(clienteMapper::toDto).getContent())
+                .siguienteCursor(siguienteCursor)
+                .build();
     }
 
     @Override
@@ -183,5 +196,16 @@ public class ClienteService implements
 
         log.info("Cliente eliminado exitosamente con id: {}", id);
     }
-}
 
+    // Los ids empiezan en 1: sin cursor la búsqueda parte de 0
+    private Long idDesde(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(Cursor.decodificar(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new CursorInvalidoException();
+        }
+    }
+}
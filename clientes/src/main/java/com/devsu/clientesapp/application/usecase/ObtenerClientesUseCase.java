@@ -1,13 +1,11 @@
 package com.devsu.clientesapp.application.usecase;
 
 import com.devsu.clientesapp.application.dto.ClienteResponseDto;
-
-import java.util.List;
+import com.devsu.clientesapp.application.dto.PaginaDto;
 
 /**
- * Caso de uso para obtener todos los clientes del sistema
+ * Caso de uso para obtener los clientes del sistema por páginas
  */
 public interface ObtenerClientesUseCase {
-    List<ClienteResponseDto> obtenerTodos();
+    PaginaDto<ClienteResponseDto> obtenerPagina(Boolean estado, String cursor, int tamano);
 }
-
@@ -0,0 +1,8 @@
+package com.devsu.clientesapp.domain.exception;
+
+public class CursorInvalidoException extends RuntimeException {
+
+    public CursorInvalidoException() {
+        super("El cursor de paginación no es válido");
+    }
+}
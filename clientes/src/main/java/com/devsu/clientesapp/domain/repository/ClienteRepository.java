@@ -1,7 +1,11 @@
 package com.devsu.clientesapp.domain.repository;
 
 import com.devsu.clientesapp.domain.model.Cliente;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,5 +20,26 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     boolean existsByClienteId(String clienteId);
 
     boolean existsByIdentificacion(String identificacion);
+
+    // Página por keyset sobre id con filtro opcional por estado (null = sin filtro). Una consulta por
+    // combinación: con (:estado IS NULL OR c.estado = :estado) la sentencia preparada sería la misma
+    // para ambas y el plan genérico no podría usar el índice del filtro
+    default Slice<Cliente> findPagina(Long idDesde, Boolean estado, Pageable pageable) {
+        return estado == null
+                ? findPaginaDesde(idDesde, pageable)
+                : findPaginaDesdeConEstado(idDesde, estado, pageable);
+    }
+
+    // Al devolver Slice, Spring Data pide una fila de más para saber si hay página siguiente y no
+    // ejecuta count(*)
+    @Query("SELECT c FROM Cliente c WHERE c.id > :idDesde ORDER BY c.id")
+    Slice<Cliente> findPaginaDesde(@Param("idDesde") Long idDesde, Pageable pageable);
+
+    @Query("SELECT c FROM Cliente c WHERE c.id > :idDesde AND c.estado = :estado ORDER BY c.id")
+    Slice<Cliente> findPaginaDesdeConEstado(
+            @Param("idDesde") Long idDesde,
+            @Param("estado") Boolean estado,
+            Pageable pageable
+    );
 }
 
@@ -0,0 +1,70 @@
+package com.devsu.clientesapp.infrastructure.config;
+
+import com.devsu.clientesapp.infrastructure.persistence.replica.RutaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primario y réplica de lectura, activo solo si se configura {@code datasource.replica.url}. Cada
+ * ruta tiene su propio pool de HikariCP ({@code spring.datasource.hikari.*} y
+ * {@code datasource.replica.hikari.*}) y sus métricas hikaricp.* con la etiqueta pool. Sin réplica,
+ * Spring Boot crea el DataSource único de siempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class DataSourceConfig {
+
+    static final String POOL_PRIMARIO = "clientes-primario";
+    static final String POOL_REPLICA = "clientes-replica";
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primarioDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(
+            @Qualifier("primarioDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(POOL_PRIMARIO);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(POOL_REPLICA);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * DataSource de JPA, Flyway y demás: enruta cada conexión según la transacción en curso.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new RutaDataSource(primario, replica));
+    }
+}
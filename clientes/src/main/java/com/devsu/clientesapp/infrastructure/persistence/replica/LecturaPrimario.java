@@ -0,0 +1,54 @@
+package com.devsu.clientesapp.infrastructure.persistence.replica;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Lecturas fijadas al primario en el hilo actual. Mientras esté activa, RutaDataSource envía al
+ * primario también las transacciones de solo lectura: tras una escritura del mismo consumidor de la
+ * API (token de LecturaPropiaFilter) y en las lecturas que no pueden ver datos atrasados de la réplica.
+ */
+public final class LecturaPrimario {
+
+    private static final ThreadLocal<Instant> HASTA = new ThreadLocal<>();
+
+    private LecturaPrimario() {
+    }
+
+    public static boolean activa() {
+        Instant hasta = HASTA.get();
+        return hasta != null && Instant.now().isBefore(hasta);
+    }
+
+    /**
+     * Instante hasta el que el hilo lee del primario, o null si no está fijado.
+     */
+    public static Instant hasta() {
+        return HASTA.get();
+    }
+
+    public static void fijarHasta(Instant hasta) {
+        if (hasta == null) {
+            HASTA.remove();
+        } else {
+            HASTA.set(hasta);
+        }
+    }
+
+    public static void limpiar() {
+        HASTA.remove();
+    }
+
+    /**
+     * Ejecuta la lectura contra el primario y restaura después el estado anterior del hilo.
+     */
+    public static <T> T ejecutar(Supplier<T> lectura) {
+        Instant anterior = HASTA.get();
+        HASTA.set(Instant.MAX);
+        try {
+            return lectura.get();
+        } finally {
+            fijarHasta(anterior);
+        }
+    }
+}
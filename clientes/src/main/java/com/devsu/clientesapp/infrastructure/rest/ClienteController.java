@@ -3,17 +3,18 @@ package com.devsu.clientesapp.infrastructure.rest;
 import com.devsu.clientesapp.application.dto.ClienteConCuentasRequestDto;
 import com.devsu.clientesapp.application.dto.ClienteRequestDto;
 import com.devsu.clientesapp.application.dto.ClienteResponseDto;
+import com.devsu.clientesapp.application.dto.PaginaDto;
 import com.devsu.clientesapp.application.usecase.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/clientes")
 @RequiredArgsConstructor
@@ -44,9 +45,13 @@ public class ClienteController {
     }
 
     @GetMapping
-    @Operation(summary = "Obtener todos los clientes")
-    public ResponseEntity<List<ClienteResponseDto>> obtenerTodosLosClientes() {
-        List<ClienteResponseDto> clientes = obtenerClientesUseCase.obtenerTodos();
+    @Operation(summary = "Obtener clientes paginados",
+               description = "Filtro opcional por estado; para la siguiente página se envía el siguienteCursor recibido")
+    public ResponseEntity<PaginaDto<ClienteResponseDto>> obtenerClientes(
+            @RequestParam(required = false) Boolean estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamano) {
+        PaginaDto<ClienteResponseDto> clientes = obtenerClientesUseCase.obtenerPagina(estado, cursor, tamano);
         return ResponseEntity.ok(clientes);
     }
 
@@ -0,0 +1,28 @@
+-- =====================================================
+-- Esquema inicial del microservicio de Clientes
+-- =====================================================
+-- Común a PostgreSQL y H2 (modo PostgreSQL). Flyway lo ejecuta con clientes_schema como
+-- esquema por defecto. IF NOT EXISTS: en bases creadas antes de Flyway (ddl-auto=update o
+-- BaseDatos.sql) se aplica sobre el baseline 0 y solo agrega lo que falte.
+
+-- Personas (entidad base de la herencia JOINED)
+CREATE TABLE IF NOT EXISTS personas (
+    id BIGSERIAL PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    genero VARCHAR(20),
+    edad INTEGER,
+    identificacion VARCHAR(20) NOT NULL,
+    direccion VARCHAR(200),
+    telefono VARCHAR(20),
+    CONSTRAINT uk_personas_identificacion UNIQUE (identificacion)
+);
+
+-- Clientes (hereda de personas: misma clave primaria)
+CREATE TABLE IF NOT EXISTS clientes (
+    id BIGINT PRIMARY KEY,
+    cliente_id VARCHAR(50) NOT NULL,
+    contrasena VARCHAR(255) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE,
+    CONSTRAINT uk_clientes_cliente_id UNIQUE (cliente_id),
+    CONSTRAINT fk_clientes_persona FOREIGN KEY (id) REFERENCES personas(id) ON DELETE CASCADE
+);
@@ -0,0 +1,7 @@
+-- =====================================================
+-- Índices para las consultas calientes (H2, pruebas)
+-- =====================================================
+-- Variante de postgresql/V2__indices_rendimiento.sql con los mismos nombres: H2 no tiene
+-- CONCURRENTLY ni índices parciales, así que se crea el B-tree equivalente.
+
+CREATE INDEX IF NOT EXISTS idx_clientes_activos ON clientes (estado, id);
@@ -0,0 +1,13 @@
+-- =====================================================
+-- Índices para las consultas calientes (PostgreSQL)
+-- =====================================================
+-- CONCURRENTLY no bloquea escrituras mientras se construye el índice; Flyway ejecuta esta
+-- migración fuera de transacción porque todas sus sentencias lo son.
+
+-- cliente_id e identificacion ya tienen el índice de su restricción UNIQUE
+DROP INDEX CONCURRENTLY IF EXISTS idx_clientes_cliente_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_personas_identificacion;
+
+-- Listado paginado de clientes activos (estado = TRUE ORDER BY id): parcial, solo filas activas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clientes_activos
+    ON clientes (id) WHERE estado;
@@ -2,9 +2,11 @@ package com.devsu.clientesapp.application.service;
 
 import com.devsu.clientesapp.application.dto.ClienteRequestDto;
 import com.devsu.clientesapp.application.dto.ClienteResponseDto;
+import com.devsu.clientesapp.application.dto.PaginaDto;
 import com.devsu.clientesapp.application.mapper.ClienteMapper;
 import com.devsu.clientesapp.domain.exception.ClienteAlreadyExistsException;
 import com.devsu.clientesapp.domain.exception.ClienteNotFoundException;
+import com.devsu.clientesapp.domain.exception.CursorInvalidoException;
 import com.devsu.clientesapp.domain.model.Cliente;
 import com.devsu.clientesapp.domain.repository.ClienteRepository;
 import com.devsu.clientesapp.infrastructure.messaging.ClienteMessagePublisher;
@@ -15,8 +17,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -144,22 +147,33 @@ class ClienteServiceTest {
     }
 
     @Test
-    @DisplayName("Obtener todos los clientes exitosamente")
-    void testObtenerTodosLosClientes() {
+    @DisplayName("Obtener una página de clientes con cursor a la siguiente")
+    void testObtenerPaginaDeClientes() {
         // Arrange
-        List<Cliente> clientes = Arrays.asList(cliente);
-        when(clienteRepository.findAll()).thenReturn(clientes);
+        when(clienteRepository.findPagina(0L, true, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(cliente), PageRequest.ofSize(1), true));
+        when(clienteRepository.findPagina(cliente.getId(), true, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.ofSize(1), false));
         when(clienteMapper.toDto(any(Cliente.class))).thenReturn(responseDto);
 
-        // Act - usar método obtenerTodos() en lugar de obtenerTodosLosClientes()
-        List<ClienteResponseDto> result = clienteService.obtenerTodos();
+        // Act
+        PaginaDto<ClienteResponseDto> result = clienteService.obtenerPagina(true, null, 1);
+        PaginaDto<ClienteResponseDto> siguiente = clienteService.obtenerPagina(true, result.getSiguienteCursor(), 1);
 
         // Assert - usar accesores de Record (sin get)
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Jose Lema", result.get(0).nombre());
+        assertEquals(1, result.getContenido().size());
+        assertEquals("Jose Lema", result.getContenido().get(0).nombre());
+        assertNotNull(result.getSiguienteCursor());
+        assertTrue(siguiente.getContenido().isEmpty());
+        assertNull(siguiente.getSiguienteCursor());
+        verify(clienteRepository, never()).findAll();
+    }
 
-        verify(clienteRepository, times(1)).findAll();
+    @Test
+    @DisplayName("Rechazar un cursor de paginación inválido")
+    void testCursorInvalido() {
+        assertThrows(CursorInvalidoException.class, () -> clienteService.obtenerPagina(null, "no-es-un-cursor", 10));
+        verifyNoInteractions(clienteRepository);
     }
 
     @Test
@@ -0,0 +1,11 @@
+package com.devsu.cuentasapp.application.dto;
+
+import java.util.List;
+
+/**
+ * Aviso entre instancias: los metadatos de estas cuentas cambiaron y deben salir de la caché.
+ */
+public record CuentaInvalidacionEventDto(
+        List<String> numerosCuenta
+) {
+}
@@ -1,12 +1,11 @@
 package com.devsu.cuentasapp.application.dto;
 
+import com.devsu.cuentasapp.domain.model.Dinero;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,10 +15,11 @@ public class CuentaResponseDto {
     private Long id;
     private String numeroCuenta;
     private String tipoCuenta;
-    private BigDecimal saldoInicial;
-    private BigDecimal saldoActual;
+    private Dinero saldoInicial;
+    private Dinero saldoActual;
     private Boolean estado;
     private String clienteId;
     private String clienteNombre;
+    private Boolean saldoFraccionado;
 }
 
@@ -1,11 +1,12 @@
 package com.devsu.cuentasapp.application.dto;
 
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -28,9 +29,20 @@ public class EstadoCuentaDto {
     public static class CuentaEstadoDto {
         private String numeroCuenta;
         private String tipoCuenta;
-        private BigDecimal saldoInicial;
-        private BigDecimal saldoActual;
+        private Dinero saldoInicial;
+        private Dinero saldoActual;
+        private Dinero saldoApertura;
+        private Dinero saldoCierre;
         private Boolean estado;
+        // Solo en el resumen (detalle=false)
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Dinero totalDepositos;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Dinero totalRetiros;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long cantidadMovimientos;
+        // Solo en el detalle
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         private List<MovimientoEstadoDto> movimientos;
     }
 
@@ -41,8 +53,8 @@ public class EstadoCuentaDto {
     public static class MovimientoEstadoDto {
         private LocalDate fecha;
         private String tipoMovimiento;
-        private BigDecimal valor;
-        private BigDecimal saldo;
+        private Dinero valor;
+        private Dinero saldo;
     }
 }
 
@@ -0,0 +1,34 @@
+package com.devsu.cuentasapp.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovimientoLoteResultadoDto {
+
+    private Integer indice; // Posición del movimiento en el lote recibido
+    private Boolean exitoso;
+    private MovimientoResponseDto movimiento;
+    private String error;
+
+    public static MovimientoLoteResultadoDto exitoso(int indice, MovimientoResponseDto movimiento) {
+        return MovimientoLoteResultadoDto.builder()
+                .indice(indice)
+                .exitoso(true)
+                .movimiento(movimiento)
+                .build();
+    }
+
+    public static MovimientoLoteResultadoDto fallido(int indice, String error) {
+        return MovimientoLoteResultadoDto.builder()
+                .indice(indice)
+                .exitoso(false)
+                .error(error)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.devsu.cuentasapp.application.dto;
 
+import com.devsu.cuentasapp.domain.model.Dinero;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -7,8 +8,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +21,6 @@ public class MovimientoRequestDto {
     private String tipoMovimiento; // DEPOSITO, RETIRO
 
     @NotNull(message = "El valor es obligatorio")
-    private BigDecimal valor;
+    private Dinero valor;
 }
 
@@ -1,11 +1,13 @@
 package com.devsu.cuentasapp.application.dto;
 
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -17,8 +19,17 @@ public class MovimientoResponseDto {
     private Long id;
     private LocalDateTime fecha;
     private String tipoMovimiento;
-    private BigDecimal valor;
-    private BigDecimal saldo;
+    private Dinero valor;
+    @Schema(description = "Saldo de la cuenta después del movimiento. Null en cuentas con saldo fraccionado " +
+            "hasta que la consolidación periódica lo deriva (movimientos.saldo-fraccionado.consolidacion-ms, 5 s por defecto)",
+            nullable = true)
+    private Dinero saldo;
     private String numeroCuenta;
+
+    // Usado por las consultas con constructor de MovimientoRepository
+    public MovimientoResponseDto(Long id, LocalDateTime fecha, TipoMovimiento tipoMovimiento, Dinero valor,
+                                 Dinero saldo, String numeroCuenta) {
+        this(id, fecha, tipoMovimiento.name(), valor, saldo, numeroCuenta);
+    }
 }
 
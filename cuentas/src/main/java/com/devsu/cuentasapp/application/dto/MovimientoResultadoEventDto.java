@@ -0,0 +1,18 @@
+package com.devsu.cuentasapp.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovimientoResultadoEventDto {
+
+    private String correlationId; // correlationId (o messageId) del mensaje recibido
+    private Boolean exitoso;
+    private MovimientoResponseDto movimiento;
+    private String error;
+}
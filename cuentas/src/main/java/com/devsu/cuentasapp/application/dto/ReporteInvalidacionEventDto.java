@@ -0,0 +1,11 @@
+package com.devsu.cuentasapp.application.dto;
+
+import java.util.List;
+
+/**
+ * Aviso entre instancias: los estados de cuenta en caché de estos clientes quedaron atrasados.
+ */
+public record ReporteInvalidacionEventDto(
+        List<String> clienteIds
+) {
+}
@@ -0,0 +1,31 @@
+package com.devsu.cuentasapp.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReporteJobDto {
+
+    private String id;
+    private Estado estado;
+    private String clienteId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private String formato;
+    private LocalDateTime creadoEn;
+    private LocalDateTime finalizadoEn;
+    private Long bytes;
+    private String error;
+
+    public enum Estado {
+        PENDIENTE, EN_PROCESO, COMPLETADO, FALLIDO
+    }
+}
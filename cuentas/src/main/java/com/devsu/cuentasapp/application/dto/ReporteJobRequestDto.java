@@ -0,0 +1,30 @@
+package com.devsu.cuentasapp.application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReporteJobRequestDto {
+
+    @NotBlank(message = "El cliente es obligatorio")
+    private String clienteId;
+
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    private LocalDate fechaInicio;
+
+    @NotNull(message = "La fecha de fin es obligatoria")
+    private LocalDate fechaFin;
+
+    @Pattern(regexp = "csv|json", message = "El formato debe ser csv o json")
+    private String formato; // csv (por defecto) o json
+}
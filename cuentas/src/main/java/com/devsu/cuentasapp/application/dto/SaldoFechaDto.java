@@ -0,0 +1,20 @@
+package com.devsu.cuentasapp.application.dto;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaldoFechaDto {
+
+    private String numeroCuenta;
+    private LocalDate fecha;
+    private Dinero saldo;
+}
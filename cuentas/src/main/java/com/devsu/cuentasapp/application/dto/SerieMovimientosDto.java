@@ -0,0 +1,48 @@
+package com.devsu.cuentasapp.application.dto;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SerieMovimientosDto {
+
+    private String clienteId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Dinero saldoApertura;
+    // Un punto por día con movimientos en alguna cuenta; el saldo de cierre suma todas las cuentas
+    private List<PuntoSerieDto> total;
+    private List<SerieCuentaDto> cuentas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SerieCuentaDto {
+        private String numeroCuenta;
+        private String tipoCuenta;
+        private Dinero saldoApertura;
+        private List<PuntoSerieDto> puntos;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PuntoSerieDto {
+        private LocalDate fecha;
+        private Long cantidadMovimientos;
+        private Dinero totalDepositos;
+        private Dinero totalRetiros;
+        private Dinero saldoCierre;
+    }
+}
@@ -0,0 +1,14 @@
+package com.devsu.cuentasapp.application.engine;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+
+/**
+ * Variación del saldo de una cuenta en un lote de la lane, junto con el saldo residente del que
+ * partió: se persiste solo si la base conserva ese saldo.
+ */
+public record AjusteSaldo(Dinero saldoEsperado, Dinero delta) {
+
+    AjusteSaldo acumular(AjusteSaldo siguiente) {
+        return new AjusteSaldo(saldoEsperado, delta.sumar(siguiente.delta()));
+    }
+}
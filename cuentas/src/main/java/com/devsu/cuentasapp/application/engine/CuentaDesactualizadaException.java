@@ -0,0 +1,12 @@
+package com.devsu.cuentasapp.application.engine;
+
+/**
+ * El saldo o el estado residente de una cuenta en la lane ya no coincide con la base de datos:
+ * otra ruta o instancia la modificó. El lote se revierte y la lane recarga la cuenta.
+ */
+class CuentaDesactualizadaException extends RuntimeException {
+
+    CuentaDesactualizadaException() {
+        super("La cuenta fue modificada durante el registro del movimiento, reintente");
+    }
+}
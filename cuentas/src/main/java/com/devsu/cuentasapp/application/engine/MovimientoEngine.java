@@ -0,0 +1,106 @@
+package com.devsu.cuentasapp.application.engine;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Motor de escritura de movimientos con un escritor único por cuenta.
+ * Cada movimiento se asigna por su número de cuenta a una de N lanes, de modo que
+ * cuentas distintas se procesan en paralelo y una misma cuenta nunca necesita bloqueo de fila.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "movimientos.engine.enabled", havingValue = "true")
+public class MovimientoEngine {
+
+    private static final long TIMEOUT_DETENCION_MS = 5_000;
+
+    private final MovimientoLane[] lanes;
+    private volatile boolean activo = true;
+
+    @Autowired
+    public MovimientoEngine(MovimientoEngineStore store,
+                            @Value("${movimientos.engine.lanes:0}") int numeroLanes,
+                            @Value("${movimientos.engine.batch-size:256}") int tamanoLote,
+                            @Value("${movimientos.engine.max-resident-accounts:10000}") int maxCuentasResidentes) {
+        int total = numeroLanes > 0 ? numeroLanes : Runtime.getRuntime().availableProcessors();
+        this.lanes = new MovimientoLane[total];
+        for (int i = 0; i < total; i++) {
+            lanes[i] = new MovimientoLane(i, store, tamanoLote, maxCuentasResidentes);
+            lanes[i].iniciar();
+        }
+        log.info("Motor de movimientos iniciado con {} lane(s)", total);
+    }
+
+    public CompletableFuture<MovimientoResponseDto> enviar(MovimientoRequestDto requestDto) {
+        CompletableFuture<MovimientoResponseDto> resultado = new CompletableFuture<>();
+        if (!activo) {
+            resultado.completeExceptionally(new IllegalStateException("El motor de movimientos está detenido"));
+            return resultado;
+        }
+        lanes[indiceLane(requestDto.getNumeroCuenta())].enviar(requestDto, resultado);
+        return resultado;
+    }
+
+    public MovimientoResponseDto registrar(MovimientoRequestDto requestDto) {
+        try {
+            return enviar(requestDto).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    public List<MovimientoLoteResultadoDto> registrarLote(List<MovimientoRequestDto> requests) {
+        // Se encolan todos antes de esperar, para que las lanes procesen el lote en paralelo
+        List<CompletableFuture<MovimientoResponseDto>> futuros = requests.stream()
+                .map(this::enviar)
+                .toList();
+
+        List<MovimientoLoteResultadoDto> resultados = new ArrayList<>(futuros.size());
+        for (int i = 0; i < futuros.size(); i++) {
+            try {
+                resultados.add(MovimientoLoteResultadoDto.exitoso(i, futuros.get(i).join()));
+            } catch (CompletionException e) {
+                resultados.add(MovimientoLoteResultadoDto.fallido(i, e.getCause().getMessage()));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Retira las cuentas de las lanes que las tienen residentes; el siguiente movimiento las recarga.
+     */
+    public void expulsar(Collection<String> numerosCuenta) {
+        numerosCuenta.forEach(numeroCuenta -> lanes[indiceLane(numeroCuenta)].expulsar(numeroCuenta));
+    }
+
+    int indiceLane(String numeroCuenta) {
+        int hash = numeroCuenta.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        for (MovimientoLane lane : lanes) {
+            lane.detener(TIMEOUT_DETENCION_MS);
+        }
+        log.info("Motor de movimientos detenido");
+    }
+}
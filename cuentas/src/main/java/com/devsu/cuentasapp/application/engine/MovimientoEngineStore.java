@@ -0,0 +1,112 @@
+package com.devsu.cuentasapp.application.engine;
+
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.mapper.MovimientoMapper;
+import com.devsu.cuentasapp.application.service.MovimientoDiarioService;
+import com.devsu.cuentasapp.application.service.ReporteCacheService;
+import com.devsu.cuentasapp.application.service.SaldoFraccionadoService;
+import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.journal.MovimientoJournal;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Acceso a base de datos del motor de movimientos: carga el saldo residente de una
+ * cuenta y persiste en una sola transacción los movimientos aplicados por una lane.
+ * Sin journal, un lote cuyas cuentas cambiaron fuera de la lane se revierte completo.
+ * Con el journal habilitado, los movimientos se confirman al ser durables en disco y
+ * el volcado a la base de datos ocurre en segundo plano.
+ */
+@Component
+@ConditionalOnProperty(name = "movimientos.engine.enabled", havingValue = "true")
+public class MovimientoEngineStore {
+
+    private final CuentaRepository cuentaRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final MovimientoMapper movimientoMapper;
+    private final SaldoFraccionadoService saldoFraccionadoService;
+    private final ReporteCacheService reporteCacheService;
+    private final MovimientoDiarioService movimientoDiarioService;
+    private final MovimientoJournal journal;
+
+    public MovimientoEngineStore(CuentaRepository cuentaRepository,
+                                 MovimientoRepository movimientoRepository,
+                                 MovimientoMapper movimientoMapper,
+                                 SaldoFraccionadoService saldoFraccionadoService,
+                                 ReporteCacheService reporteCacheService,
+                                 MovimientoDiarioService movimientoDiarioService,
+                                 ObjectProvider<MovimientoJournal> journalProvider) {
+        this.cuentaRepository = cuentaRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.movimientoMapper = movimientoMapper;
+        this.saldoFraccionadoService = saldoFraccionadoService;
+        this.reporteCacheService = reporteCacheService;
+        this.movimientoDiarioService = movimientoDiarioService;
+        this.journal = journalProvider.getIfAvailable();
+    }
+
+    public boolean journalActivo() {
+        return journal != null;
+    }
+
+    @Transactional
+    public Cuenta cargarCuenta(String numeroCuenta) {
+        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
+                .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", numeroCuenta));
+        if (SaldoFraccionadoService.esFraccionado(cuenta)) {
+            // La lane ya es la única escritora de la cuenta: el saldo fraccionado se consolida en la cuenta
+            cuenta = saldoFraccionadoService.desactivar(cuenta.getId());
+        }
+        if (journal != null) {
+            // Lo escrito en el journal que aún no se volcó también forma parte del saldo residente
+            cuenta.setSaldoActual(journal.saldoConfirmado(cuenta.getId()));
+        }
+        return cuenta;
+    }
+
+    @Transactional
+    public List<MovimientoResponseDto> persistir(List<Movimiento> movimientos, Map<Long, AjusteSaldo> ajustes) {
+        // Se suma la variación del lote condicionada al saldo residente del que partió: otras rutas,
+        // instancias o una actualización de la cuenta pueden haberla cambiado desde que la lane la cargó
+        ajustes.forEach((cuentaId, ajuste) -> {
+            if (cuentaRepository.incrementarSaldoDesde(cuentaId, ajuste.saldoEsperado(), ajuste.delta()) == 0) {
+                throw new CuentaDesactualizadaException();
+            }
+        });
+        reporteCacheService.invalidarClientes(movimientos.stream()
+                .map(movimiento -> movimiento.getCuenta().getClienteId())
+                .collect(Collectors.toSet()));
+
+        List<Movimiento> guardados = movimientoRepository.saveAll(movimientos);
+        movimientoDiarioService.acumular(guardados);
+        return guardados.stream()
+                .map(movimientoMapper::toDto)
+                .toList();
+    }
+
+    public List<MovimientoResponseDto> registrarEnJournal(List<Movimiento> movimientos, Map<Long, AjusteSaldo> ajustes) {
+        // Misma condición que persistir antes de confirmar en el journal: si otra ruta o instancia movió
+        // la cuenta, el saldo de la base más lo pendiente de volcar ya no es el residente y la lane la
+        // recarga. Lo que cambie entre esta verificación y el volcado lo resuelve MovimientoJournalStore
+        ajustes.forEach((cuentaId, ajuste) -> {
+            if (!journal.saldoConfirmado(cuentaId).equals(ajuste.saldoEsperado())) {
+                throw new CuentaDesactualizadaException();
+            }
+        });
+        // El id se asigna al volcar a la base de datos, por lo que la respuesta no lo incluye
+        journal.escribir(movimientos);
+        return movimientos.stream()
+                .map(movimientoMapper::toDto)
+                .toList();
+    }
+}
@@ -0,0 +1,195 @@
+package com.devsu.cuentasapp.application.engine;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hilo escritor único para un subconjunto de cuentas. Los productores encolan sin bloqueo
+ * y la lane aplica los movimientos en orden de llegada contra el saldo residente, para luego
+ * persistir cada lote en una sola transacción. Si la base ya no conserva el saldo residente
+ * (otra ruta o instancia movió la cuenta), el lote se reaplica sobre las cuentas recargadas.
+ */
+@Slf4j
+class MovimientoLane implements Runnable {
+
+    private static final long PAUSA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Intentos de un lote cuyas cuentas cambiaron fuera de la lane antes de rechazarlo
+    private static final int MAX_INTENTOS = 3;
+
+    private final MovimientoEngineStore store;
+    private final int tamanoLote;
+    private final int maxCuentasResidentes;
+    private final Queue<Solicitud> cola = new ConcurrentLinkedQueue<>();
+    private final Queue<String> expulsiones = new ConcurrentLinkedQueue<>();
+    private final Thread hilo;
+    private volatile boolean activa = true;
+
+    // Confinado al hilo de la lane: no requiere sincronización
+    private final LinkedHashMap<String, Cuenta> cuentas = new LinkedHashMap<>(16, 0.75f, true);
+
+    MovimientoLane(int indice, MovimientoEngineStore store, int tamanoLote, int maxCuentasResidentes) {
+        this.store = store;
+        this.tamanoLote = tamanoLote;
+        this.maxCuentasResidentes = maxCuentasResidentes;
+        this.hilo = new Thread(this, "movimiento-lane-" + indice);
+        this.hilo.setDaemon(true);
+    }
+
+    void iniciar() {
+        hilo.start();
+    }
+
+    void enviar(MovimientoRequestDto requestDto, CompletableFuture<MovimientoResponseDto> resultado) {
+        cola.offer(new Solicitud(requestDto, resultado));
+        LockSupport.unpark(hilo);
+    }
+
+    /**
+     * Retira la cuenta residente para que el siguiente movimiento la recargue de la base de datos,
+     * p. ej. tras una actualización de la cuenta.
+     */
+    void expulsar(String numeroCuenta) {
+        expulsiones.offer(numeroCuenta);
+        LockSupport.unpark(hilo);
+    }
+
+    void detener(long timeoutMillis) throws InterruptedException {
+        activa = false;
+        LockSupport.unpark(hilo);
+        hilo.join(timeoutMillis);
+
+        // Solicitudes que llegaron mientras la lane se detenía
+        Solicitud pendiente;
+        while ((pendiente = cola.poll()) != null) {
+            pendiente.resultado().completeExceptionally(
+                    new IllegalStateException("El motor de movimientos está detenido"));
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Solicitud> lote = new ArrayList<>(tamanoLote);
+        while (activa || !cola.isEmpty()) {
+            String expulsada;
+            while ((expulsada = expulsiones.poll()) != null) {
+                cuentas.remove(expulsada);
+            }
+            Solicitud solicitud;
+            while (lote.size() < tamanoLote && (solicitud = cola.poll()) != null) {
+                lote.add(solicitud);
+            }
+            if (lote.isEmpty()) {
+                LockSupport.parkNanos(this, PAUSA_NANOS);
+                continue;
+            }
+            procesar(lote);
+            lote.clear();
+        }
+    }
+
+    private void procesar(List<Solicitud> lote) {
+        List<Solicitud> pendientes = lote;
+        for (int intento = 1; !pendientes.isEmpty(); intento++) {
+            pendientes = aplicarYPersistir(pendientes, intento < MAX_INTENTOS);
+        }
+        liberarCuentasAntiguas();
+    }
+
+    // Devuelve las solicitudes a reintentar con las cuentas recargadas, o una lista vacía
+    private List<Solicitud> aplicarYPersistir(List<Solicitud> lote, boolean reintentar) {
+        List<Solicitud> aceptadas = new ArrayList<>(lote.size());
+        List<Movimiento> movimientos = new ArrayList<>(lote.size());
+        Map<Long, AjusteSaldo> ajustes = new LinkedHashMap<>();
+        Set<String> cuentasTocadas = new HashSet<>();
+
+        for (Solicitud solicitud : lote) {
+            try {
+                Movimiento movimiento = aplicar(solicitud.requestDto());
+                aceptadas.add(solicitud);
+                movimientos.add(movimiento);
+                ajustes.merge(movimiento.getCuenta().getId(),
+                        new AjusteSaldo(movimiento.getSaldo().restar(movimiento.getValor()), movimiento.getValor()),
+                        AjusteSaldo::acumular);
+                cuentasTocadas.add(movimiento.getCuenta().getNumeroCuenta());
+            } catch (RuntimeException e) {
+                solicitud.resultado().completeExceptionally(e);
+            }
+        }
+
+        if (aceptadas.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<MovimientoResponseDto> respuestas = store.journalActivo()
+                    ? store.registrarEnJournal(movimientos, ajustes)
+                    : store.persistir(movimientos, ajustes);
+            for (int i = 0; i < aceptadas.size(); i++) {
+                aceptadas.get(i).resultado().complete(respuestas.get(i));
+            }
+            return List.of();
+        } catch (RuntimeException e) {
+            // El saldo residente ya no coincide con la base de datos: se recarga en el siguiente uso
+            cuentasTocadas.forEach(cuentas::remove);
+            if (e instanceof CuentaDesactualizadaException && reintentar) {
+                log.debug("Cuentas modificadas fuera de la lane, se reaplican {} movimiento(s)", aceptadas.size());
+                return aceptadas;
+            }
+            log.error("Error al persistir lote de {} movimiento(s): {}", aceptadas.size(), e.getMessage(), e);
+            aceptadas.forEach(solicitud -> solicitud.resultado().completeExceptionally(e));
+            return List.of();
+        }
+    }
+
+    private Movimiento aplicar(MovimientoRequestDto requestDto) {
+        Cuenta cuenta = cuentas.get(requestDto.getNumeroCuenta());
+        if (cuenta == null) {
+            cuenta = store.cargarCuenta(requestDto.getNumeroCuenta());
+            cuentas.put(cuenta.getNumeroCuenta(), cuenta);
+        }
+
+        if (!cuenta.getEstado()) {
+            throw new IllegalStateException("La cuenta está inactiva");
+        }
+
+        TipoMovimiento tipoMovimiento = TipoMovimiento.desde(requestDto.getTipoMovimiento());
+        Dinero valorMovimiento = tipoMovimiento.aplicarSigno(requestDto.getValor());
+        Dinero nuevoSaldo = cuenta.getSaldoActual().sumar(valorMovimiento);
+
+        if (nuevoSaldo.esNegativo()) {
+            throw new SaldoInsuficienteException();
+        }
+
+        cuenta.setSaldoActual(nuevoSaldo);
+        return Movimiento.builder()
+                .fecha(LocalDateTime.now())
+                .tipoMovimiento(tipoMovimiento)
+                .valor(valorMovimiento)
+                .saldo(nuevoSaldo)
+                .cuenta(cuenta)
+                .build();
+    }
+
+    private void liberarCuentasAntiguas() {
+        Iterator<String> iterator = cuentas.keySet().iterator();
+        while (cuentas.size() > maxCuentasResidentes && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Solicitud(MovimientoRequestDto requestDto, CompletableFuture<MovimientoResponseDto> resultado) {
+    }
+}
@@ -3,6 +3,7 @@ package com.devsu.cuentasapp.application.mapper;
 import com.devsu.cuentasapp.application.dto.CuentaRequestDto;
 import com.devsu.cuentasapp.application.dto.CuentaResponseDto;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -12,8 +13,8 @@ public class CuentaMapper {
         return Cuenta.builder()
                 .numeroCuenta(dto.getNumeroCuenta())
                 .tipoCuenta(dto.getTipoCuenta().toUpperCase())
-                .saldoInicial(dto.getSaldoInicial())
-                .saldoActual(dto.getSaldoInicial())
+                .saldoInicial(Dinero.of(dto.getSaldoInicial()))
+                .saldoActual(Dinero.of(dto.getSaldoInicial()))
                 .estado(dto.getEstado() != null ? dto.getEstado() : true)
                 .clienteId(dto.getClienteId())
                 .build();
@@ -29,16 +30,13 @@ public class CuentaMapper {
                 .estado(entity.getEstado())
                 .clienteId(entity.getClienteId())
                 .clienteNombre(entity.getClienteNombre())
+                .saldoFraccionado(entity.getSaldoFraccionado())
                 .build();
     }
 
-    public void updateEntityFromDto(CuentaRequestDto dto, Cuenta entity) {
-        if (dto.getTipoCuenta() != null) {
-            entity.setTipoCuenta(dto.getTipoCuenta().toUpperCase());
-        }
-        if (dto.getEstado() != null) {
-            entity.setEstado(dto.getEstado());
-        }
+    // Tipo de cuenta normalizado para actualizarla, o null si la petición no lo cambia
+    public String tipoCuenta(CuentaRequestDto dto) {
+        return dto.getTipoCuenta() != null ? dto.getTipoCuenta().toUpperCase() : null;
     }
 }
 
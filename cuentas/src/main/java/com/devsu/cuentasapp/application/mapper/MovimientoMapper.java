@@ -11,7 +11,7 @@ public class MovimientoMapper {
         return MovimientoResponseDto.builder()
                 .id(entity.getId())
                 .fecha(entity.getFecha())
-                .tipoMovimiento(entity.getTipoMovimiento())
+                .tipoMovimiento(entity.getTipoMovimiento().name())
                 .valor(entity.getValor())
                 .saldo(entity.getSaldo())
                 .numeroCuenta(entity.getCuenta().getNumeroCuenta())
@@ -0,0 +1,46 @@
+package com.devsu.cuentasapp.application.pagination;
+
+import com.devsu.cuentasapp.domain.exception.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Token opaco de paginación por keyset: los valores de la clave de orden de la última fila
+ * entregada, separados por '|' y codificados en Base64 URL-safe.
+ */
+public final class Cursor {
+
+    private static final String SEPARADOR = "|";
+
+    private Cursor() {
+    }
+
+    public static String codificar(Object... valores) {
+        StringBuilder texto = new StringBuilder();
+        for (Object valor : valores) {
+            if (!texto.isEmpty()) {
+                texto.append(SEPARADOR);
+            }
+            texto.append(valor);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor con exactamente {@code partes} valores; lanza CursorInvalidoException si
+     * no proviene de {@link #codificar}.
+     */
+    public static String[] decodificar(String cursor, int partes) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] valores = texto.split("\\" + SEPARADOR, -1);
+            if (valores.length != partes) {
+                throw new CursorInvalidoException();
+            }
+            return valores;
+        } catch (IllegalArgumentException e) {
+            throw new CursorInvalidoException();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoEstado;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Archivado de movimientos antiguos. Cada ejecución escribe, cuenta por cuenta, los segmentos de los
+ * meses completos anteriores a {@code movimientos.archivo.horizonte} que aún no están archivados y
+ * luego avanza el límite archivadoHasta; desde ese momento los lectores toman esos meses del archivo.
+ * Las filas anteriores al límite se borran de la tabla por tramos de {@code movimientos.archivo.lote-borrado},
+ * cada uno en su propia transacción, recién cuando el límite lleva {@code movimientos.archivo.gracia}
+ * vigente: una lectura que empezó con el límite anterior todavía las encuentra.
+ * <p>
+ * Con varias instancias, solo la que tiene el bloqueo de movimientos_archivo_bloqueo archiva y purga;
+ * lo renueva por {@code movimientos.archivo.bloqueo} en cada tramo y aborta si otra lo tomó. Los
+ * segmentos que escribe deben quedar en un {@code movimientos.archivo.dir} compartido por todas.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "movimientos.archivo.enabled", havingValue = "true")
+public class ArchivoMovimientoService {
+
+    private static final int CUENTAS_POR_PAGINA = 500;
+
+    private final MovimientoRepository movimientoRepository;
+    private final CuentaRepository cuentaRepository;
+    private final ArchivoMovimientos archivoMovimientos;
+    private final TransactionTemplate transactionTemplate;
+    private final Period horizonte;
+    private final int loteBorrado;
+    private final Duration gracia;
+    private final Duration bloqueo;
+    private final String propietario = UUID.randomUUID().toString();
+
+    @Autowired
+    public ArchivoMovimientoService(MovimientoRepository movimientoRepository,
+                                    CuentaRepository cuentaRepository,
+                                    ArchivoMovimientos archivoMovimientos,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${movimientos.archivo.horizonte:P12M}") Period horizonte,
+                                    @Value("${movimientos.archivo.lote-borrado:1000}") int loteBorrado,
+                                    @Value("${movimientos.archivo.gracia:PT1M}") Duration gracia,
+                                    @Value("${movimientos.archivo.bloqueo:PT10M}") Duration bloqueo) {
+        this.movimientoRepository = movimientoRepository;
+        this.cuentaRepository = cuentaRepository;
+        this.archivoMovimientos = archivoMovimientos;
+        this.transactionTemplate = transactionTemplate;
+        this.horizonte = horizonte;
+        this.loteBorrado = loteBorrado;
+        this.gracia = gracia;
+        this.bloqueo = bloqueo;
+    }
+
+    @Scheduled(initialDelayString = "${movimientos.archivo.intervalo-ms:3600000}",
+            fixedDelayString = "${movimientos.archivo.intervalo-ms:3600000}")
+    public void ejecutar() {
+        try {
+            purgar();
+            archivar();
+        } catch (RuntimeException | IOException e) {
+            log.error("Error en el archivado de movimientos: {}", e.getMessage(), e);
+        } finally {
+            archivoMovimientos.liberarBloqueo(propietario);
+        }
+    }
+
+    /**
+     * Archiva los meses entre el límite actual y el primer día del mes del horizonte, y avanza el
+     * límite. Si falla a mitad de camino el límite no cambia y la próxima ejecución reescribe los
+     * segmentos. Retorna la cantidad de segmentos escritos.
+     */
+    public int archivar() throws IOException {
+        if (!archivoMovimientos.tomarBloqueo(propietario, bloqueo)) {
+            log.debug("Otra instancia tiene el bloqueo del archivado de movimientos");
+            return 0;
+        }
+        LocalDateTime corte = LocalDate.now().minus(horizonte).withDayOfMonth(1).atStartOfDay();
+        LocalDateTime desde = archivoMovimientos.archivadoHasta().orElse(null);
+        if (desde != null && !corte.isAfter(desde)) {
+            log.debug("Archivo de movimientos al día hasta {}", desde);
+            return 0;
+        }
+        log.info("Archivando movimientos desde {} hasta {}", desde, corte);
+
+        int segmentos = 0;
+        Long idDesde = 0L;
+        List<Long> ids;
+        do {
+            renovarBloqueo();
+            ids = cuentaRepository.findIdsDesde(idDesde, Limit.of(CUENTAS_POR_PAGINA));
+            for (Long cuentaId : ids) {
+                try {
+                    segmentos += transactionTemplate.execute(status -> archivarCuenta(cuentaId, desde, corte));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            if (!ids.isEmpty()) {
+                idDesde = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == CUENTAS_POR_PAGINA);
+
+        renovarBloqueo();
+        archivoMovimientos.avanzar(corte);
+        log.info("Movimientos archivados hasta {}: {} segmento(s)", corte, segmentos);
+        return segmentos;
+    }
+
+    /**
+     * Borra de la tabla los movimientos anteriores al límite, los más antiguos primero. Retorna la
+     * cantidad de filas borradas.
+     */
+    public long purgar() {
+        if (!archivoMovimientos.tomarBloqueo(propietario, bloqueo)) {
+            log.debug("Otra instancia tiene el bloqueo del archivado de movimientos");
+            return 0;
+        }
+        ArchivoEstado estado = archivoMovimientos.estado().orElse(null);
+        if (estado == null) {
+            return 0;
+        }
+        if (estado.getActualizadoEn().plus(gracia).isAfter(LocalDateTime.now())) {
+            log.debug("Límite de archivo {} aún en periodo de gracia", estado.getArchivadoHasta());
+            return 0;
+        }
+        long borrados = 0;
+        List<Long> ids;
+        do {
+            renovarBloqueo();
+            ids = movimientoRepository.findIdsAntesDe(estado.getArchivadoHasta(), Limit.of(loteBorrado));
+            if (!ids.isEmpty()) {
+                List<Long> tramo = ids;
+                borrados += transactionTemplate.execute(status -> movimientoRepository.eliminarPorIds(tramo));
+            }
+        } while (ids.size() == loteBorrado);
+        if (borrados > 0) {
+            log.info("Borrados {} movimiento(s) archivados anteriores a {}", borrados, estado.getArchivadoHasta());
+        }
+        return borrados;
+    }
+
+    // Si el plazo venció y otra instancia tomó el bloqueo, esta se detiene sin avanzar el límite
+    private void renovarBloqueo() {
+        if (!archivoMovimientos.tomarBloqueo(propietario, bloqueo)) {
+            throw new IllegalStateException("Se perdió el bloqueo del archivado de movimientos");
+        }
+    }
+
+    private int archivarCuenta(Long cuentaId, LocalDateTime desde, LocalDateTime hasta) {
+        int segmentos = 0;
+        YearMonth mes = null;
+        List<MovimientoArchivado> delMes = new ArrayList<>();
+        try (Stream<MovimientoArchivado> movimientos = movimientoRepository.streamParaArchivo(cuentaId, desde, hasta)) {
+            Iterator<MovimientoArchivado> iterador = movimientos.iterator();
+            while (iterador.hasNext()) {
+                MovimientoArchivado movimiento = iterador.next();
+                if (movimiento.saldo() == null) {
+                    // Cuenta con saldo fraccionado aún sin consolidar: el archivo guarda el saldo de cada movimiento
+                    throw new IllegalStateException("El movimiento " + movimiento.id() + " aún no tiene su saldo derivado");
+                }
+                YearMonth mesMovimiento = YearMonth.from(movimiento.fecha());
+                if (!mesMovimiento.equals(mes)) {
+                    if (!delMes.isEmpty()) {
+                        archivoMovimientos.escribir(cuentaId, mes, delMes);
+                        segmentos++;
+                        delMes.clear();
+                    }
+                    mes = mesMovimiento;
+                }
+                delMes.add(movimiento);
+            }
+            if (!delMes.isEmpty()) {
+                archivoMovimientos.escribir(cuentaId, mes, delMes);
+                segmentos++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segmentos;
+    }
+}
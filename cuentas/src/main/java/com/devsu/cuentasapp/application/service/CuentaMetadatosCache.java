@@ -0,0 +1,118 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.domain.model.CuentaMetadatos;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.infrastructure.messaging.CuentaInvalidacionPublisher;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché cercana de metadatos de cuenta (id, estado, cliente y tipo) por número de cuenta para la
+ * ruta de escritura de movimientos, acotada a {@code cuentas.metadatos.cache.maximo} cuentas. Las
+ * modificaciones de cuentas la invalidan al confirmarse, en esta instancia y, con un aviso por el
+ * exchange de RabbitMQ, en las demás; {@code cuentas.metadatos.cache.ttl} acota cuánto dura una
+ * entrada atrasada si un aviso se pierde.
+ */
+@Service
+@Slf4j
+public class CuentaMetadatosCache {
+
+    static final String NOMBRE_METRICAS = "cuentas.metadatos";
+
+    private final CuentaRepository cuentaRepository;
+    private final ObjectProvider<CuentaInvalidacionPublisher> publisher;
+    private final ObjectProvider<MovimientoEngine> movimientoEngine;
+    private final Cache<String, CuentaMetadatos> cache;
+    // Una carga que se cruza con una invalidación no deja su resultado en la caché
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    @Autowired
+    public CuentaMetadatosCache(CuentaRepository cuentaRepository,
+                                ObjectProvider<CuentaInvalidacionPublisher> publisher,
+                                ObjectProvider<MovimientoEngine> movimientoEngine,
+                                MeterRegistry meterRegistry,
+                                @Value("${cuentas.metadatos.cache.maximo:100000}") long maximo,
+                                @Value("${cuentas.metadatos.cache.ttl:PT10M}") Duration ttl) {
+        this.cuentaRepository = cuentaRepository;
+        this.publisher = publisher;
+        this.movimientoEngine = movimientoEngine;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_METRICAS);
+    }
+
+    public Optional<CuentaMetadatos> obtener(String numeroCuenta) {
+        CuentaMetadatos metadatos = cache.getIfPresent(numeroCuenta);
+        if (metadatos != null) {
+            return Optional.of(metadatos);
+        }
+        // Se carga fuera del mapeo de Caffeine, que bloquea con synchronized y anclaría el hilo
+        // virtual durante la consulta
+        long version = invalidaciones.get();
+        Optional<CuentaMetadatos> cargados = cuentaRepository.findMetadatosByNumeroCuenta(numeroCuenta);
+        cargados.ifPresent(cargado -> {
+            cache.put(numeroCuenta, cargado);
+            // Si una invalidación corrió durante la carga, pudo hacerlo antes del put
+            if (invalidaciones.get() != version) {
+                cache.asMap().remove(numeroCuenta, cargado);
+            }
+        });
+        return cargados;
+    }
+
+    /**
+     * Invalida las cuentas en todas las instancias al confirmarse la transacción en curso, o de
+     * inmediato si no hay una.
+     */
+    public void invalidar(Collection<String> numerosCuenta) {
+        List<String> pendientes = numerosCuenta.stream().filter(Objects::nonNull).distinct().toList();
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarEnTodas(pendientes);
+                }
+            });
+        } else {
+            invalidarEnTodas(pendientes);
+        }
+    }
+
+    /**
+     * Invalida solo en esta instancia: avisos de otras instancias y entradas que resultaron atrasadas.
+     * Con el motor de movimientos habilitado, las lanes también recargan esas cuentas.
+     */
+    public void invalidarLocal(Collection<String> numerosCuenta) {
+        invalidaciones.incrementAndGet();
+        cache.invalidateAll(numerosCuenta);
+        movimientoEngine.ifAvailable(engine -> engine.expulsar(numerosCuenta));
+    }
+
+    private void invalidarEnTodas(List<String> numerosCuenta) {
+        invalidarLocal(numerosCuenta);
+        publisher.ifAvailable(p -> p.publicar(numerosCuenta));
+    }
+}
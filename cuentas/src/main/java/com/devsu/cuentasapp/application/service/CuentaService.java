@@ -2,16 +2,28 @@ package com.devsu.cuentasapp.application.service;
 
 import com.devsu.cuentasapp.application.dto.CuentaRequestDto;
 import com.devsu.cuentasapp.application.dto.CuentaResponseDto;
+import com.devsu.cuentasapp.application.dto.PaginaDto;
+import com.devsu.cuentasapp.application.dto.SaldoFechaDto;
 import com.devsu.cuentasapp.application.mapper.CuentaMapper;
+import com.devsu.cuentasapp.application.pagination.Cursor;
 import com.devsu.cuentasapp.domain.exception.CuentaAlreadyExistsException;
 import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.CursorInvalidoException;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,7 +33,12 @@ import java.util.stream.Collectors;
 public class CuentaService {
 
     private final CuentaRepository cuentaRepository;
+    private final MovimientoRepository movimientoRepository;
     private final CuentaMapper cuentaMapper;
+    private final SaldoFraccionadoService saldoFraccionadoService;
+    private final ReporteCacheService reporteCacheService;
+    private final ArchivoMovimientos archivoMovimientos;
+    private final CuentaMetadatosCache cuentaMetadatosCache;
 
     @Transactional
     public CuentaResponseDto crearCuenta(CuentaRequestDto requestDto) {
@@ -34,17 +51,45 @@ public class CuentaService {
 
         Cuenta cuenta = cuentaMapper.toEntity(requestDto);
         Cuenta savedCuenta = cuentaRepository.save(cuenta);
+        reporteCacheService.invalidarCliente(savedCuenta.getClienteId());
 
         log.info("Cuenta creada exitosamente con id: {}", savedCuenta.getId());
         return cuentaMapper.toDto(savedCuenta);
     }
 
+    /**
+     * Cuentas en orden de id, en páginas de {@code tamano} a partir del cursor de la página anterior
+     * (null para la primera). Los filtros en null no se aplican.
+     */
     @Transactional(readOnly = true)
-    public List<CuentaResponseDto> obtenerTodasLasCuentas() {
-        log.info("Obteniendo todas las cuentas");
-        return cuentaRepository.findAll().stream()
-                .map(cuentaMapper::toDto)
-                .collect(Collectors.toList());
+    public PaginaDto<CuentaResponseDto> obtenerCuentas(Boolean estado, String tipoCuenta, String clienteId,
+                                                       String cursor, int tamano) {
+        log.info("Obteniendo página de cuentas (estado: {}, tipoCuenta: {}, clienteId: {}, tamaño: {})",
+                estado, tipoCuenta, clienteId, tamano);
+        Slice<Cuenta> cuentas = cuentaRepository.findPagina(idDesde(cursor), estado, tipoCuenta, clienteId,
+                PageRequest.ofSize(tamano));
+
+        String siguienteCursor = null;
+        if (cuentas.hasNext()) {
+            List<Cuenta> contenido = cuentas.getContent();
+            siguienteCursor = Cursor.codificar(contenido.get(contenido.size() - 1).getId());
+        }
+        return PaginaDto.<CuentaResponseDto>builder()
+                .contenido(cuentas.map(this::toDto).getContent())
+                .siguienteCursor(siguienteCursor)
+                .build();
+    }
+
+    // Los ids de la secuencia empiezan en 1: sin cursor la búsqueda parte de 0
+    private Long idDesde(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(Cursor.decodificar(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new CursorInvalidoException();
+        }
     }
 
     @Transactional(readOnly = true)
@@ -52,7 +97,7 @@ public class CuentaService {
         log.info("Obteniendo cuenta por id: {}", id);
         Cuenta cuenta = cuentaRepository.findById(id)
                 .orElseThrow(() -> new CuentaNotFoundException(id));
-        return cuentaMapper.toDto(cuenta);
+        return toDto(cuenta);
     }
 
     @Transactional(readOnly = true)
@@ -60,14 +105,35 @@ public class CuentaService {
         log.info("Obteniendo cuenta por número: {}", numeroCuenta);
         Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
                 .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", numeroCuenta));
-        return cuentaMapper.toDto(cuenta);
+        return toDto(cuenta);
+    }
+
+    /**
+     * Saldo de la cuenta al cierre del día {@code fecha}: el saldo registrado en su último movimiento
+     * hasta ese día, o el saldo inicial si no tenía movimientos.
+     */
+    @Transactional(readOnly = true)
+    public SaldoFechaDto obtenerSaldoEnFecha(String numeroCuenta, LocalDate fecha) {
+        log.info("Obteniendo saldo de la cuenta {} al {}", numeroCuenta, fecha);
+        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
+                .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", numeroCuenta));
+        LocalDateTime hasta = fecha.plusDays(1).atStartOfDay();
+        // Si la tabla no tiene movimientos anteriores, el último puede estar en el archivo histórico
+        Dinero saldo = movimientoRepository.findSaldoAntesDe(cuenta.getId(), hasta, Limit.of(1))
+                .or(() -> archivoMovimientos.saldoAntesDe(cuenta.getId(), hasta))
+                .orElse(cuenta.getSaldoInicial());
+        return SaldoFechaDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .fecha(fecha)
+                .saldo(saldo)
+                .build();
     }
 
     @Transactional(readOnly = true)
     public List<CuentaResponseDto> obtenerCuentasPorCliente(String clienteId) {
         log.info("Obteniendo cuentas por clienteId: {}", clienteId);
         return cuentaRepository.findByClienteId(clienteId).stream()
-                .map(cuentaMapper::toDto)
+                .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -75,14 +141,38 @@ public class CuentaService {
     public CuentaResponseDto actualizarCuenta(Long id, CuentaRequestDto requestDto) {
         log.info("Actualizando cuenta con id: {}", id);
 
-        Cuenta cuenta = cuentaRepository.findById(id)
+        // UPDATE de las columnas editables en lugar de save() de la entidad: el saldo no se reescribe
+        // con el valor leído y los movimientos concurrentes no se pierden
+        if (cuentaRepository.actualizarDatos(id, cuentaMapper.tipoCuenta(requestDto), requestDto.getEstado()) == 0) {
+            throw new CuentaNotFoundException(id);
+        }
+        Cuenta updatedCuenta = cuentaRepository.findById(id)
                 .orElseThrow(() -> new CuentaNotFoundException(id));
-
-        cuentaMapper.updateEntityFromDto(requestDto, cuenta);
-        Cuenta updatedCuenta = cuentaRepository.save(cuenta);
+        reporteCacheService.invalidarCliente(updatedCuenta.getClienteId());
+        cuentaMetadatosCache.invalidar(List.of(updatedCuenta.getNumeroCuenta()));
 
         log.info("Cuenta actualizada exitosamente con id: {}", id);
-        return cuentaMapper.toDto(updatedCuenta);
+        return toDto(updatedCuenta);
+    }
+
+    @Transactional
+    public CuentaResponseDto activarSaldoFraccionado(Long id) {
+        log.info("Activando saldo fraccionado para la cuenta con id: {}", id);
+        return toDto(saldoFraccionadoService.activar(id));
     }
-}
 
+    @Transactional
+    public CuentaResponseDto desactivarSaldoFraccionado(Long id) {
+        log.info("Desactivando saldo fraccionado para la cuenta con id: {}", id);
+        return toDto(saldoFraccionadoService.desactivar(id));
+    }
+
+    // En cuentas con saldo fraccionado, saldoActual es la suma de las fracciones
+    private CuentaResponseDto toDto(Cuenta cuenta) {
+        CuentaResponseDto dto = cuentaMapper.toDto(cuenta);
+        if (SaldoFraccionadoService.esFraccionado(cuenta)) {
+            dto.setSaldoActual(saldoFraccionadoService.saldoVigente(cuenta));
+        }
+        return dto;
+    }
+}
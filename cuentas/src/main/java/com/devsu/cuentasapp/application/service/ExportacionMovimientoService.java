@@ -0,0 +1,69 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de movimientos en NDJSON (un objeto JSON por línea) para conciliación. Las filas
+ * se leen con un cursor JDBC, ya proyectadas al DTO, y se escriben una a una con el generador de Jackson, sin armar la
+ * lista completa: la memoria usada no depende del tamaño del resultado.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportacionMovimientoService {
+
+    private static final int FILAS_POR_FLUSH = 500;
+
+    private final MovimientoRepository movimientoRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Escribe en {@code salida} los movimientos que cumplen los filtros (null = sin filtro), en orden
+     * de fecha. El rango de fechas incluye ambos extremos. Devuelve el número de movimientos escritos.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(String numeroCuenta, String clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                         OutputStream salida) throws IOException {
+        log.info("Exportando movimientos (numeroCuenta: {}, clienteId: {}, desde: {}, hasta: {})",
+                numeroCuenta, clienteId, fechaInicio, fechaFin);
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.plusDays(1).atStartOfDay() : null;
+
+        // Sin flush por valor: el generador vacía su buffer cada FILAS_POR_FLUSH filas
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long filas = 0;
+        try (Stream<MovimientoResponseDto> movimientos = movimientoRepository.streamResponsesParaExportacion(
+                     numeroCuenta, clienteId, desde, hasta);
+             JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada línea termina en '\n'; sin el separador por defecto entre valores raíz (un espacio)
+            generador.setRootValueSeparator(null);
+            Iterator<MovimientoResponseDto> iterador = movimientos.iterator();
+            while (iterador.hasNext()) {
+                writer.writeValue(generador, iterador.next());
+                generador.writeRaw('\n');
+                if (++filas % FILAS_POR_FLUSH == 0) {
+                    generador.flush();
+                }
+            }
+        }
+        log.info("Exportación terminada: {} movimiento(s)", filas);
+        return filas;
+    }
+}
@@ -0,0 +1,241 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.domain.exception.IdempotenciaConflictoException;
+import com.devsu.cuentasapp.domain.model.IdempotenciaMovimiento;
+import com.devsu.cuentasapp.domain.repository.IdempotenciaMovimientoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Registro idempotente de movimientos por clave (header Idempotency-Key).
+ * La respuesta original se guarda en base de datos con un TTL y en una caché LRU acotada;
+ * las repeticiones la devuelven sin tocar las cuentas, y las peticiones concurrentes con
+ * la misma clave en esta instancia esperan a una única ejecución.
+ * <p>
+ * La reserva de una ejecución en curso es un arriendo de esta instancia: vence a los {@code bloqueo}
+ * y la instancia lo renueva mientras el movimiento se ejecuta, así que otra instancia solo puede
+ * tomar la clave si la dueña dejó de renovarla (se cayó o quedó detenida más que el plazo).
+ */
+@Service
+@Slf4j
+public class IdempotenciaMovimientoService {
+
+    private final IdempotenciaMovimientoRepository idempotenciaRepository;
+    private final ObjectProvider<MovimientoEngine> movimientoEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration bloqueo;
+    private final Map<String, EntradaCache> cache;
+    private final Map<String, EjecucionEnCurso> enCurso = new ConcurrentHashMap<>();
+    private final String propietario = UUID.randomUUID().toString();
+
+    @Autowired
+    public IdempotenciaMovimientoService(IdempotenciaMovimientoRepository idempotenciaRepository,
+                                         ObjectProvider<MovimientoEngine> movimientoEngine,
+                                         TransactionTemplate transactionTemplate,
+                                         ObjectMapper objectMapper,
+                                         @Value("${movimientos.idempotencia.ttl:PT24H}") Duration ttl,
+                                         @Value("${movimientos.idempotencia.bloqueo:PT30S}") Duration bloqueo,
+                                         @Value("${movimientos.idempotencia.cache-size:10000}") int tamanoCache) {
+        this.idempotenciaRepository = idempotenciaRepository;
+        this.movimientoEngine = movimientoEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.bloqueo = bloqueo;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, EntradaCache> eldest) {
+                return size() > tamanoCache;
+            }
+        });
+    }
+
+    public MovimientoResponseDto registrar(String clave, MovimientoRequestDto requestDto,
+                                           Supplier<MovimientoResponseDto> registro) {
+        String huella = calcularHuella(requestDto);
+
+        EntradaCache entrada = cache.get(clave);
+        if (entrada != null && entrada.expiraEn().isAfter(LocalDateTime.now())) {
+            verificarHuella(entrada.huella(), huella, clave);
+            log.debug("Respuesta idempotente desde caché para la clave {}", clave);
+            return entrada.respuesta();
+        }
+
+        EjecucionEnCurso propia = new EjecucionEnCurso(huella, new CompletableFuture<>());
+        EjecucionEnCurso existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            verificarHuella(existente.huella(), huella, clave);
+            return esperar(existente.resultado());
+        }
+
+        try {
+            MovimientoResponseDto respuesta = resolver(clave, huella, registro);
+            propia.resultado().complete(respuesta);
+            return respuesta;
+        } catch (RuntimeException e) {
+            propia.resultado().completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    // Renueva las reservas de las ejecuciones en curso en esta instancia, con margen dentro de su plazo
+    @Scheduled(fixedDelayString = "${movimientos.idempotencia.renovacion-ms:10000}")
+    public void renovarReservas() {
+        List<String> claves = List.copyOf(enCurso.keySet());
+        if (!claves.isEmpty()) {
+            idempotenciaRepository.renovar(claves, propietario, LocalDateTime.now().plus(bloqueo));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${movimientos.idempotencia.purga-ms:600000}")
+    public void purgarExpiradas() {
+        int eliminadas = idempotenciaRepository.eliminarExpiradas(LocalDateTime.now());
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia expiradas eliminadas: {}", eliminadas);
+        }
+    }
+
+    private MovimientoResponseDto resolver(String clave, String huella, Supplier<MovimientoResponseDto> registro) {
+        LocalDateTime ahora = LocalDateTime.now();
+        // Solo vence una reserva que su dueña dejó de renovar, o una de resultado desconocido pasado el TTL
+        idempotenciaRepository.eliminarSiExpirada(clave, ahora);
+        try {
+            idempotenciaRepository.reservarComo(clave, huella, propietario, ahora.plus(bloqueo));
+        } catch (DataIntegrityViolationException e) {
+            // La clave ya existe: respuesta guardada o ejecución en curso en otra instancia
+            return respuestaExistente(clave, huella);
+        }
+
+        // Con el motor de movimientos (y el journal) la lane confirma el movimiento en su propia
+        // transacción; sin él, el movimiento y la respuesta guardada se confirman juntos
+        boolean transaccional = movimientoEngine.getIfAvailable() == null;
+        LocalDateTime expiraEn = ahora.plus(ttl);
+        AtomicBoolean registrado = new AtomicBoolean();
+        MovimientoResponseDto respuesta;
+        try {
+            respuesta = transactionTemplate.execute(status -> {
+                MovimientoResponseDto resultado = registro.get();
+                registrado.set(true);
+                if (idempotenciaRepository.completarComo(clave, propietario, serializar(resultado), expiraEn) == 0) {
+                    // La reserva venció sin renovarse y otra instancia tomó la clave: en la ruta
+                    // transaccional la excepción revierte también el movimiento
+                    throw new IdempotenciaConflictoException("La clave de idempotencia " + clave + " está siendo procesada");
+                }
+                return resultado;
+            });
+        } catch (RuntimeException e) {
+            if (!registrado.get() || transaccional) {
+                // Sin movimiento confirmado: la clave se libera para que el cliente pueda reintentar
+                idempotenciaRepository.liberar(clave, propietario);
+                throw e;
+            }
+            // El motor ya confirmó el movimiento pero la respuesta no se guardó: liberar la clave
+            // permitiría duplicarlo
+            log.warn("Movimiento con clave de idempotencia {} de resultado desconocido: {}", clave, e.getMessage());
+            idempotenciaRepository.marcarIncierta(clave, propietario, expiraEn);
+            throw new IdempotenciaConflictoException("La clave de idempotencia " + clave
+                    + " tiene un resultado desconocido; consulte los movimientos de la cuenta antes de reintentar");
+        }
+        cache.put(clave, new EntradaCache(huella, respuesta, expiraEn));
+        return respuesta;
+    }
+
+    private MovimientoResponseDto respuestaExistente(String clave, String huella) {
+        IdempotenciaMovimiento existente = idempotenciaRepository.findById(clave)
+                .orElseThrow(() -> new IdempotenciaConflictoException(
+                        "La clave de idempotencia " + clave + " está siendo procesada"));
+        verificarHuella(existente.getHuella(), huella, clave);
+        if (existente.getRespuesta() == null) {
+            // En proceso en otra instancia, o con resultado desconocido hasta que expire
+            throw new IdempotenciaConflictoException("La clave de idempotencia " + clave + " está siendo procesada");
+        }
+        MovimientoResponseDto respuesta = deserializar(existente.getRespuesta());
+        cache.put(clave, new EntradaCache(huella, respuesta, existente.getExpiraEn()));
+        log.debug("Respuesta idempotente desde base de datos para la clave {}", clave);
+        return respuesta;
+    }
+
+    private MovimientoResponseDto esperar(CompletableFuture<MovimientoResponseDto> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void verificarHuella(String esperada, String huella, String clave) {
+        if (!esperada.equals(huella)) {
+            throw new IdempotenciaConflictoException(
+                    "La clave de idempotencia " + clave + " ya se usó con un movimiento distinto");
+        }
+    }
+
+    static String calcularHuella(MovimientoRequestDto requestDto) {
+        String contenido = requestDto.getNumeroCuenta() + "|"
+                + requestDto.getTipoMovimiento().toUpperCase() + "|"
+                + requestDto.getValor().toBigDecimal().stripTrailingZeros().toPlainString();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(contenido.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serializar(MovimientoResponseDto respuesta) {
+        try {
+            return objectMapper.writeValueAsString(respuesta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta del movimiento", e);
+        }
+    }
+
+    private MovimientoResponseDto deserializar(String respuesta) {
+        try {
+            return objectMapper.readValue(respuesta, MovimientoResponseDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta idempotente almacenada", e);
+        }
+    }
+
+    private record EntradaCache(String huella, MovimientoResponseDto respuesta, LocalDateTime expiraEn) {
+    }
+
+    private record EjecucionEnCurso(String huella, CompletableFuture<MovimientoResponseDto> resultado) {
+    }
+}
@@ -0,0 +1,381 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.SerieMovimientosDto;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.MovimientoDiario;
+import com.devsu.cuentasapp.domain.model.SaldosPeriodo;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoDiarioRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Totales diarios de movimientos por cuenta (tabla movimientos_diarios) y series por día a partir
+ * de ellos. Cada ruta de escritura de movimientos los acumula en su misma transacción con un UPDATE
+ * sobre la fila del día; solo el primer movimiento del día inserta la fila. Las series leen una
+ * fila por cuenta y día en lugar de cada movimiento. La reconstrucción recalcula las filas de cada
+ * cuenta desde el archivo histórico y la tabla de movimientos, para los datos anteriores a esta tabla.
+ */
+@Service
+@Slf4j
+public class MovimientoDiarioService {
+
+    private static final int CUENTAS_POR_PAGINA = 500;
+
+    private final MovimientoDiarioRepository movimientoDiarioRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final CuentaRepository cuentaRepository;
+    private final SaldoFraccionadoService saldoFraccionadoService;
+    private final ArchivoMovimientos archivoMovimientos;
+    private final TransactionTemplate transactionTemplate;
+    private final int numeroFracciones;
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+    @Autowired
+    public MovimientoDiarioService(MovimientoDiarioRepository movimientoDiarioRepository,
+                                   MovimientoRepository movimientoRepository,
+                                   CuentaRepository cuentaRepository,
+                                   SaldoFraccionadoService saldoFraccionadoService,
+                                   ArchivoMovimientos archivoMovimientos,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${movimientos.saldo-fraccionado.fracciones:16}") int numeroFracciones) {
+        this.movimientoDiarioRepository = movimientoDiarioRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.cuentaRepository = cuentaRepository;
+        this.saldoFraccionadoService = saldoFraccionadoService;
+        this.archivoMovimientos = archivoMovimientos;
+        this.transactionTemplate = transactionTemplate;
+        this.numeroFracciones = numeroFracciones;
+    }
+
+    /**
+     * Acumula movimientos ya guardados (con id) en la fila de su cuenta y día.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acumular(Collection<Movimiento> movimientos) {
+        acumular(movimientos, 0);
+    }
+
+    /**
+     * Acumula el movimiento de una cuenta con saldo fraccionado en una de sus filas del día al azar:
+     * los movimientos concurrentes, que no comparten el bloqueo de la cuenta, tampoco esperan por la
+     * misma fila de totales.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acumularFraccionado(Movimiento movimiento) {
+        acumular(List.of(movimiento), ThreadLocalRandom.current().nextInt(numeroFracciones));
+    }
+
+    private void acumular(Collection<Movimiento> movimientos, int slot) {
+        // Un UPDATE por cuenta y día, en orden de clave para que dos lotes no se bloqueen en cruz
+        Map<ClaveDia, Acumulado> porDia = new TreeMap<>();
+        for (Movimiento movimiento : movimientos) {
+            porDia.computeIfAbsent(new ClaveDia(movimiento.getCuenta().getId(), movimiento.getFecha().toLocalDate()),
+                            clave -> new Acumulado())
+                    .sumar(movimiento.getId(), movimiento.getFecha(), movimiento.getValor(), movimiento.getSaldo());
+        }
+        porDia.forEach((clave, acumulado) -> {
+            if (actualizar(clave, slot, acumulado) == 0) {
+                // Primer movimiento del día en esta fila: se crea en cero y se acumula como cualquier otro
+                movimientoDiarioRepository.insertar(clave.cuentaId(), clave.fecha(), slot, 0,
+                        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, clave.fecha().atStartOfDay(), 0L);
+                actualizar(clave, slot, acumulado);
+            }
+        });
+    }
+
+    private int actualizar(ClaveDia clave, int slot, Acumulado acumulado) {
+        if (acumulado.saldo == null) {
+            // El último movimiento del día aún no tiene su saldo derivado
+            return movimientoDiarioRepository.acumularSinSaldo(clave.cuentaId(), clave.fecha(), slot,
+                    acumulado.cantidad, Dinero.deCentavos(acumulado.depositos), Dinero.deCentavos(acumulado.retiros),
+                    acumulado.ultimaFecha, acumulado.ultimoId);
+        }
+        return movimientoDiarioRepository.acumular(clave.cuentaId(), clave.fecha(), slot, acumulado.cantidad,
+                Dinero.deCentavos(acumulado.depositos), Dinero.deCentavos(acumulado.retiros),
+                acumulado.saldo, acumulado.ultimaFecha, acumulado.ultimoId);
+    }
+
+    /**
+     * Serie diaria de las cuentas del cliente en el rango: por cuenta, un punto por día con
+     * movimientos; en total, un punto por día con movimientos en alguna cuenta y el saldo de cierre
+     * de todas las cuentas al final de ese día.
+     */
+    @Transactional(readOnly = true)
+    public SerieMovimientosDto obtenerSerie(String clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        log.info("Generando serie diaria para cliente: {} desde {} hasta {}", clienteId, fechaInicio, fechaFin);
+
+        List<Cuenta> cuentas = cuentaRepository.findByClienteId(clienteId);
+        Map<Long, Dinero> aperturas = new HashMap<>();
+        for (SaldosPeriodo saldos : movimientoRepository.findSaldosPeriodoByClienteId(
+                clienteId, fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay())) {
+            if (saldos.saldoApertura() != null) {
+                aperturas.put(saldos.cuentaId(), saldos.saldoApertura());
+            }
+        }
+
+        // Las filas llegan por fecha; las de varias fracciones de una cuenta se combinan en un punto
+        Map<Long, TreeMap<LocalDate, PuntoDia>> puntosPorCuenta = new HashMap<>();
+        for (MovimientoDiario fila : movimientoDiarioRepository.findByClienteIdAndFechaBetween(
+                clienteId, fechaInicio, fechaFin)) {
+            puntosPorCuenta.computeIfAbsent(fila.getCuentaId(), id -> new TreeMap<>())
+                    .computeIfAbsent(fila.getFecha(), fecha -> new PuntoDia())
+                    .sumar(fila);
+        }
+
+        List<SerieMovimientosDto.SerieCuentaDto> series = new ArrayList<>(cuentas.size());
+        Map<Long, Dinero> saldosVigentes = new HashMap<>();
+        TreeSet<LocalDate> dias = new TreeSet<>();
+        long aperturaTotal = 0;
+        for (Cuenta cuenta : cuentas) {
+            Dinero apertura = aperturas.containsKey(cuenta.getId())
+                    ? aperturas.get(cuenta.getId())
+                    : archivoMovimientos.saldoAntesDe(cuenta.getId(), fechaInicio.atStartOfDay())
+                            .orElse(cuenta.getSaldoInicial());
+            aperturaTotal = Math.addExact(aperturaTotal, apertura.centavos());
+            saldosVigentes.put(cuenta.getId(), apertura);
+            TreeMap<LocalDate, PuntoDia> puntos = puntosPorCuenta.getOrDefault(cuenta.getId(), new TreeMap<>());
+            dias.addAll(puntos.keySet());
+            series.add(SerieMovimientosDto.SerieCuentaDto.builder()
+                    .numeroCuenta(cuenta.getNumeroCuenta())
+                    .tipoCuenta(cuenta.getTipoCuenta())
+                    .saldoApertura(apertura)
+                    .puntos(puntos.entrySet().stream()
+                            .map(entrada -> entrada.getValue().toDto(entrada.getKey()))
+                            .toList())
+                    .build());
+        }
+
+        // El saldo total de cada día toma el último cierre conocido de cada cuenta
+        List<SerieMovimientosDto.PuntoSerieDto> total = new ArrayList<>(dias.size());
+        for (LocalDate dia : dias) {
+            PuntoDia puntoTotal = new PuntoDia();
+            for (Cuenta cuenta : cuentas) {
+                PuntoDia punto = puntosPorCuenta.getOrDefault(cuenta.getId(), new TreeMap<>()).get(dia);
+                if (punto != null) {
+                    puntoTotal.cantidad += punto.cantidad;
+                    puntoTotal.depositos = Math.addExact(puntoTotal.depositos, punto.depositos);
+                    puntoTotal.retiros = Math.addExact(puntoTotal.retiros, punto.retiros);
+                    saldosVigentes.put(cuenta.getId(), punto.saldoCierre);
+                }
+            }
+            long saldoTotal = 0;
+            for (Dinero saldo : saldosVigentes.values()) {
+                saldoTotal = Math.addExact(saldoTotal, saldo.centavos());
+            }
+            puntoTotal.saldoCierre = Dinero.deCentavos(saldoTotal);
+            total.add(puntoTotal.toDto(dia));
+        }
+
+        return SerieMovimientosDto.builder()
+                .clienteId(clienteId)
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .saldoApertura(Dinero.deCentavos(aperturaTotal))
+                .total(total)
+                .cuentas(series)
+                .build();
+    }
+
+    /**
+     * Inicia en segundo plano la reconstrucción de los totales diarios de todas las cuentas.
+     * Retorna false si ya hay una en curso.
+     */
+    public boolean iniciarReconstruccion() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            log.info("Reconstrucción de totales diarios ya en curso");
+            return false;
+        }
+        Thread.ofVirtual().name("reconstruccion-movimientos-diarios").start(() -> {
+            try {
+                reconstruir();
+            } finally {
+                reconstruyendo.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Recalcula los totales diarios cuenta por cuenta, cada una en su propia transacción.
+     */
+    public void reconstruir() {
+        log.info("Reconstruyendo totales diarios de movimientos");
+        long cuentas = 0;
+        long dias = 0;
+        Long idDesde = 0L;
+        List<Long> ids;
+        do {
+            ids = cuentaRepository.findIdsDesde(idDesde, Limit.of(CUENTAS_POR_PAGINA));
+            for (Long cuentaId : ids) {
+                try {
+                    dias += transactionTemplate.execute(status -> reconstruirCuenta(cuentaId));
+                    cuentas++;
+                } catch (RuntimeException e) {
+                    log.error("Error al reconstruir los totales diarios de la cuenta {}: {}", cuentaId, e.getMessage(), e);
+                }
+            }
+            if (!ids.isEmpty()) {
+                idDesde = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == CUENTAS_POR_PAGINA);
+        log.info("Totales diarios reconstruidos: {} cuenta(s), {} día(s)", cuentas, dias);
+    }
+
+    int reconstruirCuenta(Long cuentaId) {
+        // Mismo orden de bloqueo que las rutas de escritura y la consolidación: primero la cuenta,
+        // luego sus fracciones. Ningún movimiento de la cuenta se registra mientras se recalcula y los
+        // de una cuenta con saldo fraccionado tienen todos su saldo derivado antes de agruparlos
+        Cuenta cuenta = cuentaRepository.findByIdForUpdate(cuentaId).orElse(null);
+        if (cuenta == null) {
+            return 0;
+        }
+        if (SaldoFraccionadoService.esFraccionado(cuenta)) {
+            saldoFraccionadoService.consolidarSaldos(cuenta);
+        }
+        movimientoDiarioRepository.eliminarPorCuenta(cuentaId);
+
+        // Lo archivado primero y luego la tabla desde el límite, ambos en orden (fecha, id)
+        LocalDateTime archivadoHasta = archivoMovimientos.archivadoHasta().orElse(null);
+        AgrupadorDias agrupador = new AgrupadorDias(cuentaId);
+        if (archivadoHasta != null) {
+            archivoMovimientos.recorrer(cuentaId, null, archivadoHasta, movimiento -> agrupador.agregar(
+                    movimiento.id(), movimiento.fecha(), movimiento.valor(), movimiento.saldo()));
+        }
+        LocalDateTime desde = archivadoHasta != null ? archivadoHasta : MovimientoRepository.FECHA_MINIMA;
+        try (Stream<MovimientoArchivado> movimientos = movimientoRepository.streamByCuentaIdDesde(cuentaId, desde)) {
+            Iterator<MovimientoArchivado> iterador = movimientos.iterator();
+            while (iterador.hasNext()) {
+                MovimientoArchivado movimiento = iterador.next();
+                agrupador.agregar(movimiento.id(), movimiento.fecha(), movimiento.valor(), movimiento.saldo());
+            }
+        }
+        return agrupador.cerrar();
+    }
+
+    private void insertar(Long cuentaId, LocalDate dia, Acumulado acumulado) {
+        movimientoDiarioRepository.insertar(cuentaId, dia, 0, acumulado.cantidad,
+                Dinero.deCentavos(acumulado.depositos).toBigDecimal(),
+                Dinero.deCentavos(acumulado.retiros).toBigDecimal(),
+                acumulado.saldo.toBigDecimal(), acumulado.ultimaFecha, acumulado.ultimoId);
+    }
+
+    // Acumula movimientos en orden de fecha e inserta la fila de cada día al pasar al siguiente
+    private final class AgrupadorDias {
+
+        private final Long cuentaId;
+        private LocalDate dia;
+        private Acumulado acumulado;
+        private int dias;
+
+        AgrupadorDias(Long cuentaId) {
+            this.cuentaId = cuentaId;
+        }
+
+        void agregar(Long id, LocalDateTime fecha, Dinero valor, Dinero saldo) {
+            LocalDate fechaDia = fecha.toLocalDate();
+            if (!fechaDia.equals(dia)) {
+                cerrar();
+                dia = fechaDia;
+                acumulado = new Acumulado();
+            }
+            acumulado.sumar(id, fecha, valor, saldo);
+        }
+
+        int cerrar() {
+            if (acumulado != null) {
+                insertar(cuentaId, dia, acumulado);
+                dias++;
+                acumulado = null;
+            }
+            return dias;
+        }
+    }
+
+    private record ClaveDia(Long cuentaId, LocalDate fecha) implements Comparable<ClaveDia> {
+
+        @Override
+        public int compareTo(ClaveDia otra) {
+            int porCuenta = cuentaId.compareTo(otra.cuentaId);
+            return porCuenta != 0 ? porCuenta : fecha.compareTo(otra.fecha);
+        }
+    }
+
+    // Totales de los movimientos de una cuenta en un día y el saldo del último en orden (fecha, id)
+    private static final class Acumulado {
+
+        private long cantidad;
+        private long depositos;
+        private long retiros;
+        private Dinero saldo;
+        private LocalDateTime ultimaFecha;
+        private Long ultimoId;
+
+        void sumar(Long id, LocalDateTime fecha, Dinero valor, Dinero saldoMovimiento) {
+            cantidad++;
+            if (valor.esNegativo()) {
+                retiros = Math.addExact(retiros, valor.centavos());
+            } else {
+                depositos = Math.addExact(depositos, valor.centavos());
+            }
+            int orden = ultimaFecha == null ? 1 : fecha.compareTo(ultimaFecha);
+            if (orden > 0 || (orden == 0 && id > ultimoId)) {
+                saldo = saldoMovimiento;
+                ultimaFecha = fecha;
+                ultimoId = id;
+            }
+        }
+    }
+
+    // Punto de la serie; combina las filas de las fracciones de una cuenta en el mismo día
+    private static final class PuntoDia {
+
+        private long cantidad;
+        private long depositos;
+        private long retiros;
+        private Dinero saldoCierre;
+        private LocalDateTime ultimaFecha;
+        private Long ultimoId;
+
+        void sumar(MovimientoDiario fila) {
+            cantidad += fila.getCantidad();
+            depositos = Math.addExact(depositos, fila.getDepositos().centavos());
+            retiros = Math.addExact(retiros, fila.getRetiros().centavos());
+            int orden = ultimaFecha == null ? 1 : fila.getUltimaFecha().compareTo(ultimaFecha);
+            if (orden > 0 || (orden == 0 && fila.getUltimoMovimientoId() > ultimoId)) {
+                saldoCierre = fila.getSaldoCierre();
+                ultimaFecha = fila.getUltimaFecha();
+                ultimoId = fila.getUltimoMovimientoId();
+            }
+        }
+
+        SerieMovimientosDto.PuntoSerieDto toDto(LocalDate fecha) {
+            return SerieMovimientosDto.PuntoSerieDto.builder()
+                    .fecha(fecha)
+                    .cantidadMovimientos(cantidad)
+                    .totalDepositos(Dinero.deCentavos(depositos))
+                    .totalRetiros(Dinero.deCentavos(retiros))
+                    .saldoCierre(saldoCierre)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.mapper.MovimientoMapper;
+import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.SaldoFraccion;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MovimientoLoteService {
+
+    private final CuentaRepository cuentaRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final MovimientoMapper movimientoMapper;
+    private final SaldoFraccionadoService saldoFraccionadoService;
+    private final ReporteCacheService reporteCacheService;
+    private final MovimientoDiarioService movimientoDiarioService;
+
+    @Transactional
+    public List<MovimientoLoteResultadoDto> registrarMovimientos(List<MovimientoRequestDto> requests) {
+        log.info("Registrando lote de {} movimiento(s)", requests.size());
+
+        // Cargar y bloquear todas las cuentas del lote en una sola consulta
+        Set<String> numerosCuenta = requests.stream()
+                .map(MovimientoRequestDto::getNumeroCuenta)
+                .collect(Collectors.toSet());
+        Map<String, Cuenta> cuentas = cuentaRepository.findByNumeroCuentaInForUpdate(numerosCuenta).stream()
+                .collect(Collectors.toMap(Cuenta::getNumeroCuenta, Function.identity()));
+        // Las cuentas con saldo fraccionado operan sobre la suma de sus fracciones, bloqueadas hasta el commit
+        Map<Long, List<SaldoFraccion>> fracciones = saldoFraccionadoService.bloquearFracciones(cuentas.values());
+
+        // Aplicar los movimientos en el orden recibido; un error solo afecta a su línea
+        MovimientoLoteResultadoDto[] resultados = new MovimientoLoteResultadoDto[requests.size()];
+        List<Movimiento> movimientos = new ArrayList<>(requests.size());
+        List<Integer> indices = new ArrayList<>(requests.size());
+        LocalDateTime fecha = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                movimientos.add(aplicar(requests.get(i), cuentas, fecha));
+                indices.add(i);
+            } catch (RuntimeException e) {
+                resultados[i] = MovimientoLoteResultadoDto.fallido(i, e.getMessage());
+            }
+        }
+
+        saldoFraccionadoService.repartirSaldos(cuentas.values(), fracciones);
+
+        // Los ids salen del bloque de la secuencia; los INSERT de movimientos y los UPDATE de cuentas
+        // se envían en batches JDBC al hacer flush (hibernate.jdbc.batch_size)
+        movimientoRepository.saveAll(movimientos);
+        movimientoDiarioService.acumular(movimientos);
+        reporteCacheService.invalidarClientes(movimientos.stream()
+                .map(movimiento -> movimiento.getCuenta().getClienteId())
+                .collect(Collectors.toSet()));
+
+        for (int k = 0; k < movimientos.size(); k++) {
+            int indice = indices.get(k);
+            resultados[indice] = MovimientoLoteResultadoDto.exitoso(indice, movimientoMapper.toDto(movimientos.get(k)));
+        }
+
+        log.info("Lote registrado: {} exitoso(s), {} fallido(s)",
+                movimientos.size(), requests.size() - movimientos.size());
+        return Arrays.asList(resultados);
+    }
+
+    private Movimiento aplicar(MovimientoRequestDto requestDto, Map<String, Cuenta> cuentas, LocalDateTime fecha) {
+        Cuenta cuenta = cuentas.get(requestDto.getNumeroCuenta());
+        if (cuenta == null) {
+            throw new CuentaNotFoundException("numeroCuenta", requestDto.getNumeroCuenta());
+        }
+        if (!cuenta.getEstado()) {
+            throw new IllegalStateException("La cuenta está inactiva");
+        }
+
+        TipoMovimiento tipoMovimiento = TipoMovimiento.desde(requestDto.getTipoMovimiento());
+        Dinero valorMovimiento = tipoMovimiento.aplicarSigno(requestDto.getValor());
+        Dinero nuevoSaldo = cuenta.getSaldoActual().sumar(valorMovimiento);
+
+        if (nuevoSaldo.esNegativo()) {
+            throw new SaldoInsuficienteException();
+        }
+
+        cuenta.setSaldoActual(nuevoSaldo);
+        return Movimiento.builder()
+                .fecha(fecha)
+                .tipoMovimiento(tipoMovimiento)
+                .valor(valorMovimiento)
+                // En cuentas con saldo fraccionado el saldo lo deriva la consolidación
+                .saldo(SaldoFraccionadoService.esFraccionado(cuenta) ? null : nuevoSaldo)
+                .cuenta(cuenta)
+                .build();
+    }
+}
@@ -0,0 +1,232 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.domain.model.IdempotenciaMovimiento;
+import com.devsu.cuentasapp.domain.repository.IdempotenciaMovimientoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registro idempotente de los lotes recibidos por RabbitMQ. Cada mensaje reclama su id en
+ * movimientos_idempotencia (prefijo {@value #PREFIJO}, sin cruzarse con las claves del header
+ * Idempotency-Key) junto con su resultado; una reentrega, p. ej. porque la publicación de resultados
+ * o el ack fallaron después del commit, recibe el resultado guardado en vez de registrar el
+ * movimiento otra vez. Los mensajes sin messageId ni correlationId no se pueden deduplicar.
+ */
+@Service
+@Slf4j
+public class MovimientoMensajeService {
+
+    static final String PREFIJO = "amqp:";
+
+    private final MovimientoLoteService movimientoLoteService;
+    private final ObjectProvider<MovimientoEngine> movimientoEngine;
+    private final IdempotenciaMovimientoRepository idempotenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    @Autowired
+    public MovimientoMensajeService(MovimientoLoteService movimientoLoteService,
+                                    ObjectProvider<MovimientoEngine> movimientoEngine,
+                                    IdempotenciaMovimientoRepository idempotenciaRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    @Value("${movimientos.idempotencia.ttl:PT24H}") Duration ttl) {
+        this.movimientoLoteService = movimientoLoteService;
+        this.movimientoEngine = movimientoEngine;
+        this.idempotenciaRepository = idempotenciaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Registra el lote y devuelve un resultado por request, con el índice de su posición.
+     * {@code mensajes} trae el id de cada mensaje, o null si no tiene.
+     */
+    public List<MovimientoLoteResultadoDto> registrar(List<MovimientoRequestDto> requests, List<String> mensajes) {
+        MovimientoEngine engine = movimientoEngine.getIfAvailable();
+        if (engine == null) {
+            // Las claves y el lote se confirman en la misma transacción: si el lote falla no queda
+            // ninguna y la reentrega lo ejecuta; si se confirmó, la reentrega encuentra sus resultados
+            return transactionTemplate.execute(status -> {
+                Lote lote = separar(requests, mensajes);
+                List<MovimientoLoteResultadoDto> resultados = lote.nuevos().isEmpty()
+                        ? List.of()
+                        : movimientoLoteService.registrarMovimientos(lote.nuevos());
+                LocalDateTime expiraEn = LocalDateTime.now().plus(ttl);
+                for (MovimientoLoteResultadoDto resultado : resultados) {
+                    String clave = lote.claves().get(resultado.getIndice());
+                    if (clave != null) {
+                        idempotenciaRepository.guardar(clave, lote.huellas().get(resultado.getIndice()),
+                                serializar(resultado), expiraEn);
+                    }
+                }
+                return lote.combinar(resultados);
+            });
+        }
+
+        // Las lanes del motor confirman en sus propias transacciones: las claves se reservan antes,
+        // sin respuesta, y una reentrega de un lote sin resultados guardados no se vuelve a ejecutar
+        LocalDateTime expiraEn = LocalDateTime.now().plus(ttl);
+        Lote lote = transactionTemplate.execute(status -> {
+            Lote separado = separar(requests, mensajes);
+            for (int k = 0; k < separado.nuevos().size(); k++) {
+                if (separado.claves().get(k) != null) {
+                    idempotenciaRepository.reservar(separado.claves().get(k), separado.huellas().get(k), expiraEn);
+                }
+            }
+            return separado;
+        });
+        List<MovimientoLoteResultadoDto> resultados = lote.nuevos().isEmpty()
+                ? List.of()
+                : engine.registrarLote(lote.nuevos());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (MovimientoLoteResultadoDto resultado : resultados) {
+                    String clave = lote.claves().get(resultado.getIndice());
+                    if (clave != null) {
+                        idempotenciaRepository.completar(clave, serializar(resultado), expiraEn);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Los resultados se publican igual; solo una reentrega los vería como desconocidos
+            log.warn("No se guardaron los resultados del lote de {} mensaje(s): {}", lote.nuevos().size(), e.getMessage());
+        }
+        return lote.combinar(resultados);
+    }
+
+    private Lote separar(List<MovimientoRequestDto> requests, List<String> mensajes) {
+        List<String> claves = mensajes.stream().map(id -> id != null ? PREFIJO + id : null).toList();
+        Map<String, IdempotenciaMovimiento> registradas = idempotenciaRepository
+                .findAllById(claves.stream().filter(Objects::nonNull).distinct().toList()).stream()
+                .collect(Collectors.toMap(IdempotenciaMovimiento::getClave, Function.identity()));
+
+        Lote lote = new Lote(requests.size());
+        Map<String, Integer> primeras = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String clave = claves.get(i);
+            String huella = IdempotenciaMovimientoService.calcularHuella(requests.get(i));
+            if (clave == null) {
+                lote.agregar(i, requests.get(i), null, huella);
+                continue;
+            }
+            IdempotenciaMovimiento registrada = registradas.get(clave);
+            if (registrada != null) {
+                lote.resultados()[i] = resultadoGuardado(i, mensajes.get(i), registrada, huella);
+                continue;
+            }
+            Integer primera = primeras.putIfAbsent(clave, i);
+            if (primera == null) {
+                lote.agregar(i, requests.get(i), clave, huella);
+            } else if (huella.equals(IdempotenciaMovimientoService.calcularHuella(requests.get(primera)))) {
+                // El mismo mensaje dos veces en el lote: comparte el resultado del primero
+                lote.repetidos()[i] = primera;
+            } else {
+                lote.resultados()[i] = distinto(i, mensajes.get(i));
+            }
+        }
+        return lote;
+    }
+
+    private MovimientoLoteResultadoDto resultadoGuardado(int indice, String mensaje,
+                                                         IdempotenciaMovimiento registrada, String huella) {
+        if (!registrada.getHuella().equals(huella)) {
+            return distinto(indice, mensaje);
+        }
+        if (registrada.getRespuesta() == null) {
+            // Reservada por el motor sin resultado guardado: el movimiento pudo haberse confirmado
+            return MovimientoLoteResultadoDto.fallido(indice, "El mensaje " + mensaje
+                    + " tiene un resultado desconocido; consulte los movimientos de la cuenta antes de reenviarlo");
+        }
+        log.debug("Mensaje de movimiento {} ya registrado, se devuelve el resultado guardado", mensaje);
+        MovimientoLoteResultadoDto resultado = deserializar(registrada.getRespuesta());
+        resultado.setIndice(indice);
+        return resultado;
+    }
+
+    private MovimientoLoteResultadoDto distinto(int indice, String mensaje) {
+        return MovimientoLoteResultadoDto.fallido(indice,
+                "El mensaje " + mensaje + " ya se registró con un movimiento distinto");
+    }
+
+    private String serializar(MovimientoLoteResultadoDto resultado) {
+        try {
+            return objectMapper.writeValueAsString(resultado);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el resultado del movimiento", e);
+        }
+    }
+
+    private MovimientoLoteResultadoDto deserializar(String resultado) {
+        try {
+            return objectMapper.readValue(resultado, MovimientoLoteResultadoDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer el resultado almacenado del mensaje", e);
+        }
+    }
+
+    /**
+     * Reparto del lote recibido: los requests que se ejecutan (con su clave y huella, en el orden de
+     * {@code nuevos}), los resultados ya conocidos y los repetidos dentro del mismo lote.
+     */
+    private record Lote(List<MovimientoRequestDto> nuevos, List<Integer> origenes, List<String> claves,
+                        List<String> huellas, MovimientoLoteResultadoDto[] resultados, int[] repetidos) {
+
+        Lote(int tamano) {
+            this(new ArrayList<>(tamano), new ArrayList<>(tamano), new ArrayList<>(tamano),
+                    new ArrayList<>(tamano), new MovimientoLoteResultadoDto[tamano], new int[tamano]);
+            Arrays.fill(repetidos, -1);
+        }
+
+        void agregar(int indice, MovimientoRequestDto request, String clave, String huella) {
+            nuevos.add(request);
+            origenes.add(indice);
+            claves.add(clave);
+            huellas.add(huella);
+        }
+
+        List<MovimientoLoteResultadoDto> combinar(List<MovimientoLoteResultadoDto> resultadosNuevos) {
+            for (MovimientoLoteResultadoDto resultado : resultadosNuevos) {
+                int indice = origenes.get(resultado.getIndice());
+                resultados[indice] = copia(resultado, indice);
+            }
+            for (int i = 0; i < repetidos.length; i++) {
+                if (repetidos[i] >= 0) {
+                    resultados[i] = copia(resultados[repetidos[i]], i);
+                }
+            }
+            return Arrays.asList(resultados);
+        }
+
+        private static MovimientoLoteResultadoDto copia(MovimientoLoteResultadoDto resultado, int indice) {
+            return MovimientoLoteResultadoDto.builder()
+                    .indice(indice)
+                    .exitoso(resultado.getExitoso())
+                    .movimiento(resultado.getMovimiento())
+                    .error(resultado.getError())
+                    .build();
+        }
+    }
+}
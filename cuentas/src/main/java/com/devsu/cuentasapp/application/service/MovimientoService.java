@@ -2,22 +2,33 @@ package com.devsu.cuentasapp.application.service;
 
 import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
 import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.dto.PaginaDto;
 import com.devsu.cuentasapp.application.mapper.MovimientoMapper;
+import com.devsu.cuentasapp.application.pagination.Cursor;
 import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.CursorInvalidoException;
 import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.CuentaMetadatos;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.SaldoCuenta;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
 import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -27,95 +38,197 @@ public class MovimientoService {
     private final MovimientoRepository movimientoRepository;
     private final CuentaRepository cuentaRepository;
     private final MovimientoMapper movimientoMapper;
+    private final SaldoFraccionadoService saldoFraccionadoService;
+    private final ReporteCacheService reporteCacheService;
+    private final MovimientoDiarioService movimientoDiarioService;
+    private final ArchivoMovimientos archivoMovimientos;
+    private final CuentaMetadatosCache cuentaMetadatosCache;
 
     @Transactional
     public MovimientoResponseDto registrarMovimiento(MovimientoRequestDto requestDto) {
         log.info("Registrando movimiento para cuenta: {}", requestDto.getNumeroCuenta());
 
-        // Obtener la cuenta
-        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(requestDto.getNumeroCuenta())
-                .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", requestDto.getNumeroCuenta()));
-
-        // Validar que la cuenta esté activa
-        if (!cuenta.getEstado()) {
-            throw new IllegalStateException("La cuenta está inactiva");
-        }
-
         // Determinar el valor del movimiento
-        BigDecimal valorMovimiento = requestDto.getValor();
-        String tipoMovimiento = requestDto.getTipoMovimiento().toUpperCase();
-
-        // Calcular nuevo saldo
-        BigDecimal nuevoSaldo;
-        if ("RETIRO".equals(tipoMovimiento)) {
-            // Para retiros, el valor debe ser negativo
-            if (valorMovimiento.compareTo(BigDecimal.ZERO) > 0) {
-                valorMovimiento = valorMovimiento.negate();
-            }
-            nuevoSaldo = cuenta.getSaldoActual().add(valorMovimiento);
-
-            // Validar saldo suficiente (F3)
-            if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
-                log.warn("Saldo insuficiente para retiro. Saldo actual: {}, Valor retiro: {}",
-                        cuenta.getSaldoActual(), valorMovimiento.abs());
-                throw new SaldoInsuficienteException();
-            }
-        } else if ("DEPOSITO".equals(tipoMovimiento)) {
-            // Para depósitos, el valor debe ser positivo
-            if (valorMovimiento.compareTo(BigDecimal.ZERO) < 0) {
-                valorMovimiento = valorMovimiento.abs();
-            }
-            nuevoSaldo = cuenta.getSaldoActual().add(valorMovimiento);
-        } else {
-            throw new IllegalArgumentException("Tipo de movimiento inválido: " + tipoMovimiento);
-        }
-
-        // Crear el movimiento
+        String numeroCuenta = requestDto.getNumeroCuenta();
+        TipoMovimiento tipoMovimiento = TipoMovimiento.desde(requestDto.getTipoMovimiento());
+        Dinero valorMovimiento = tipoMovimiento.aplicarSigno(requestDto.getValor());
+
+        // Aplicar el movimiento con un único UPDATE condicionado por id, resuelto en la caché de
+        // metadatos, sin leer ni bloquear la cuenta antes
+        CuentaMetadatos metadatos = cuentaMetadatosCache.obtener(numeroCuenta).orElse(null);
+        SaldoCuenta saldoCuenta = metadatos != null && metadatos.estado()
+                && cuentaRepository.incrementarSaldo(metadatos.id(), numeroCuenta, valorMovimiento) > 0
+                ? saldoRecienEscrito(metadatos.id(), numeroCuenta)
+                : aplicarSinUpdateDirecto(numeroCuenta, valorMovimiento, metadatos);
+        Dinero nuevoSaldo = saldoCuenta.saldoActual();
+
+        // Crear el movimiento referenciando la cuenta solo por su id
         Movimiento movimiento = Movimiento.builder()
                 .fecha(LocalDateTime.now())
                 .tipoMovimiento(tipoMovimiento)
                 .valor(valorMovimiento)
                 .saldo(nuevoSaldo)
-                .cuenta(cuenta)
+                .cuenta(Cuenta.builder().id(saldoCuenta.id()).numeroCuenta(numeroCuenta).build())
                 .build();
 
-        // Actualizar saldo de la cuenta
-        cuenta.setSaldoActual(nuevoSaldo);
-        cuentaRepository.save(cuenta);
-
         // Guardar el movimiento
         Movimiento savedMovimiento = movimientoRepository.save(movimiento);
+        if (saldoCuenta.saldoFraccionado()) {
+            movimientoDiarioService.acumularFraccionado(savedMovimiento);
+        } else {
+            movimientoDiarioService.acumular(List.of(savedMovimiento));
+        }
+        reporteCacheService.invalidarCliente(saldoCuenta.clienteId());
 
-        log.info("Movimiento registrado exitosamente. Nuevo saldo: {}", nuevoSaldo);
+        if (saldoCuenta.saldoFraccionado()) {
+            log.info("Movimiento registrado exitosamente en cuenta con saldo fraccionado; el saldo se deriva al consolidar");
+        } else {
+            log.info("Movimiento registrado exitosamente. Nuevo saldo: {}", nuevoSaldo);
+        }
         return movimientoMapper.toDto(savedMovimiento);
     }
 
+    // La fila queda bloqueada por el UPDATE hasta el commit, así que el saldo leído es el recién escrito
+    private SaldoCuenta saldoRecienEscrito(Long id, String numeroCuenta) {
+        return cuentaRepository.findSaldoById(id)
+                .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", numeroCuenta));
+    }
+
+    // El UPDATE condicionado no afectó ninguna fila: la cuenta no existe, está inactiva, tiene el
+    // saldo fraccionado, no tiene fondos suficientes o los metadatos en caché estaban atrasados
+    private SaldoCuenta aplicarSinUpdateDirecto(String numeroCuenta, Dinero valorMovimiento,
+                                                CuentaMetadatos metadatos) {
+        Optional<Cuenta> encontrada = cuentaRepository.findByNumeroCuenta(numeroCuenta);
+        if (metadatos != null && encontrada.map(c -> !c.getId().equals(metadatos.id())
+                || c.getEstado() != metadatos.estado()).orElse(true)) {
+            // Un aviso de invalidación no llegó o aún no se procesó: se retira la entrada atrasada
+            cuentaMetadatosCache.invalidarLocal(List.of(numeroCuenta));
+        }
+        Cuenta cuenta = encontrada
+                .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", numeroCuenta));
+        if (!cuenta.getEstado()) {
+            throw new IllegalStateException("La cuenta está inactiva");
+        }
+        if (SaldoFraccionadoService.esFraccionado(cuenta)) {
+            if (saldoFraccionadoService.aplicar(cuenta.getId(), valorMovimiento)) {
+                // Sin saldo: la consolidación lo deriva en orden (fecha, id)
+                return new SaldoCuenta(cuenta.getId(), null, cuenta.getClienteId(), true);
+            }
+            // El saldo fraccionado se desactivó entre la lectura y el UPDATE: se reintenta sobre la cuenta
+            if (cuentaRepository.incrementarSaldo(cuenta.getId(), numeroCuenta, valorMovimiento) > 0) {
+                return saldoRecienEscrito(cuenta.getId(), numeroCuenta);
+            }
+        } else if (!esMismaCuenta(cuenta, metadatos)
+                && cuentaRepository.incrementarSaldo(cuenta.getId(), numeroCuenta, valorMovimiento) > 0) {
+            // El UPDATE se intentó con metadatos atrasados: se repite con los de la base
+            return saldoRecienEscrito(cuenta.getId(), numeroCuenta);
+        }
+        // Validar saldo suficiente (F3)
+        log.warn("Saldo insuficiente para retiro. Saldo actual: {}, Valor retiro: {}",
+                cuenta.getSaldoActual(), valorMovimiento.abs());
+        throw new SaldoInsuficienteException();
+    }
+
+    // El UPDATE directo ya se intentó con el id y el estado que la base confirma
+    private static boolean esMismaCuenta(Cuenta cuenta, CuentaMetadatos metadatos) {
+        return metadatos != null && metadatos.estado() && cuenta.getId().equals(metadatos.id());
+    }
+
+    /**
+     * Movimientos del más reciente al más antiguo, en páginas de {@code tamano} filas a partir del
+     * cursor devuelto por la página anterior (null para la primera).
+     */
     @Transactional(readOnly = true)
-    public List<MovimientoResponseDto> obtenerTodosLosMovimientos() {
-        log.info("Obteniendo todos los movimientos");
-        return movimientoRepository.findAll().stream()
-                .map(movimientoMapper::toDto)
-                .collect(Collectors.toList());
+    public PaginaDto<MovimientoResponseDto> obtenerMovimientos(String cursor, int tamano) {
+        log.info("Obteniendo página de movimientos (tamaño {})", tamano);
+        // Se pide una fila de más para saber si existe una página siguiente sin contar filas
+        Limit limite = Limit.of(tamano + 1);
+        List<MovimientoResponseDto> movimientos;
+        if (cursor == null) {
+            movimientos = movimientoRepository.findPrimeraPagina(limite);
+        } else {
+            ClaveMovimiento clave = ClaveMovimiento.desde(cursor);
+            movimientos = movimientoRepository.findPaginaDespuesDe(clave.fecha(), clave.id(), limite);
+        }
+        return pagina(movimientos, tamano);
     }
 
     @Transactional(readOnly = true)
     public MovimientoResponseDto obtenerMovimientoPorId(Long id) {
         log.info("Obteniendo movimiento por id: {}", id);
-        Movimiento movimiento = movimientoRepository.findById(id)
+        return movimientoRepository.findResponseById(id)
                 .orElseThrow(() -> new RuntimeException("Movimiento no encontrado con id: " + id));
-        return movimientoMapper.toDto(movimiento);
     }
 
     @Transactional(readOnly = true)
-    public List<MovimientoResponseDto> obtenerMovimientosPorCuenta(String numeroCuenta) {
-        log.info("Obteniendo movimientos por cuenta: {}", numeroCuenta);
+    public PaginaDto<MovimientoResponseDto> obtenerMovimientosPorCuenta(String numeroCuenta, String cursor, int tamano) {
+        log.info("Obteniendo página de movimientos por cuenta: {} (tamaño {})", numeroCuenta, tamano);
 
-        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
+        Long cuentaId = cuentaRepository.findIdByNumeroCuenta(numeroCuenta)
                 .orElseThrow(() -> new CuentaNotFoundException("numeroCuenta", numeroCuenta));
 
-        return movimientoRepository.findByCuentaIdOrderByFechaDesc(cuenta.getId()).stream()
-                .map(movimientoMapper::toDto)
-                .collect(Collectors.toList());
+        Limit limite = Limit.of(tamano + 1);
+        ClaveMovimiento clave = cursor == null ? null : ClaveMovimiento.desde(cursor);
+        List<MovimientoResponseDto> movimientos = clave == null
+                ? movimientoRepository.findPrimeraPaginaByCuentaId(cuentaId, limite)
+                : movimientoRepository.findPaginaByCuentaIdDespuesDe(cuentaId, clave.fecha(), clave.id(), limite);
+        Optional<LocalDateTime> archivadoHasta = archivoMovimientos.archivadoHasta();
+        if (archivadoHasta.isPresent()) {
+            movimientos = completarConArchivo(movimientos, cuentaId, numeroCuenta, clave, archivadoHasta.get(), tamano + 1);
+        }
+        return pagina(movimientos, tamano);
+    }
+
+    // Las filas de la tabla anteriores al límite del archivo (borrado pendiente) se descartan; si la
+    // página no se completa con las posteriores, sigue con los segmentos desde la clave más antigua
+    private List<MovimientoResponseDto> completarConArchivo(List<MovimientoResponseDto> movimientos, Long cuentaId,
+                                                            String numeroCuenta, ClaveMovimiento clave,
+                                                            LocalDateTime archivadoHasta, int limite) {
+        List<MovimientoResponseDto> resultado = new ArrayList<>(limite);
+        for (MovimientoResponseDto movimiento : movimientos) {
+            if (!movimiento.getFecha().isBefore(archivadoHasta)) {
+                resultado.add(movimiento);
+            }
+        }
+        if (resultado.size() >= limite) {
+            return resultado;
+        }
+        ClaveMovimiento desde = clave != null && clave.fecha().isBefore(archivadoHasta)
+                ? clave
+                : new ClaveMovimiento(archivadoHasta, Long.MIN_VALUE);
+        for (MovimientoArchivado movimiento : archivoMovimientos.leerAnteriores(
+                cuentaId, desde.fecha(), desde.id(), limite - resultado.size())) {
+            resultado.add(new MovimientoResponseDto(movimiento.id(), movimiento.fecha(), movimiento.tipoMovimiento(),
+                    movimiento.valor(), movimiento.saldo(), numeroCuenta));
+        }
+        return resultado;
+    }
+
+    private PaginaDto<MovimientoResponseDto> pagina(List<MovimientoResponseDto> movimientos, int tamano) {
+        boolean hayMas = movimientos.size() > tamano;
+        List<MovimientoResponseDto> contenido = hayMas ? movimientos.subList(0, tamano) : movimientos;
+        String siguienteCursor = null;
+        if (hayMas) {
+            MovimientoResponseDto ultimo = contenido.get(contenido.size() - 1);
+            siguienteCursor = Cursor.codificar(ultimo.getFecha(), ultimo.getId());
+        }
+        return PaginaDto.<MovimientoResponseDto>builder()
+                .contenido(List.copyOf(contenido))
+                .siguienteCursor(siguienteCursor)
+                .build();
+    }
+
+    // Clave de orden (fecha, id) de la última fila de la página anterior
+    private record ClaveMovimiento(LocalDateTime fecha, Long id) {
+
+        static ClaveMovimiento desde(String cursor) {
+            String[] valores = Cursor.decodificar(cursor, 2);
+            try {
+                return new ClaveMovimiento(LocalDateTime.parse(valores[0]), Long.valueOf(valores[1]));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new CursorInvalidoException();
+            }
+        }
     }
 }
 
@@ -0,0 +1,167 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.EstadoCuentaDto;
+import com.devsu.cuentasapp.infrastructure.messaging.ReporteInvalidacionPublisher;
+import com.devsu.cuentasapp.infrastructure.persistence.replica.LecturaPrimario;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de estados de cuenta por cliente y rango de fechas, acotada por el número de movimientos
+ * que contiene. Cada cliente tiene una generación que forma parte de la clave: las escrituras que
+ * afectan sus cuentas o movimientos la reemplazan al confirmarse, de modo que las entradas
+ * anteriores quedan inalcanzables y se descartan por tamaño o expiración. Las generaciones son
+ * locales: cada invalidación se avisa a las demás instancias por el exchange de RabbitMQ, y
+ * {@code reportes.cache.ttl} acota cuánto dura un reporte atrasado si un aviso se pierde.
+ */
+@Service
+@Slf4j
+public class ReporteCacheService {
+
+    static final String NOMBRE_METRICAS = "reportes.estado-cuenta";
+
+    private static final int MAXIMO_GENERACIONES = 100_000;
+
+    private final ReporteService reporteService;
+    private final ObjectProvider<ReporteInvalidacionPublisher> publisher;
+    private final AsyncCache<ClaveReporte, EstadoCuentaDto> cache;
+    // Las generaciones salen de una secuencia global y nunca se reutilizan: si la de un cliente se
+    // descarta, la siguiente lectura crea una nueva sin coincidir con claves anteriores
+    private final Cache<String, Long> generaciones;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Autowired
+    public ReporteCacheService(ReporteService reporteService,
+                               ObjectProvider<ReporteInvalidacionPublisher> publisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${reportes.cache.peso-maximo:200000}") long pesoMaximo,
+                               @Value("${reportes.cache.ttl:PT10M}") Duration ttl) {
+        this.reporteService = reporteService;
+        this.publisher = publisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(pesoMaximo)
+                .weigher((ClaveReporte clave, EstadoCuentaDto reporte) -> peso(reporte))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.generaciones = Caffeine.newBuilder()
+                .maximumSize(MAXIMO_GENERACIONES)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_METRICAS);
+    }
+
+    /**
+     * Estado de cuenta desde la caché o, si no está, generado por ReporteService. Las solicitudes
+     * concurrentes de la misma clave esperan a una sola generación.
+     */
+    public EstadoCuentaDto generarEstadoCuenta(String clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        // La generación se lee antes de consultar: un reporte que vea datos previos a una escritura
+        // queda guardado con la generación que esa escritura reemplaza al confirmarse
+        ClaveReporte clave = new ClaveReporte(clienteId, fechaInicio, fechaFin, generacion(clienteId));
+        CompletableFuture<EstadoCuentaDto> propio = new CompletableFuture<>();
+        // El reporte se genera fuera del mapeo de Caffeine, que bloquea con synchronized y anclaría
+        // el hilo virtual durante las consultas
+        CompletableFuture<EstadoCuentaDto> resultado = cache.get(clave, (k, executor) -> propio);
+        if (resultado == propio) {
+            try {
+                // Desde el primario: la réplica puede no tener aún la escritura que creó esta
+                // generación y el reporte atrasado quedaría guardado con ella
+                propio.complete(LecturaPrimario.ejecutar(
+                        () -> reporteService.generarEstadoCuenta(clienteId, fechaInicio, fechaFin)));
+            } catch (RuntimeException e) {
+                // Un futuro fallido se elimina de la caché
+                propio.completeExceptionally(e);
+                throw e;
+            }
+        } else {
+            log.debug("Estado de cuenta del cliente {} desde caché", clienteId);
+        }
+        return esperar(resultado);
+    }
+
+    /**
+     * Invalida los reportes del cliente en todas las instancias al confirmarse la transacción en
+     * curso, o de inmediato si no hay una.
+     */
+    public void invalidarCliente(String clienteId) {
+        invalidarClientes(Collections.singletonList(clienteId));
+    }
+
+    public void invalidarClientes(Collection<String> clienteIds) {
+        List<String> pendientes = clienteIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarEnTodas(pendientes);
+                }
+            });
+        } else {
+            invalidarEnTodas(pendientes);
+        }
+    }
+
+    /**
+     * Reemplaza las generaciones solo en esta instancia: avisos de invalidación de otras instancias.
+     */
+    public void invalidarLocal(Collection<String> clienteIds) {
+        for (String clienteId : clienteIds) {
+            generaciones.put(clienteId, secuencia.incrementAndGet());
+        }
+    }
+
+    private void invalidarEnTodas(List<String> clienteIds) {
+        invalidarLocal(clienteIds);
+        publisher.ifAvailable(p -> p.publicar(clienteIds));
+    }
+
+    private long generacion(String clienteId) {
+        return generaciones.get(clienteId, k -> secuencia.incrementAndGet());
+    }
+
+    // El peso aproxima el tamaño en memoria: una unidad por cuenta y por movimiento
+    private static int peso(EstadoCuentaDto reporte) {
+        int peso = 1;
+        for (EstadoCuentaDto.CuentaEstadoDto cuenta : reporte.getCuentas()) {
+            peso += 1 + cuenta.getMovimientos().size();
+        }
+        return peso;
+    }
+
+    private static EstadoCuentaDto esperar(CompletableFuture<EstadoCuentaDto> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private record ClaveReporte(String clienteId, LocalDate fechaInicio, LocalDate fechaFin, long generacion) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.ReporteJobDto;
+import com.devsu.cuentasapp.application.dto.ReporteJobRequestDto;
+import com.devsu.cuentasapp.domain.exception.ReporteJobNoDisponibleException;
+import com.devsu.cuentasapp.domain.exception.ReporteJobNotFoundException;
+import com.devsu.cuentasapp.domain.exception.ReporteJobRechazadoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Generación asíncrona de estados de cuenta a archivo. Los trabajos se ejecutan en un pool de
+ * {@code reportes.jobs.workers} hilos con una cola de {@code reportes.jobs.cola} posiciones; si la
+ * cola está llena el trabajo se rechaza en lugar de acumularse. El estado de los trabajos vive en
+ * memoria y los archivos se eliminan pasada la retención.
+ */
+@Service
+@Slf4j
+public class ReporteJobService {
+
+    static final String FORMATO_CSV = "csv";
+    static final String FORMATO_JSON = "json";
+
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    private final ReporteService reporteService;
+    private final ObjectMapper objectMapper;
+    private final Path directorio;
+    private final Duration retencion;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ReporteJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReporteJobService(ReporteService reporteService,
+                             ObjectMapper objectMapper,
+                             @Value("${reportes.jobs.dir:./data/reportes}") Path directorio,
+                             @Value("${reportes.jobs.workers:2}") int workers,
+                             @Value("${reportes.jobs.cola:50}") int cola,
+                             @Value("${reportes.jobs.retencion:PT24H}") Duration retencion) throws IOException {
+        this.reporteService = reporteService;
+        this.objectMapper = objectMapper;
+        this.directorio = Files.createDirectories(directorio);
+        this.retencion = retencion;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), Thread.ofVirtual().name("reporte-job-", 0).factory());
+    }
+
+    public ReporteJobDto encolar(ReporteJobRequestDto request) {
+        String formato = request.getFormato() != null ? request.getFormato() : FORMATO_CSV;
+        ReporteJob job = new ReporteJob(UUID.randomUUID().toString(), request.getClienteId(),
+                request.getFechaInicio(), request.getFechaFin(), formato);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> ejecutar(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            log.warn("Trabajo de reporte rechazado para el cliente {}: cola llena", job.clienteId);
+            throw new ReporteJobRechazadoException();
+        }
+        log.info("Trabajo de reporte {} encolado para el cliente {} ({})", job.id, job.clienteId, formato);
+        return job.toDto();
+    }
+
+    public ReporteJobDto obtener(String id) {
+        return buscar(id).toDto();
+    }
+
+    /**
+     * Archivo de un trabajo completado, listo para enviarse.
+     */
+    public ArchivoReporte obtenerArchivo(String id) {
+        ReporteJob job = buscar(id);
+        if (job.estado != ReporteJobDto.Estado.COMPLETADO) {
+            throw new ReporteJobNoDisponibleException(id, job.estado.name());
+        }
+        String nombre = "estado-cuenta-" + job.clienteId + "-" + job.fechaInicio + "-" + job.fechaFin + "." + job.formato;
+        return new ArchivoReporte(job.archivo, nombre, job.formato);
+    }
+
+    void ejecutar(ReporteJob job) {
+        job.estado = ReporteJobDto.Estado.EN_PROCESO;
+        Path temporal = directorio.resolve(job.id + EXTENSION_TEMPORAL);
+        Path destino = directorio.resolve(job.id + "." + job.formato);
+        try {
+            // Se escribe a un temporal y se renombra: el archivo final solo existe completo
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                if (FORMATO_JSON.equals(job.formato)) {
+                    objectMapper.writeValue(salida, reporteService.generarEstadoCuenta(
+                            job.clienteId, job.fechaInicio, job.fechaFin));
+                } else {
+                    reporteService.escribirEstadoCuentaCsv(job.clienteId, job.fechaInicio, job.fechaFin, salida);
+                }
+            }
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.completar(destino, Files.size(destino));
+            log.info("Trabajo de reporte {} completado: {} bytes", job.id, job.bytes);
+        } catch (Exception e) {
+            log.error("Error en el trabajo de reporte {}: {}", job.id, e.getMessage(), e);
+            eliminar(temporal);
+            job.fallar(e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina los trabajos finalizados y los archivos con más antigüedad que la retención, incluidos
+     * los que dejó una ejecución anterior del servicio.
+     */
+    @Scheduled(fixedDelayString = "${reportes.jobs.limpieza-ms:600000}")
+    public void limpiar() {
+        Instant limite = Instant.now().minus(retencion);
+        jobs.values().removeIf(job -> job.finalizadoEn != null && job.finalizadoEn.isBefore(limite));
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(archivo -> modificadoAntesDe(archivo, limite)).forEach(this::eliminar);
+        } catch (IOException e) {
+            log.warn("No se pudo limpiar el directorio de reportes {}: {}", directorio, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    private ReporteJob buscar(String id) {
+        ReporteJob job = jobs.get(id);
+        if (job == null) {
+            throw new ReporteJobNotFoundException(id);
+        }
+        return job;
+    }
+
+    private boolean modificadoAntesDe(Path archivo, Instant limite) {
+        try {
+            return Files.getLastModifiedTime(archivo).toInstant().isBefore(limite);
+        } catch (IOException e) {
+            // El archivo se eliminó mientras se recorría el directorio
+            return false;
+        }
+    }
+
+    private void eliminar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo de reporte {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    public record ArchivoReporte(Path ruta, String nombre, String formato) {
+    }
+
+    static final class ReporteJob {
+
+        private final String id;
+        private final String clienteId;
+        private final LocalDate fechaInicio;
+        private final LocalDate fechaFin;
+        private final String formato;
+        private final LocalDateTime creadoEn = LocalDateTime.now();
+        private volatile ReporteJobDto.Estado estado = ReporteJobDto.Estado.PENDIENTE;
+        private volatile Instant finalizadoEn;
+        private volatile Path archivo;
+        private volatile Long bytes;
+        private volatile String error;
+
+        ReporteJob(String id, String clienteId, LocalDate fechaInicio, LocalDate fechaFin, String formato) {
+            this.id = id;
+            this.clienteId = clienteId;
+            this.fechaInicio = fechaInicio;
+            this.fechaFin = fechaFin;
+            this.formato = formato;
+        }
+
+        void completar(Path archivo, long bytes) {
+            this.archivo = archivo;
+            this.bytes = bytes;
+            this.finalizadoEn = Instant.now();
+            this.estado = ReporteJobDto.Estado.COMPLETADO;
+        }
+
+        void fallar(String error) {
+            this.error = error;
+            this.finalizadoEn = Instant.now();
+            this.estado = ReporteJobDto.Estado.FALLIDO;
+        }
+
+        ReporteJobDto toDto() {
+            Instant fin = finalizadoEn;
+            return ReporteJobDto.builder()
+                    .id(id)
+                    .estado(estado)
+                    .clienteId(clienteId)
+                    .fechaInicio(fechaInicio)
+                    .fechaFin(fechaFin)
+                    .formato(formato)
+                    .creadoEn(creadoEn)
+                    .finalizadoEn(fin != null ? LocalDateTime.ofInstant(fin, ZoneId.systemDefault()) : null)
+                    .bytes(bytes)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -2,27 +2,57 @@ package com.devsu.cuentasapp.application.service;
 
 import com.devsu.cuentasapp.application.dto.EstadoCuentaDto;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.MovimientoReporte;
+import com.devsu.cuentasapp.domain.model.ResumenCuenta;
+import com.devsu.cuentasapp.domain.model.SaldosPeriodo;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
 import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReporteService {
 
+    static final String ENCABEZADO_CSV = "fecha,clienteId,cliente,numeroCuenta,tipoCuenta,saldoInicial,estado,"
+            + "tipoMovimiento,movimiento,saldoDisponible";
+
+    private static final int FILAS_POR_FLUSH = 500;
+
     private final CuentaRepository cuentaRepository;
     private final MovimientoRepository movimientoRepository;
+    private final SaldoFraccionadoService saldoFraccionadoService;
+    private final EntityManager entityManager;
+    private final ArchivoMovimientos archivoMovimientos;
 
     @Transactional(readOnly = true)
     public EstadoCuentaDto generarEstadoCuenta(String clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
@@ -39,32 +69,128 @@ public class ReporteService {
         // Convertir fechas a LocalDateTime
         LocalDateTime fechaInicioDateTime = fechaInicio.atStartOfDay();
         LocalDateTime fechaFinDateTime = fechaFin.atTime(LocalTime.MAX);
+        Optional<LocalDateTime> archivadoHasta = archivoMovimientos.archivadoHasta();
+
+        // Movimientos de todas las cuentas en una sola consulta, agrupados por cuenta en una pasada.
+        // La tabla solo aporta los posteriores al límite del archivo histórico
+        Map<Long, List<EstadoCuentaDto.MovimientoEstadoDto>> movimientosPorCuenta = new HashMap<>();
+        for (MovimientoReporte mov : movimientoRepository.findReporteByClienteIdAndFechaBetween(
+                clienteId, desdeTabla(fechaInicioDateTime, archivadoHasta), fechaFinDateTime)) {
+            movimientosPorCuenta.computeIfAbsent(mov.cuentaId(), id -> new ArrayList<>())
+                    .add(movimientoEstado(mov.fecha(), mov.tipoMovimiento().name(), mov.valor(), mov.saldo()));
+        }
+
+        // Los anteriores al límite salen de los segmentos y van después, también del más reciente al más antiguo
+        if (archivadoHasta.isPresent() && fechaInicioDateTime.isBefore(archivadoHasta.get())) {
+            LocalDateTime hastaArchivo = minimo(fechaFin.plusDays(1).atStartOfDay(), archivadoHasta.get());
+            for (Cuenta cuenta : cuentas) {
+                List<MovimientoArchivado> archivados = archivoMovimientos.leer(
+                        cuenta.getId(), fechaInicioDateTime, hastaArchivo);
+                if (archivados.isEmpty()) {
+                    continue;
+                }
+                List<EstadoCuentaDto.MovimientoEstadoDto> movimientos =
+                        movimientosPorCuenta.computeIfAbsent(cuenta.getId(), id -> new ArrayList<>());
+                for (int i = archivados.size() - 1; i >= 0; i--) {
+                    MovimientoArchivado mov = archivados.get(i);
+                    movimientos.add(movimientoEstado(mov.fecha(), mov.tipoMovimiento().name(), mov.valor(), mov.saldo()));
+                }
+            }
+        }
+
+        // Saldos de apertura y cierre de cada cuenta desde el último movimiento antes de cada límite
+        Map<Long, SaldosPeriodo> saldosPorCuenta = new HashMap<>();
+        for (SaldosPeriodo saldos : movimientoRepository.findSaldosPeriodoByClienteId(
+                clienteId, fechaInicioDateTime, fechaFin.plusDays(1).atStartOfDay())) {
+            saldosPorCuenta.put(saldos.cuentaId(), saldos);
+        }
 
         // Construir el reporte
         String clienteNombre = cuentas.isEmpty() ? "" : cuentas.get(0).getClienteNombre();
 
         List<EstadoCuentaDto.CuentaEstadoDto> cuentasEstado = cuentas.stream()
                 .map(cuenta -> {
-                    // Obtener movimientos de la cuenta en el rango de fechas
-                    List<Movimiento> movimientos = movimientoRepository.findByCuentaIdAndFechaBetween(
-                            cuenta.getId(), fechaInicioDateTime, fechaFinDateTime);
-
-                    List<EstadoCuentaDto.MovimientoEstadoDto> movimientosEstado = movimientos.stream()
-                            .map(mov -> EstadoCuentaDto.MovimientoEstadoDto.builder()
-                                    .fecha(mov.getFecha().toLocalDate())
-                                    .tipoMovimiento(mov.getTipoMovimiento())
-                                    .valor(mov.getValor())
-                                    .saldo(mov.getSaldo())
-                                    .build())
-                            .collect(Collectors.toList());
+                    SaldosPeriodo saldos = saldosPorCuenta.get(cuenta.getId());
+                    return EstadoCuentaDto.CuentaEstadoDto.builder()
+                            .numeroCuenta(cuenta.getNumeroCuenta())
+                            .tipoCuenta(cuenta.getTipoCuenta())
+                            .saldoInicial(cuenta.getSaldoInicial())
+                            .saldoActual(saldoFraccionadoService.saldoVigente(cuenta))
+                            .saldoApertura(saldoOInicial(saldos == null ? null : saldos.saldoApertura(),
+                                    cuenta, fechaInicioDateTime))
+                            .saldoCierre(saldoOInicial(saldos == null ? null : saldos.saldoCierre(),
+                                    cuenta, fechaFin.plusDays(1).atStartOfDay()))
+                            .estado(cuenta.getEstado())
+                            .movimientos(movimientosPorCuenta.getOrDefault(cuenta.getId(), new ArrayList<>()))
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        return EstadoCuentaDto.builder()
+                .fechaInicio(fechaInicio)
+                .fechaFin(fechaFin)
+                .clienteId(clienteId)
+                .clienteNombre(clienteNombre)
+                .cuentas(cuentasEstado)
+                .build();
+    }
+
+    /**
+     * Estado de cuenta sin movimientos: por cuenta, los totales de depósitos y retiros, la cantidad de
+     * movimientos y los saldos de apertura y cierre, agregados en la base con una sola consulta. La
+     * memoria no depende de cuántos movimientos haya en el rango.
+     */
+    @Transactional(readOnly = true)
+    public EstadoCuentaDto generarResumenEstadoCuenta(String clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        log.info("Generando resumen de estado de cuenta para cliente: {} desde {} hasta {}",
+                clienteId, fechaInicio, fechaFin);
+
+        List<Cuenta> cuentas = cuentaRepository.findByClienteId(clienteId);
+
+        if (cuentas.isEmpty()) {
+            log.warn("No se encontraron cuentas para el cliente: {}", clienteId);
+        }
+
+        LocalDateTime inicio = fechaInicio.atStartOfDay();
+        LocalDateTime fin = fechaFin.plusDays(1).atStartOfDay();
+        Optional<LocalDateTime> archivadoHasta = archivoMovimientos.archivadoHasta();
+
+        Map<Long, ResumenCuenta> resumenPorCuenta = new HashMap<>();
+        for (ResumenCuenta resumen : movimientoRepository.findResumenByClienteId(
+                clienteId, inicio, desdeTabla(inicio, archivadoHasta), fin)) {
+            resumenPorCuenta.put(resumen.cuentaId(), resumen);
+        }
+
+        // Totales de la parte del rango anterior al límite, desde los índices de los segmentos
+        Map<Long, ArchivoMovimientos.Totales> archivadosPorCuenta = new HashMap<>();
+        if (archivadoHasta.isPresent() && inicio.isBefore(archivadoHasta.get())) {
+            for (Cuenta cuenta : cuentas) {
+                archivadosPorCuenta.put(cuenta.getId(),
+                        archivoMovimientos.totalizar(cuenta.getId(), inicio, minimo(fin, archivadoHasta.get())));
+            }
+        }
 
+        String clienteNombre = cuentas.isEmpty() ? "" : cuentas.get(0).getClienteNombre();
+
+        List<EstadoCuentaDto.CuentaEstadoDto> cuentasEstado = cuentas.stream()
+                .map(cuenta -> {
+                    ResumenCuenta resumen = resumenPorCuenta.get(cuenta.getId());
+                    ArchivoMovimientos.Totales archivados =
+                            archivadosPorCuenta.getOrDefault(cuenta.getId(), ArchivoMovimientos.Totales.CERO);
                     return EstadoCuentaDto.CuentaEstadoDto.builder()
                             .numeroCuenta(cuenta.getNumeroCuenta())
                             .tipoCuenta(cuenta.getTipoCuenta())
                             .saldoInicial(cuenta.getSaldoInicial())
-                            .saldoActual(cuenta.getSaldoActual())
+                            .saldoActual(saldoFraccionadoService.saldoVigente(cuenta))
+                            .saldoApertura(saldoOInicial(resumen == null ? null : resumen.saldoApertura(), cuenta, inicio))
+                            .saldoCierre(saldoOInicial(resumen == null ? null : resumen.saldoCierre(), cuenta, fin))
                             .estado(cuenta.getEstado())
-                            .movimientos(movimientosEstado)
+                            .totalDepositos(totalOCero(resumen == null ? null : resumen.depositos())
+                                    .sumar(Dinero.deCentavos(archivados.depositos())))
+                            .totalRetiros(totalOCero(resumen == null ? null : resumen.retiros())
+                                    .sumar(Dinero.deCentavos(archivados.retiros())))
+                            .cantidadMovimientos((resumen == null ? 0L : resumen.cantidadMovimientos())
+                                    + archivados.cantidad())
                             .build();
                 })
                 .collect(Collectors.toList());
@@ -77,5 +203,150 @@ public class ReporteService {
                 .cuentas(cuentasEstado)
                 .build();
     }
-}
 
+    // SUM devuelve null cuando no hay movimientos del tipo en el rango
+    private Dinero totalOCero(Dinero total) {
+        return total != null ? total : Dinero.CERO;
+    }
+
+    // Sin movimientos en la tabla antes del límite se busca en el archivo histórico; sin ninguno,
+    // el saldo es el inicial de la cuenta
+    private Dinero saldoOInicial(Dinero saldo, Cuenta cuenta, LocalDateTime hasta) {
+        if (saldo != null) {
+            return saldo;
+        }
+        return archivoMovimientos.saldoAntesDe(cuenta.getId(), hasta).orElse(cuenta.getSaldoInicial());
+    }
+
+    // Las filas anteriores al límite del archivo que siguen en la tabla (borrado pendiente) ya se leen
+    // desde los segmentos
+    private static LocalDateTime desdeTabla(LocalDateTime inicio, Optional<LocalDateTime> archivadoHasta) {
+        return archivadoHasta.filter(inicio::isBefore).orElse(inicio);
+    }
+
+    private static LocalDateTime minimo(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime maximo(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static EstadoCuentaDto.MovimientoEstadoDto movimientoEstado(LocalDateTime fecha, String tipoMovimiento,
+                                                                         Dinero valor, Dinero saldo) {
+        return EstadoCuentaDto.MovimientoEstadoDto.builder()
+                .fecha(fecha.toLocalDate())
+                .tipoMovimiento(tipoMovimiento)
+                .valor(valor)
+                .saldo(saldo)
+                .build();
+    }
+
+    /**
+     * Estado de cuenta en CSV: una fila por movimiento de las cuentas del cliente, en orden de fecha.
+     * Las filas se escriben a medida que llegan del cursor JDBC y se envían en bloques de
+     * FILAS_POR_FLUSH; el encabezado sale de inmediato para que el primer byte no espere a la consulta.
+     * La parte del rango anterior al límite del archivo histórico se escribe primero, mes a mes, desde
+     * los segmentos de las cuentas del cliente.
+     */
+    @Transactional(readOnly = true)
+    public long escribirEstadoCuentaCsv(String clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                        OutputStream salida) throws IOException {
+        log.info("Generando estado de cuenta CSV para cliente: {} desde {} hasta {}",
+                clienteId, fechaInicio, fechaFin);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write(ENCABEZADO_CSV);
+        writer.write('\n');
+        writer.flush();
+
+        LocalDateTime inicio = fechaInicio.atStartOfDay();
+        LocalDateTime fin = fechaFin.plusDays(1).atStartOfDay();
+        Optional<LocalDateTime> archivadoHasta = archivoMovimientos.archivadoHasta();
+
+        long filas = 0;
+        if (archivadoHasta.isPresent() && inicio.isBefore(archivadoHasta.get())) {
+            filas = escribirArchivadosCsv(writer, clienteId, inicio, minimo(fin, archivadoHasta.get()));
+        }
+        try (Stream<Movimiento> movimientos = movimientoRepository.streamEstadoCuentaByClienteId(
+                clienteId, desdeTabla(inicio, archivadoHasta), fin)) {
+            Iterator<Movimiento> iterador = movimientos.iterator();
+            while (iterador.hasNext()) {
+                Movimiento movimiento = iterador.next();
+                escribirFilaCsv(writer, movimiento.getCuenta(), movimiento.getFecha(), movimiento.getTipoMovimiento(),
+                        movimiento.getValor(), movimiento.getSaldo());
+                entityManager.detach(movimiento);
+                if (++filas % FILAS_POR_FLUSH == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Estado de cuenta CSV generado: {} movimiento(s)", filas);
+        return filas;
+    }
+
+    // Un mes a la vez: en memoria solo quedan los movimientos archivados del cliente en ese mes
+    private long escribirArchivadosCsv(Writer writer, String clienteId, LocalDateTime inicio, LocalDateTime hasta)
+            throws IOException {
+        Map<Long, Cuenta> cuentas = new HashMap<>();
+        for (Cuenta cuenta : cuentaRepository.findByClienteId(clienteId)) {
+            cuentas.put(cuenta.getId(), cuenta);
+        }
+        long filas = 0;
+        for (YearMonth mes = YearMonth.from(inicio); mes.atDay(1).atStartOfDay().isBefore(hasta); mes = mes.plusMonths(1)) {
+            LocalDateTime desdeMes = maximo(inicio, mes.atDay(1).atStartOfDay());
+            LocalDateTime hastaMes = minimo(hasta, mes.plusMonths(1).atDay(1).atStartOfDay());
+            List<MovimientoArchivado> delMes = new ArrayList<>();
+            for (Long cuentaId : cuentas.keySet()) {
+                delMes.addAll(archivoMovimientos.leer(cuentaId, desdeMes, hastaMes));
+            }
+            delMes.sort(Comparator.comparing(MovimientoArchivado::fecha).thenComparing(MovimientoArchivado::id));
+            for (MovimientoArchivado movimiento : delMes) {
+                escribirFilaCsv(writer, cuentas.get(movimiento.cuentaId()), movimiento.fecha(),
+                        movimiento.tipoMovimiento(), movimiento.valor(), movimiento.saldo());
+                if (++filas % FILAS_POR_FLUSH == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return filas;
+    }
+
+    private void escribirFilaCsv(Writer writer, Cuenta cuenta, LocalDateTime fecha, TipoMovimiento tipoMovimiento,
+                                 Dinero valor, Dinero saldo) throws IOException {
+        writer.write(fecha.toLocalDate().toString());
+        writer.write(',');
+        writer.write(campoCsv(cuenta.getClienteId()));
+        writer.write(',');
+        writer.write(campoCsv(cuenta.getClienteNombre()));
+        writer.write(',');
+        writer.write(campoCsv(cuenta.getNumeroCuenta()));
+        writer.write(',');
+        writer.write(campoCsv(cuenta.getTipoCuenta()));
+        writer.write(',');
+        writer.write(cuenta.getSaldoInicial().toString());
+        writer.write(',');
+        writer.write(String.valueOf(cuenta.getEstado()));
+        writer.write(',');
+        writer.write(tipoMovimiento.name());
+        writer.write(',');
+        writer.write(valor.toString());
+        writer.write(',');
+        // Vacío en movimientos de cuentas con saldo fraccionado aún sin consolidar
+        if (saldo != null) {
+            writer.write(saldo.toString());
+        }
+        writer.write('\n');
+    }
+
+    // RFC 4180: entre comillas si contiene separador, comillas o saltos de línea
+    private String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,271 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.SaldoFraccion;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoDiarioRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.domain.repository.SaldoFraccionRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Saldo fraccionado para cuentas calientes. El saldo se reparte en K fracciones: cada depósito
+ * incrementa una fracción al azar, de modo que los depósitos concurrentes bloquean filas distintas.
+ * Un retiro toma una fracción libre que lo cubra y solo si no la hay bloquea todas para verificar el total.
+ * Un proceso periódico reparte de nuevo el saldo entre las fracciones y actualiza saldoActual.
+ * <p>
+ * Los movimientos de estas cuentas se guardan sin saldo: la suma de las fracciones leída por un
+ * movimiento no es la de un orden serial. La consolidación, con la cuenta y todas las fracciones
+ * bloqueadas, deriva el saldo de cada movimiento pendiente en orden (fecha, id).
+ */
+@Service
+@Slf4j
+public class SaldoFraccionadoService {
+
+    private final CuentaRepository cuentaRepository;
+    private final SaldoFraccionRepository saldoFraccionRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final MovimientoDiarioRepository movimientoDiarioRepository;
+    private final ArchivoMovimientos archivoMovimientos;
+    private final ObjectProvider<ReporteCacheService> reporteCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final int numeroFracciones;
+    private final boolean motorHabilitado;
+
+    @Autowired
+    public SaldoFraccionadoService(CuentaRepository cuentaRepository,
+                                   SaldoFraccionRepository saldoFraccionRepository,
+                                   MovimientoRepository movimientoRepository,
+                                   MovimientoDiarioRepository movimientoDiarioRepository,
+                                   ArchivoMovimientos archivoMovimientos,
+                                   ObjectProvider<ReporteCacheService> reporteCacheService,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${movimientos.saldo-fraccionado.fracciones:16}") int numeroFracciones,
+                                   @Value("${movimientos.engine.enabled:false}") boolean motorHabilitado) {
+        this.cuentaRepository = cuentaRepository;
+        this.saldoFraccionRepository = saldoFraccionRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.movimientoDiarioRepository = movimientoDiarioRepository;
+        this.archivoMovimientos = archivoMovimientos;
+        this.reporteCacheService = reporteCacheService;
+        this.transactionTemplate = transactionTemplate;
+        this.numeroFracciones = numeroFracciones;
+        this.motorHabilitado = motorHabilitado;
+    }
+
+    public static boolean esFraccionado(Cuenta cuenta) {
+        return Boolean.TRUE.equals(cuenta.getSaldoFraccionado());
+    }
+
+    @Transactional
+    public Cuenta activar(Long cuentaId) {
+        // El motor ya aplica los movimientos de cada cuenta en un único hilo, sin contención de fila
+        if (motorHabilitado) {
+            throw new IllegalStateException("El saldo fraccionado no aplica con el motor de movimientos habilitado");
+        }
+        Cuenta cuenta = cuentaRepository.findByIdForUpdate(cuentaId)
+                .orElseThrow(() -> new CuentaNotFoundException(cuentaId));
+        if (esFraccionado(cuenta)) {
+            return cuenta;
+        }
+
+        List<SaldoFraccion> fracciones = new ArrayList<>(numeroFracciones);
+        for (int slot = 0; slot < numeroFracciones; slot++) {
+            fracciones.add(SaldoFraccion.builder().cuenta(cuenta).slot(slot).build());
+        }
+        repartir(fracciones, cuenta.getSaldoActual());
+        saldoFraccionRepository.saveAll(fracciones);
+        cuenta.setSaldoFraccionado(true);
+
+        log.info("Saldo fraccionado activado para la cuenta {} con {} fracciones", cuenta.getNumeroCuenta(), numeroFracciones);
+        return cuenta;
+    }
+
+    @Transactional
+    public Cuenta desactivar(Long cuentaId) {
+        Cuenta cuenta = cuentaRepository.findByIdForUpdate(cuentaId)
+                .orElseThrow(() -> new CuentaNotFoundException(cuentaId));
+        if (!esFraccionado(cuenta)) {
+            return cuenta;
+        }
+
+        // Los movimientos que aún no tienen saldo lo reciben antes de que la cuenta vuelva a escribirlo
+        Dinero saldo = consolidarSaldos(cuenta);
+        saldoFraccionRepository.eliminarPorCuenta(cuentaId);
+        cuenta.setSaldoActual(saldo);
+        cuenta.setSaldoFraccionado(false);
+
+        log.info("Saldo fraccionado desactivado para la cuenta {}. Saldo consolidado: {}", cuenta.getNumeroCuenta(), saldo);
+        return cuenta;
+    }
+
+    /**
+     * Aplica el movimiento sobre las fracciones de la cuenta dentro de la transacción en curso.
+     * Retorna false si la cuenta ya no tiene fracciones. El saldo del movimiento lo deriva la
+     * consolidación (consolidarSaldos).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean aplicar(Long cuentaId, Dinero valorMovimiento) {
+        // Los depósitos van a una fracción al azar. Los retiros toman la primera fracción libre que los cubra
+        // en un orden rotado al azar, para no concentrarse en una sola fila
+        int inicio = ThreadLocalRandom.current().nextInt(numeroFracciones);
+        if (valorMovimiento.signum() >= 0) {
+            if (saldoFraccionRepository.incrementarSaldo(cuentaId, inicio, valorMovimiento) > 0) {
+                return true;
+            }
+        } else {
+            Optional<SaldoFraccion> fraccion = saldoFraccionRepository.findParaRetiroForUpdate(
+                    cuentaId, valorMovimiento.toBigDecimal(), inicio, numeroFracciones);
+            if (fraccion.isPresent()) {
+                fraccion.get().setSaldo(fraccion.get().getSaldo().sumar(valorMovimiento));
+                return true;
+            }
+        }
+
+        // Ninguna fracción libre cubre el retiro: verificación consolidada sobre todas las fracciones
+        List<SaldoFraccion> fracciones = saldoFraccionRepository.findByCuentaIdForUpdate(cuentaId);
+        if (fracciones.isEmpty()) {
+            return false;
+        }
+        Dinero nuevoSaldo = sumar(fracciones).sumar(valorMovimiento);
+        if (nuevoSaldo.esNegativo()) {
+            throw new SaldoInsuficienteException();
+        }
+        repartir(fracciones, nuevoSaldo);
+        return true;
+    }
+
+    /**
+     * Con la cuenta ya bloqueada por el llamador, bloquea sus fracciones y deriva en orden (fecha, id)
+     * el saldo de los movimientos desde el primero que no lo tiene, a partir del saldo del anterior.
+     * Actualiza también el saldo de cierre de los totales diarios afectados y retorna la suma de las
+     * fracciones.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Dinero consolidarSaldos(Cuenta cuenta) {
+        Dinero saldoFracciones = sumar(saldoFraccionRepository.findByCuentaIdForUpdate(cuenta.getId()));
+        derivarSaldos(cuenta, saldoFracciones);
+        return saldoFracciones;
+    }
+
+    private void derivarSaldos(Cuenta cuenta, Dinero saldoFracciones) {
+        Long cuentaId = cuenta.getId();
+        Movimiento primero = movimientoRepository.findPrimeroSinSaldo(cuentaId, Limit.of(1)).orElse(null);
+        if (primero == null) {
+            return;
+        }
+
+        // Un movimiento confirmado después de una consolidación con una fecha anterior a los ya
+        // derivados obliga a recalcular también los posteriores a él
+        Dinero saldo = movimientoRepository.findSaldoAnteriorA(cuentaId, primero.getFecha(), primero.getId(), Limit.of(1))
+                .or(() -> archivoMovimientos.saldoAntesDe(cuentaId, primero.getFecha()))
+                .orElse(cuenta.getSaldoInicial());
+        List<Movimiento> movimientos = movimientoRepository.findDesde(cuentaId, primero.getFecha(), primero.getId());
+        for (Movimiento movimiento : movimientos) {
+            saldo = saldo.sumar(movimiento.getValor());
+            movimiento.setSaldo(saldo);
+        }
+        movimientoRepository.flush();
+        movimientoDiarioRepository.actualizarSaldosCierre(cuentaId, primero.getFecha().toLocalDate());
+
+        if (!saldo.equals(saldoFracciones)) {
+            log.warn("El saldo derivado de los movimientos de la cuenta {} ({}) no coincide con sus fracciones ({})",
+                    cuenta.getNumeroCuenta(), saldo, saldoFracciones);
+        }
+        reporteCacheService.ifAvailable(cache -> cache.invalidarCliente(cuenta.getClienteId()));
+        log.debug("Saldo derivado para {} movimiento(s) de la cuenta {}", movimientos.size(), cuenta.getNumeroCuenta());
+    }
+
+    /**
+     * Bloquea las fracciones de las cuentas con saldo fraccionado y deja en saldoActual su suma,
+     * para que el llamador opere sobre el saldo total dentro de su transacción.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, List<SaldoFraccion>> bloquearFracciones(Collection<Cuenta> cuentas) {
+        Map<Long, List<SaldoFraccion>> fraccionesPorCuenta = new HashMap<>();
+        for (Cuenta cuenta : cuentas) {
+            if (esFraccionado(cuenta)) {
+                List<SaldoFraccion> fracciones = saldoFraccionRepository.findByCuentaIdForUpdate(cuenta.getId());
+                fraccionesPorCuenta.put(cuenta.getId(), fracciones);
+                cuenta.setSaldoActual(sumar(fracciones));
+            }
+        }
+        return fraccionesPorCuenta;
+    }
+
+    /**
+     * Reparte el saldoActual de cada cuenta entre las fracciones bloqueadas con bloquearFracciones.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void repartirSaldos(Collection<Cuenta> cuentas, Map<Long, List<SaldoFraccion>> fraccionesPorCuenta) {
+        for (Cuenta cuenta : cuentas) {
+            List<SaldoFraccion> fracciones = fraccionesPorCuenta.get(cuenta.getId());
+            if (fracciones != null) {
+                repartir(fracciones, cuenta.getSaldoActual());
+            }
+        }
+    }
+
+    public Dinero saldoVigente(Cuenta cuenta) {
+        return esFraccionado(cuenta) ? saldoFraccionRepository.sumarSaldo(cuenta.getId()) : cuenta.getSaldoActual();
+    }
+
+    @Scheduled(fixedDelayString = "${movimientos.saldo-fraccionado.consolidacion-ms:5000}")
+    public void consolidar() {
+        for (Long cuentaId : cuentaRepository.findIdsConSaldoFraccionado()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> consolidarCuenta(cuentaId));
+            } catch (RuntimeException e) {
+                log.error("Error al consolidar el saldo fraccionado de la cuenta {}: {}", cuentaId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void consolidarCuenta(Long cuentaId) {
+        // Mismo orden de bloqueo que activar/desactivar y los lotes: primero la cuenta, luego sus fracciones
+        Cuenta cuenta = cuentaRepository.findByIdForUpdate(cuentaId).orElse(null);
+        if (cuenta == null || !esFraccionado(cuenta)) {
+            return;
+        }
+        List<SaldoFraccion> fracciones = saldoFraccionRepository.findByCuentaIdForUpdate(cuentaId);
+        Dinero saldo = sumar(fracciones);
+        derivarSaldos(cuenta, saldo);
+        repartir(fracciones, saldo);
+        cuenta.setSaldoActual(saldo);
+    }
+
+    static Dinero sumar(List<SaldoFraccion> fracciones) {
+        long centavos = 0;
+        for (SaldoFraccion fraccion : fracciones) {
+            centavos = Math.addExact(centavos, fraccion.getSaldo().centavos());
+        }
+        return Dinero.deCentavos(centavos);
+    }
+
+    // Reparte el saldo en partes iguales (en centavos) para que los retiros encuentren fondos en cualquier fracción
+    static void repartir(List<SaldoFraccion> fracciones, Dinero saldo) {
+        long centavos = saldo.centavos();
+        long parte = centavos / fracciones.size();
+        long resto = centavos % fracciones.size();
+        for (int i = 0; i < fracciones.size(); i++) {
+            fracciones.get(i).setSaldo(Dinero.deCentavos(parte + (i < resto ? 1 : 0)));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.devsu.cuentasapp.domain.exception;
+
+public class IdempotenciaConflictoException extends RuntimeException {
+
+    public IdempotenciaConflictoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.devsu.cuentasapp.domain.exception;
+
+public class ReporteJobNoDisponibleException extends RuntimeException {
+
+    public ReporteJobNoDisponibleException(String id, String estado) {
+        super(String.format("El reporte del trabajo %s no está disponible (estado: %s)", id, estado));
+    }
+}
@@ -0,0 +1,8 @@
+package com.devsu.cuentasapp.domain.exception;
+
+public class ReporteJobNotFoundException extends RuntimeException {
+
+    public ReporteJobNotFoundException(String id) {
+        super("Trabajo de reporte no encontrado con id: " + id);
+    }
+}
@@ -0,0 +1,8 @@
+package com.devsu.cuentasapp.domain.exception;
+
+public class ReporteJobRechazadoException extends RuntimeException {
+
+    public ReporteJobRechazadoException() {
+        super("La cola de reportes está llena, reintente más tarde");
+    }
+}
@@ -5,8 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "cuentas")
@@ -16,8 +15,10 @@ import java.math.BigDecimal;
 @Builder
 public class Cuenta {
 
+    // Ids por secuencia con bloques de 50 (optimizador pooled): permite agrupar los INSERT en batches JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cuentas_seq")
+    @SequenceGenerator(name = "cuentas_seq", sequenceName = "cuentas_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "numero_cuenta", unique = true, nullable = false, length = 20)
@@ -27,10 +28,10 @@ public class Cuenta {
     private String tipoCuenta; // AHORROS, CORRIENTE
 
     @Column(name = "saldo_inicial", nullable = false, precision = 15, scale = 2)
-    private BigDecimal saldoInicial;
+    private Dinero saldoInicial;
 
     @Column(name = "saldo_actual", nullable = false, precision = 15, scale = 2)
-    private BigDecimal saldoActual;
+    private Dinero saldoActual;
 
     @Column(nullable = false)
     private Boolean estado;
@@ -41,6 +42,11 @@ public class Cuenta {
     @Column(name = "cliente_nombre")
     private String clienteNombre;
 
+    // Cuenta caliente: el saldo vive repartido en fracciones (SaldoFraccion) para no serializar los depósitos
+    @Column(name = "saldo_fraccionado", nullable = false)
+    @ColumnDefault("false")
+    private Boolean saldoFraccionado;
+
     @PrePersist
     public void prePersist() {
         if (estado == null) {
@@ -49,6 +55,9 @@ public class Cuenta {
         if (saldoActual == null) {
             saldoActual = saldoInicial;
         }
+        if (saldoFraccionado == null) {
+            saldoFraccionado = false;
+        }
     }
 }
 
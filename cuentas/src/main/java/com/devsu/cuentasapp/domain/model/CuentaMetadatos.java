@@ -0,0 +1,7 @@
+package com.devsu.cuentasapp.domain.model;
+
+/**
+ * Datos de una cuenta que no cambian con sus movimientos, para la caché cercana de la ruta de escritura.
+ */
+public record CuentaMetadatos(Long id, String numeroCuenta, boolean estado, String clienteId, String tipoCuenta) {
+}
@@ -0,0 +1,169 @@
+package com.devsu.cuentasapp.domain.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+
+/**
+ * Importe monetario en centavos (escala fija de 2 decimales). La aritmética trabaja sobre long
+ * con verificación de desbordamiento (ArithmeticException) y no crea BigDecimal intermedios.
+ * En JSON se representa como un número con dos decimales, igual que el BigDecimal que reemplaza.
+ */
+@JsonSerialize(using = Dinero.Serializador.class)
+@JsonDeserialize(using = Dinero.Deserializador.class)
+public record Dinero(long centavos) implements Comparable<Dinero> {
+
+    public static final int ESCALA = 2;
+    public static final Dinero CERO = new Dinero(0);
+
+    private static final long FACTOR = 100;
+
+    public static Dinero deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Dinero(centavos);
+    }
+
+    /**
+     * Convierte un BigDecimal sin redondear: falla si tiene más de dos decimales o no cabe en un long.
+     */
+    public static Dinero of(BigDecimal valor) {
+        try {
+            return deCentavos(valor.setScale(ESCALA).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Importe inválido: " + valor.toPlainString()
+                    + " (máximo " + ESCALA + " decimales)");
+        }
+    }
+
+    public static Dinero of(String valor) {
+        return parse(valor, 0, valor.length());
+    }
+
+    /**
+     * Lee un importe en notación decimal simple ("-1234.5") sin crear objetos intermedios.
+     * Otras notaciones (exponente) se delegan a BigDecimal.
+     */
+    public static Dinero parse(CharSequence texto, int inicio, int fin) {
+        int i = inicio;
+        boolean negativo = false;
+        if (i < fin && (texto.charAt(i) == '-' || texto.charAt(i) == '+')) {
+            negativo = texto.charAt(i) == '-';
+            i++;
+        }
+        long enteros = 0;
+        long decimales = 0;
+        int digitosDecimales = -1;
+        int digitos = 0;
+        for (; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c == '.' && digitosDecimales < 0) {
+                digitosDecimales = 0;
+            } else if (c >= '0' && c <= '9') {
+                digitos++;
+                if (digitosDecimales < 0) {
+                    enteros = Math.addExact(Math.multiplyExact(enteros, 10), c - '0');
+                } else if (digitosDecimales < ESCALA) {
+                    decimales = decimales * 10 + (c - '0');
+                    digitosDecimales++;
+                } else if (c != '0') {
+                    throw new IllegalArgumentException("Importe inválido: " + texto.subSequence(inicio, fin)
+                            + " (máximo " + ESCALA + " decimales)");
+                }
+            } else {
+                return of(new BigDecimal(texto.subSequence(inicio, fin).toString()));
+            }
+        }
+        if (digitos == 0) {
+            throw new IllegalArgumentException("Importe inválido: " + texto.subSequence(inicio, fin));
+        }
+        for (int d = Math.max(digitosDecimales, 0); d < ESCALA; d++) {
+            decimales *= 10;
+        }
+        long centavos = Math.addExact(Math.multiplyExact(enteros, FACTOR), decimales);
+        return deCentavos(negativo ? -centavos : centavos);
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Dinero restar(Dinero otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    public Dinero negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    public Dinero abs() {
+        return centavos >= 0 ? this : negar();
+    }
+
+    public int signum() {
+        return Long.signum(centavos);
+    }
+
+    public boolean esNegativo() {
+        return centavos < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    @Override
+    public String toString() {
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % FACTOR;
+        return (centavos < 0 ? "-" : "") + absoluto / FACTOR + (resto < 10 ? ".0" : ".") + resto;
+    }
+
+    public static class Serializador extends JsonSerializer<Dinero> {
+
+        @Override
+        public void serialize(Dinero valor, JsonGenerator generador, SerializerProvider proveedor) throws IOException {
+            generador.writeNumber(valor.toBigDecimal());
+        }
+    }
+
+    public static class Deserializador extends JsonDeserializer<Dinero> {
+
+        @Override
+        public Dinero deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                try {
+                    return deCentavos(Math.multiplyExact(parser.getLongValue(), FACTOR));
+                } catch (ArithmeticException e) {
+                    return (Dinero) contexto.handleWeirdNumberValue(Dinero.class, parser.getNumberValue(),
+                            "fuera de rango");
+                }
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+                // Se lee directamente del buffer del parser, sin pasar por BigDecimal ni String
+                char[] texto = parser.getTextCharacters();
+                int inicio = parser.getTextOffset();
+                try {
+                    return parse(CharBuffer.wrap(texto), inicio, inicio + parser.getTextLength());
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    return (Dinero) contexto.handleWeirdStringValue(Dinero.class, parser.getText(), e.getMessage());
+                }
+            }
+            return (Dinero) contexto.handleUnexpectedToken(Dinero.class, parser);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.devsu.cuentasapp.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "movimientos_idempotencia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotenciaMovimiento {
+
+    @Id
+    @Column(length = 100)
+    private String clave;
+
+    // SHA-256 del movimiento solicitado: la misma clave con otro movimiento se rechaza
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    // Respuesta original serializada; null mientras la ejecución está en curso
+    @Column(length = 4000)
+    private String respuesta;
+
+    // Instancia dueña de una reserva en curso de POST /movimientos, que renueva expiraEn mientras ejecuta
+    @Column(length = 36)
+    private String propietario;
+
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+}
@@ -6,9 +6,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Esquema e índices: migraciones Flyway en db/migration
 @Entity
 @Table(name = "movimientos")
 @Data
@@ -17,21 +17,25 @@ import java.time.LocalDateTime;
 @Builder
 public class Movimiento {
 
+    // Ids por secuencia con bloques de 50 (optimizador pooled): permite agrupar los INSERT en batches JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_seq")
+    @SequenceGenerator(name = "movimientos_seq", sequenceName = "movimientos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private LocalDateTime fecha;
 
+    @Enumerated(EnumType.STRING)
     @Column(name = "tipo_movimiento", nullable = false, length = 50)
-    private String tipoMovimiento; // DEPOSITO, RETIRO
+    private TipoMovimiento tipoMovimiento;
 
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal valor;
+    private Dinero valor;
 
-    @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal saldo;
+    // Saldo tras el movimiento; null en cuentas con saldo fraccionado hasta que la consolidación lo deriva
+    @Column(precision = 15, scale = 2)
+    private Dinero saldo;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cuenta_id", nullable = false)
@@ -0,0 +1,11 @@
+package com.devsu.cuentasapp.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento leído para el archivo histórico o desde él: los mismos datos que la fila de la tabla
+ * de movimientos, con el id de su cuenta en lugar de la entidad.
+ */
+public record MovimientoArchivado(Long id, Long cuentaId, LocalDateTime fecha, TipoMovimiento tipoMovimiento,
+                                  Dinero valor, Dinero saldo) {
+}
@@ -0,0 +1,66 @@
+package com.devsu.cuentasapp.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Totales de los movimientos de una cuenta en un día, mantenidos en la misma transacción que los
+ * registra. Las cuentas con saldo fraccionado reparten sus movimientos entre varias filas (slot)
+ * para no concentrar los bloqueos en una sola; los totales del día son la suma de sus filas y el
+ * saldo de cierre es el de la fila con el último movimiento.
+ */
+@Entity
+@Table(name = "movimientos_diarios")
+@IdClass(MovimientoDiario.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MovimientoDiario {
+
+    @Id
+    @Column(name = "cuenta_id")
+    private Long cuentaId;
+
+    @Id
+    private LocalDate fecha;
+
+    @Id
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Long cantidad;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Dinero depositos;
+
+    // Suma negativa, con el signo con que se registran los retiros
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Dinero retiros;
+
+    @Column(name = "saldo_cierre", nullable = false, precision = 15, scale = 2)
+    private Dinero saldoCierre;
+
+    // Clave de orden (fecha, id) del movimiento que dejó saldoCierre
+    @Column(name = "ultima_fecha", nullable = false)
+    private LocalDateTime ultimaFecha;
+
+    @Column(name = "ultimo_movimiento_id", nullable = false)
+    private Long ultimoMovimientoId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long cuentaId;
+        private LocalDate fecha;
+        private Integer slot;
+    }
+}
@@ -0,0 +1,10 @@
+package com.devsu.cuentasapp.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de un movimiento para el estado de cuenta, con el id de su cuenta para agruparlo.
+ */
+public record MovimientoReporte(Long cuentaId, LocalDateTime fecha, TipoMovimiento tipoMovimiento,
+                                Dinero valor, Dinero saldo) {
+}
@@ -0,0 +1,20 @@
+package com.devsu.cuentasapp.domain.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales de una cuenta en un periodo calculados en la base: suma de depósitos, suma de retiros
+ * (negativa, con el signo con que se registran), cantidad de movimientos y saldos de apertura y
+ * cierre. Las sumas son null si no hubo movimientos de ese tipo y los saldos si la cuenta no tenía
+ * movimientos antes del límite.
+ */
+public record ResumenCuenta(Long cuentaId, Dinero depositos, Dinero retiros, Long cantidadMovimientos,
+                            Dinero saldoApertura, Dinero saldoCierre) {
+
+    // SUM no conserva el AttributeConverter de Dinero: las sumas llegan como NUMERIC
+    public ResumenCuenta(Long cuentaId, BigDecimal depositos, BigDecimal retiros, Long cantidadMovimientos,
+                         Dinero saldoApertura, Dinero saldoCierre) {
+        this(cuentaId, depositos != null ? Dinero.of(depositos) : null, retiros != null ? Dinero.of(retiros) : null,
+                cantidadMovimientos, saldoApertura, saldoCierre);
+    }
+}
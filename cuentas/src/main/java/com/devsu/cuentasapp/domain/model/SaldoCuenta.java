@@ -0,0 +1,11 @@
+package com.devsu.cuentasapp.domain.model;
+
+/**
+ * Proyección mínima de una cuenta para la ruta de escritura de movimientos.
+ */
+public record SaldoCuenta(Long id, Dinero saldoActual, String clienteId, boolean saldoFraccionado) {
+
+    public SaldoCuenta(Long id, Dinero saldoActual, String clienteId) {
+        this(id, saldoActual, clienteId, false);
+    }
+}
@@ -0,0 +1,36 @@
+package com.devsu.cuentasapp.domain.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una de las K fracciones del saldo de una cuenta con saldo fraccionado.
+ * El saldo de la cuenta es la suma de sus fracciones.
+ */
+@Entity
+@Table(name = "cuentas_saldo_fracciones",
+       uniqueConstraints = @UniqueConstraint(name = "uk_saldo_fracciones_cuenta_slot", columnNames = {"cuenta_id", "slot"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaldoFraccion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saldo_fracciones_seq")
+    @SequenceGenerator(name = "saldo_fracciones_seq", sequenceName = "saldo_fracciones_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cuenta_id", nullable = false)
+    private Cuenta cuenta;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private Dinero saldo;
+}
@@ -0,0 +1,8 @@
+package com.devsu.cuentasapp.domain.model;
+
+/**
+ * Saldos de una cuenta al inicio y al cierre de un periodo, tomados del último movimiento anterior
+ * a cada límite. Son null si la cuenta no tenía movimientos antes de ese límite.
+ */
+public record SaldosPeriodo(Long cuentaId, Dinero saldoApertura, Dinero saldoCierre) {
+}
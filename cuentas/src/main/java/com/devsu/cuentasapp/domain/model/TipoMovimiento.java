@@ -0,0 +1,37 @@
+package com.devsu.cuentasapp.domain.model;
+
+public enum TipoMovimiento {
+
+    DEPOSITO {
+        @Override
+        public Dinero aplicarSigno(Dinero valor) {
+            return valor.abs();
+        }
+    },
+    RETIRO {
+        @Override
+        public Dinero aplicarSigno(Dinero valor) {
+            return valor.esNegativo() ? valor : valor.negar();
+        }
+    };
+
+    private static final TipoMovimiento[] VALORES = values();
+
+    /**
+     * Devuelve el valor con signo que el movimiento aplica sobre el saldo:
+     * negativo para retiros y positivo para depósitos.
+     */
+    public abstract Dinero aplicarSigno(Dinero valor);
+
+    // Sin toUpperCase: compara ignorando mayúsculas contra los nombres del enum
+    public static TipoMovimiento desde(String tipoMovimiento) {
+        if (tipoMovimiento != null) {
+            for (TipoMovimiento tipo : VALORES) {
+                if (tipo.name().equalsIgnoreCase(tipoMovimiento)) {
+                    return tipo;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Tipo de movimiento inválido: " + tipoMovimiento);
+    }
+}
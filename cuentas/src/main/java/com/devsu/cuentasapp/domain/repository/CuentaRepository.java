@@ -1,20 +1,124 @@
 package com.devsu.cuentasapp.domain.repository;
 
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.CuentaMetadatos;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.SaldoCuenta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CuentaRepository extends JpaRepository<Cuenta, Long> {
+public interface CuentaRepository extends JpaRepository<Cuenta, Long>, JpaSpecificationExecutor<Cuenta> {
 
     Optional<Cuenta> findByNumeroCuenta(String numeroCuenta);
 
     List<Cuenta> findByClienteId(String clienteId);
 
     boolean existsByNumeroCuenta(String numeroCuenta);
-}
 
+    // Página por keyset sobre id con filtros opcionales (null = sin filtro). El WHERE lleva solo los
+    // filtros presentes: con (:x IS NULL OR c.x = :x) la sentencia preparada sería la misma para todas
+    // las combinaciones y el plan genérico no podría usar el índice del filtro. Se pide una fila de
+    // más para saber si hay página siguiente sin ejecutar count(*)
+    default Slice<Cuenta> findPagina(Long idDesde, Boolean estado, String tipoCuenta, String clienteId,
+                                     Pageable pageable) {
+        Specification<Cuenta> filtro = (cuenta, query, cb) -> cb.greaterThan(cuenta.get("id"), idDesde);
+        if (estado != null) {
+            filtro = filtro.and((cuenta, query, cb) -> cb.equal(cuenta.get("estado"), estado));
+        }
+        if (tipoCuenta != null) {
+            filtro = filtro.and((cuenta, query, cb) -> cb.equal(cuenta.get("tipoCuenta"), tipoCuenta));
+        }
+        if (clienteId != null) {
+            filtro = filtro.and((cuenta, query, cb) -> cb.equal(cuenta.get("clienteId"), clienteId));
+        }
+        int tamano = pageable.getPageSize();
+        List<Cuenta> cuentas = findBy(filtro, consulta -> consulta.sortBy(Sort.by("id")).limit(tamano + 1).all());
+        boolean haySiguiente = cuentas.size() > tamano;
+        return new SliceImpl<>(haySiguiente ? cuentas.subList(0, tamano) : cuentas, pageable, haySiguiente);
+    }
+
+    @Query("SELECT c.numeroCuenta FROM Cuenta c WHERE c.numeroCuenta IN :numerosCuenta")
+    List<String> findNumerosCuentaExistentes(@Param("numerosCuenta") Collection<String> numerosCuenta);
+
+    // Bloquea las cuentas en orden de id para evitar interbloqueos entre lotes concurrentes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cuenta c WHERE c.numeroCuenta IN :numerosCuenta ORDER BY c.id")
+    List<Cuenta> findByNumeroCuentaInForUpdate(@Param("numerosCuenta") Collection<String> numerosCuenta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cuenta c WHERE c.id = :id")
+    Optional<Cuenta> findByIdForUpdate(@Param("id") Long id);
+
+    // Recorrido por keyset de todos los ids, para procesos que tratan las cuentas de a una
+    @Query("SELECT c.id FROM Cuenta c WHERE c.id > :idDesde ORDER BY c.id")
+    List<Long> findIdsDesde(@Param("idDesde") Long idDesde, Limit limit);
+
+    @Query("SELECT c.id FROM Cuenta c WHERE c.saldoFraccionado = true")
+    List<Long> findIdsConSaldoFraccionado();
+
+    // Incremento condicionado: solo aplica si la cuenta está activa, no tiene el saldo fraccionado
+    // y el saldo resultante no es negativo. El número acompaña al id para que un id atrasado de la
+    // caché de metadatos no toque otra cuenta
+    @Modifying
+    @Query("UPDATE Cuenta c SET c.saldoActual = c.saldoActual + :delta " +
+           "WHERE c.id = :id AND c.numeroCuenta = :numeroCuenta AND c.estado = true " +
+           "AND c.saldoFraccionado = false AND c.saldoActual + :delta >= 0")
+    int incrementarSaldo(@Param("id") Long id, @Param("numeroCuenta") String numeroCuenta,
+                         @Param("delta") Dinero delta);
 
+    @Query("SELECT c.id FROM Cuenta c WHERE c.numeroCuenta = :numeroCuenta")
+    Optional<Long> findIdByNumeroCuenta(@Param("numeroCuenta") String numeroCuenta);
+
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.SaldoCuenta(c.id, c.saldoActual, c.clienteId) " +
+           "FROM Cuenta c WHERE c.id = :id")
+    Optional<SaldoCuenta> findSaldoById(@Param("id") Long id);
+
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.CuentaMetadatos(c.id, c.numeroCuenta, c.estado, " +
+           "c.clienteId, c.tipoCuenta) FROM Cuenta c WHERE c.numeroCuenta = :numeroCuenta")
+    Optional<CuentaMetadatos> findMetadatosByNumeroCuenta(@Param("numeroCuenta") String numeroCuenta);
+
+    // Datos editables de la cuenta (null = sin cambio). No escribe el saldo: un save() de la entidad
+    // leída antes lo sobrescribiría y perdería los movimientos confirmados entre la lectura y el UPDATE
+    @Modifying
+    @Query("UPDATE Cuenta c SET c.tipoCuenta = COALESCE(:tipoCuenta, c.tipoCuenta), " +
+           "c.estado = COALESCE(:estado, c.estado) WHERE c.id = :id")
+    int actualizarDatos(@Param("id") Long id, @Param("tipoCuenta") String tipoCuenta,
+                        @Param("estado") Boolean estado);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cuenta c SET c.clienteNombre = :clienteNombre WHERE c.clienteId = :clienteId")
+    int actualizarClienteNombre(@Param("clienteId") String clienteId, @Param("clienteNombre") String clienteNombre);
+
+    // Incremento condicionado al saldo que el motor de movimientos tiene residente: si otra ruta o
+    // instancia cambió la cuenta desde que la lane la cargó, no afecta filas y la lane la recarga
+    @Modifying
+    @Query("UPDATE Cuenta c SET c.saldoActual = c.saldoActual + :delta " +
+           "WHERE c.id = :id AND c.saldoActual = :saldoEsperado AND c.estado = true " +
+           "AND c.saldoFraccionado = false")
+    int incrementarSaldoDesde(@Param("id") Long id, @Param("saldoEsperado") Dinero saldoEsperado,
+                              @Param("delta") Dinero delta);
+
+    // Suma sin condiciones: el volcado del journal la usa con la fila ya bloqueada y el saldo verificado
+    @Modifying
+    @Query("UPDATE Cuenta c SET c.saldoActual = c.saldoActual + :delta WHERE c.id = :id")
+    int sumarSaldo(@Param("id") Long id, @Param("delta") Dinero delta);
+}
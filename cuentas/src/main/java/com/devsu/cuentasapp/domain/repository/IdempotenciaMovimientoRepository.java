@@ -0,0 +1,93 @@
+package com.devsu.cuentasapp.domain.repository;
+
+import com.devsu.cuentasapp.domain.model.IdempotenciaMovimiento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface IdempotenciaMovimientoRepository extends JpaRepository<IdempotenciaMovimiento, String> {
+
+    // INSERT explícito: save() haría merge y sobrescribiría una clave tomada por otra ejecución
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO {h-schema}movimientos_idempotencia (clave, huella, expira_en) " +
+                   "VALUES (:clave, :huella, :expiraEn)", nativeQuery = true)
+    int reservar(@Param("clave") String clave,
+                 @Param("huella") String huella,
+                 @Param("expiraEn") LocalDateTime expiraEn);
+
+    // Reserva con plazo corto de una instancia: la renueva mientras ejecuta el movimiento
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO {h-schema}movimientos_idempotencia (clave, huella, propietario, expira_en) " +
+                   "VALUES (:clave, :huella, :propietario, :expiraEn)", nativeQuery = true)
+    int reservarComo(@Param("clave") String clave,
+                     @Param("huella") String huella,
+                     @Param("propietario") String propietario,
+                     @Param("expiraEn") LocalDateTime expiraEn);
+
+    // Extiende el plazo de las reservas en curso que siguen siendo de la instancia
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotenciaMovimiento i SET i.expiraEn = :expiraEn " +
+           "WHERE i.clave IN :claves AND i.propietario = :propietario AND i.respuesta IS NULL")
+    int renovar(@Param("claves") Collection<String> claves,
+                @Param("propietario") String propietario,
+                @Param("expiraEn") LocalDateTime expiraEn);
+
+    // Respuesta de una reserva propia: sin filas afectadas, la reserva expiró y otra instancia la tomó
+    @Modifying
+    @Query("UPDATE IdempotenciaMovimiento i SET i.respuesta = :respuesta, i.expiraEn = :expiraEn " +
+           "WHERE i.clave = :clave AND i.propietario = :propietario AND i.respuesta IS NULL")
+    int completarComo(@Param("clave") String clave,
+                      @Param("propietario") String propietario,
+                      @Param("respuesta") String respuesta,
+                      @Param("expiraEn") LocalDateTime expiraEn);
+
+    // Clave y respuesta en un solo INSERT, dentro de la transacción que registra el movimiento
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}movimientos_idempotencia (clave, huella, respuesta, expira_en) " +
+                   "VALUES (:clave, :huella, :respuesta, :expiraEn)", nativeQuery = true)
+    int guardar(@Param("clave") String clave,
+                @Param("huella") String huella,
+                @Param("respuesta") String respuesta,
+                @Param("expiraEn") LocalDateTime expiraEn);
+
+    @Modifying
+    @Query("UPDATE IdempotenciaMovimiento i SET i.respuesta = :respuesta, i.expiraEn = :expiraEn WHERE i.clave = :clave")
+    int completar(@Param("clave") String clave,
+                  @Param("respuesta") String respuesta,
+                  @Param("expiraEn") LocalDateTime expiraEn);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotenciaMovimiento i " +
+           "WHERE i.clave = :clave AND i.propietario = :propietario AND i.respuesta IS NULL")
+    int liberar(@Param("clave") String clave, @Param("propietario") String propietario);
+
+    // Resultado desconocido: la reserva queda sin propietario ni respuesta hasta el TTL, nadie la
+    // renueva ni la libera y los reintentos reciben 409
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotenciaMovimiento i SET i.propietario = NULL, i.expiraEn = :expiraEn " +
+           "WHERE i.clave = :clave AND i.propietario = :propietario AND i.respuesta IS NULL")
+    int marcarIncierta(@Param("clave") String clave, @Param("propietario") String propietario,
+                       @Param("expiraEn") LocalDateTime expiraEn);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotenciaMovimiento i WHERE i.clave = :clave AND i.expiraEn < :ahora")
+    int eliminarSiExpirada(@Param("clave") String clave, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotenciaMovimiento i WHERE i.expiraEn < :ahora")
+    int eliminarExpiradas(@Param("ahora") LocalDateTime ahora);
+}
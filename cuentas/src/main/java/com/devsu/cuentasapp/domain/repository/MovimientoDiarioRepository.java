@@ -0,0 +1,95 @@
+package com.devsu.cuentasapp.domain.repository;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.MovimientoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MovimientoDiarioRepository extends JpaRepository<MovimientoDiario, MovimientoDiario.Clave> {
+
+    // Suma los totales sobre la fila del día; el saldo de cierre solo se reemplaza si el movimiento
+    // es posterior en (fecha, id) al que lo dejó
+    @Modifying
+    @Query("UPDATE MovimientoDiario d SET d.cantidad = d.cantidad + :cantidad, " +
+           "d.depositos = d.depositos + :depositos, d.retiros = d.retiros + :retiros, " +
+           "d.saldoCierre = CASE WHEN (d.ultimaFecha, d.ultimoMovimientoId) < (:ultimaFecha, :ultimoId) " +
+           "THEN :saldo ELSE d.saldoCierre END, " +
+           "d.ultimoMovimientoId = CASE WHEN (d.ultimaFecha, d.ultimoMovimientoId) < (:ultimaFecha, :ultimoId) " +
+           "THEN :ultimoId ELSE d.ultimoMovimientoId END, " +
+           "d.ultimaFecha = CASE WHEN (d.ultimaFecha, d.ultimoMovimientoId) < (:ultimaFecha, :ultimoId) " +
+           "THEN :ultimaFecha ELSE d.ultimaFecha END " +
+           "WHERE d.cuentaId = :cuentaId AND d.fecha = :fecha AND d.slot = :slot")
+    int acumular(@Param("cuentaId") Long cuentaId,
+                 @Param("fecha") LocalDate fecha,
+                 @Param("slot") int slot,
+                 @Param("cantidad") long cantidad,
+                 @Param("depositos") Dinero depositos,
+                 @Param("retiros") Dinero retiros,
+                 @Param("saldo") Dinero saldo,
+                 @Param("ultimaFecha") LocalDateTime ultimaFecha,
+                 @Param("ultimoId") Long ultimoId);
+
+    // Igual que acumular para movimientos aún sin saldo (cuentas con saldo fraccionado): el saldo de
+    // cierre queda como estaba hasta que la consolidación lo actualiza con actualizarSaldosCierre
+    @Modifying
+    @Query("UPDATE MovimientoDiario d SET d.cantidad = d.cantidad + :cantidad, " +
+           "d.depositos = d.depositos + :depositos, d.retiros = d.retiros + :retiros, " +
+           "d.ultimoMovimientoId = CASE WHEN (d.ultimaFecha, d.ultimoMovimientoId) < (:ultimaFecha, :ultimoId) " +
+           "THEN :ultimoId ELSE d.ultimoMovimientoId END, " +
+           "d.ultimaFecha = CASE WHEN (d.ultimaFecha, d.ultimoMovimientoId) < (:ultimaFecha, :ultimoId) " +
+           "THEN :ultimaFecha ELSE d.ultimaFecha END " +
+           "WHERE d.cuentaId = :cuentaId AND d.fecha = :fecha AND d.slot = :slot")
+    int acumularSinSaldo(@Param("cuentaId") Long cuentaId,
+                         @Param("fecha") LocalDate fecha,
+                         @Param("slot") int slot,
+                         @Param("cantidad") long cantidad,
+                         @Param("depositos") Dinero depositos,
+                         @Param("retiros") Dinero retiros,
+                         @Param("ultimaFecha") LocalDateTime ultimaFecha,
+                         @Param("ultimoId") Long ultimoId);
+
+    // Saldo de cierre de las filas de la cuenta desde :desde tomado de su último movimiento, después
+    // de derivar los saldos de una cuenta con saldo fraccionado
+    @Modifying
+    @Query("UPDATE MovimientoDiario d SET d.saldoCierre = COALESCE((SELECT m.saldo FROM Movimiento m " +
+           "WHERE m.id = d.ultimoMovimientoId), d.saldoCierre) WHERE d.cuentaId = :cuentaId AND d.fecha >= :desde")
+    int actualizarSaldosCierre(@Param("cuentaId") Long cuentaId, @Param("desde") LocalDate desde);
+
+    // Si otra transacción insertó la misma fila, espera a que confirme y no hace nada
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}movimientos_diarios (cuenta_id, fecha, slot, cantidad, depositos, " +
+                   "retiros, saldo_cierre, ultima_fecha, ultimo_movimiento_id) " +
+                   "VALUES (:cuentaId, :fecha, :slot, :cantidad, :depositos, :retiros, :saldo, :ultimaFecha, :ultimoId) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertar(@Param("cuentaId") Long cuentaId,
+                 @Param("fecha") LocalDate fecha,
+                 @Param("slot") int slot,
+                 @Param("cantidad") long cantidad,
+                 @Param("depositos") BigDecimal depositos,
+                 @Param("retiros") BigDecimal retiros,
+                 @Param("saldo") BigDecimal saldo,
+                 @Param("ultimaFecha") LocalDateTime ultimaFecha,
+                 @Param("ultimoId") long ultimoId);
+
+    @Query("SELECT d FROM MovimientoDiario d WHERE d.cuentaId IN " +
+           "(SELECT c.id FROM Cuenta c WHERE c.clienteId = :clienteId) " +
+           "AND d.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY d.fecha")
+    List<MovimientoDiario> findByClienteIdAndFechaBetween(
+            @Param("clienteId") String clienteId,
+            @Param("fechaInicio") LocalDate fechaInicio,
+            @Param("fechaFin") LocalDate fechaFin
+    );
+
+    @Modifying
+    @Query("DELETE FROM MovimientoDiario d WHERE d.cuentaId = :cuentaId")
+    int eliminarPorCuenta(@Param("cuentaId") Long cuentaId);
+}
@@ -1,31 +1,247 @@
 package com.devsu.cuentasapp.domain.repository;
 
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.MovimientoReporte;
+import com.devsu.cuentasapp.domain.model.ResumenCuenta;
+import com.devsu.cuentasapp.domain.model.SaldosPeriodo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
 
-    List<Movimiento> findByCuentaIdOrderByFechaDesc(Long cuentaId);
+    // Modelo de lectura: las consultas de las rutas GET construyen MovimientoResponseDto directamente
+    // con el numeroCuenta del JOIN, sin entidades administradas ni cargas perezosas de la cuenta
+    String SELECT_RESPONSE = "SELECT new com.devsu.cuentasapp.application.dto.MovimientoResponseDto(" +
+            "m.id, m.fecha, m.tipoMovimiento, m.valor, m.saldo, c.numeroCuenta) FROM Movimiento m JOIN m.cuenta c ";
 
-    @Query("SELECT m FROM Movimiento m WHERE m.cuenta.id = :cuentaId AND m.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY m.fecha DESC")
-    List<Movimiento> findByCuentaIdAndFechaBetween(
+    // Límites para los rangos de fecha abiertos de la exportación
+    LocalDateTime FECHA_MINIMA = LocalDate.of(1, 1, 1).atStartOfDay();
+    LocalDateTime FECHA_MAXIMA = LocalDate.of(9999, 12, 31).atStartOfDay();
+
+    @Query(SELECT_RESPONSE + "WHERE m.id = :id")
+    Optional<MovimientoResponseDto> findResponseById(@Param("id") Long id);
+
+    // Paginación por keyset sobre (fecha, id) descendente: cada página busca en el índice a partir
+    // de la última fila entregada en lugar de saltar filas con OFFSET
+    @Query(SELECT_RESPONSE + "ORDER BY m.fecha DESC, m.id DESC")
+    List<MovimientoResponseDto> findPrimeraPagina(Limit limit);
+
+    @Query(SELECT_RESPONSE + "WHERE (m.fecha, m.id) < (:fecha, :id) ORDER BY m.fecha DESC, m.id DESC")
+    List<MovimientoResponseDto> findPaginaDespuesDe(
+            @Param("fecha") LocalDateTime fecha,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    @Query(SELECT_RESPONSE + "WHERE c.id = :cuentaId ORDER BY m.fecha DESC, m.id DESC")
+    List<MovimientoResponseDto> findPrimeraPaginaByCuentaId(@Param("cuentaId") Long cuentaId, Limit limit);
+
+    @Query(SELECT_RESPONSE + "WHERE c.id = :cuentaId AND (m.fecha, m.id) < (:fecha, :id) ORDER BY m.fecha DESC, m.id DESC")
+    List<MovimientoResponseDto> findPaginaByCuentaIdDespuesDe(
             @Param("cuentaId") Long cuentaId,
-            @Param("fechaInicio") LocalDateTime fechaInicio,
-            @Param("fechaFin") LocalDateTime fechaFin
+            @Param("fecha") LocalDateTime fecha,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    // Saldo de la cuenta después de su último movimiento anterior a :hasta: con Limit 1 es una sola
+    // búsqueda hacia atrás en el índice (cuenta_id, fecha, id). Los movimientos de cuentas con saldo
+    // fraccionado aún sin saldo derivado se saltan hasta la siguiente consolidación
+    @Query("SELECT m.saldo FROM Movimiento m WHERE m.cuenta.id = :cuentaId AND m.fecha < :hasta " +
+           "AND m.saldo IS NOT NULL ORDER BY m.fecha DESC, m.id DESC")
+    Optional<Dinero> findSaldoAntesDe(
+            @Param("cuentaId") Long cuentaId,
+            @Param("hasta") LocalDateTime hasta,
+            Limit limit
+    );
+
+    // Derivación del saldo de cuentas con saldo fraccionado (SaldoFraccionadoService): el primer
+    // movimiento sin saldo, el saldo del movimiento anterior a él y los movimientos a recalcular
+    @Query("SELECT m FROM Movimiento m WHERE m.cuenta.id = :cuentaId AND m.saldo IS NULL ORDER BY m.fecha, m.id")
+    Optional<Movimiento> findPrimeroSinSaldo(@Param("cuentaId") Long cuentaId, Limit limit);
+
+    @Query("SELECT m.saldo FROM Movimiento m WHERE m.cuenta.id = :cuentaId AND (m.fecha, m.id) < (:fecha, :id) " +
+           "ORDER BY m.fecha DESC, m.id DESC")
+    Optional<Dinero> findSaldoAnteriorA(
+            @Param("cuentaId") Long cuentaId,
+            @Param("fecha") LocalDateTime fecha,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    @Query("SELECT m FROM Movimiento m WHERE m.cuenta.id = :cuentaId AND (m.fecha, m.id) >= (:fecha, :id) " +
+           "ORDER BY m.fecha, m.id")
+    List<Movimiento> findDesde(
+            @Param("cuentaId") Long cuentaId,
+            @Param("fecha") LocalDateTime fecha,
+            @Param("id") Long id
+    );
+
+    // La misma búsqueda para todas las cuentas del cliente y ambos límites del periodo en una consulta
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.SaldosPeriodo(c.id, " +
+           "(SELECT m.saldo FROM Movimiento m WHERE m.cuenta = c AND m.fecha < :inicio AND m.saldo IS NOT NULL " +
+           "ORDER BY m.fecha DESC, m.id DESC LIMIT 1), " +
+           "(SELECT m.saldo FROM Movimiento m WHERE m.cuenta = c AND m.fecha < :fin AND m.saldo IS NOT NULL " +
+           "ORDER BY m.fecha DESC, m.id DESC LIMIT 1)) " +
+           "FROM Cuenta c WHERE c.clienteId = :clienteId")
+    List<SaldosPeriodo> findSaldosPeriodoByClienteId(
+            @Param("clienteId") String clienteId,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin
+    );
+
+    // Totales por cuenta agregados en la base: una fila por cuenta del cliente sin importar cuántos
+    // movimientos caigan en el rango, con los saldos de apertura y cierre de findSaldosPeriodoByClienteId.
+    // Los totales cuentan desde :desdeTotales, que excluye lo que ya se suma desde el archivo histórico
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.ResumenCuenta(c.id, " +
+           "CAST(SUM(CASE WHEN m.tipoMovimiento = com.devsu.cuentasapp.domain.model.TipoMovimiento.DEPOSITO " +
+           "THEN m.valor END) AS BigDecimal), " +
+           "CAST(SUM(CASE WHEN m.tipoMovimiento = com.devsu.cuentasapp.domain.model.TipoMovimiento.RETIRO " +
+           "THEN m.valor END) AS BigDecimal), " +
+           "COUNT(m.id), " +
+           "(SELECT a.saldo FROM Movimiento a WHERE a.cuenta = c AND a.fecha < :inicio AND a.saldo IS NOT NULL " +
+           "ORDER BY a.fecha DESC, a.id DESC LIMIT 1), " +
+           "(SELECT z.saldo FROM Movimiento z WHERE z.cuenta = c AND z.fecha < :fin AND z.saldo IS NOT NULL " +
+           "ORDER BY z.fecha DESC, z.id DESC LIMIT 1)) " +
+           "FROM Cuenta c LEFT JOIN Movimiento m ON m.cuenta = c AND m.fecha >= :desdeTotales AND m.fecha < :fin " +
+           "WHERE c.clienteId = :clienteId GROUP BY c.id")
+    List<ResumenCuenta> findResumenByClienteId(
+            @Param("clienteId") String clienteId,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("desdeTotales") LocalDateTime desdeTotales,
+            @Param("fin") LocalDateTime fin
     );
 
-    @Query("SELECT m FROM Movimiento m WHERE m.cuenta.clienteId = :clienteId AND m.fecha BETWEEN :fechaInicio AND :fechaFin ORDER BY m.fecha DESC")
-    List<Movimiento> findByClienteIdAndFechaBetween(
+    // Todos los movimientos del cliente en el rango con una sola consulta, ordenados por cuenta para
+    // agruparlos en una pasada
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.MovimientoReporte(" +
+           "c.id, m.fecha, m.tipoMovimiento, m.valor, m.saldo) FROM Movimiento m JOIN m.cuenta c " +
+           "WHERE c.clienteId = :clienteId AND m.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "ORDER BY c.id, m.fecha DESC, m.id DESC")
+    List<MovimientoReporte> findReporteByClienteIdAndFechaBetween(
             @Param("clienteId") String clienteId,
             @Param("fechaInicio") LocalDateTime fechaInicio,
             @Param("fechaFin") LocalDateTime fechaFin
     );
-}
 
+    // Cursor JDBC de solo avance para el estado de cuenta CSV: el driver trae las filas de a FETCH_SIZE y
+    // las entidades se cargan en modo solo lectura. Con el cliente y el rango siempre presentes, el plan
+    // va de las cuentas del cliente (cliente_id) a sus movimientos por (cuenta_id, fecha). Requiere una
+    // transacción abierta mientras se consume
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Movimiento m JOIN FETCH m.cuenta c " +
+           "WHERE c.clienteId = :clienteId AND m.fecha >= :desde AND m.fecha < :hasta " +
+           "ORDER BY m.fecha, m.id")
+    Stream<Movimiento> streamEstadoCuentaByClienteId(
+            @Param("clienteId") String clienteId,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    // Exportación NDJSON proyectada al DTO: las filas no pasan por el contexto de persistencia, así que
+    // no hay que soltarlas una a una mientras se consume el cursor. Una consulta por combinación de cuenta y
+    // cliente: con (:x IS NULL OR c.x = :x) la sentencia preparada sería la misma para todas y el plan
+    // genérico no podría usar el índice del filtro presente. Las fechas ausentes se acotan con límites
+    // extremos, de modo que el rango siempre es una condición simple sobre (cuenta_id, fecha) o fecha
+    default Stream<MovimientoResponseDto> streamResponsesParaExportacion(
+            String numeroCuenta, String clienteId, LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime inicio = desde != null ? desde : FECHA_MINIMA;
+        LocalDateTime fin = hasta != null ? hasta : FECHA_MAXIMA;
+        if (numeroCuenta != null && clienteId != null) {
+            return streamResponsesPorCuentaYCliente(numeroCuenta, clienteId, inicio, fin);
+        }
+        if (numeroCuenta != null) {
+            return streamResponsesPorCuenta(numeroCuenta, inicio, fin);
+        }
+        if (clienteId != null) {
+            return streamResponsesPorCliente(clienteId, inicio, fin);
+        }
+        return streamResponses(inicio, fin);
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "WHERE m.fecha >= :desde AND m.fecha < :hasta ORDER BY m.fecha, m.id")
+    Stream<MovimientoResponseDto> streamResponses(
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "WHERE c.numeroCuenta = :numeroCuenta AND m.fecha >= :desde AND m.fecha < :hasta " +
+           "ORDER BY m.fecha, m.id")
+    Stream<MovimientoResponseDto> streamResponsesPorCuenta(
+            @Param("numeroCuenta") String numeroCuenta,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "WHERE c.clienteId = :clienteId AND m.fecha >= :desde AND m.fecha < :hasta " +
+           "ORDER BY m.fecha, m.id")
+    Stream<MovimientoResponseDto> streamResponsesPorCliente(
+            @Param("clienteId") String clienteId,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "WHERE c.numeroCuenta = :numeroCuenta AND c.clienteId = :clienteId " +
+           "AND m.fecha >= :desde AND m.fecha < :hasta ORDER BY m.fecha, m.id")
+    Stream<MovimientoResponseDto> streamResponsesPorCuentaYCliente(
+            @Param("numeroCuenta") String numeroCuenta,
+            @Param("clienteId") String clienteId,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    // Movimientos de una cuenta en el rango para escribirlos al archivo histórico, en el orden de los segmentos
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.MovimientoArchivado(" +
+           "m.id, m.cuenta.id, m.fecha, m.tipoMovimiento, m.valor, m.saldo) FROM Movimiento m " +
+           "WHERE m.cuenta.id = :cuentaId AND (:desde IS NULL OR m.fecha >= :desde) AND m.fecha < :hasta " +
+           "ORDER BY m.fecha, m.id")
+    Stream<MovimientoArchivado> streamParaArchivo(
+            @Param("cuentaId") Long cuentaId,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta
+    );
+
+    // Movimientos de una cuenta desde :desde en orden (fecha, id), para reconstruir sus totales diarios:
+    // una búsqueda en el índice (cuenta_id, fecha, id) y un recorrido de solo esa cuenta, sin el JOIN a cuentas
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.devsu.cuentasapp.domain.model.MovimientoArchivado(" +
+           "m.id, m.cuenta.id, m.fecha, m.tipoMovimiento, m.valor, m.saldo) FROM Movimiento m " +
+           "WHERE m.cuenta.id = :cuentaId AND m.fecha >= :desde ORDER BY m.fecha, m.id")
+    Stream<MovimientoArchivado> streamByCuentaIdDesde(
+            @Param("cuentaId") Long cuentaId,
+            @Param("desde") LocalDateTime desde
+    );
+
+    // Ids de los movimientos más antiguos anteriores a :hasta, por el índice (fecha, id), para borrarlos por tramos
+    @Query("SELECT m.id FROM Movimiento m WHERE m.fecha < :hasta ORDER BY m.fecha, m.id")
+    List<Long> findIdsAntesDe(@Param("hasta") LocalDateTime hasta, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM Movimiento m WHERE m.id IN :ids")
+    int eliminarPorIds(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,59 @@
+package com.devsu.cuentasapp.domain.repository;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.SaldoFraccion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SaldoFraccionRepository extends JpaRepository<SaldoFraccion, Long> {
+
+    // Incremento condicionado sobre una sola fracción: solo bloquea esa fila
+    @Modifying
+    @Query("UPDATE SaldoFraccion f SET f.saldo = f.saldo + :delta " +
+           "WHERE f.cuenta.id = :cuentaId AND f.slot = :slot AND f.saldo + :delta >= 0")
+    int incrementarSaldo(@Param("cuentaId") Long cuentaId, @Param("slot") int slot, @Param("delta") Dinero delta);
+
+    // Primera fracción que cubre el retiro en el orden rotado por :desplazamiento, saltando las filas que otra
+    // transacción tiene bloqueadas: el retiro no espera ninguna fila y, si no encuentra una, llega a la
+    // verificación consolidada sin filas bloqueadas. Nativa porque Hibernate no emite SKIP LOCKED para H2
+    @Query(value = "SELECT * FROM {h-schema}cuentas_saldo_fracciones WHERE cuenta_id = :cuentaId " +
+                   "AND saldo + :delta >= 0 ORDER BY MOD(slot + :desplazamiento, :fracciones) " +
+                   "LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<SaldoFraccion> findParaRetiroForUpdate(
+            @Param("cuentaId") Long cuentaId,
+            @Param("delta") BigDecimal delta,
+            @Param("desplazamiento") int desplazamiento,
+            @Param("fracciones") int fracciones
+    );
+
+    // Bloquea todas las fracciones en orden de slot para evitar interbloqueos entre consolidaciones
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM SaldoFraccion f WHERE f.cuenta.id = :cuentaId ORDER BY f.slot")
+    List<SaldoFraccion> findByCuentaIdForUpdate(@Param("cuentaId") Long cuentaId);
+
+    @Query("SELECT f.saldo FROM SaldoFraccion f WHERE f.cuenta.id = :cuentaId")
+    List<Dinero> findSaldosByCuentaId(@Param("cuentaId") Long cuentaId);
+
+    // Son K filas: la suma se hace en memoria sobre los centavos, sin pasar por BigDecimal
+    default Dinero sumarSaldo(Long cuentaId) {
+        long centavos = 0;
+        for (Dinero saldo : findSaldosByCuentaId(cuentaId)) {
+            centavos = Math.addExact(centavos, saldo.centavos());
+        }
+        return Dinero.deCentavos(centavos);
+    }
+
+    @Modifying
+    @Query("DELETE FROM SaldoFraccion f WHERE f.cuenta.id = :cuentaId")
+    int eliminarPorCuenta(@Param("cuentaId") Long cuentaId);
+}
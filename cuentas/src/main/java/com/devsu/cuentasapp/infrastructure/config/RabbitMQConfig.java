@@ -1,11 +1,13 @@
 package com.devsu.cuentasapp.infrastructure.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,6 +23,24 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing.key:cliente.event}")
     private String routingKey;
 
+    @Value("${rabbitmq.cuenta.invalidacion.routing.key:cuenta.invalidacion}")
+    private String cuentaInvalidacionRoutingKey;
+
+    @Value("${rabbitmq.reporte.invalidacion.routing.key:reporte.invalidacion}")
+    private String reporteInvalidacionRoutingKey;
+
+    @Value("${rabbitmq.movimiento.queue.name:movimiento-queue}")
+    private String movimientoQueueName;
+
+    @Value("${rabbitmq.movimiento.resultado.exchange.name:movimiento-resultado-exchange}")
+    private String movimientoResultadoExchangeName;
+
+    @Value("${rabbitmq.movimiento.batch-size:500}")
+    private int movimientoBatchSize;
+
+    @Value("${rabbitmq.movimiento.receive-timeout-ms:100}")
+    private long movimientoReceiveTimeoutMs;
+
     @Bean
     public Queue queue() {
         return new Queue(queueName, true);
@@ -36,6 +56,61 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(routingKey);
     }
 
+    /**
+     * Cola anónima y exclusiva de cada instancia: los avisos de invalidación de metadatos de cuenta
+     * llegan a todas las instancias en lugar de repartirse entre ellas.
+     */
+    @Bean
+    public Queue cuentaInvalidacionQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding cuentaInvalidacionBinding(Queue cuentaInvalidacionQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(cuentaInvalidacionQueue).to(exchange).with(cuentaInvalidacionRoutingKey);
+    }
+
+    /**
+     * Igual que la de metadatos: cada instancia reemplaza las generaciones de reportes que
+     * invalidan las escrituras confirmadas en cualquiera de ellas.
+     */
+    @Bean
+    public Queue reporteInvalidacionQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding reporteInvalidacionBinding(Queue reporteInvalidacionQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(reporteInvalidacionQueue).to(exchange).with(reporteInvalidacionRoutingKey);
+    }
+
+    @Bean
+    public Queue movimientoQueue() {
+        return new Queue(movimientoQueueName, true);
+    }
+
+    @Bean
+    public TopicExchange movimientoResultadoExchange() {
+        return new TopicExchange(movimientoResultadoExchangeName);
+    }
+
+    /**
+     * Contenedor por lotes para la ingesta de movimientos: cada consumidor drena hasta
+     * batch-size mensajes (o los que lleguen antes del receive-timeout) y los entrega juntos.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory movimientoBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(movimientoBatchSize);
+        factory.setPrefetchCount(movimientoBatchSize);
+        factory.setReceiveTimeout(movimientoReceiveTimeoutMs);
+        return factory;
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -1,7 +1,10 @@
 package com.devsu.cuentasapp.infrastructure.messaging;
 
 import com.devsu.cuentasapp.application.dto.ClienteEventDto;
+import com.devsu.cuentasapp.application.dto.CuentaInfoDto;
+import com.devsu.cuentasapp.application.service.ReporteCacheService;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -10,7 +13,10 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +26,7 @@ public class ClienteEventListener {
 
     private final CuentaRepository cuentaRepository;
     private final ObjectMapper objectMapper;
+    private final ReporteCacheService reporteCacheService;
 
     @RabbitListener(queues = "${rabbitmq.queue.name:cliente-queue}")
     public void handleClienteEvent(String message) {
@@ -52,37 +59,42 @@ public class ClienteEventListener {
         if (event.getCuentas() != null && !event.getCuentas().isEmpty()) {
             log.info("Creando {} cuenta(s) para el cliente: {}", event.getCuentas().size(), event.getClienteId());
 
-            event.getCuentas().forEach(cuentaInfo -> {
-                try {
-                    Cuenta cuenta = new Cuenta();
-                    cuenta.setNumeroCuenta(cuentaInfo.numeroCuenta());
-                    cuenta.setTipoCuenta(cuentaInfo.tipoCuenta());
-                    cuenta.setSaldoInicial(cuentaInfo.saldoInicial());
-                    cuenta.setSaldoActual(cuentaInfo.saldoInicial());
-                    cuenta.setEstado(true);
-                    cuenta.setClienteId(event.getClienteId());
-                    cuenta.setClienteNombre(event.getNombre());
+            // Omitir las cuentas que ya existen para no abortar el resto del lote
+            Set<String> existentes = new HashSet<>(cuentaRepository.findNumerosCuentaExistentes(
+                    event.getCuentas().stream().map(CuentaInfoDto::numeroCuenta).toList()));
 
-                    cuentaRepository.save(cuenta);
-                    log.info("Cuenta {} creada exitosamente para el cliente {}",
+            List<Cuenta> cuentas = new ArrayList<>();
+            for (CuentaInfoDto cuentaInfo : event.getCuentas()) {
+                if (!existentes.add(cuentaInfo.numeroCuenta())) {
+                    log.error("Error al crear cuenta {} para el cliente {}: la cuenta ya existe",
                             cuentaInfo.numeroCuenta(), event.getClienteId());
-                } catch (Exception e) {
-                    log.error("Error al crear cuenta {} para el cliente {}: {}",
-                            cuentaInfo.numeroCuenta(), event.getClienteId(), e.getMessage());
+                    continue;
                 }
-            });
+                Cuenta cuenta = new Cuenta();
+                cuenta.setNumeroCuenta(cuentaInfo.numeroCuenta());
+                cuenta.setTipoCuenta(cuentaInfo.tipoCuenta());
+                cuenta.setSaldoInicial(Dinero.of(cuentaInfo.saldoInicial()));
+                cuenta.setSaldoActual(cuenta.getSaldoInicial());
+                cuenta.setEstado(true);
+                cuenta.setClienteId(event.getClienteId());
+                cuenta.setClienteNombre(event.getNombre());
+                cuentas.add(cuenta);
+            }
+
+            // Una sola transacción con INSERT agrupados en batch
+            cuentaRepository.saveAll(cuentas);
+            reporteCacheService.invalidarCliente(event.getClienteId());
+            log.info("{} cuenta(s) creada(s) exitosamente para el cliente {}",
+                    cuentas.size(), event.getClienteId());
         }
     }
 
     private void handleClienteUpdated(ClienteEventDto event) {
         log.info("Cliente actualizado: {} - {}", event.getClienteId(), event.getNombre());
 
-        // Actualizar el nombre del cliente en todas sus cuentas
-        List<Cuenta> cuentas = cuentaRepository.findByClienteId(event.getClienteId());
-        for (Cuenta cuenta : cuentas) {
-            cuenta.setClienteNombre(event.getNombre());
-            cuentaRepository.save(cuenta);
-        }
+        // Actualizar el nombre del cliente en todas sus cuentas con un UPDATE que no toca los saldos
+        cuentaRepository.actualizarClienteNombre(event.getClienteId(), event.getNombre());
+        reporteCacheService.invalidarCliente(event.getClienteId());
     }
 
     private void handleClienteDeleted(ClienteEventDto event) {
@@ -0,0 +1,28 @@
+package com.devsu.cuentasapp.infrastructure.messaging;
+
+import com.devsu.cuentasapp.application.dto.CuentaInvalidacionEventDto;
+import com.devsu.cuentasapp.application.service.CuentaMetadatosCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recibe en la cola anónima de esta instancia los avisos de invalidación publicados por cualquier
+ * instancia, incluida ella misma, y retira las cuentas de su caché de metadatos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class CuentaInvalidacionListener {
+
+    private final CuentaMetadatosCache cuentaMetadatosCache;
+
+    @RabbitListener(queues = "#{cuentaInvalidacionQueue.name}")
+    public void recibir(CuentaInvalidacionEventDto evento) {
+        log.debug("Invalidación de metadatos recibida para las cuentas {}", evento.numerosCuenta());
+        cuentaMetadatosCache.invalidarLocal(evento.numerosCuenta());
+    }
+}
@@ -0,0 +1,40 @@
+package com.devsu.cuentasapp.infrastructure.messaging;
+
+import com.devsu.cuentasapp.application.dto.CuentaInvalidacionEventDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Publica en el exchange de clientes los avisos de invalidación de la caché de metadatos de cuenta;
+ * cada instancia los recibe en su propia cola (ver CuentaInvalidacionListener).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class CuentaInvalidacionPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.exchange.name:cliente-exchange}")
+    private String exchange;
+
+    @Value("${rabbitmq.cuenta.invalidacion.routing.key:cuenta.invalidacion}")
+    private String routingKey;
+
+    public void publicar(List<String> numerosCuenta) {
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, new CuentaInvalidacionEventDto(numerosCuenta));
+            log.debug("Invalidación de metadatos publicada para las cuentas {}", numerosCuenta);
+        } catch (Exception e) {
+            // Sin aviso, las otras instancias retiran la entrada al vencer su ttl
+            log.error("Error al publicar la invalidación de las cuentas {}: {}", numerosCuenta, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.devsu.cuentasapp.infrastructure.messaging;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResultadoEventDto;
+import com.devsu.cuentasapp.application.service.MovimientoMensajeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ingesta asíncrona de movimientos: recibe lotes de la cola movimiento-queue, los registra en una
+ * sola transacción (las cuentas del lote se bloquean juntas) y publica un evento de resultado por
+ * mensaje en el exchange de resultados, con el correlationId del mensaje original. El messageId (o,
+ * sin él, el correlationId) identifica el mensaje: una reentrega recibe el resultado ya registrado.
+ */
+@Service
+@Slf4j
+@Profile("!test")
+public class MovimientoMessageListener {
+
+    // El id se guarda con el prefijo de MovimientoMensajeService en una clave de 100 caracteres
+    private static final int LONGITUD_MAXIMA_ID = 95;
+
+    private final MovimientoMensajeService movimientoMensajeService;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final String resultadoExchange;
+    private final String resultadoRoutingKey;
+
+    @Autowired
+    public MovimientoMessageListener(MovimientoMensajeService movimientoMensajeService,
+                                     RabbitTemplate rabbitTemplate,
+                                     ObjectMapper objectMapper,
+                                     Validator validator,
+                                     @Value("${rabbitmq.movimiento.resultado.exchange.name:movimiento-resultado-exchange}")
+                                     String resultadoExchange,
+                                     @Value("${rabbitmq.movimiento.resultado.routing.key:movimiento.resultado}")
+                                     String resultadoRoutingKey) {
+        this.movimientoMensajeService = movimientoMensajeService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.resultadoExchange = resultadoExchange;
+        this.resultadoRoutingKey = resultadoRoutingKey;
+    }
+
+    @RabbitListener(queues = "${rabbitmq.movimiento.queue.name:movimiento-queue}",
+                    containerFactory = "movimientoBatchContainerFactory")
+    public void recibirMovimientos(List<Message> mensajes) {
+        log.info("Lote de {} mensaje(s) de movimiento recibido", mensajes.size());
+
+        // Los mensajes ilegibles o inválidos se responden de inmediato y no entran al lote
+        List<MovimientoRequestDto> requests = new ArrayList<>(mensajes.size());
+        List<String> correlaciones = new ArrayList<>(mensajes.size());
+        List<String> ids = new ArrayList<>(mensajes.size());
+        for (Message mensaje : mensajes) {
+            String correlationId = correlationId(mensaje.getMessageProperties());
+            try {
+                String id = idMensaje(mensaje.getMessageProperties());
+                MovimientoRequestDto request = convertir(mensaje);
+                requests.add(request);
+                correlaciones.add(correlationId);
+                ids.add(id);
+            } catch (RuntimeException e) {
+                log.warn("Mensaje de movimiento {} rechazado: {}", correlationId, e.getMessage());
+                publicar(MovimientoResultadoEventDto.builder()
+                        .correlationId(correlationId)
+                        .exitoso(false)
+                        .error(e.getMessage())
+                        .build());
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        // Si el registro del lote falla por completo (p. ej. base de datos caída), la excepción
+        // se propaga y el contenedor devuelve los mensajes a la cola
+        List<MovimientoLoteResultadoDto> resultados = movimientoMensajeService.registrar(requests, ids);
+
+        for (MovimientoLoteResultadoDto resultado : resultados) {
+            publicar(MovimientoResultadoEventDto.builder()
+                    .correlationId(correlaciones.get(resultado.getIndice()))
+                    .exitoso(resultado.getExitoso())
+                    .movimiento(resultado.getMovimiento())
+                    .error(resultado.getError())
+                    .build());
+        }
+    }
+
+    private MovimientoRequestDto convertir(Message mensaje) {
+        MovimientoRequestDto request;
+        try {
+            request = objectMapper.readValue(mensaje.getBody(), MovimientoRequestDto.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("El mensaje no es un movimiento válido");
+        }
+        Set<ConstraintViolation<MovimientoRequestDto>> violaciones = validator.validate(request);
+        if (!violaciones.isEmpty()) {
+            throw new IllegalArgumentException(violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return request;
+    }
+
+    private void publicar(MovimientoResultadoEventDto evento) {
+        rabbitTemplate.convertAndSend(resultadoExchange, resultadoRoutingKey, evento, mensaje -> {
+            mensaje.getMessageProperties().setCorrelationId(evento.getCorrelationId());
+            return mensaje;
+        });
+    }
+
+    private String idMensaje(MessageProperties propiedades) {
+        String id = propiedades.getMessageId() != null ? propiedades.getMessageId() : propiedades.getCorrelationId();
+        if (id != null && id.length() > LONGITUD_MAXIMA_ID) {
+            throw new IllegalArgumentException("El id del mensaje supera los " + LONGITUD_MAXIMA_ID + " caracteres");
+        }
+        return id;
+    }
+
+    private String correlationId(MessageProperties propiedades) {
+        return propiedades.getCorrelationId() != null ? propiedades.getCorrelationId() : propiedades.getMessageId();
+    }
+}
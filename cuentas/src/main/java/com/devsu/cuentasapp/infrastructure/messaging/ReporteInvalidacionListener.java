@@ -0,0 +1,28 @@
+package com.devsu.cuentasapp.infrastructure.messaging;
+
+import com.devsu.cuentasapp.application.dto.ReporteInvalidacionEventDto;
+import com.devsu.cuentasapp.application.service.ReporteCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recibe en la cola anónima de esta instancia los avisos de invalidación de reportes publicados por
+ * cualquier instancia, incluida ella misma, y reemplaza la generación de esos clientes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class ReporteInvalidacionListener {
+
+    private final ReporteCacheService reporteCacheService;
+
+    @RabbitListener(queues = "#{reporteInvalidacionQueue.name}")
+    public void recibir(ReporteInvalidacionEventDto evento) {
+        log.debug("Invalidación de reportes recibida para los clientes {}", evento.clienteIds());
+        reporteCacheService.invalidarLocal(evento.clienteIds());
+    }
+}
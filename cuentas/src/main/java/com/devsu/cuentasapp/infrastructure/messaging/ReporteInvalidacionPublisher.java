@@ -0,0 +1,40 @@
+package com.devsu.cuentasapp.infrastructure.messaging;
+
+import com.devsu.cuentasapp.application.dto.ReporteInvalidacionEventDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Publica en el exchange de clientes los avisos de invalidación de la caché de estados de cuenta;
+ * cada instancia los recibe en su propia cola (ver ReporteInvalidacionListener).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("!test")
+public class ReporteInvalidacionPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.exchange.name:cliente-exchange}")
+    private String exchange;
+
+    @Value("${rabbitmq.reporte.invalidacion.routing.key:reporte.invalidacion}")
+    private String routingKey;
+
+    public void publicar(List<String> clienteIds) {
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, new ReporteInvalidacionEventDto(clienteIds));
+            log.debug("Invalidación de reportes publicada para los clientes {}", clienteIds);
+        } catch (Exception e) {
+            // Sin aviso, las otras instancias descartan sus reportes al vencer el ttl de la caché
+            log.error("Error al publicar la invalidación de reportes de los clientes {}: {}", clienteIds, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.devsu.cuentasapp.infrastructure.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reporta los hilos virtuales que quedan anclados a su carrier (bloqueo dentro de synchronized o
+ * de código nativo) más tiempo que el umbral, a partir del evento JFR jdk.VirtualThreadPinned.
+ * Cada pila distinta se registra una vez como WARN y las siguientes como DEBUG; el total se
+ * publica en la métrica jvm.threads.virtual.pinned.
+ */
+@Component
+@Slf4j
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DetectorPinning {
+
+    static final String EVENTO = "jdk.VirtualThreadPinned";
+
+    private static final int MAXIMO_PILAS_REPORTADAS = 1000;
+
+    private final Duration umbral;
+    private final Counter anclajes;
+    private final Set<String> pilasReportadas = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    @Autowired
+    public DetectorPinning(MeterRegistry meterRegistry,
+                           @Value("${monitoreo.pinning.umbral-ms:20}") long umbralMs) {
+        this.umbral = Duration.ofMillis(umbralMs);
+        this.anclajes = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Hilos virtuales anclados a su carrier más tiempo que el umbral")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Detector de hilos virtuales anclados iniciado (umbral {} ms)", umbral.toMillis());
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public double getAnclajes() {
+        return anclajes.count();
+    }
+
+    void registrar(RecordedEvent evento) {
+        anclajes.increment();
+        String pila = pila(evento.getStackTrace());
+        if (pilasReportadas.size() < MAXIMO_PILAS_REPORTADAS && pilasReportadas.add(pila)) {
+            log.warn("Hilo virtual #{} anclado a su carrier durante {} ms en:{}",
+                    evento.getThread("eventThread").getJavaThreadId(), evento.getDuration().toMillis(), pila);
+        } else {
+            log.debug("Hilo virtual anclado a su carrier durante {} ms", evento.getDuration().toMillis());
+        }
+    }
+
+    private String pila(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (sin pila)";
+        }
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,24 @@
+package com.devsu.cuentasapp.infrastructure.persistence;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Persiste Dinero en las columnas NUMERIC(15,2) existentes.
+ */
+@Converter(autoApply = true)
+public class DineroConverter implements AttributeConverter<Dinero, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinero dinero) {
+        return dinero != null ? dinero.toBigDecimal() : null;
+    }
+
+    @Override
+    public Dinero convertToEntityAttribute(BigDecimal valor) {
+        return valor != null ? Dinero.of(valor) : null;
+    }
+}
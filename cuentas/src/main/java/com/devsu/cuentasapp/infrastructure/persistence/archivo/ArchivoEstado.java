@@ -0,0 +1,32 @@
+package com.devsu.cuentasapp.infrastructure.persistence.archivo;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Límite del archivo histórico: los movimientos con fecha anterior a archivadoHasta están en los
+ * segmentos y se leen desde ahí; los posteriores, de la tabla. actualizadoEn marca desde cuándo rige
+ * el límite, para no borrar filas que una lectura iniciada con el límite anterior aún espera.
+ */
+@Entity
+@Table(name = "movimientos_archivo_estado")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivoEstado {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "archivado_hasta", nullable = false)
+    private LocalDateTime archivadoHasta;
+
+    @Column(name = "actualizado_en", nullable = false)
+    private LocalDateTime actualizadoEn;
+}
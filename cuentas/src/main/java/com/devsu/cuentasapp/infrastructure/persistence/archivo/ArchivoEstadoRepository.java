@@ -0,0 +1,29 @@
+package com.devsu.cuentasapp.infrastructure.persistence.archivo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchivoEstadoRepository extends JpaRepository<ArchivoEstado, Integer> {
+
+    // Toma o renueva el bloqueo del archivado si está vencido o ya es de este propietario
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE {h-schema}movimientos_archivo_bloqueo SET propietario = :propietario, hasta = :hasta " +
+                   "WHERE id = 1 AND (hasta < :ahora OR propietario = :propietario)", nativeQuery = true)
+    int tomarBloqueo(@Param("propietario") String propietario,
+                     @Param("ahora") LocalDateTime ahora,
+                     @Param("hasta") LocalDateTime hasta);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE {h-schema}movimientos_archivo_bloqueo SET hasta = :ahora " +
+                   "WHERE id = 1 AND propietario = :propietario", nativeQuery = true)
+    int liberarBloqueo(@Param("propietario") String propietario, @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,218 @@
+package com.devsu.cuentasapp.infrastructure.persistence.archivo;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Archivo histórico de movimientos en disco: un segmento por cuenta y mes en
+ * {@code {movimientos.archivo.dir}/{yyyy-MM}/{cuentaId}.seg} (ver SegmentoMovimientos) y el límite
+ * archivadoHasta en la tabla movimientos_archivo_estado. Los lectores toman de aquí los movimientos
+ * con fecha anterior al límite y de la tabla de movimientos los posteriores. El límite es global, así
+ * que con varias instancias el directorio debe ser el mismo volumen compartido en todas ellas.
+ */
+@Component
+@Slf4j
+public class ArchivoMovimientos {
+
+    private static final int ESTADO_ID = 1;
+    private static final String EXTENSION = ".seg";
+    private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final ArchivoEstadoRepository estadoRepository;
+    private final Path directorio;
+
+    @Autowired
+    public ArchivoMovimientos(ArchivoEstadoRepository estadoRepository,
+                              @Value("${movimientos.archivo.dir:./data/archivo}") Path directorio) {
+        this.estadoRepository = estadoRepository;
+        this.directorio = directorio;
+    }
+
+    /**
+     * Límite del archivo: los movimientos anteriores están en los segmentos. Vacío si nunca se archivó.
+     */
+    public Optional<LocalDateTime> archivadoHasta() {
+        return estado().map(ArchivoEstado::getArchivadoHasta);
+    }
+
+    public Optional<ArchivoEstado> estado() {
+        return estadoRepository.findById(ESTADO_ID);
+    }
+
+    /**
+     * Mueve el límite una vez escritos todos los segmentos anteriores a él.
+     */
+    public void avanzar(LocalDateTime archivadoHasta) {
+        estadoRepository.save(ArchivoEstado.builder()
+                .id(ESTADO_ID)
+                .archivadoHasta(archivadoHasta)
+                .actualizadoEn(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Toma o renueva por {@code plazo} el bloqueo del archivado: solo una instancia escribe segmentos,
+     * avanza el límite y purga la tabla a la vez.
+     */
+    public boolean tomarBloqueo(String propietario, Duration plazo) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return estadoRepository.tomarBloqueo(propietario, ahora, ahora.plus(plazo)) == 1;
+    }
+
+    public void liberarBloqueo(String propietario) {
+        estadoRepository.liberarBloqueo(propietario, LocalDateTime.now());
+    }
+
+    /**
+     * Escribe (o reemplaza) el segmento de la cuenta en el mes con sus movimientos en orden (fecha, id).
+     */
+    public void escribir(Long cuentaId, YearMonth mes, List<MovimientoArchivado> movimientos) throws IOException {
+        Path carpeta = Files.createDirectories(directorio.resolve(mes.format(FORMATO_MES)));
+        SegmentoMovimientos.escribir(carpeta.resolve(cuentaId + EXTENSION), movimientos);
+    }
+
+    /**
+     * Movimientos archivados de la cuenta con desde <= fecha < hasta (null = sin límite), en orden (fecha, id).
+     */
+    public List<MovimientoArchivado> leer(Long cuentaId, LocalDateTime desde, LocalDateTime hasta) {
+        List<MovimientoArchivado> movimientos = new ArrayList<>();
+        recorrer(cuentaId, desde, hasta, movimientos::add);
+        return movimientos;
+    }
+
+    /**
+     * Igual que leer, pero entrega los movimientos de a un segmento: en memoria queda solo un mes.
+     */
+    public void recorrer(Long cuentaId, LocalDateTime desde, LocalDateTime hasta,
+                         Consumer<MovimientoArchivado> consumidor) {
+        try {
+            for (YearMonth mes : meses()) {
+                Path segmento = segmento(mes, cuentaId);
+                if (solapa(mes, desde, hasta) && Files.exists(segmento)) {
+                    SegmentoMovimientos.leer(segmento, cuentaId, desde, hasta).forEach(consumidor);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo histórico de la cuenta " + cuentaId, e);
+        }
+    }
+
+    /**
+     * Totales de los movimientos archivados de la cuenta con desde <= fecha < hasta. Los bloques que
+     * caen completos en el rango se suman desde el índice de cada segmento, sin descomprimirlos.
+     */
+    public Totales totalizar(Long cuentaId, LocalDateTime desde, LocalDateTime hasta) {
+        Totales totales = Totales.CERO;
+        try {
+            for (YearMonth mes : meses()) {
+                Path segmento = segmento(mes, cuentaId);
+                if (solapa(mes, desde, hasta) && Files.exists(segmento)) {
+                    totales = totales.sumar(SegmentoMovimientos.totalizar(segmento, desde, hasta));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo histórico de la cuenta " + cuentaId, e);
+        }
+        return totales;
+    }
+
+    /**
+     * Hasta {@code limite} movimientos archivados de la cuenta anteriores en (fecha, id) a la clave
+     * dada, del más reciente al más antiguo. Recorre los meses hacia atrás y, en cada segmento, solo
+     * descomprime los bloques que el índice ubica antes de la clave, hasta completar.
+     */
+    public List<MovimientoArchivado> leerAnteriores(Long cuentaId, LocalDateTime fecha, Long id, int limite) {
+        List<MovimientoArchivado> movimientos = new ArrayList<>(limite);
+        try {
+            List<YearMonth> meses = meses();
+            YearMonth ultimoMes = YearMonth.from(fecha);
+            for (int i = meses.size() - 1; i >= 0 && movimientos.size() < limite; i--) {
+                Path segmento = segmento(meses.get(i), cuentaId);
+                if (meses.get(i).isAfter(ultimoMes) || !Files.exists(segmento)) {
+                    continue;
+                }
+                SegmentoMovimientos.leerAnteriores(segmento, cuentaId, fecha, id, limite, movimientos);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo histórico de la cuenta " + cuentaId, e);
+        }
+        return movimientos;
+    }
+
+    /**
+     * Saldo de la cuenta tras su último movimiento archivado anterior a {@code hasta}.
+     */
+    public Optional<Dinero> saldoAntesDe(Long cuentaId, LocalDateTime hasta) {
+        return leerAnteriores(cuentaId, hasta, Long.MIN_VALUE, 1).stream()
+                .findFirst()
+                .map(MovimientoArchivado::saldo);
+    }
+
+    // Meses con segmentos, en orden; las carpetas con otro nombre se ignoran
+    private List<YearMonth> meses() throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        List<YearMonth> meses = new ArrayList<>();
+        try (Stream<Path> carpetas = Files.list(directorio)) {
+            for (Path carpeta : (Iterable<Path>) carpetas::iterator) {
+                try {
+                    meses.add(YearMonth.parse(carpeta.getFileName().toString(), FORMATO_MES));
+                } catch (DateTimeParseException e) {
+                    log.debug("Se ignora {} en el archivo histórico", carpeta);
+                }
+            }
+        }
+        meses.sort(null);
+        return meses;
+    }
+
+    private Path segmento(YearMonth mes, Long cuentaId) {
+        return directorio.resolve(mes.format(FORMATO_MES)).resolve(cuentaId + EXTENSION);
+    }
+
+    private static boolean solapa(YearMonth mes, LocalDateTime desde, LocalDateTime hasta) {
+        return (hasta == null || mes.atDay(1).atStartOfDay().isBefore(hasta))
+                && (desde == null || mes.plusMonths(1).atDay(1).atStartOfDay().isAfter(desde));
+    }
+
+    /**
+     * Cantidad de movimientos y suma de depósitos y retiros, en centavos.
+     */
+    public record Totales(long cantidad, long depositos, long retiros) {
+
+        public static final Totales CERO = new Totales(0, 0, 0);
+
+        static Totales de(MovimientoArchivado movimiento) {
+            long valor = movimiento.valor().centavos();
+            return movimiento.tipoMovimiento() == TipoMovimiento.DEPOSITO
+                    ? new Totales(1, valor, 0)
+                    : new Totales(1, 0, valor);
+        }
+
+        public Totales sumar(Totales otros) {
+            return new Totales(cantidad + otros.cantidad, Math.addExact(depositos, otros.depositos),
+                    Math.addExact(retiros, otros.retiros));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.devsu.cuentasapp.infrastructure.persistence.archivo;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato de un segmento del archivo histórico: los movimientos de una cuenta en un mes, en orden
+ * (fecha, id), en bloques de REGISTROS_POR_BLOQUE comprimidos con Deflate. Al final del archivo un
+ * índice guarda por bloque su posición, CRC32, rango de fechas y totales, y un pie fijo apunta al
+ * índice. Una lectura por rango solo descomprime los bloques que se solapan con él, y los totales de
+ * los bloques completos dentro del rango salen del índice sin descomprimir.
+ */
+final class SegmentoMovimientos {
+
+    static final int REGISTROS_POR_BLOQUE = 1024;
+
+    private static final int MAGIA = 0x4D4F5653; // "MOVS"
+    private static final int VERSION = 1;
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+    // offset + longitud + crc32 + registros + fecha inicial y final (segundos + nanos) + depósitos + retiros
+    private static final int TAMANO_ENTRADA = Long.BYTES * 5 + Integer.BYTES * 5;
+    // offset del índice + bloques + versión + magia
+    private static final int TAMANO_PIE = Long.BYTES + Integer.BYTES * 3;
+    // id + fecha (segundos + nanos) + tipo + valor + saldo
+    private static final int TAMANO_REGISTRO = Long.BYTES * 4 + Integer.BYTES + Byte.BYTES;
+    private static final TipoMovimiento[] TIPOS = TipoMovimiento.values();
+
+    private SegmentoMovimientos() {
+    }
+
+    /**
+     * Escribe el segmento en un temporal y lo renombra tras el fsync: el archivo final solo existe
+     * completo y reemplaza al de un intento anterior.
+     */
+    static void escribir(Path archivo, List<MovimientoArchivado> movimientos) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + EXTENSION_TEMPORAL);
+        List<Bloque> indice = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long posicion = 0;
+            for (int desde = 0; desde < movimientos.size(); desde += REGISTROS_POR_BLOQUE) {
+                List<MovimientoArchivado> registros =
+                        movimientos.subList(desde, Math.min(desde + REGISTROS_POR_BLOQUE, movimientos.size()));
+                byte[] comprimido = comprimir(registros);
+                CRC32 crc = new CRC32();
+                crc.update(comprimido);
+                escribirCompleto(canal, ByteBuffer.wrap(comprimido));
+                indice.add(Bloque.de(posicion, comprimido.length, (int) crc.getValue(), registros));
+                posicion += comprimido.length;
+            }
+            ByteBuffer pie = ByteBuffer.allocate(indice.size() * TAMANO_ENTRADA + TAMANO_PIE);
+            for (Bloque bloque : indice) {
+                bloque.escribir(pie);
+            }
+            pie.putLong(posicion).putInt(indice.size()).putInt(VERSION).putInt(MAGIA);
+            escribirCompleto(canal, pie.flip());
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Movimientos del segmento con desde <= fecha < hasta (null = sin límite), en orden (fecha, id).
+     */
+    static List<MovimientoArchivado> leer(Path archivo, Long cuentaId, LocalDateTime desde, LocalDateTime hasta)
+            throws IOException {
+        List<MovimientoArchivado> movimientos = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            for (Bloque bloque : leerIndice(canal, archivo)) {
+                if (!bloque.solapa(desde, hasta)) {
+                    continue;
+                }
+                for (MovimientoArchivado movimiento : leerBloque(canal, archivo, bloque, cuentaId)) {
+                    if (enRango(movimiento.fecha(), desde, hasta)) {
+                        movimientos.add(movimiento);
+                    }
+                }
+            }
+        }
+        return movimientos;
+    }
+
+    /**
+     * Agrega a {@code movimientos}, hasta que tenga {@code limite}, los del segmento anteriores en
+     * (fecha, id) a la clave dada, del más reciente al más antiguo. Recorre el índice hacia atrás y
+     * salta sin descomprimir los bloques que empiezan después de la fecha.
+     */
+    static void leerAnteriores(Path archivo, Long cuentaId, LocalDateTime fecha, long id, int limite,
+                               List<MovimientoArchivado> movimientos) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            List<Bloque> indice = leerIndice(canal, archivo);
+            for (int i = indice.size() - 1; i >= 0 && movimientos.size() < limite; i--) {
+                Bloque bloque = indice.get(i);
+                if (bloque.primera().isAfter(fecha)) {
+                    continue;
+                }
+                List<MovimientoArchivado> registros = leerBloque(canal, archivo, bloque, cuentaId);
+                for (int j = registros.size() - 1; j >= 0 && movimientos.size() < limite; j--) {
+                    MovimientoArchivado movimiento = registros.get(j);
+                    if (movimiento.fecha().isBefore(fecha)
+                            || (movimiento.fecha().isEqual(fecha) && movimiento.id() < id)) {
+                        movimientos.add(movimiento);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Cantidad, depósitos y retiros de los movimientos del segmento con desde <= fecha < hasta.
+     */
+    static ArchivoMovimientos.Totales totalizar(Path archivo, LocalDateTime desde, LocalDateTime hasta)
+            throws IOException {
+        ArchivoMovimientos.Totales totales = ArchivoMovimientos.Totales.CERO;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            for (Bloque bloque : leerIndice(canal, archivo)) {
+                if (bloque.contenido(desde, hasta)) {
+                    totales = totales.sumar(new ArchivoMovimientos.Totales(
+                            bloque.registros(), bloque.depositos(), bloque.retiros()));
+                } else if (bloque.solapa(desde, hasta)) {
+                    for (MovimientoArchivado movimiento : leerBloque(canal, archivo, bloque, null)) {
+                        if (enRango(movimiento.fecha(), desde, hasta)) {
+                            totales = totales.sumar(ArchivoMovimientos.Totales.de(movimiento));
+                        }
+                    }
+                }
+            }
+        }
+        return totales;
+    }
+
+    private static List<Bloque> leerIndice(FileChannel canal, Path archivo) throws IOException {
+        long tamano = canal.size();
+        if (tamano < TAMANO_PIE) {
+            throw new IOException("Segmento incompleto: " + archivo);
+        }
+        ByteBuffer pie = leerCompleto(canal, tamano - TAMANO_PIE, TAMANO_PIE);
+        long offsetIndice = pie.getLong();
+        int bloques = pie.getInt();
+        int version = pie.getInt();
+        if (pie.getInt() != MAGIA || version != VERSION
+                || offsetIndice + (long) bloques * TAMANO_ENTRADA + TAMANO_PIE != tamano) {
+            throw new IOException("Segmento corrupto o de otra versión: " + archivo);
+        }
+        ByteBuffer datos = leerCompleto(canal, offsetIndice, bloques * TAMANO_ENTRADA);
+        List<Bloque> indice = new ArrayList<>(bloques);
+        for (int i = 0; i < bloques; i++) {
+            indice.add(Bloque.leer(datos));
+        }
+        return indice;
+    }
+
+    private static List<MovimientoArchivado> leerBloque(FileChannel canal, Path archivo, Bloque bloque, Long cuentaId)
+            throws IOException {
+        ByteBuffer comprimido = leerCompleto(canal, bloque.offset(), bloque.longitud());
+        CRC32 crc = new CRC32();
+        crc.update(comprimido.duplicate());
+        if ((int) crc.getValue() != bloque.crc()) {
+            throw new IOException("CRC inválido en el bloque " + bloque.offset() + " de " + archivo);
+        }
+        byte[] datos = new byte[bloque.registros() * TAMANO_REGISTRO];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(comprimido);
+            int leidos = 0;
+            while (leidos < datos.length && !inflater.finished()) {
+                int n = inflater.inflate(datos, leidos, datos.length - leidos);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                leidos += n;
+            }
+            if (leidos != datos.length) {
+                throw new IOException("Bloque truncado en " + archivo);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque comprimido inválido en " + archivo, e);
+        } finally {
+            inflater.end();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(datos);
+        List<MovimientoArchivado> movimientos = new ArrayList<>(bloque.registros());
+        for (int i = 0; i < bloque.registros(); i++) {
+            long id = buffer.getLong();
+            LocalDateTime fecha = leerFecha(buffer);
+            TipoMovimiento tipo = TIPOS[buffer.get()];
+            Dinero valor = Dinero.deCentavos(buffer.getLong());
+            Dinero saldo = Dinero.deCentavos(buffer.getLong());
+            movimientos.add(new MovimientoArchivado(id, cuentaId, fecha, tipo, valor, saldo));
+        }
+        return movimientos;
+    }
+
+    private static byte[] comprimir(List<MovimientoArchivado> registros) {
+        ByteBuffer datos = ByteBuffer.allocate(registros.size() * TAMANO_REGISTRO);
+        for (MovimientoArchivado movimiento : registros) {
+            datos.putLong(movimiento.id());
+            escribirFecha(datos, movimiento.fecha());
+            datos.put((byte) movimiento.tipoMovimiento().ordinal());
+            datos.putLong(movimiento.valor().centavos());
+            datos.putLong(movimiento.saldo().centavos());
+        }
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(datos.array());
+            deflater.finish();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.capacity() / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                salida.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return salida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static boolean enRango(LocalDateTime fecha, LocalDateTime desde, LocalDateTime hasta) {
+        return (desde == null || !fecha.isBefore(desde)) && (hasta == null || fecha.isBefore(hasta));
+    }
+
+    private static void escribirFecha(ByteBuffer buffer, LocalDateTime fecha) {
+        buffer.putLong(fecha.toEpochSecond(ZoneOffset.UTC)).putInt(fecha.getNano());
+    }
+
+    private static LocalDateTime leerFecha(ByteBuffer buffer) {
+        long segundos = buffer.getLong();
+        return LocalDateTime.ofEpochSecond(segundos, buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private static ByteBuffer leerCompleto(FileChannel canal, long posicion, int longitud) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(longitud);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado en el segmento");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private record Bloque(long offset, int longitud, int crc, int registros, LocalDateTime primera,
+                          LocalDateTime ultima, long depositos, long retiros) {
+
+        static Bloque de(long offset, int longitud, int crc, List<MovimientoArchivado> registros) {
+            ArchivoMovimientos.Totales totales = ArchivoMovimientos.Totales.CERO;
+            for (MovimientoArchivado movimiento : registros) {
+                totales = totales.sumar(ArchivoMovimientos.Totales.de(movimiento));
+            }
+            return new Bloque(offset, longitud, crc, registros.size(), registros.get(0).fecha(),
+                    registros.get(registros.size() - 1).fecha(), totales.depositos(), totales.retiros());
+        }
+
+        static Bloque leer(ByteBuffer buffer) {
+            long offset = buffer.getLong();
+            int longitud = buffer.getInt();
+            int crc = buffer.getInt();
+            int registros = buffer.getInt();
+            LocalDateTime primera = leerFecha(buffer);
+            LocalDateTime ultima = leerFecha(buffer);
+            return new Bloque(offset, longitud, crc, registros, primera, ultima, buffer.getLong(), buffer.getLong());
+        }
+
+        void escribir(ByteBuffer buffer) {
+            buffer.putLong(offset).putInt(longitud).putInt(crc).putInt(registros);
+            escribirFecha(buffer, primera);
+            escribirFecha(buffer, ultima);
+            buffer.putLong(depositos).putLong(retiros);
+        }
+
+        boolean solapa(LocalDateTime desde, LocalDateTime hasta) {
+            return (hasta == null || primera.isBefore(hasta)) && (desde == null || !ultima.isBefore(desde));
+        }
+
+        boolean contenido(LocalDateTime desde, LocalDateTime hasta) {
+            return (desde == null || !primera.isBefore(desde)) && (hasta == null || ultima.isBefore(hasta));
+        }
+    }
+}
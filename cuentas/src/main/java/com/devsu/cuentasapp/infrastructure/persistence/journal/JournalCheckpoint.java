@@ -0,0 +1,26 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Último lsn del journal volcado a la tabla de movimientos. Se actualiza en la misma
+ * transacción que los movimientos, de modo que la reaplicación tras una caída no los duplica.
+ */
+@Entity
+@Table(name = "movimientos_journal_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalCheckpoint {
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long lsn;
+}
@@ -0,0 +1,19 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, Integer> {
+
+    // Una sola sentencia: el saldo y el checkpoint salen de la misma instantánea, sin un volcado en medio
+    @Query("SELECT new com.devsu.cuentasapp.infrastructure.persistence.journal.SaldoConfirmado(c.saldoActual, " +
+           "COALESCE((SELECT k.lsn FROM JournalCheckpoint k WHERE k.id = :checkpoint), 0L)) " +
+           "FROM Cuenta c WHERE c.id = :cuentaId")
+    Optional<SaldoConfirmado> findSaldoConfirmado(@Param("cuentaId") Long cuentaId,
+                                                  @Param("checkpoint") Integer checkpoint);
+}
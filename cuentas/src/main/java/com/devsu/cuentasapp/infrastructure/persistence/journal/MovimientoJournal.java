@@ -0,0 +1,427 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de escritura anticipada para los movimientos aceptados por el motor.
+ * Los registros se agregan a segmentos mapeados en memoria con longitud y CRC32, y la
+ * escritura se confirma tras un fsync compartido por todas las lanes que esperan (group commit).
+ * Un hilo drenador los vuelca después a la base de datos en lotes grandes; al arrancar,
+ * los registros posteriores al checkpoint se reaplican antes de aceptar tráfico. Los registros
+ * aún no volcados de cada cuenta se conservan en memoria para calcular su saldo confirmado.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "movimientos.journal.enabled", havingValue = "true")
+public class MovimientoJournal {
+
+    private static final String PREFIJO = "movimientos-";
+    private static final String EXTENSION = ".journal";
+    private static final int CABECERA = Integer.BYTES * 2; // longitud + crc32
+    private static final int TAMANO_MINIMO_SEGMENTO = 64 * 1024;
+    private static final long PAUSA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PAUSA_REINTENTO_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long TIMEOUT_DETENCION_MS = 30_000;
+
+    private final MovimientoJournalStore store;
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final int tamanoVolcado;
+    private final Thread drenador;
+
+    private final Queue<RegistroJournal> pendientesDeVolcado = new ConcurrentLinkedQueue<>();
+    // Registros durables o en escritura aún no volcados, por cuenta y en orden de lsn
+    private final Map<Long, Deque<RegistroJournal>> pendientesPorCuenta = new ConcurrentHashMap<>();
+    // ReentrantLock en lugar de synchronized: un hilo virtual que espera el fsync no ancla su carrier
+    private final Lock sincronizacion = new ReentrantLock();
+    private final Lock escritura = new ReentrantLock();
+
+    // Protegidos por el lock de escritura
+    private final Deque<Segmento> segmentos = new ArrayDeque<>();
+    private long ultimoLsn;
+
+    private volatile long lsnDurable;
+    private volatile long lsnVolcado;
+    private volatile boolean activo = true;
+    private volatile IOException falla;
+
+    @Autowired
+    public MovimientoJournal(MovimientoJournalStore store,
+                             @Value("${movimientos.journal.dir:./data/journal}") String directorio,
+                             @Value("${movimientos.journal.segment-size:67108864}") int tamanoSegmento,
+                             @Value("${movimientos.journal.drain-batch-size:5000}") int tamanoVolcado) {
+        if (tamanoSegmento < TAMANO_MINIMO_SEGMENTO) {
+            throw new IllegalArgumentException("El tamaño de segmento del journal debe ser de al menos "
+                    + TAMANO_MINIMO_SEGMENTO + " bytes");
+        }
+        this.store = store;
+        this.directorio = Path.of(directorio);
+        this.tamanoSegmento = tamanoSegmento;
+        this.tamanoVolcado = tamanoVolcado;
+        this.drenador = new Thread(this::drenar, "movimiento-journal-drenador");
+        this.drenador.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        Files.createDirectories(directorio);
+        long checkpoint = store.leerCheckpoint();
+        List<Path> archivos = listarSegmentos();
+
+        // Reaplica lo que quedó sin volcar antes de la última detención
+        List<RegistroJournal> lote = new ArrayList<>(tamanoVolcado);
+        long[] ultimo = {checkpoint};
+        int[] reaplicados = {0};
+        for (Path archivo : archivos) {
+            boolean completo = leer(archivo, registro -> {
+                if (registro.lsn() <= checkpoint) {
+                    return;
+                }
+                lote.add(registro);
+                ultimo[0] = registro.lsn();
+                if (lote.size() >= tamanoVolcado) {
+                    store.volcar(lote);
+                    reaplicados[0] += lote.size();
+                    lote.clear();
+                }
+            });
+            if (!completo) {
+                log.warn("Registro incompleto o corrupto en {}: se descarta el resto del journal", archivo.getFileName());
+                break;
+            }
+        }
+        if (!lote.isEmpty()) {
+            store.volcar(lote);
+            reaplicados[0] += lote.size();
+        }
+        for (Path archivo : archivos) {
+            Files.delete(archivo);
+        }
+
+        escritura.lock();
+        try {
+            ultimoLsn = ultimo[0];
+            segmentos.addLast(abrirSegmento(ultimoLsn + 1));
+        } finally {
+            escritura.unlock();
+        }
+        lsnDurable = ultimo[0];
+        lsnVolcado = ultimo[0];
+        drenador.start();
+        log.info("Journal de movimientos iniciado en {} (lsn {}, {} movimiento(s) reaplicado(s))",
+                directorio.toAbsolutePath(), ultimo[0], reaplicados[0]);
+    }
+
+    /**
+     * Agrega los movimientos al journal y retorna cuando son durables en disco.
+     */
+    public void escribir(List<Movimiento> movimientos) {
+        verificarEstado();
+        long lsn;
+        escritura.lock();
+        try {
+            try {
+                for (Movimiento movimiento : movimientos) {
+                    RegistroJournal registro = RegistroJournal.desde(ultimoLsn + 1, movimiento);
+                    agregar(registro.codificar());
+                    ultimoLsn = registro.lsn();
+                    segmentos.getLast().ultimoLsn = registro.lsn();
+                    // compute: el drenador no puede retirar la cola de la cuenta mientras se agrega
+                    pendientesPorCuenta.compute(registro.cuentaId(), (cuentaId, pendientes) -> {
+                        Deque<RegistroJournal> cola = pendientes != null ? pendientes : new ConcurrentLinkedDeque<>();
+                        cola.addLast(registro);
+                        return cola;
+                    });
+                    pendientesDeVolcado.offer(registro);
+                }
+            } catch (IOException e) {
+                falla = e;
+                throw new UncheckedIOException("Error al escribir en el journal de movimientos", e);
+            }
+            lsn = ultimoLsn;
+        } finally {
+            escritura.unlock();
+        }
+        sincronizar(lsn);
+    }
+
+    /**
+     * Saldo de la cuenta en la base de datos más las variaciones del journal aún no volcadas. Coincide
+     * con el saldo residente de la lane salvo que otra ruta o instancia haya movido la cuenta.
+     */
+    public Dinero saldoConfirmado(Long cuentaId) {
+        // Los pendientes se copian antes de leer la base: uno que ya no esté en la copia se volcó
+        // antes de esa lectura, y los de la copia hasta el checkpoint leído ya están en el saldo
+        Deque<RegistroJournal> pendientes = pendientesPorCuenta.get(cuentaId);
+        List<RegistroJournal> copia = pendientes != null ? List.copyOf(pendientes) : List.of();
+        SaldoConfirmado confirmado = store.leerSaldoConfirmado(cuentaId);
+        Dinero saldo = confirmado.saldo();
+        for (RegistroJournal registro : copia) {
+            if (registro.lsn() > confirmado.lsn()) {
+                saldo = saldo.sumar(registro.valor());
+            }
+        }
+        return saldo;
+    }
+
+    public long getLsnDurable() {
+        return lsnDurable;
+    }
+
+    public long getLsnVolcado() {
+        return lsnVolcado;
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(drenador);
+        drenador.join(TIMEOUT_DETENCION_MS);
+        boolean volcadoCompleto = lsnVolcado >= lsnDurable;
+        if (!volcadoCompleto) {
+            log.warn("Journal detenido con {} movimiento(s) sin volcar: se reaplicarán al iniciar",
+                    lsnDurable - lsnVolcado);
+        }
+        escritura.lock();
+        try {
+            for (Segmento segmento : segmentos) {
+                segmento.cerrar();
+                if (volcadoCompleto) {
+                    eliminar(segmento);
+                }
+            }
+            segmentos.clear();
+        } finally {
+            escritura.unlock();
+        }
+        log.info("Journal de movimientos detenido");
+    }
+
+    private void agregar(byte[] registro) throws IOException {
+        Segmento segmento = segmentos.getLast();
+        // Se reserva espacio para el marcador de fin (longitud 0) que deja el archivo preasignado
+        if (segmento.buffer.remaining() < CABECERA + registro.length + Integer.BYTES) {
+            segmento.buffer.force();
+            segmento = abrirSegmento(ultimoLsn + 1);
+            segmentos.addLast(segmento);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(registro);
+        segmento.buffer.putInt(registro.length);
+        segmento.buffer.putInt((int) crc.getValue());
+        segmento.buffer.put(registro);
+    }
+
+    private void sincronizar(long lsn) {
+        if (lsnDurable >= lsn) {
+            return;
+        }
+        sincronizacion.lock();
+        try {
+            // Otra lane pudo forzar este registro mientras se esperaba el turno: un solo fsync para todas
+            if (lsnDurable >= lsn) {
+                return;
+            }
+            verificarEstado();
+            long objetivo;
+            Segmento segmento;
+            int hasta;
+            escritura.lock();
+            try {
+                objetivo = ultimoLsn;
+                segmento = segmentos.getLast();
+                hasta = segmento.buffer.position();
+            } finally {
+                escritura.unlock();
+            }
+            // Los segmentos anteriores se forzaron completos al rotar
+            try {
+                segmento.buffer.force(segmento.posicionSincronizada, hasta - segmento.posicionSincronizada);
+            } catch (UncheckedIOException e) {
+                falla = e.getCause();
+                throw e;
+            }
+            segmento.posicionSincronizada = hasta;
+            lsnDurable = objetivo;
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    private void drenar() {
+        List<RegistroJournal> lote = new ArrayList<>(tamanoVolcado);
+        while (activo || lsnVolcado < lsnDurable) {
+            if (lote.isEmpty()) {
+                tomarDurables(lote);
+            }
+            if (lote.isEmpty()) {
+                LockSupport.parkNanos(this, PAUSA_NANOS);
+                continue;
+            }
+            try {
+                store.volcar(lote);
+                confirmarVolcado(lote);
+                lote.clear();
+            } catch (RuntimeException e) {
+                if (!activo) {
+                    // En la detención no se reintenta: los registros siguen en el journal y se reaplicarán al iniciar
+                    log.error("Error al volcar {} movimiento(s) del journal durante la detención: {}", lote.size(), e.getMessage());
+                    return;
+                }
+                log.error("Error al volcar {} movimiento(s) del journal, se reintentará: {}", lote.size(), e.getMessage(), e);
+                LockSupport.parkNanos(this, PAUSA_REINTENTO_NANOS);
+            }
+        }
+    }
+
+    private void tomarDurables(List<RegistroJournal> lote) {
+        // La cola está en orden de lsn: solo se vuelca lo que ya es durable en el journal
+        RegistroJournal registro;
+        while (lote.size() < tamanoVolcado
+                && (registro = pendientesDeVolcado.peek()) != null
+                && registro.lsn() <= lsnDurable) {
+            lote.add(pendientesDeVolcado.poll());
+        }
+    }
+
+    private void confirmarVolcado(List<RegistroJournal> lote) {
+        long lsn = lote.get(lote.size() - 1).lsn();
+        lsnVolcado = lsn;
+        for (RegistroJournal registro : lote) {
+            pendientesPorCuenta.computeIfPresent(registro.cuentaId(), (cuentaId, pendientes) -> {
+                while (!pendientes.isEmpty() && pendientes.peekFirst().lsn() <= lsn) {
+                    pendientes.pollFirst();
+                }
+                return pendientes.isEmpty() ? null : pendientes;
+            });
+        }
+        liberarSegmentos(lsn);
+    }
+
+    private void liberarSegmentos(long lsnVolcado) {
+        escritura.lock();
+        try {
+            while (segmentos.size() > 1 && segmentos.getFirst().ultimoLsn <= lsnVolcado) {
+                Segmento segmento = segmentos.removeFirst();
+                segmento.cerrar();
+                eliminar(segmento);
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private void eliminar(Segmento segmento) {
+        try {
+            Files.deleteIfExists(segmento.ruta);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el segmento {}: {}", segmento.ruta.getFileName(), e.getMessage());
+        }
+    }
+
+    private Segmento abrirSegmento(long primerLsn) throws IOException {
+        Path ruta = directorio.resolve(String.format("%s%020d%s", PREFIJO, primerLsn, EXTENSION));
+        FileChannel canal = FileChannel.open(ruta,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        return new Segmento(ruta, canal, buffer);
+    }
+
+    private List<Path> listarSegmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            // El nombre lleva el primer lsn con ceros a la izquierda: el orden alfabético es el del journal
+            return archivos
+                    .filter(archivo -> {
+                        String nombre = archivo.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Lee los registros de un segmento hasta el marcador de fin. Retorna false si encuentra
+     * un registro truncado o con CRC inválido, lo que indica una escritura interrumpida.
+     */
+    private boolean leer(Path archivo, Consumer<RegistroJournal> consumidor) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            while (buffer.remaining() >= CABECERA) {
+                int longitud = buffer.getInt();
+                if (longitud == 0) {
+                    return true;
+                }
+                int crcEsperado = buffer.getInt();
+                if (longitud < 0 || longitud > buffer.remaining()) {
+                    return false;
+                }
+                byte[] datos = new byte[longitud];
+                buffer.get(datos);
+                CRC32 crc = new CRC32();
+                crc.update(datos);
+                if ((int) crc.getValue() != crcEsperado) {
+                    return false;
+                }
+                consumidor.accept(RegistroJournal.decodificar(datos));
+            }
+            return true;
+        }
+    }
+
+    private void verificarEstado() {
+        if (falla != null) {
+            throw new IllegalStateException("El journal de movimientos está en estado de error", falla);
+        }
+    }
+
+    private static final class Segmento {
+
+        private final Path ruta;
+        private final FileChannel canal;
+        private final MappedByteBuffer buffer;
+        private long ultimoLsn;
+        private int posicionSincronizada;
+
+        private Segmento(Path ruta, FileChannel canal, MappedByteBuffer buffer) {
+            this.ruta = ruta;
+            this.canal = canal;
+            this.buffer = buffer;
+        }
+
+        private void cerrar() {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                log.warn("No se pudo cerrar el segmento {}: {}", ruta.getFileName(), e.getMessage());
+            }
+        }
+    }
+}
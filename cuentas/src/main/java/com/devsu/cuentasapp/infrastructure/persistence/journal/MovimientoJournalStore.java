@@ -0,0 +1,116 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import com.devsu.cuentasapp.application.service.MovimientoDiarioService;
+import com.devsu.cuentasapp.application.service.ReporteCacheService;
+import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Vuelca registros del journal a la tabla de movimientos junto con la variación de saldo
+ * de cada cuenta y el checkpoint, todo en una sola transacción.
+ * <p>
+ * Cada cuenta se bloquea y su variación se suma solo si la base conserva el saldo del que partió
+ * el primer registro. Si otra ruta o instancia la movió después de que la lane lo verificara, los
+ * saldos de los registros se recalculan sobre el saldo actual; si alguno quedaría negativo, los
+ * registros de esa cuenta en el volcado se rechazan y se reportan en el log.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "movimientos.journal.enabled", havingValue = "true")
+public class MovimientoJournalStore {
+
+    private static final Integer ID_CHECKPOINT = 1;
+
+    private final CuentaRepository cuentaRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final ReporteCacheService reporteCacheService;
+    private final MovimientoDiarioService movimientoDiarioService;
+
+    // Sin readOnly para leerlo del primario: un checkpoint atrasado de la réplica volvería a volcar registros
+    @Transactional
+    public long leerCheckpoint() {
+        return checkpointRepository.findById(ID_CHECKPOINT)
+                .map(JournalCheckpoint::getLsn)
+                .orElse(0L);
+    }
+
+    @Transactional
+    public SaldoConfirmado leerSaldoConfirmado(Long cuentaId) {
+        return checkpointRepository.findSaldoConfirmado(cuentaId, ID_CHECKPOINT)
+                .orElseThrow(() -> new CuentaNotFoundException(cuentaId));
+    }
+
+    @Transactional
+    public void volcar(List<RegistroJournal> registros) {
+        // Registros de cada cuenta en orden de lsn; las cuentas se bloquean en orden de id
+        Map<Long, List<RegistroJournal>> porCuenta = new TreeMap<>();
+        for (RegistroJournal registro : registros) {
+            porCuenta.computeIfAbsent(registro.cuentaId(), id -> new ArrayList<>()).add(registro);
+        }
+
+        List<Movimiento> movimientos = new ArrayList<>(registros.size());
+        Set<String> clienteIds = new HashSet<>();
+        porCuenta.forEach((cuentaId, deCuenta) -> {
+            Cuenta cuenta = cuentaRepository.findByIdForUpdate(cuentaId).orElse(null);
+            List<Dinero> saldos = cuenta != null ? saldos(cuenta.getSaldoActual(), deCuenta) : null;
+            if (saldos == null) {
+                log.error("Movimientos del journal rechazados al volcar, la cuenta {} no tiene saldo para ellos: {}",
+                        deCuenta.get(0).numeroCuenta(), deCuenta);
+                return;
+            }
+            Dinero delta = Dinero.CERO;
+            for (int i = 0; i < deCuenta.size(); i++) {
+                RegistroJournal registro = deCuenta.get(i);
+                movimientos.add(Movimiento.builder()
+                        .fecha(registro.fecha())
+                        .tipoMovimiento(registro.tipoMovimiento())
+                        .valor(registro.valor())
+                        .saldo(saldos.get(i))
+                        .cuenta(cuenta)
+                        .build());
+                delta = delta.sumar(registro.valor());
+            }
+            // La fila está bloqueada: la variación se suma sobre el saldo con el que se calcularon los registros
+            cuentaRepository.sumarSaldo(cuentaId, delta);
+            clienteIds.add(cuenta.getClienteId());
+        });
+
+        movimientoRepository.saveAll(movimientos);
+        movimientoDiarioService.acumular(movimientos);
+        reporteCacheService.invalidarClientes(clienteIds);
+        checkpointRepository.save(new JournalCheckpoint(ID_CHECKPOINT, registros.get(registros.size() - 1).lsn()));
+    }
+
+    // Saldos de los registros partiendo del saldo de la base, o null si alguno quedaría negativo
+    private static List<Dinero> saldos(Dinero saldoBase, List<RegistroJournal> registros) {
+        RegistroJournal primero = registros.get(0);
+        if (saldoBase.equals(primero.saldo().restar(primero.valor()))) {
+            return registros.stream().map(RegistroJournal::saldo).toList();
+        }
+        log.warn("La cuenta {} cambió fuera del journal: los saldos de {} registro(s) se recalculan desde {}",
+                primero.numeroCuenta(), registros.size(), saldoBase);
+        List<Dinero> saldos = new ArrayList<>(registros.size());
+        Dinero saldo = saldoBase;
+        for (RegistroJournal registro : registros) {
+            saldo = saldo.sumar(registro.valor());
+            if (saldo.esNegativo()) {
+                return null;
+            }
+            saldos.add(saldo);
+        }
+        return saldos;
+    }
+}
@@ -0,0 +1,55 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+
+import java.io.*;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento aceptado tal como se escribe en el journal. El lsn es la posición
+ * lógica del registro y crece de forma estricta entre reinicios.
+ */
+public record RegistroJournal(long lsn, Long cuentaId, String numeroCuenta, TipoMovimiento tipoMovimiento,
+                              Dinero valor, Dinero saldo, LocalDateTime fecha) {
+
+    static RegistroJournal desde(long lsn, Movimiento movimiento) {
+        return new RegistroJournal(lsn,
+                movimiento.getCuenta().getId(),
+                movimiento.getCuenta().getNumeroCuenta(),
+                movimiento.getTipoMovimiento(),
+                movimiento.getValor(),
+                movimiento.getSaldo(),
+                movimiento.getFecha());
+    }
+
+    byte[] codificar() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeLong(lsn);
+            salida.writeLong(cuentaId);
+            salida.writeUTF(numeroCuenta);
+            salida.writeUTF(tipoMovimiento.name());
+            salida.writeUTF(valor.toString());
+            salida.writeUTF(saldo.toString());
+            salida.writeUTF(fecha.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static RegistroJournal decodificar(byte[] datos) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos))) {
+            return new RegistroJournal(
+                    entrada.readLong(),
+                    entrada.readLong(),
+                    entrada.readUTF(),
+                    TipoMovimiento.valueOf(entrada.readUTF()),
+                    Dinero.of(entrada.readUTF()),
+                    Dinero.of(entrada.readUTF()),
+                    LocalDateTime.parse(entrada.readUTF()));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+
+/**
+ * Saldo de una cuenta en la base de datos y lsn del último volcado del journal, leídos en una misma
+ * sentencia: el saldo incluye exactamente los registros hasta ese lsn.
+ */
+public record SaldoConfirmado(Dinero saldo, Long lsn) {
+}
@@ -0,0 +1,46 @@
+package com.devsu.cuentasapp.infrastructure.persistence.replica;
+
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource que envía las transacciones de solo lectura de los servicios a la réplica y todo lo
+ * demás al primario. La ruta se decide al obtener la conexión física, por lo que debe usarse detrás
+ * de un LazyConnectionDataSourceProxy: así la conexión se pide en la primera sentencia, cuando el
+ * indicador readOnly de la transacción ya está registrado.
+ * <p>
+ * Las transacciones por defecto de los repositorios de Spring Data (SimpleJpaRepository, también
+ * readOnly) van al primario: son las lecturas sueltas fuera de una transacción de servicio, que
+ * pueden preceder a una escritura y no deben ver datos atrasados.
+ */
+public class RutaDataSource extends AbstractRoutingDataSource {
+
+    private static final String TRANSACCIONES_REPOSITORIO = SimpleJpaRepository.class.getName() + ".";
+
+    public enum Ruta { PRIMARIO, REPLICA }
+
+    public RutaDataSource(DataSource primario, DataSource replica) {
+        setTargetDataSources(Map.of(Ruta.PRIMARIO, primario, Ruta.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return rutaActual();
+    }
+
+    public static Ruta rutaActual() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || LecturaPrimario.activa()) {
+            return Ruta.PRIMARIO;
+        }
+        String transaccion = TransactionSynchronizationManager.getCurrentTransactionName();
+        return transaccion == null || transaccion.startsWith(TRANSACCIONES_REPOSITORIO)
+                ? Ruta.PRIMARIO
+                : Ruta.REPLICA;
+    }
+}
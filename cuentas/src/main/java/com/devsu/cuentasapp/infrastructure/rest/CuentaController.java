@@ -2,15 +2,21 @@ package com.devsu.cuentasapp.infrastructure.rest;
 
 import com.devsu.cuentasapp.application.dto.CuentaRequestDto;
 import com.devsu.cuentasapp.application.dto.CuentaResponseDto;
+import com.devsu.cuentasapp.application.dto.PaginaDto;
+import com.devsu.cuentasapp.application.dto.SaldoFechaDto;
 import com.devsu.cuentasapp.application.service.CuentaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -29,9 +35,15 @@ public class CuentaController {
     }
 
     @GetMapping
-    @Operation(summary = "Obtener todas las cuentas")
-    public ResponseEntity<List<CuentaResponseDto>> obtenerTodasLasCuentas() {
-        List<CuentaResponseDto> cuentas = cuentaService.obtenerTodasLasCuentas();
+    @Operation(summary = "Obtener cuentas paginadas",
+               description = "Filtros opcionales por estado, tipoCuenta y clienteId; para la siguiente página se envía el siguienteCursor recibido")
+    public ResponseEntity<PaginaDto<CuentaResponseDto>> obtenerCuentas(
+            @RequestParam(required = false) Boolean estado,
+            @RequestParam(required = false) String tipoCuenta,
+            @RequestParam(required = false) String clienteId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamano) {
+        PaginaDto<CuentaResponseDto> cuentas = cuentaService.obtenerCuentas(estado, tipoCuenta, clienteId, cursor, tamano);
         return ResponseEntity.ok(cuentas);
     }
 
@@ -49,6 +61,15 @@ public class CuentaController {
         return ResponseEntity.ok(cuenta);
     }
 
+    @GetMapping("/{numeroCuenta}/saldo")
+    @Operation(summary = "Obtener el saldo de una cuenta al cierre de una fecha")
+    public ResponseEntity<SaldoFechaDto> obtenerSaldoEnFecha(
+            @PathVariable String numeroCuenta,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        SaldoFechaDto saldo = cuentaService.obtenerSaldoEnFecha(numeroCuenta, fecha);
+        return ResponseEntity.ok(saldo);
+    }
+
     @GetMapping("/cliente/{clienteId}")
     @Operation(summary = "Obtener cuentas por cliente")
     public ResponseEntity<List<CuentaResponseDto>> obtenerCuentasPorCliente(@PathVariable String clienteId) {
@@ -73,6 +94,19 @@ public class CuentaController {
         CuentaResponseDto response = cuentaService.actualizarCuenta(id, requestDto);
         return ResponseEntity.ok(response);
     }
-}
 
+    @PutMapping("/{id}/saldo-fraccionado")
+    @Operation(summary = "Activar el saldo fraccionado de una cuenta",
+               description = "Reparte el saldo en fracciones para que los depósitos concurrentes no se serialicen sobre la cuenta")
+    public ResponseEntity<CuentaResponseDto> activarSaldoFraccionado(@PathVariable Long id) {
+        CuentaResponseDto response = cuentaService.activarSaldoFraccionado(id);
+        return ResponseEntity.ok(response);
+    }
 
+    @DeleteMapping("/{id}/saldo-fraccionado")
+    @Operation(summary = "Desactivar el saldo fraccionado de una cuenta")
+    public ResponseEntity<CuentaResponseDto> desactivarSaldoFraccionado(@PathVariable Long id) {
+        CuentaResponseDto response = cuentaService.desactivarSaldoFraccionado(id);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,61 @@
+package com.devsu.cuentasapp.infrastructure.rest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Envía un archivo local como cuerpo de la respuesta. Con el conector NIO de Tomcat se delega en
+ * sendfile: el servlet solo indica el archivo y Tomcat lo transfiere del page cache al socket al
+ * terminar la petición, sin pasar por el heap. Si el conector no lo soporta se usa
+ * FileChannel.transferTo sobre la salida de la respuesta; como el destino no es un canal de socket,
+ * la JVM copia el archivo por bloques a un búfer temporal y de ahí al stream del servlet, así que esa
+ * ruta no es zero-copy, aunque nunca mantiene el archivo completo en memoria.
+ */
+@Component
+@Slf4j
+public class EnvioArchivo {
+
+    static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    public void enviar(Path archivo, MediaType tipo, String nombre,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long tamano = Files.size(archivo);
+        response.setContentType(tipo.toString());
+        response.setContentLengthLong(tamano);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(nombre).build().toString());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, archivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, 0L);
+            request.setAttribute(SENDFILE_FIN, tamano);
+            log.debug("Enviando {} ({} bytes) con sendfile", archivo, tamano);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel destino = Channels.newChannel(response.getOutputStream());
+            long enviados = 0;
+            while (enviados < tamano) {
+                enviados += canal.transferTo(enviados, tamano - enviados, destino);
+            }
+        }
+        log.debug("Enviado {} ({} bytes) por bloques con FileChannel.transferTo", archivo, tamano);
+    }
+}
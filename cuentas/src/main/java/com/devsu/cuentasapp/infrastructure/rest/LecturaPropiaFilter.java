@@ -0,0 +1,70 @@
+package com.devsu.cuentasapp.infrastructure.rest;
+
+import com.devsu.cuentasapp.infrastructure.persistence.replica.LecturaPrimario;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Lectura de las propias escrituras con réplica. Las peticiones que escriben (POST, PUT, PATCH,
+ * DELETE) responden el encabezado {@value #ENCABEZADO} con el instante (epoch en milisegundos) hasta
+ * el que la réplica puede no tenerlas todavía, {@code datasource.replica.lectura-propia} desde ahora.
+ * Mientras el cliente lo reenvíe y no haya vencido, sus lecturas van al primario; las posteriores a
+ * la escritura dentro de la misma petición, también.
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class LecturaPropiaFilter extends OncePerRequestFilter {
+
+    public static final String ENCABEZADO = "X-Lectura-Primario-Hasta";
+
+    private static final Set<String> METODOS_LECTURA = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration ventana;
+
+    public LecturaPropiaFilter(@Value("${datasource.replica.lectura-propia:PT5S}") Duration ventana) {
+        this.ventana = ventana;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Instant ahora = Instant.now();
+        Instant hasta = leerToken(request.getHeader(ENCABEZADO), ahora);
+        if (!METODOS_LECTURA.contains(request.getMethod())) {
+            // Antes de la cadena: la respuesta puede quedar confirmada al escribir el cuerpo
+            hasta = ahora.plus(ventana);
+            response.setHeader(ENCABEZADO, String.valueOf(hasta.toEpochMilli()));
+        }
+        LecturaPrimario.fijarHasta(hasta);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LecturaPrimario.limpiar();
+        }
+    }
+
+    // Un token no fija al primario más allá de la ventana desde ahora; uno inválido se ignora
+    private Instant leerToken(String token, Instant ahora) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            Instant hasta = Instant.ofEpochMilli(Long.parseLong(token.trim()));
+            Instant limite = ahora.plus(ventana);
+            return hasta.isAfter(limite) ? limite : hasta;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,16 +1,33 @@
 package com.devsu.cuentasapp.infrastructure.rest;
 
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
 import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
 import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.dto.PaginaDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.application.service.ExportacionMovimientoService;
+import com.devsu.cuentasapp.application.service.IdempotenciaMovimientoService;
+import com.devsu.cuentasapp.application.service.MovimientoLoteService;
 import com.devsu.cuentasapp.application.service.MovimientoService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -20,22 +37,65 @@ import java.util.List;
 public class MovimientoController {
 
     private final MovimientoService movimientoService;
+    private final MovimientoLoteService movimientoLoteService;
+    private final ObjectProvider<MovimientoEngine> movimientoEngine;
+    private final IdempotenciaMovimientoService idempotenciaMovimientoService;
+    private final ExportacionMovimientoService exportacionMovimientoService;
 
     @PostMapping
-    @Operation(summary = "Registrar un nuevo movimiento")
+    @Operation(summary = "Registrar un nuevo movimiento",
+               description = "Con el header Idempotency-Key, los reintentos devuelven la respuesta original sin registrar otro movimiento")
     public ResponseEntity<MovimientoResponseDto> registrarMovimiento(
+            @RequestHeader(value = "Idempotency-Key", required = false)
+            @Size(max = 100) @Pattern(regexp = "\\S+") String idempotencyKey,
             @Valid @RequestBody MovimientoRequestDto requestDto) {
-        MovimientoResponseDto response = movimientoService.registrarMovimiento(requestDto);
+        MovimientoResponseDto response = idempotencyKey != null
+                ? idempotenciaMovimientoService.registrar(idempotencyKey, requestDto, () -> registrar(requestDto))
+                : registrar(requestDto);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Registrar un lote de movimientos",
+               description = "Devuelve un resultado por cada movimiento; un error en una línea no afecta a las demás")
+    public ResponseEntity<List<MovimientoLoteResultadoDto>> registrarMovimientos(
+            @RequestBody @NotEmpty @Size(max = 10000) List<@Valid MovimientoRequestDto> requests) {
+        MovimientoEngine engine = movimientoEngine.getIfAvailable();
+        List<MovimientoLoteResultadoDto> resultados = engine != null
+                ? engine.registrarLote(requests)
+                : movimientoLoteService.registrarMovimientos(requests);
+        return ResponseEntity.ok(resultados);
+    }
+
     @GetMapping
-    @Operation(summary = "Obtener todos los movimientos")
-    public ResponseEntity<List<MovimientoResponseDto>> obtenerTodosLosMovimientos() {
-        List<MovimientoResponseDto> movimientos = movimientoService.obtenerTodosLosMovimientos();
+    @Operation(summary = "Obtener movimientos paginados",
+               description = "Del más reciente al más antiguo; para la siguiente página se envía el siguienteCursor recibido")
+    public ResponseEntity<PaginaDto<MovimientoResponseDto>> obtenerMovimientos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamano) {
+        PaginaDto<MovimientoResponseDto> movimientos = movimientoService.obtenerMovimientos(cursor, tamano);
         return ResponseEntity.ok(movimientos);
     }
 
+    @GetMapping(value = "/exportacion", produces = "application/x-ndjson")
+    @Operation(summary = "Exportar movimientos en NDJSON",
+               description = "Un movimiento por línea, en orden de fecha, leído y escrito en streaming; todos los filtros son opcionales")
+    public ResponseEntity<StreamingResponseBody> exportarMovimientos(
+            @RequestParam(required = false) String numeroCuenta,
+            @RequestParam(required = false) String clienteId,
+
+            @Parameter(description = "Fecha de inicio en formato yyyy-MM-dd")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+
+            @Parameter(description = "Fecha de fin en formato yyyy-MM-dd")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        StreamingResponseBody cuerpo = salida ->
+                exportacionMovimientoService.exportar(numeroCuenta, clienteId, fechaInicio, fechaFin, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(cuerpo);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener movimiento por ID")
     public ResponseEntity<MovimientoResponseDto> obtenerMovimientoPorId(@PathVariable Long id) {
@@ -44,11 +104,21 @@ public class MovimientoController {
     }
 
     @GetMapping("/cuenta/{numeroCuenta}")
-    @Operation(summary = "Obtener movimientos por cuenta")
-    public ResponseEntity<List<MovimientoResponseDto>> obtenerMovimientosPorCuenta(
-            @PathVariable String numeroCuenta) {
-        List<MovimientoResponseDto> movimientos = movimientoService.obtenerMovimientosPorCuenta(numeroCuenta);
+    @Operation(summary = "Obtener movimientos por cuenta paginados")
+    public ResponseEntity<PaginaDto<MovimientoResponseDto>> obtenerMovimientosPorCuenta(
+            @PathVariable String numeroCuenta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int tamano) {
+        PaginaDto<MovimientoResponseDto> movimientos =
+                movimientoService.obtenerMovimientosPorCuenta(numeroCuenta, cursor, tamano);
         return ResponseEntity.ok(movimientos);
     }
-}
 
+    private MovimientoResponseDto registrar(MovimientoRequestDto requestDto) {
+        // Con el motor habilitado, el movimiento se aplica en la lane de su cuenta
+        MovimientoEngine engine = movimientoEngine.getIfAvailable();
+        return engine != null
+                ? engine.registrar(requestDto)
+                : movimientoService.registrarMovimiento(requestDto);
+    }
+}
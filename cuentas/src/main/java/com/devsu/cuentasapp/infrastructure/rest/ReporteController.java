@@ -1,15 +1,32 @@
 package com.devsu.cuentasapp.infrastructure.rest;
 
 import com.devsu.cuentasapp.application.dto.EstadoCuentaDto;
+import com.devsu.cuentasapp.application.dto.ReporteJobDto;
+import com.devsu.cuentasapp.application.dto.ReporteJobRequestDto;
+import com.devsu.cuentasapp.application.dto.SerieMovimientosDto;
+import com.devsu.cuentasapp.application.service.MovimientoDiarioService;
+import com.devsu.cuentasapp.application.service.ReporteCacheService;
+import com.devsu.cuentasapp.application.service.ReporteJobService;
 import com.devsu.cuentasapp.application.service.ReporteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 
 @RestController
@@ -19,6 +36,10 @@ import java.time.LocalDate;
 public class ReporteController {
 
     private final ReporteService reporteService;
+    private final ReporteCacheService reporteCacheService;
+    private final ReporteJobService reporteJobService;
+    private final EnvioArchivo envioArchivo;
+    private final MovimientoDiarioService movimientoDiarioService;
 
     @GetMapping
     @Operation(summary = "Generar estado de cuenta por cliente y rango de fechas")
@@ -30,10 +51,89 @@ public class ReporteController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
 
             @Parameter(description = "Fecha de fin en formato yyyy-MM-dd", required = true)
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+
+            @Parameter(description = "false para obtener solo los totales por cuenta, sin movimientos")
+            @RequestParam(defaultValue = "true") boolean detalle) {
 
-        EstadoCuentaDto estadoCuenta = reporteService.generarEstadoCuenta(cliente, fechaInicio, fechaFin);
+        // El resumen es una sola consulta agregada y no pasa por la caché
+        EstadoCuentaDto estadoCuenta = detalle
+                ? reporteCacheService.generarEstadoCuenta(cliente, fechaInicio, fechaFin)
+                : reporteService.generarResumenEstadoCuenta(cliente, fechaInicio, fechaFin);
         return ResponseEntity.ok(estadoCuenta);
     }
-}
 
+    @GetMapping(produces = "text/csv")
+    @Operation(summary = "Generar estado de cuenta en CSV (Accept: text/csv)",
+               description = "Una fila por movimiento, escrita en streaming a medida que se lee de la base")
+    public ResponseEntity<StreamingResponseBody> generarEstadoCuentaCsv(
+            @Parameter(description = "ID del cliente", required = true)
+            @RequestParam String cliente,
+
+            @Parameter(description = "Fecha de inicio en formato yyyy-MM-dd", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+
+            @Parameter(description = "Fecha de fin en formato yyyy-MM-dd", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+
+        StreamingResponseBody cuerpo = salida ->
+                reporteService.escribirEstadoCuentaCsv(cliente, fechaInicio, fechaFin, salida);
+        String archivo = "estado-cuenta-" + cliente + "-" + fechaInicio + "-" + fechaFin + ".csv";
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(archivo).build().toString())
+                .body(cuerpo);
+    }
+
+    @GetMapping("/series")
+    @Operation(summary = "Serie diaria de depósitos, retiros y saldo de cierre por cuenta y por cliente",
+               description = "Se lee de los totales diarios: una fila por cuenta y día con movimientos")
+    public ResponseEntity<SerieMovimientosDto> obtenerSerie(
+            @Parameter(description = "ID del cliente", required = true)
+            @RequestParam String cliente,
+
+            @Parameter(description = "Fecha de inicio en formato yyyy-MM-dd", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+
+            @Parameter(description = "Fecha de fin en formato yyyy-MM-dd", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+
+        return ResponseEntity.ok(movimientoDiarioService.obtenerSerie(cliente, fechaInicio, fechaFin));
+    }
+
+    @PostMapping("/series/reconstruccion")
+    @Operation(summary = "Recalcular en segundo plano los totales diarios desde los movimientos",
+               description = "Necesario una vez para los movimientos registrados antes de los totales diarios")
+    public ResponseEntity<Void> reconstruirSeries() {
+        // Si ya hay una en curso no se inicia otra
+        movimientoDiarioService.iniciarReconstruccion();
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/jobs")
+    @Operation(summary = "Encolar la generación de un estado de cuenta a archivo",
+               description = "Responde 202 con el trabajo; su estado se consulta en Location y el archivo se descarga al completarse")
+    public ResponseEntity<ReporteJobDto> encolarReporte(@Valid @RequestBody ReporteJobRequestDto requestDto) {
+        ReporteJobDto job = reporteJobService.encolar(requestDto);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/reportes/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Consultar el estado de un trabajo de reporte")
+    public ResponseEntity<ReporteJobDto> obtenerReporteJob(@PathVariable String id) {
+        return ResponseEntity.ok(reporteJobService.obtener(id));
+    }
+
+    @GetMapping("/jobs/{id}/archivo")
+    @Operation(summary = "Descargar el archivo de un trabajo de reporte completado")
+    public void descargarReporte(@PathVariable String id, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        ReporteJobService.ArchivoReporte archivo = reporteJobService.obtenerArchivo(id);
+        MediaType tipo = "json".equals(archivo.formato())
+                ? MediaType.APPLICATION_JSON
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        envioArchivo.enviar(archivo.ruta(), tipo, archivo.nombre(), request, response);
+    }
+}
@@ -0,0 +1,83 @@
+-- =====================================================
+-- Esquema inicial del microservicio de Cuentas
+-- =====================================================
+-- Común a PostgreSQL y H2 (modo PostgreSQL). Flyway lo ejecuta con cuentas_schema como
+-- esquema por defecto. IF NOT EXISTS: en bases creadas antes de Flyway (ddl-auto=update o
+-- BaseDatos.sql) se aplica sobre el baseline 0 y solo agrega lo que falte.
+
+-- Secuencias de ids con incremento 50: Hibernate reserva bloques de ids (optimizador pooled)
+-- y puede agrupar los INSERT en batches JDBC. Los INSERT manuales usan el DEFAULT de la columna.
+CREATE SEQUENCE IF NOT EXISTS cuentas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS movimientos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS saldo_fracciones_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS cuentas (
+    id BIGINT DEFAULT nextval('cuentas_seq') PRIMARY KEY,
+    numero_cuenta VARCHAR(20) NOT NULL,
+    tipo_cuenta VARCHAR(50) NOT NULL,
+    saldo_inicial DECIMAL(15,2) NOT NULL,
+    saldo_actual DECIMAL(15,2) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE,
+    cliente_id VARCHAR(50) NOT NULL,
+    cliente_nombre VARCHAR(100),
+    saldo_fraccionado BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT uk_cuentas_numero_cuenta UNIQUE (numero_cuenta)
+);
+
+CREATE TABLE IF NOT EXISTS movimientos (
+    id BIGINT DEFAULT nextval('movimientos_seq') PRIMARY KEY,
+    fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    tipo_movimiento VARCHAR(50) NOT NULL,
+    valor DECIMAL(15,2) NOT NULL,
+    saldo DECIMAL(15,2) NOT NULL,
+    cuenta_id BIGINT NOT NULL,
+    CONSTRAINT fk_movimientos_cuenta FOREIGN KEY (cuenta_id) REFERENCES cuentas(id) ON DELETE CASCADE
+);
+
+-- Fracciones del saldo de cuentas calientes (saldo_fraccionado = TRUE): el saldo es la suma de sus fracciones
+CREATE TABLE IF NOT EXISTS cuentas_saldo_fracciones (
+    id BIGINT DEFAULT nextval('saldo_fracciones_seq') PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    slot INTEGER NOT NULL,
+    saldo DECIMAL(15,2) NOT NULL,
+    CONSTRAINT uk_saldo_fracciones_cuenta_slot UNIQUE (cuenta_id, slot),
+    CONSTRAINT fk_saldo_fracciones_cuenta FOREIGN KEY (cuenta_id) REFERENCES cuentas(id) ON DELETE CASCADE
+);
+
+-- Agregados diarios por cuenta, fracción (slot) y día para /reportes/series
+CREATE TABLE IF NOT EXISTS movimientos_diarios (
+    cuenta_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    slot INTEGER NOT NULL,
+    cantidad BIGINT NOT NULL,
+    depositos DECIMAL(15,2) NOT NULL,
+    retiros DECIMAL(15,2) NOT NULL,
+    saldo_cierre DECIMAL(15,2) NOT NULL,
+    ultima_fecha TIMESTAMP NOT NULL,
+    ultimo_movimiento_id BIGINT NOT NULL,
+    PRIMARY KEY (cuenta_id, fecha, slot)
+);
+
+-- Checkpoint del journal de movimientos: último lsn volcado a la tabla movimientos
+CREATE TABLE IF NOT EXISTS movimientos_journal_checkpoint (
+    id INTEGER PRIMARY KEY,
+    lsn BIGINT NOT NULL
+);
+
+-- Límite del archivo histórico: los movimientos anteriores están en los segmentos en disco
+CREATE TABLE IF NOT EXISTS movimientos_archivo_estado (
+    id INTEGER PRIMARY KEY,
+    archivado_hasta TIMESTAMP NOT NULL,
+    actualizado_en TIMESTAMP NOT NULL
+);
+
+-- Claves de idempotencia de POST /movimientos con la respuesta original (respuesta NULL = en curso)
+CREATE TABLE IF NOT EXISTS movimientos_idempotencia (
+    clave VARCHAR(100) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    respuesta VARCHAR(4000),
+    expira_en TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_movimientos_fecha_id ON movimientos(fecha, id);
+CREATE INDEX IF NOT EXISTS idx_movimientos_idempotencia_expira_en ON movimientos_idempotencia(expira_en);
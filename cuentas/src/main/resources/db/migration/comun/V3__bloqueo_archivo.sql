@@ -0,0 +1,15 @@
+-- =====================================================
+-- Bloqueo del job de archivado de movimientos
+-- =====================================================
+-- Común a PostgreSQL y H2 (modo PostgreSQL). Una sola fila: la instancia que la toma con un
+-- UPDATE condicional archiva y purga hasta que su plazo vence; las demás omiten la ejecución.
+
+CREATE TABLE IF NOT EXISTS movimientos_archivo_bloqueo (
+    id INTEGER PRIMARY KEY,
+    propietario VARCHAR(100) NOT NULL,
+    hasta TIMESTAMP NOT NULL
+);
+
+INSERT INTO movimientos_archivo_bloqueo (id, propietario, hasta)
+SELECT 1, '-', TIMESTAMP '1970-01-01 00:00:00'
+WHERE NOT EXISTS (SELECT 1 FROM movimientos_archivo_bloqueo WHERE id = 1);
@@ -0,0 +1,8 @@
+-- =====================================================
+-- Saldo derivado de los movimientos de cuentas con saldo fraccionado
+-- =====================================================
+-- Común a PostgreSQL y H2 (modo PostgreSQL). Los movimientos de una cuenta con saldo fraccionado
+-- se insertan con saldo NULL; la consolidación, con todas sus fracciones bloqueadas, deriva el
+-- saldo en orden (fecha, id) desde el último movimiento con saldo.
+
+ALTER TABLE movimientos ALTER COLUMN saldo DROP NOT NULL;
@@ -0,0 +1,9 @@
+-- =====================================================
+-- Propietario de las reservas de idempotencia
+-- =====================================================
+-- Común a PostgreSQL y H2 (modo PostgreSQL). Una reserva en curso de POST /movimientos guarda la
+-- instancia que la tomó: solo esa instancia la renueva, la completa o la libera, y otra puede
+-- reemplazarla únicamente después de que deje de renovarla. NULL en las reservas de la ingesta
+-- asíncrona, que duran el TTL completo.
+
+ALTER TABLE movimientos_idempotencia ADD COLUMN IF NOT EXISTS propietario VARCHAR(36);
@@ -0,0 +1,10 @@
+-- =====================================================
+-- Índices para las consultas calientes (H2, pruebas)
+-- =====================================================
+-- Variante de postgresql/V2__indices_rendimiento.sql con los mismos nombres: H2 no tiene
+-- CONCURRENTLY, INCLUDE ni índices parciales, así que se crean los B-tree equivalentes.
+
+CREATE INDEX IF NOT EXISTS idx_movimientos_cuenta_fecha_desc ON movimientos (cuenta_id, fecha DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_cuentas_cliente_id_cubierto ON cuentas (cliente_id, id, numero_cuenta);
+CREATE INDEX IF NOT EXISTS idx_cuentas_activas ON cuentas (estado, id);
+CREATE INDEX IF NOT EXISTS idx_cuentas_saldo_fraccionado ON cuentas (saldo_fraccionado, id);
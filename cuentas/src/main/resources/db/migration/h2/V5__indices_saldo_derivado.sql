@@ -0,0 +1,7 @@
+-- =====================================================
+-- Índices del saldo derivado (H2, pruebas)
+-- =====================================================
+-- Variante de postgresql/V5__indices_saldo_derivado.sql: sin índices parciales, el B-tree incluye
+-- saldo para ubicar los NULL de la cuenta.
+
+CREATE INDEX IF NOT EXISTS idx_movimientos_saldo_pendiente ON movimientos (cuenta_id, saldo, fecha, id);
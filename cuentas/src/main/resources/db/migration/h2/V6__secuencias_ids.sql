@@ -0,0 +1,9 @@
+-- =====================================================
+-- Secuencias de ids en bases anteriores a Flyway (H2, pruebas)
+-- =====================================================
+-- Variante de postgresql/V6__secuencias_ids.sql: la base en memoria siempre la crea V1 vacía, así
+-- que las secuencias no tienen que adelantarse; solo se fijan los DEFAULT de las columnas.
+
+ALTER TABLE cuentas ALTER COLUMN id SET DEFAULT nextval('cuentas_seq');
+ALTER TABLE movimientos ALTER COLUMN id SET DEFAULT nextval('movimientos_seq');
+ALTER TABLE cuentas_saldo_fracciones ALTER COLUMN id SET DEFAULT nextval('saldo_fracciones_seq');
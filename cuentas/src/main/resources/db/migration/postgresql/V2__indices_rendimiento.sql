@@ -0,0 +1,34 @@
+-- =====================================================
+-- Índices para las consultas calientes (PostgreSQL)
+-- =====================================================
+-- CONCURRENTLY no bloquea escrituras mientras se construye el índice; Flyway ejecuta esta
+-- migración fuera de transacción porque todas sus sentencias lo son. Si una construcción se
+-- interrumpe queda un índice INVALID con el mismo nombre: borrarlo y volver a migrar.
+
+-- Paginación y saldos por cuenta (ORDER BY fecha DESC, id DESC): el índice ya entrega las filas
+-- en el orden pedido y la búsqueda del último saldo antes de una fecha lee una sola entrada.
+-- Reemplaza a idx_movimientos_cuenta_fecha_id (cuenta_id, fecha, id).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movimientos_cuenta_fecha_desc
+    ON movimientos (cuenta_id, fecha DESC, id DESC);
+DROP INDEX CONCURRENTLY IF EXISTS idx_movimientos_cuenta_fecha_id;
+
+-- Los rangos de fecha de reportes, exportación y archivado usan idx_movimientos_fecha_id (V1), el
+-- mismo B-tree que pagina el feed global por (fecha, id); un BRIN sobre fecha no se elegiría nunca.
+
+-- Cuentas de un cliente: reportes y series solo necesitan id y numero_cuenta, que salen del índice
+-- sin visitar la tabla (index-only scan). Reemplaza a idx_cuentas_cliente_id.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cuentas_cliente_id_cubierto
+    ON cuentas (cliente_id) INCLUDE (id, numero_cuenta);
+DROP INDEX CONCURRENTLY IF EXISTS idx_cuentas_cliente_id;
+
+-- numero_cuenta ya tiene el índice de su restricción UNIQUE
+DROP INDEX CONCURRENTLY IF EXISTS idx_cuentas_numero_cuenta;
+
+-- Parciales: solo indexan las filas que filtran las consultas frecuentes
+-- Listado paginado de cuentas activas (estado = TRUE ORDER BY id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cuentas_activas
+    ON cuentas (id) WHERE estado;
+-- Cuentas calientes: SaldoFraccionadoService.consolidar las busca cada 5 s; el índice solo tiene
+-- unas pocas entradas en lugar de recorrer toda la tabla de cuentas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cuentas_saldo_fraccionado
+    ON cuentas (id) WHERE saldo_fraccionado;
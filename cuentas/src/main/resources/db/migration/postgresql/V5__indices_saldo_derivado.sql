@@ -0,0 +1,9 @@
+-- =====================================================
+-- Índices del saldo derivado (PostgreSQL)
+-- =====================================================
+-- CONCURRENTLY, fuera de transacción como V2.
+
+-- Movimientos con el saldo pendiente de derivar: la consolidación busca el primero de cada cuenta
+-- caliente cada 5 s; el índice parcial solo tiene los insertados desde la consolidación anterior
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_movimientos_saldo_pendiente
+    ON movimientos (cuenta_id, fecha, id) WHERE saldo IS NULL;
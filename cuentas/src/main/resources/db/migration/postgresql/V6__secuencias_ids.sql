@@ -0,0 +1,24 @@
+-- =====================================================
+-- Secuencias de ids en bases anteriores a Flyway (PostgreSQL)
+-- =====================================================
+-- En una base creada con BIGSERIAL (ddl-auto=update o BaseDatos.sql), V1 crea las secuencias
+-- desde 1 sobre el baseline 0 mientras las tablas ya tienen filas, y las columnas siguen tomando
+-- el DEFAULT de la secuencia del BIGSERIAL. Las secuencias se adelantan más allá del id máximo y
+-- los DEFAULT pasan a ellas. Con el optimizador pooled Hibernate usa el bloque que termina en el
+-- valor leído, así que el siguiente valor queda un bloque entero (50) por encima del máximo; nunca
+-- retrocede si la secuencia ya iba más adelante.
+
+SELECT setval('cuentas_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM cuentas), (SELECT last_value FROM cuentas_seq)) + 50,
+              false);
+SELECT setval('movimientos_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM movimientos), (SELECT last_value FROM movimientos_seq)) + 50,
+              false);
+SELECT setval('saldo_fracciones_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) FROM cuentas_saldo_fracciones),
+                       (SELECT last_value FROM saldo_fracciones_seq)) + 50,
+              false);
+
+ALTER TABLE cuentas ALTER COLUMN id SET DEFAULT nextval('cuentas_seq');
+ALTER TABLE movimientos ALTER COLUMN id SET DEFAULT nextval('movimientos_seq');
+ALTER TABLE cuentas_saldo_fracciones ALTER COLUMN id SET DEFAULT nextval('saldo_fracciones_seq');
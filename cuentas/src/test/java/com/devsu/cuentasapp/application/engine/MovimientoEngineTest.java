@@ -0,0 +1,220 @@
+package com.devsu.cuentasapp.application.engine;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoEngine")
+class MovimientoEngineTest {
+
+    @Mock
+    private MovimientoEngineStore store;
+
+    private MovimientoEngine engine;
+
+    // Saldos persistidos por el store simulado
+    private final Map<Long, Dinero> saldosPersistidos = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(store.cargarCuenta(anyString())).thenAnswer(invocation -> {
+            String numeroCuenta = invocation.getArgument(0);
+            if ("999999".equals(numeroCuenta)) {
+                throw new CuentaNotFoundException("numeroCuenta", numeroCuenta);
+            }
+            return Cuenta.builder()
+                    .id(Long.valueOf(numeroCuenta))
+                    .numeroCuenta(numeroCuenta)
+                    .saldoActual(Dinero.of("1000.00"))
+                    .estado(!"555555".equals(numeroCuenta))
+                    .build();
+        });
+        lenient().when(store.persistir(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<Movimiento> movimientos = invocation.getArgument(0);
+            Map<Long, AjusteSaldo> ajustes = invocation.getArgument(1);
+            ajustes.forEach((cuentaId, ajuste) ->
+                    saldosPersistidos.put(cuentaId, ajuste.saldoEsperado().sumar(ajuste.delta())));
+            List<MovimientoResponseDto> respuestas = new ArrayList<>();
+            for (Movimiento movimiento : movimientos) {
+                respuestas.add(MovimientoResponseDto.builder()
+                        .tipoMovimiento(movimiento.getTipoMovimiento().name())
+                        .valor(movimiento.getValor())
+                        .saldo(movimiento.getSaldo())
+                        .numeroCuenta(movimiento.getCuenta().getNumeroCuenta())
+                        .build());
+            }
+            return respuestas;
+        });
+
+        engine = new MovimientoEngine(store, 4, 64, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.detener();
+    }
+
+    @Test
+    @DisplayName("Aplicar depósito y retiro en orden sobre el saldo residente")
+    void testAplicarMovimientosEnOrden() {
+        // Act
+        MovimientoResponseDto deposito = engine.registrar(request("123456", "DEPOSITO", "500.00"));
+        MovimientoResponseDto retiro = engine.registrar(request("123456", "retiro", "300.00"));
+
+        // Assert
+        assertEquals(Dinero.of("1500.00"), deposito.getSaldo());
+        assertEquals(Dinero.of("-300.00"), retiro.getValor());
+        assertEquals(Dinero.of("1200.00"), retiro.getSaldo());
+        assertEquals(Dinero.of("1200.00"), saldosPersistidos.get(123456L));
+
+        // La cuenta se carga una sola vez y luego permanece residente
+        verify(store, times(1)).cargarCuenta("123456");
+    }
+
+    @Test
+    @DisplayName("Rechazar retiro con saldo insuficiente sin afectar el saldo residente")
+    void testRetiroConSaldoInsuficiente() {
+        // Act & Assert
+        assertThrows(SaldoInsuficienteException.class,
+                () -> engine.registrar(request("123456", "RETIRO", "1500.00")));
+
+        MovimientoResponseDto retiro = engine.registrar(request("123456", "RETIRO", "1000.00"));
+        assertEquals(0, retiro.getSaldo().compareTo(Dinero.CERO));
+    }
+
+    @Test
+    @DisplayName("Propagar errores de cuenta inexistente o inactiva")
+    void testCuentaInexistenteOInactiva() {
+        assertThrows(CuentaNotFoundException.class,
+                () -> engine.registrar(request("999999", "DEPOSITO", "100.00")));
+        assertThrows(IllegalStateException.class,
+                () -> engine.registrar(request("555555", "DEPOSITO", "100.00")));
+    }
+
+    @Test
+    @DisplayName("Recargar el saldo desde base de datos si falla la persistencia")
+    void testRecargarSaldoTrasErrorDePersistencia() {
+        // Arrange
+        when(store.persistir(anyList(), anyMap()))
+                .thenThrow(new IllegalStateException("Base de datos no disponible"))
+                .thenAnswer(invocation -> List.of(MovimientoResponseDto.builder().build()));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> engine.registrar(request("123456", "DEPOSITO", "100.00")));
+        engine.registrar(request("123456", "DEPOSITO", "100.00"));
+
+        verify(store, times(2)).cargarCuenta("123456");
+    }
+
+    @Test
+    @DisplayName("Reaplicar el lote sobre la cuenta recargada si cambió fuera de la lane")
+    void testReaplicarSiLaCuentaCambioFueraDeLaLane() {
+        // Arrange: la primera persistencia encuentra en la base un saldo distinto del residente
+        when(store.persistir(anyList(), anyMap()))
+                .thenThrow(new CuentaDesactualizadaException())
+                .thenAnswer(invocation -> {
+                    Map<Long, AjusteSaldo> ajustes = invocation.getArgument(1);
+                    assertEquals(new AjusteSaldo(Dinero.of("1000.00"), Dinero.of("100.00")), ajustes.get(123456L));
+                    return List.of(MovimientoResponseDto.builder().saldo(Dinero.of("1100.00")).build());
+                });
+
+        // Act
+        MovimientoResponseDto deposito = engine.registrar(request("123456", "DEPOSITO", "100.00"));
+
+        // Assert
+        assertEquals(Dinero.of("1100.00"), deposito.getSaldo());
+        verify(store, times(2)).cargarCuenta("123456");
+        verify(store, times(2)).persistir(anyList(), anyMap());
+    }
+
+    @Test
+    @DisplayName("Rechazar el lote si la cuenta sigue cambiando fuera de la lane")
+    void testRechazarTrasAgotarReintentos() {
+        // Arrange
+        when(store.persistir(anyList(), anyMap())).thenThrow(new CuentaDesactualizadaException());
+
+        // Act & Assert
+        assertThrows(CuentaDesactualizadaException.class,
+                () -> engine.registrar(request("123456", "DEPOSITO", "100.00")));
+        verify(store, times(3)).persistir(anyList(), anyMap());
+    }
+
+    @Test
+    @DisplayName("Recargar la cuenta expulsada tras una actualización")
+    void testExpulsarCuenta() {
+        // Arrange
+        engine.registrar(request("123456", "DEPOSITO", "100.00"));
+
+        // Act
+        engine.expulsar(List.of("123456"));
+        engine.registrar(request("123456", "DEPOSITO", "100.00"));
+
+        // Assert
+        verify(store, times(2)).cargarCuenta("123456");
+    }
+
+    @Test
+    @DisplayName("No perder actualizaciones con escrituras concurrentes sobre la misma cuenta")
+    void testEscriturasConcurrentesSobreLaMismaCuenta() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<MovimientoResponseDto>> resultados = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 400; i++) {
+            // Aun si todos los retiros llegan primero, el saldo inicial alcanza para cubrirlos
+            MovimientoRequestDto requestDto = i % 2 == 0
+                    ? request("123456", "DEPOSITO", "10.00")
+                    : request("123456", "RETIRO", "5.00");
+            resultados.add(CompletableFuture.supplyAsync(() -> engine.registrar(requestDto), executor));
+        }
+        CompletableFuture.allOf(resultados.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+
+        // Assert
+        assertEquals(0, Dinero.of("2000.00").compareTo(saldosPersistidos.get(123456L)));
+    }
+
+    @Test
+    @DisplayName("Asignar siempre la misma lane a una cuenta")
+    void testIndiceLaneEstable() {
+        int indice = engine.indiceLane("478758");
+        assertEquals(indice, engine.indiceLane("478758"));
+        assertTrue(indice >= 0 && indice < 4);
+    }
+
+    private MovimientoRequestDto request(String numeroCuenta, String tipo, String valor) {
+        return MovimientoRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoMovimiento(tipo)
+                .valor(Dinero.of(valor))
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.domain.model.CuentaMetadatos;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.infrastructure.messaging.CuentaInvalidacionPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para CuentaMetadatosCache")
+class CuentaMetadatosCacheTest {
+
+    private static final CuentaMetadatos METADATOS = new CuentaMetadatos(1L, "123456", true, "CLI001", "AHORROS");
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private CuentaInvalidacionPublisher publisher;
+
+    @Mock
+    private MovimientoEngine movimientoEngine;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CuentaMetadatosCache cuentaMetadatosCache;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cuentaInvalidacionPublisher", publisher);
+        beanFactory.addBean("movimientoEngine", movimientoEngine);
+        cuentaMetadatosCache = new CuentaMetadatosCache(cuentaRepository,
+                beanFactory.getBeanProvider(CuentaInvalidacionPublisher.class),
+                beanFactory.getBeanProvider(MovimientoEngine.class), meterRegistry, 1_000, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Consultar la base una sola vez por cuenta y registrar aciertos y fallos")
+    void testAciertoDeCache() {
+        // Arrange
+        when(cuentaRepository.findMetadatosByNumeroCuenta("123456")).thenReturn(Optional.of(METADATOS));
+
+        // Act
+        Optional<CuentaMetadatos> primero = cuentaMetadatosCache.obtener("123456");
+        Optional<CuentaMetadatos> segundo = cuentaMetadatosCache.obtener("123456");
+
+        // Assert
+        assertEquals(Optional.of(METADATOS), primero);
+        assertEquals(primero, segundo);
+        verify(cuentaRepository, times(1)).findMetadatosByNumeroCuenta("123456");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "cuentas.metadatos")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("No guardar en caché las cuentas inexistentes")
+    void testCuentaInexistente() {
+        // Act
+        cuentaMetadatosCache.obtener("999999");
+        cuentaMetadatosCache.obtener("999999");
+
+        // Assert
+        verify(cuentaRepository, times(2)).findMetadatosByNumeroCuenta("999999");
+    }
+
+    @Test
+    @DisplayName("Invalidar al confirmar la transacción y avisar a las demás instancias")
+    void testInvalidarAlConfirmar() {
+        // Arrange
+        when(cuentaRepository.findMetadatosByNumeroCuenta("123456")).thenReturn(Optional.of(METADATOS));
+        cuentaMetadatosCache.obtener("123456");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cuentaMetadatosCache.invalidar(List.of("123456", "123456"));
+        cuentaMetadatosCache.obtener("123456");
+
+        // Assert: antes del commit la entrada sigue y no se avisó
+        verify(cuentaRepository, times(1)).findMetadatosByNumeroCuenta("123456");
+        verifyNoInteractions(publisher);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cuentaMetadatosCache.obtener("123456");
+
+        verify(cuentaRepository, times(2)).findMetadatosByNumeroCuenta("123456");
+        verify(publisher).publicar(List.of("123456"));
+    }
+
+    @Test
+    @DisplayName("Los avisos recibidos invalidan solo la caché local y las lanes del motor")
+    void testInvalidarLocal() {
+        // Arrange
+        when(cuentaRepository.findMetadatosByNumeroCuenta("123456")).thenReturn(Optional.of(METADATOS));
+        cuentaMetadatosCache.obtener("123456");
+
+        // Act
+        cuentaMetadatosCache.invalidarLocal(List.of("123456"));
+        cuentaMetadatosCache.obtener("123456");
+
+        // Assert
+        verify(cuentaRepository, times(2)).findMetadatosByNumeroCuenta("123456");
+        verify(movimientoEngine).expulsar(List.of("123456"));
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    @DisplayName("Descartar la carga que se cruza con una invalidación")
+    void testInvalidacionDuranteLaCarga() {
+        // Arrange: la cuenta se modifica mientras se leen sus metadatos anteriores
+        when(cuentaRepository.findMetadatosByNumeroCuenta("123456")).thenAnswer(invocation -> {
+            cuentaMetadatosCache.invalidarLocal(List.of("123456"));
+            return Optional.of(METADATOS);
+        }).thenReturn(Optional.of(METADATOS));
+
+        // Act
+        cuentaMetadatosCache.obtener("123456");
+        cuentaMetadatosCache.obtener("123456");
+
+        // Assert
+        verify(cuentaRepository, times(2)).findMetadatosByNumeroCuenta("123456");
+    }
+}
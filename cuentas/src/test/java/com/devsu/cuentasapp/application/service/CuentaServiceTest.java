@@ -2,11 +2,17 @@ package com.devsu.cuentasapp.application.service;
 
 import com.devsu.cuentasapp.application.dto.CuentaRequestDto;
 import com.devsu.cuentasapp.application.dto.CuentaResponseDto;
+import com.devsu.cuentasapp.application.dto.PaginaDto;
 import com.devsu.cuentasapp.application.mapper.CuentaMapper;
 import com.devsu.cuentasapp.domain.exception.CuentaAlreadyExistsException;
 import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.CursorInvalidoException;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import java.math.BigDecimal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,8 +20,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -32,9 +41,24 @@ class CuentaServiceTest {
     @Mock
     private CuentaRepository cuentaRepository;
 
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
     @Mock
     private CuentaMapper cuentaMapper;
 
+    @Mock
+    private SaldoFraccionadoService saldoFraccionadoService;
+
+    @Mock
+    private ReporteCacheService reporteCacheService;
+
+    @Mock
+    private ArchivoMovimientos archivoMovimientos;
+
+    @Mock
+    private CuentaMetadatosCache cuentaMetadatosCache;
+
     @InjectMocks
     private CuentaService cuentaService;
 
@@ -56,8 +80,8 @@ class CuentaServiceTest {
                 .id(1L)
                 .numeroCuenta("123456")
                 .tipoCuenta("AHORROS")
-                .saldoInicial(new BigDecimal("1000.00"))
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoInicial(Dinero.of("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .estado(true)
                 .clienteId("CLI001")
                 .clienteNombre("Jose Lema")
@@ -67,8 +91,8 @@ class CuentaServiceTest {
                 .id(1L)
                 .numeroCuenta("123456")
                 .tipoCuenta("AHORROS")
-                .saldoInicial(new BigDecimal("1000.00"))
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoInicial(Dinero.of("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .estado(true)
                 .clienteId("CLI001")
                 .clienteNombre("Jose Lema")
@@ -91,7 +115,7 @@ class CuentaServiceTest {
         assertNotNull(result);
         assertEquals("123456", result.getNumeroCuenta());
         assertEquals("AHORROS", result.getTipoCuenta());
-        assertEquals(new BigDecimal("1000.00"), result.getSaldoInicial());
+        assertEquals(Dinero.of("1000.00"), result.getSaldoInicial());
 
         verify(cuentaRepository, times(1)).existsByNumeroCuenta(anyString());
         verify(cuentaRepository, times(1)).save(any(Cuenta.class));
@@ -113,22 +137,43 @@ class CuentaServiceTest {
     }
 
     @Test
-    @DisplayName("Obtener todas las cuentas exitosamente")
-    void testObtenerTodasLasCuentas() {
+    @DisplayName("Obtener la primera página de cuentas con cursor a la siguiente")
+    void testObtenerCuentasPaginadas() {
         // Arrange
-        List<Cuenta> cuentas = Arrays.asList(cuenta);
-        when(cuentaRepository.findAll()).thenReturn(cuentas);
+        when(cuentaRepository.findPagina(0L, true, "AHORROS", null, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(cuenta), PageRequest.ofSize(1), true));
+        when(cuentaRepository.findPagina(cuenta.getId(), true, "AHORROS", null, PageRequest.ofSize(1)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.ofSize(1), false));
         when(cuentaMapper.toDto(any(Cuenta.class))).thenReturn(responseDto);
 
         // Act
-        List<CuentaResponseDto> result = cuentaService.obtenerTodasLasCuentas();
+        PaginaDto<CuentaResponseDto> result = cuentaService.obtenerCuentas(true, "AHORROS", null, null, 1);
+        PaginaDto<CuentaResponseDto> siguiente =
+                cuentaService.obtenerCuentas(true, "AHORROS", null, result.getSiguienteCursor(), 1);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("123456", result.get(0).getNumeroCuenta());
+        assertEquals(1, result.getContenido().size());
+        assertEquals("123456", result.getContenido().get(0).getNumeroCuenta());
+        assertNotNull(result.getSiguienteCursor());
+        assertTrue(siguiente.getContenido().isEmpty());
+        verify(cuentaRepository, never()).findAll();
+    }
 
-        verify(cuentaRepository, times(1)).findAll();
+    @Test
+    @DisplayName("Última página de cuentas sin cursor siguiente y cursor inválido")
+    void testObtenerCuentasUltimaPagina() {
+        // Arrange
+        when(cuentaRepository.findPagina(0L, null, null, "CLI001", PageRequest.ofSize(50)))
+                .thenReturn(new SliceImpl<>(List.of(cuenta), PageRequest.ofSize(50), false));
+        when(cuentaMapper.toDto(any(Cuenta.class))).thenReturn(responseDto);
+
+        // Act
+        PaginaDto<CuentaResponseDto> result = cuentaService.obtenerCuentas(null, null, "CLI001", null, 50);
+
+        // Assert
+        assertNull(result.getSiguienteCursor());
+        assertThrows(CursorInvalidoException.class,
+                () -> cuentaService.obtenerCuentas(null, null, null, "no-es-un-cursor", 50));
     }
 
     @Test
@@ -203,10 +248,10 @@ class CuentaServiceTest {
     @DisplayName("Actualizar cuenta exitosamente")
     void testActualizarCuenta() {
         // Arrange
+        when(cuentaMapper.tipoCuenta(requestDto)).thenReturn("AHORROS");
+        when(cuentaRepository.actualizarDatos(1L, "AHORROS", true)).thenReturn(1);
         when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
-        when(cuentaRepository.save(any(Cuenta.class))).thenReturn(cuenta);
         when(cuentaMapper.toDto(any(Cuenta.class))).thenReturn(responseDto);
-        doNothing().when(cuentaMapper).updateEntityFromDto(any(), any());
 
         // Act
         CuentaResponseDto result = cuentaService.actualizarCuenta(1L, requestDto);
@@ -215,8 +260,41 @@ class CuentaServiceTest {
         assertNotNull(result);
         assertEquals("123456", result.getNumeroCuenta());
 
-        verify(cuentaRepository, times(1)).findById(1L);
-        verify(cuentaRepository, times(1)).save(any(Cuenta.class));
+        // El saldo no se reescribe desde la entidad leída
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        verify(reporteCacheService).invalidarCliente("CLI001");
+        verify(cuentaMetadatosCache).invalidar(List.of("123456"));
     }
-}
 
+    @Test
+    @DisplayName("Lanzar excepción al actualizar una cuenta inexistente")
+    void testActualizarCuentaInexistente() {
+        // Arrange
+        when(cuentaMapper.tipoCuenta(requestDto)).thenReturn("AHORROS");
+        when(cuentaRepository.actualizarDatos(99L, "AHORROS", true)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(CuentaNotFoundException.class, () -> cuentaService.actualizarCuenta(99L, requestDto));
+        verifyNoInteractions(cuentaMetadatosCache);
+    }
+
+    @Test
+    @DisplayName("Saldo a una fecha desde el último movimiento o el saldo inicial")
+    void testObtenerSaldoEnFecha() {
+        // Arrange
+        LocalDate fecha = LocalDate.of(2026, 3, 10);
+        when(cuentaRepository.findByNumeroCuenta("123456")).thenReturn(Optional.of(cuenta));
+        when(movimientoRepository.findSaldoAntesDe(1L, fecha.plusDays(1).atStartOfDay(), Limit.of(1)))
+                .thenReturn(Optional.of(Dinero.of("1350.00")));
+        when(movimientoRepository.findSaldoAntesDe(1L, fecha.atStartOfDay(), Limit.of(1)))
+                .thenReturn(Optional.empty());
+
+        // Act
+        Dinero saldoDia = cuentaService.obtenerSaldoEnFecha("123456", fecha).getSaldo();
+        Dinero saldoDiaAnterior = cuentaService.obtenerSaldoEnFecha("123456", fecha.minusDays(1)).getSaldo();
+
+        // Assert
+        assertEquals(Dinero.of("1350.00"), saldoDia);
+        assertEquals(cuenta.getSaldoInicial(), saldoDiaAnterior);
+    }
+}
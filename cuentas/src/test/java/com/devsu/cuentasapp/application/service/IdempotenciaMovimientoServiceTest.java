@@ -0,0 +1,306 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.domain.exception.IdempotenciaConflictoException;
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.IdempotenciaMovimiento;
+import com.devsu.cuentasapp.domain.repository.IdempotenciaMovimientoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para IdempotenciaMovimientoService")
+class IdempotenciaMovimientoServiceTest {
+
+    @Mock
+    private IdempotenciaMovimientoRepository idempotenciaRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MovimientoEngine movimientoEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private IdempotenciaMovimientoService idempotenciaService;
+    private MovimientoRequestDto requestDto;
+    private MovimientoResponseDto responseDto;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = servicio(new StaticListableBeanFactory());
+
+        lenient().when(idempotenciaRepository.completarComo(anyString(), anyString(), anyString(), any())).thenReturn(1);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        requestDto = MovimientoRequestDto.builder()
+                .numeroCuenta("123456")
+                .tipoMovimiento("DEPOSITO")
+                .valor(Dinero.of("100.00"))
+                .build();
+
+        responseDto = MovimientoResponseDto.builder()
+                .id(1L)
+                .fecha(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .tipoMovimiento("DEPOSITO")
+                .valor(Dinero.of("100.00"))
+                .saldo(Dinero.of("1100.00"))
+                .numeroCuenta("123456")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe registrar una sola vez y responder los reintentos desde caché")
+    void testReintentoDesdeCache() {
+        // Arrange
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Supplier<MovimientoResponseDto> registro = () -> {
+            ejecuciones.incrementAndGet();
+            return responseDto;
+        };
+
+        // Act
+        MovimientoResponseDto primera = idempotenciaService.registrar("clave-1", requestDto, registro);
+        MovimientoResponseDto segunda = idempotenciaService.registrar("clave-1", requestDto, registro);
+
+        // Assert
+        assertEquals(responseDto, primera);
+        assertEquals(responseDto, segunda);
+        assertEquals(1, ejecuciones.get());
+        verify(idempotenciaRepository, times(1)).reservarComo(eq("clave-1"), anyString(), anyString(), any());
+        verify(idempotenciaRepository, times(1)).completarComo(eq("clave-1"), anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Debe devolver la respuesta almacenada cuando la clave ya existe en base de datos")
+    void testReintentoDesdeBaseDeDatos() throws Exception {
+        // Arrange
+        when(idempotenciaRepository.reservarComo(eq("clave-2"), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("clave duplicada"));
+        when(idempotenciaRepository.findById("clave-2")).thenReturn(Optional.of(IdempotenciaMovimiento.builder()
+                .clave("clave-2")
+                .huella(IdempotenciaMovimientoService.calcularHuella(requestDto))
+                .respuesta(objectMapper.writeValueAsString(responseDto))
+                .expiraEn(LocalDateTime.now().plusHours(1))
+                .build()));
+
+        // Act
+        MovimientoResponseDto resultado = idempotenciaService.registrar("clave-2", requestDto,
+                () -> fail("No debe registrarse otro movimiento"));
+
+        // Assert
+        assertEquals(responseDto, resultado);
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la misma clave con un movimiento distinto")
+    void testClaveConOtroMovimiento() {
+        // Arrange
+        idempotenciaService.registrar("clave-3", requestDto, () -> responseDto);
+        MovimientoRequestDto otro = MovimientoRequestDto.builder()
+                .numeroCuenta("123456")
+                .tipoMovimiento("RETIRO")
+                .valor(Dinero.of("100.00"))
+                .build();
+
+        // Act & Assert
+        assertThrows(IdempotenciaConflictoException.class,
+                () -> idempotenciaService.registrar("clave-3", otro, () -> responseDto));
+    }
+
+    @Test
+    @DisplayName("Debe responder conflicto si la clave está en proceso en otra instancia")
+    void testClaveEnProceso() {
+        // Arrange
+        when(idempotenciaRepository.reservarComo(eq("clave-4"), anyString(), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("clave duplicada"));
+        when(idempotenciaRepository.findById("clave-4")).thenReturn(Optional.of(IdempotenciaMovimiento.builder()
+                .clave("clave-4")
+                .huella(IdempotenciaMovimientoService.calcularHuella(requestDto))
+                .expiraEn(LocalDateTime.now().plusSeconds(30))
+                .build()));
+
+        // Act & Assert
+        assertThrows(IdempotenciaConflictoException.class,
+                () -> idempotenciaService.registrar("clave-4", requestDto, () -> responseDto));
+    }
+
+    @Test
+    @DisplayName("Debe liberar la clave si el movimiento falla")
+    void testLiberarClaveSiFalla() {
+        // Act
+        assertThrows(SaldoInsuficienteException.class, () -> idempotenciaService.registrar("clave-5", requestDto,
+                () -> {
+                    throw new SaldoInsuficienteException();
+                }));
+
+        // Assert
+        verify(idempotenciaRepository, times(1)).liberar(eq("clave-5"), anyString());
+        verify(idempotenciaRepository, never()).completarComo(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Debe conservar la clave si el motor registró el movimiento y la respuesta no se guardó")
+    void testConservarClaveSiElResultadoEsDesconocido() {
+        // Arrange: con el motor, el movimiento ya se confirmó en la transacción de su lane
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("movimientoEngine", movimientoEngine);
+        IdempotenciaMovimientoService conMotor = servicio(beanFactory);
+        when(idempotenciaRepository.completarComo(eq("clave-7"), anyString(), anyString(), any()))
+                .thenThrow(new DataAccessResourceFailureException("conexión perdida"));
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IdempotenciaConflictoException.class, () -> conMotor.registrar("clave-7",
+                requestDto, () -> {
+                    ejecuciones.incrementAndGet();
+                    return responseDto;
+                }));
+
+        verify(idempotenciaRepository, never()).liberar(eq("clave-7"), anyString());
+        verify(idempotenciaRepository).marcarIncierta(eq("clave-7"), anyString(), any());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Debe liberar la clave si la respuesta no se guardó en la ruta transaccional")
+    void testLiberarClaveSiLaRespuestaNoSeGuarda() {
+        // Arrange: sin motor, el fallo al guardar la respuesta revierte también el movimiento
+        DataAccessResourceFailureException fallo = new DataAccessResourceFailureException("conexión perdida");
+        when(idempotenciaRepository.completarComo(eq("clave-8"), anyString(), anyString(), any())).thenThrow(fallo);
+
+        // Act
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> idempotenciaService.registrar("clave-8", requestDto, () -> responseDto));
+
+        // Assert
+        assertSame(fallo, e);
+        verify(idempotenciaRepository).liberar(eq("clave-8"), anyString());
+        verify(idempotenciaRepository, never()).marcarIncierta(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Debe revertir el movimiento si la reserva venció y otra instancia tomó la clave")
+    void testReservaTomadaPorOtraInstancia() {
+        // Arrange
+        when(idempotenciaRepository.completarComo(eq("clave-9"), anyString(), anyString(), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IdempotenciaConflictoException.class,
+                () -> idempotenciaService.registrar("clave-9", requestDto, () -> responseDto));
+        verify(idempotenciaRepository).liberar(eq("clave-9"), anyString());
+        verify(idempotenciaRepository, never()).marcarIncierta(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Debe renovar solo las reservas propias en curso")
+    void testRenovarReservasEnCurso() throws Exception {
+        // Arrange
+        CountDownLatch enEjecucion = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<MovimientoResponseDto> registro = executor.submit(() -> idempotenciaService.registrar("clave-10",
+                requestDto, () -> {
+                    enEjecucion.countDown();
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return responseDto;
+                }));
+        assertTrue(enEjecucion.await(5, TimeUnit.SECONDS));
+
+        // Act
+        idempotenciaService.renovarReservas();
+        liberar.countDown();
+        registro.get(5, TimeUnit.SECONDS);
+        idempotenciaService.renovarReservas();
+
+        // Assert: la misma instancia que reservó, y nada que renovar al terminar
+        ArgumentCaptor<String> propietario = ArgumentCaptor.forClass(String.class);
+        verify(idempotenciaRepository).reservarComo(eq("clave-10"), anyString(), propietario.capture(), any());
+        verify(idempotenciaRepository, times(1)).renovar(eq(List.of("clave-10")), eq(propietario.getValue()), any());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe agrupar peticiones concurrentes con la misma clave en una sola ejecución")
+    void testPeticionesConcurrentes() throws Exception {
+        // Arrange
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch enEjecucion = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Supplier<MovimientoResponseDto> registro = () -> {
+            ejecuciones.incrementAndGet();
+            enEjecucion.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return responseDto;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        Future<MovimientoResponseDto> primera = executor.submit(
+                () -> idempotenciaService.registrar("clave-6", requestDto, registro));
+        assertTrue(enEjecucion.await(5, TimeUnit.SECONDS));
+        Future<MovimientoResponseDto> segunda = executor.submit(
+                () -> idempotenciaService.registrar("clave-6", requestDto, registro));
+        Future<MovimientoResponseDto> tercera = executor.submit(
+                () -> idempotenciaService.registrar("clave-6", requestDto, registro));
+        Thread.sleep(50);
+        liberar.countDown();
+
+        // Assert
+        assertEquals(responseDto, primera.get(5, TimeUnit.SECONDS));
+        assertEquals(responseDto, segunda.get(5, TimeUnit.SECONDS));
+        assertEquals(responseDto, tercera.get(5, TimeUnit.SECONDS));
+        assertEquals(1, ejecuciones.get());
+        executor.shutdown();
+    }
+
+    private IdempotenciaMovimientoService servicio(StaticListableBeanFactory beanFactory) {
+        return new IdempotenciaMovimientoService(idempotenciaRepository, beanFactory.getBeanProvider(MovimientoEngine.class),
+                transactionTemplate, objectMapper, Duration.ofHours(24), Duration.ofSeconds(30), 100);
+    }
+}
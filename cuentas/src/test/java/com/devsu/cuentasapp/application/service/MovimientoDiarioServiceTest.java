@@ -0,0 +1,172 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.SerieMovimientosDto;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.MovimientoDiario;
+import com.devsu.cuentasapp.domain.model.SaldosPeriodo;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoDiarioRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoDiarioService")
+class MovimientoDiarioServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2026, 5, 4);
+
+    @Mock
+    private MovimientoDiarioRepository movimientoDiarioRepository;
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private SaldoFraccionadoService saldoFraccionadoService;
+
+    @Mock
+    private ArchivoMovimientos archivoMovimientos;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private MovimientoDiarioService movimientoDiarioService;
+
+    private Cuenta cuenta1;
+    private Cuenta cuenta2;
+
+    @BeforeEach
+    void setUp() {
+        movimientoDiarioService = new MovimientoDiarioService(movimientoDiarioRepository, movimientoRepository,
+                cuentaRepository, saldoFraccionadoService, archivoMovimientos, transactionTemplate, 4);
+        cuenta1 = Cuenta.builder().id(1L).numeroCuenta("123456").tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00")).build();
+        cuenta2 = Cuenta.builder().id(2L).numeroCuenta("789012").tipoCuenta("CORRIENTE")
+                .saldoInicial(Dinero.of("50.00")).build();
+    }
+
+    @Test
+    @DisplayName("Acumular un UPDATE por cuenta y día con el saldo del último movimiento")
+    void testAcumularPorCuentaYDia() {
+        // Arrange
+        when(movimientoDiarioRepository.acumular(anyLong(), any(), anyInt(), anyLong(), any(), any(), any(), any(), any()))
+                .thenReturn(1);
+        LocalDateTime manana = DIA.atTime(9, 0);
+
+        // Act
+        movimientoDiarioService.acumular(List.of(
+                movimiento(11L, cuenta1, manana.plusHours(1), "-20.00", "130.00"),
+                movimiento(10L, cuenta1, manana, "50.00", "150.00"),
+                movimiento(12L, cuenta1, manana.plusDays(1), "5.00", "135.00")));
+
+        // Assert
+        verify(movimientoDiarioRepository).acumular(1L, DIA, 0, 2L, Dinero.of("50.00"), Dinero.of("-20.00"),
+                Dinero.of("130.00"), manana.plusHours(1), 11L);
+        verify(movimientoDiarioRepository).acumular(1L, DIA.plusDays(1), 0, 1L, Dinero.of("5.00"), Dinero.CERO,
+                Dinero.of("135.00"), manana.plusDays(1), 12L);
+        verify(movimientoDiarioRepository, never()).insertar(any(), any(), anyInt(), anyLong(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Insertar la fila del día con el primer movimiento y acumular sobre ella")
+    void testPrimerMovimientoDelDia() {
+        // Arrange
+        when(movimientoDiarioRepository.acumular(anyLong(), any(), anyInt(), anyLong(), any(), any(), any(), any(), any()))
+                .thenReturn(0, 1);
+        LocalDateTime fecha = DIA.atTime(8, 30);
+
+        // Act
+        movimientoDiarioService.acumular(List.of(movimiento(10L, cuenta1, fecha, "50.00", "150.00")));
+
+        // Assert
+        InOrder orden = inOrder(movimientoDiarioRepository);
+        orden.verify(movimientoDiarioRepository).acumular(1L, DIA, 0, 1L, Dinero.of("50.00"), Dinero.CERO,
+                Dinero.of("150.00"), fecha, 10L);
+        orden.verify(movimientoDiarioRepository).insertar(1L, DIA, 0, 0L, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, DIA.atStartOfDay(), 0L);
+        orden.verify(movimientoDiarioRepository).acumular(1L, DIA, 0, 1L, Dinero.of("50.00"), Dinero.CERO,
+                Dinero.of("150.00"), fecha, 10L);
+    }
+
+    @Test
+    @DisplayName("Combinar las fracciones de un día y arrastrar el saldo de las cuentas sin movimientos")
+    void testObtenerSerie() {
+        // Arrange
+        when(cuentaRepository.findByClienteId("CLI001")).thenReturn(List.of(cuenta1, cuenta2));
+        when(movimientoRepository.findSaldosPeriodoByClienteId(eq("CLI001"), any(), any()))
+                .thenReturn(List.of(new SaldosPeriodo(1L, Dinero.of("110.00"), null)));
+        when(movimientoDiarioRepository.findByClienteIdAndFechaBetween("CLI001", DIA, DIA.plusDays(1)))
+                .thenReturn(List.of(
+                        fila(1L, DIA, 0, 2, "40.00", "0.00", "150.00", DIA.atTime(9, 0), 5L),
+                        fila(1L, DIA, 3, 1, "0.00", "-10.00", "140.00", DIA.atTime(18, 0), 9L),
+                        fila(2L, DIA.plusDays(1), 0, 1, "25.00", "0.00", "75.00", DIA.plusDays(1).atTime(12, 0), 12L)));
+
+        // Act
+        SerieMovimientosDto serie = movimientoDiarioService.obtenerSerie("CLI001", DIA, DIA.plusDays(1));
+
+        // Assert
+        assertEquals(Dinero.of("160.00"), serie.getSaldoApertura());
+        SerieMovimientosDto.PuntoSerieDto primerDiaCuenta = serie.getCuentas().get(0).getPuntos().get(0);
+        assertEquals(3L, primerDiaCuenta.getCantidadMovimientos());
+        assertEquals(Dinero.of("40.00"), primerDiaCuenta.getTotalDepositos());
+        assertEquals(Dinero.of("-10.00"), primerDiaCuenta.getTotalRetiros());
+        assertEquals(Dinero.of("140.00"), primerDiaCuenta.getSaldoCierre());
+
+        List<SerieMovimientosDto.PuntoSerieDto> total = serie.getTotal();
+        assertEquals(2, total.size());
+        assertEquals(Dinero.of("190.00"), total.get(0).getSaldoCierre());
+        assertEquals(DIA.plusDays(1), total.get(1).getFecha());
+        assertEquals(1L, total.get(1).getCantidadMovimientos());
+        assertEquals(Dinero.of("215.00"), total.get(1).getSaldoCierre());
+    }
+
+    private Movimiento movimiento(Long id, Cuenta cuenta, LocalDateTime fecha, String valor, String saldo) {
+        Dinero importe = Dinero.of(valor);
+        return Movimiento.builder()
+                .id(id)
+                .fecha(fecha)
+                .tipoMovimiento(importe.esNegativo() ? TipoMovimiento.RETIRO : TipoMovimiento.DEPOSITO)
+                .valor(importe)
+                .saldo(Dinero.of(saldo))
+                .cuenta(cuenta)
+                .build();
+    }
+
+    private MovimientoDiario fila(Long cuentaId, LocalDate fecha, int slot, long cantidad, String depositos,
+                                  String retiros, String saldo, LocalDateTime ultimaFecha, Long ultimoId) {
+        return MovimientoDiario.builder()
+                .cuentaId(cuentaId)
+                .fecha(fecha)
+                .slot(slot)
+                .cantidad(cantidad)
+                .depositos(Dinero.of(depositos))
+                .retiros(Dinero.of(retiros))
+                .saldoCierre(Dinero.of(saldo))
+                .ultimaFecha(ultimaFecha)
+                .ultimoMovimientoId(ultimoId)
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.mapper.MovimientoMapper;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoLoteService")
+class MovimientoLoteServiceTest {
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @Mock
+    private MovimientoMapper movimientoMapper;
+
+    @Mock
+    private SaldoFraccionadoService saldoFraccionadoService;
+
+    @Mock
+    private ReporteCacheService reporteCacheService;
+
+    @Mock
+    private MovimientoDiarioService movimientoDiarioService;
+
+    @InjectMocks
+    private MovimientoLoteService movimientoLoteService;
+
+    private Cuenta cuenta1;
+    private Cuenta cuenta2;
+
+    @BeforeEach
+    void setUp() {
+        cuenta1 = Cuenta.builder()
+                .id(1L)
+                .numeroCuenta("123456")
+                .saldoActual(Dinero.of("1000.00"))
+                .estado(true)
+                .build();
+
+        cuenta2 = Cuenta.builder()
+                .id(2L)
+                .numeroCuenta("789012")
+                .saldoActual(Dinero.of("100.00"))
+                .estado(true)
+                .build();
+
+        lenient().when(movimientoMapper.toDto(any(Movimiento.class))).thenAnswer(invocation -> {
+            Movimiento movimiento = invocation.getArgument(0);
+            return MovimientoResponseDto.builder()
+                    .tipoMovimiento(movimiento.getTipoMovimiento().name())
+                    .valor(movimiento.getValor())
+                    .saldo(movimiento.getSaldo())
+                    .numeroCuenta(movimiento.getCuenta().getNumeroCuenta())
+                    .build();
+        });
+    }
+
+    @Test
+    @DisplayName("Aplicar los movimientos de cada cuenta en orden con una sola consulta de cuentas")
+    @SuppressWarnings("unchecked")
+    void testRegistrarLoteEnOrden() {
+        // Arrange
+        when(cuentaRepository.findByNumeroCuentaInForUpdate(anyCollection())).thenReturn(List.of(cuenta1, cuenta2));
+
+        List<MovimientoRequestDto> requests = List.of(
+                request("123456", "DEPOSITO", "500.00"),
+                request("789012", "RETIRO", "50.00"),
+                request("123456", "RETIRO", "1200.00"));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoLoteService.registrarMovimientos(requests);
+
+        // Assert
+        assertEquals(3, resultados.size());
+        assertTrue(resultados.stream().allMatch(MovimientoLoteResultadoDto::getExitoso));
+        assertEquals(Dinero.of("1500.00"), resultados.get(0).getMovimiento().getSaldo());
+        assertEquals(Dinero.of("50.00"), resultados.get(1).getMovimiento().getSaldo());
+        assertEquals(Dinero.of("300.00"), resultados.get(2).getMovimiento().getSaldo());
+        assertEquals(Dinero.of("300.00"), cuenta1.getSaldoActual());
+
+        verify(cuentaRepository, times(1)).findByNumeroCuentaInForUpdate(anyCollection());
+        ArgumentCaptor<List<Movimiento>> captor = ArgumentCaptor.forClass(List.class);
+        verify(movimientoRepository, times(1)).saveAll(captor.capture());
+        assertEquals(3, captor.getValue().size());
+    }
+
+    @Test
+    @DisplayName("Un saldo insuficiente solo falla su propia línea")
+    void testSaldoInsuficienteNoAfectaAlResto() {
+        // Arrange
+        when(cuentaRepository.findByNumeroCuentaInForUpdate(anyCollection())).thenReturn(List.of(cuenta2));
+
+        List<MovimientoRequestDto> requests = List.of(
+                request("789012", "RETIRO", "500.00"),
+                request("789012", "DEPOSITO", "25.00"));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoLoteService.registrarMovimientos(requests);
+
+        // Assert
+        assertFalse(resultados.get(0).getExitoso());
+        assertEquals("Saldo no disponible", resultados.get(0).getError());
+        assertTrue(resultados.get(1).getExitoso());
+        assertEquals(Dinero.of("125.00"), resultados.get(1).getMovimiento().getSaldo());
+    }
+
+    @Test
+    @DisplayName("Reportar cuentas inexistentes, inactivas y tipos inválidos por línea")
+    void testErroresPorLinea() {
+        // Arrange
+        cuenta2.setEstado(false);
+        when(cuentaRepository.findByNumeroCuentaInForUpdate(anyCollection())).thenReturn(List.of(cuenta1, cuenta2));
+
+        List<MovimientoRequestDto> requests = List.of(
+                request("999999", "DEPOSITO", "10.00"),
+                request("789012", "DEPOSITO", "10.00"),
+                request("123456", "TRANSFERENCIA", "10.00"),
+                request("123456", "DEPOSITO", "10.00"));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoLoteService.registrarMovimientos(requests);
+
+        // Assert
+        assertEquals("Cuenta no encontrada con numeroCuenta: 999999", resultados.get(0).getError());
+        assertEquals("La cuenta está inactiva", resultados.get(1).getError());
+        assertEquals("Tipo de movimiento inválido: TRANSFERENCIA", resultados.get(2).getError());
+        assertTrue(resultados.get(3).getExitoso());
+        assertEquals(3, resultados.get(3).getIndice());
+    }
+
+    private MovimientoRequestDto request(String numeroCuenta, String tipo, String valor) {
+        return MovimientoRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoMovimiento(tipo)
+                .valor(Dinero.of(valor))
+                .build();
+    }
+}
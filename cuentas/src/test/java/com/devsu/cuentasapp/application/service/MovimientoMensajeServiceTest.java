@@ -0,0 +1,203 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.IdempotenciaMovimiento;
+import com.devsu.cuentasapp.domain.repository.IdempotenciaMovimientoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoMensajeService")
+class MovimientoMensajeServiceTest {
+
+    @Mock
+    private MovimientoLoteService movimientoLoteService;
+
+    @Mock
+    private IdempotenciaMovimientoRepository idempotenciaRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private MovimientoEngine movimientoEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+    private MovimientoMensajeService movimientoMensajeService;
+    private MovimientoRequestDto deposito;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        movimientoMensajeService = new MovimientoMensajeService(movimientoLoteService,
+                beanFactory.getBeanProvider(MovimientoEngine.class), idempotenciaRepository, transactionTemplate,
+                objectMapper, Duration.ofHours(24));
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+        lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        deposito = MovimientoRequestDto.builder()
+                .numeroCuenta("123456")
+                .tipoMovimiento("DEPOSITO")
+                .valor(Dinero.of("100.00"))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Guardar el resultado de cada mensaje en la transacción del lote")
+    void testGuardarResultados() {
+        // Arrange
+        when(movimientoLoteService.registrarMovimientos(List.of(deposito, deposito))).thenReturn(List.of(
+                MovimientoLoteResultadoDto.exitoso(0, respuesta()),
+                MovimientoLoteResultadoDto.fallido(1, "Cuenta no encontrada")));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoMensajeService.registrar(
+                List.of(deposito, deposito), Arrays.asList("m-1", null));
+
+        // Assert
+        assertTrue(resultados.get(0).getExitoso());
+        assertEquals("Cuenta no encontrada", resultados.get(1).getError());
+        verify(idempotenciaRepository).guardar(eq("amqp:m-1"),
+                eq(IdempotenciaMovimientoService.calcularHuella(deposito)), anyString(), any(LocalDateTime.class));
+        verify(idempotenciaRepository, never()).guardar(isNull(), anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Devolver el resultado guardado a un mensaje reentregado sin registrarlo otra vez")
+    void testReentrega() throws Exception {
+        // Arrange
+        MovimientoRequestDto retiro = MovimientoRequestDto.builder()
+                .numeroCuenta("123456").tipoMovimiento("RETIRO").valor(Dinero.of("50.00")).build();
+        when(idempotenciaRepository.findAllById(List.of("amqp:m-1", "amqp:m-2"))).thenReturn(List.of(
+                IdempotenciaMovimiento.builder()
+                        .clave("amqp:m-1")
+                        .huella(IdempotenciaMovimientoService.calcularHuella(deposito))
+                        .respuesta(objectMapper.writeValueAsString(MovimientoLoteResultadoDto.exitoso(7, respuesta())))
+                        .expiraEn(LocalDateTime.now().plusHours(1))
+                        .build()));
+        when(movimientoLoteService.registrarMovimientos(List.of(retiro))).thenReturn(List.of(
+                MovimientoLoteResultadoDto.fallido(0, "Saldo no disponible")));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoMensajeService.registrar(
+                List.of(deposito, retiro), List.of("m-1", "m-2"));
+
+        // Assert
+        assertEquals(0, resultados.get(0).getIndice());
+        assertTrue(resultados.get(0).getExitoso());
+        assertEquals(Dinero.of("1100.00"), resultados.get(0).getMovimiento().getSaldo());
+        assertEquals(1, resultados.get(1).getIndice());
+        assertEquals("Saldo no disponible", resultados.get(1).getError());
+        verify(idempotenciaRepository, never()).guardar(eq("amqp:m-1"), any(), any(), any());
+        verify(idempotenciaRepository).guardar(eq("amqp:m-2"), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Registrar una sola vez el mensaje repetido dentro del lote y rechazar un id reutilizado")
+    void testRepetidosEnElLote() {
+        // Arrange
+        MovimientoRequestDto otro = MovimientoRequestDto.builder()
+                .numeroCuenta("123456").tipoMovimiento("DEPOSITO").valor(Dinero.of("5.00")).build();
+        when(movimientoLoteService.registrarMovimientos(List.of(deposito))).thenReturn(List.of(
+                MovimientoLoteResultadoDto.exitoso(0, respuesta())));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoMensajeService.registrar(
+                List.of(deposito, deposito, otro), List.of("m-1", "m-1", "m-1"));
+
+        // Assert
+        assertTrue(resultados.get(0).getExitoso());
+        assertEquals(1, resultados.get(1).getIndice());
+        assertTrue(resultados.get(1).getExitoso());
+        assertEquals("El mensaje m-1 ya se registró con un movimiento distinto", resultados.get(2).getError());
+        verify(idempotenciaRepository, times(1)).guardar(eq("amqp:m-1"), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Con el motor, reservar las claves antes de registrar y completarlas después")
+    void testMotor() {
+        // Arrange
+        beanFactory.addBean("movimientoEngine", movimientoEngine);
+        when(movimientoEngine.registrarLote(List.of(deposito))).thenReturn(List.of(
+                MovimientoLoteResultadoDto.exitoso(0, respuesta())));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoMensajeService.registrar(
+                List.of(deposito), List.of("m-1"));
+
+        // Assert
+        assertTrue(resultados.get(0).getExitoso());
+        var orden = inOrder(idempotenciaRepository, movimientoEngine);
+        orden.verify(idempotenciaRepository).reservar(eq("amqp:m-1"), anyString(), any(LocalDateTime.class));
+        orden.verify(movimientoEngine).registrarLote(List.of(deposito));
+        orden.verify(idempotenciaRepository).completar(eq("amqp:m-1"), anyString(), any(LocalDateTime.class));
+        verifyNoInteractions(movimientoLoteService);
+    }
+
+    @Test
+    @DisplayName("Con el motor, no volver a registrar un mensaje reservado sin resultado guardado")
+    void testMotorResultadoDesconocido() {
+        // Arrange
+        beanFactory.addBean("movimientoEngine", movimientoEngine);
+        when(idempotenciaRepository.findAllById(List.of("amqp:m-1"))).thenReturn(List.of(
+                IdempotenciaMovimiento.builder()
+                        .clave("amqp:m-1")
+                        .huella(IdempotenciaMovimientoService.calcularHuella(deposito))
+                        .expiraEn(LocalDateTime.now().plusHours(1))
+                        .build()));
+
+        // Act
+        List<MovimientoLoteResultadoDto> resultados = movimientoMensajeService.registrar(
+                List.of(deposito), List.of("m-1"));
+
+        // Assert
+        assertFalse(resultados.get(0).getExitoso());
+        assertTrue(resultados.get(0).getError().contains("resultado desconocido"));
+        verifyNoInteractions(movimientoEngine);
+        verify(idempotenciaRepository, never()).reservar(any(), any(), any());
+    }
+
+    private MovimientoResponseDto respuesta() {
+        return MovimientoResponseDto.builder()
+                .id(1L)
+                .fecha(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .tipoMovimiento("DEPOSITO")
+                .valor(Dinero.of("100.00"))
+                .saldo(Dinero.of("1100.00"))
+                .numeroCuenta("123456")
+                .build();
+    }
+}
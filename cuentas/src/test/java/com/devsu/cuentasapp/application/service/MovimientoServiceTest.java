@@ -2,13 +2,20 @@ package com.devsu.cuentasapp.application.service;
 
 import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
 import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.dto.PaginaDto;
 import com.devsu.cuentasapp.application.mapper.MovimientoMapper;
 import com.devsu.cuentasapp.domain.exception.CuentaNotFoundException;
+import com.devsu.cuentasapp.domain.exception.CursorInvalidoException;
 import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.CuentaMetadatos;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.SaldoCuenta;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
 import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,13 +23,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,10 +48,26 @@ class MovimientoServiceTest {
     @Mock
     private MovimientoMapper movimientoMapper;
 
+    @Mock
+    private SaldoFraccionadoService saldoFraccionadoService;
+
+    @Mock
+    private ReporteCacheService reporteCacheService;
+
+    @Mock
+    private MovimientoDiarioService movimientoDiarioService;
+
+    @Mock
+    private ArchivoMovimientos archivoMovimientos;
+
+    @Mock
+    private CuentaMetadatosCache cuentaMetadatosCache;
+
     @InjectMocks
     private MovimientoService movimientoService;
 
     private Cuenta cuenta;
+    private CuentaMetadatos metadatos;
     private MovimientoRequestDto depositoRequest;
     private MovimientoRequestDto retiroRequest;
 
@@ -51,22 +77,24 @@ class MovimientoServiceTest {
                 .id(1L)
                 .numeroCuenta("123456")
                 .tipoCuenta("AHORROS")
-                .saldoInicial(new BigDecimal("1000.00"))
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoInicial(Dinero.of("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .estado(true)
                 .clienteId("CLI001")
                 .build();
 
+        metadatos = new CuentaMetadatos(1L, "123456", true, "CLI001", "AHORROS");
+
         depositoRequest = MovimientoRequestDto.builder()
                 .numeroCuenta("123456")
                 .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("500.00"))
+                .valor(Dinero.of("500.00"))
                 .build();
 
         retiroRequest = MovimientoRequestDto.builder()
                 .numeroCuenta("123456")
                 .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("300.00"))
+                .valor(Dinero.of("300.00"))
                 .build();
     }
 
@@ -74,15 +102,17 @@ class MovimientoServiceTest {
     @DisplayName("Registrar depósito exitosamente")
     void testRegistrarDeposito() {
         // Arrange
-        when(cuentaRepository.findByNumeroCuenta("123456")).thenReturn(Optional.of(cuenta));
-        when(cuentaRepository.save(any(Cuenta.class))).thenReturn(cuenta);
+        when(cuentaMetadatosCache.obtener("123456")).thenReturn(Optional.of(metadatos));
+        when(cuentaRepository.incrementarSaldo(1L, "123456", Dinero.of("500.00"))).thenReturn(1);
+        when(cuentaRepository.findSaldoById(1L))
+                .thenReturn(Optional.of(new SaldoCuenta(1L, Dinero.of("1500.00"), "CLI001")));
 
         Movimiento movimiento = Movimiento.builder()
                 .id(1L)
                 .fecha(LocalDateTime.now())
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("500.00"))
-                .saldo(new BigDecimal("1500.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("500.00"))
+                .saldo(Dinero.of("1500.00"))
                 .cuenta(cuenta)
                 .build();
 
@@ -91,8 +121,8 @@ class MovimientoServiceTest {
         MovimientoResponseDto responseDto = MovimientoResponseDto.builder()
                 .id(1L)
                 .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("500.00"))
-                .saldo(new BigDecimal("1500.00"))
+                .valor(Dinero.of("500.00"))
+                .saldo(Dinero.of("1500.00"))
                 .numeroCuenta("123456")
                 .build();
 
@@ -104,10 +134,14 @@ class MovimientoServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("DEPOSITO", result.getTipoMovimiento());
-        assertEquals(new BigDecimal("500.00"), result.getValor());
-        assertEquals(new BigDecimal("1500.00"), result.getSaldo());
-
-        verify(cuentaRepository, times(1)).save(any(Cuenta.class));
+        assertEquals(Dinero.of("500.00"), result.getValor());
+        assertEquals(Dinero.of("1500.00"), result.getSaldo());
+
+        verify(cuentaRepository, times(1)).incrementarSaldo(1L, "123456", Dinero.of("500.00"));
+        verify(cuentaRepository, never()).findByNumeroCuenta(anyString());
+        verify(reporteCacheService).invalidarCliente("CLI001");
+        verify(movimientoDiarioService).acumular(List.of(movimiento));
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
         verify(movimientoRepository, times(1)).save(any(Movimiento.class));
     }
 
@@ -115,15 +149,17 @@ class MovimientoServiceTest {
     @DisplayName("Registrar retiro exitosamente")
     void testRegistrarRetiro() {
         // Arrange
-        when(cuentaRepository.findByNumeroCuenta("123456")).thenReturn(Optional.of(cuenta));
-        when(cuentaRepository.save(any(Cuenta.class))).thenReturn(cuenta);
+        when(cuentaMetadatosCache.obtener("123456")).thenReturn(Optional.of(metadatos));
+        when(cuentaRepository.incrementarSaldo(1L, "123456", Dinero.of("-300.00"))).thenReturn(1);
+        when(cuentaRepository.findSaldoById(1L))
+                .thenReturn(Optional.of(new SaldoCuenta(1L, Dinero.of("700.00"), "CLI001")));
 
         Movimiento movimiento = Movimiento.builder()
                 .id(2L)
                 .fecha(LocalDateTime.now())
-                .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("-300.00"))
-                .saldo(new BigDecimal("700.00"))
+                .tipoMovimiento(TipoMovimiento.RETIRO)
+                .valor(Dinero.of("-300.00"))
+                .saldo(Dinero.of("700.00"))
                 .cuenta(cuenta)
                 .build();
 
@@ -132,8 +168,8 @@ class MovimientoServiceTest {
         MovimientoResponseDto responseDto = MovimientoResponseDto.builder()
                 .id(2L)
                 .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("-300.00"))
-                .saldo(new BigDecimal("700.00"))
+                .valor(Dinero.of("-300.00"))
+                .saldo(Dinero.of("700.00"))
                 .numeroCuenta("123456")
                 .build();
 
@@ -145,7 +181,7 @@ class MovimientoServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("RETIRO", result.getTipoMovimiento());
-        assertTrue(result.getValor().compareTo(BigDecimal.ZERO) < 0);
+        assertTrue(result.getValor().compareTo(Dinero.CERO) < 0);
 
         verify(movimientoRepository, times(1)).save(any(Movimiento.class));
     }
@@ -157,9 +193,11 @@ class MovimientoServiceTest {
         MovimientoRequestDto retiroGrande = MovimientoRequestDto.builder()
                 .numeroCuenta("123456")
                 .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("1500.00"))
+                .valor(Dinero.of("1500.00"))
                 .build();
 
+        when(cuentaMetadatosCache.obtener("123456")).thenReturn(Optional.of(metadatos));
+        when(cuentaRepository.incrementarSaldo(1L, "123456", Dinero.of("-1500.00"))).thenReturn(0);
         when(cuentaRepository.findByNumeroCuenta("123456")).thenReturn(Optional.of(cuenta));
 
         // Act & Assert
@@ -167,6 +205,9 @@ class MovimientoServiceTest {
             movimientoService.registrarMovimiento(retiroGrande);
         });
 
+        // Los metadatos eran correctos: ni se retiran de la caché ni se repite el UPDATE
+        verify(cuentaMetadatosCache, never()).invalidarLocal(any());
+        verify(cuentaRepository, times(1)).incrementarSaldo(anyLong(), anyString(), any(Dinero.class));
         verify(movimientoRepository, never()).save(any(Movimiento.class));
     }
 
@@ -179,7 +220,7 @@ class MovimientoServiceTest {
         MovimientoRequestDto request = MovimientoRequestDto.builder()
                 .numeroCuenta("999999")
                 .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("100.00"))
+                .valor(Dinero.of("100.00"))
                 .build();
 
         // Act & Assert
@@ -195,6 +236,8 @@ class MovimientoServiceTest {
     void testRegistrarMovimientoEnCuentaInactiva() {
         // Arrange
         cuenta.setEstado(false);
+        when(cuentaMetadatosCache.obtener("123456"))
+                .thenReturn(Optional.of(new CuentaMetadatos(1L, "123456", false, "CLI001", "AHORROS")));
         when(cuentaRepository.findByNumeroCuenta("123456")).thenReturn(Optional.of(cuenta));
 
         // Act & Assert
@@ -202,7 +245,95 @@ class MovimientoServiceTest {
             movimientoService.registrarMovimiento(depositoRequest);
         });
 
+        verify(cuentaRepository, never()).incrementarSaldo(anyLong(), anyString(), any(Dinero.class));
         verify(movimientoRepository, never()).save(any(Movimiento.class));
     }
-}
 
+    @Test
+    @DisplayName("Con metadatos atrasados en caché, resolver contra la base y retirar la entrada")
+    void testRegistrarMovimientoConMetadatosAtrasados() {
+        // Arrange: la caché conserva el id de una cuenta anterior con el mismo número
+        when(cuentaMetadatosCache.obtener("123456"))
+                .thenReturn(Optional.of(new CuentaMetadatos(99L, "123456", true, "CLI001", "AHORROS")));
+        when(cuentaRepository.incrementarSaldo(99L, "123456", Dinero.of("500.00"))).thenReturn(0);
+        when(cuentaRepository.findByNumeroCuenta("123456")).thenReturn(Optional.of(cuenta));
+        when(cuentaRepository.incrementarSaldo(1L, "123456", Dinero.of("500.00"))).thenReturn(1);
+        when(cuentaRepository.findSaldoById(1L))
+                .thenReturn(Optional.of(new SaldoCuenta(1L, Dinero.of("1500.00"), "CLI001")));
+        when(movimientoRepository.save(any(Movimiento.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        movimientoService.registrarMovimiento(depositoRequest);
+
+        // Assert
+        verify(cuentaMetadatosCache).invalidarLocal(List.of("123456"));
+        verify(movimientoRepository).save(argThat(m -> m.getCuenta().getId().equals(1L)
+                && m.getSaldo().equals(Dinero.of("1500.00"))));
+    }
+
+    @Test
+    @DisplayName("Rechazar tipo de movimiento inválido sin tocar la cuenta")
+    void testTipoMovimientoInvalido() {
+        // Arrange
+        MovimientoRequestDto request = MovimientoRequestDto.builder()
+                .numeroCuenta("123456")
+                .tipoMovimiento("TRANSFERENCIA")
+                .valor(Dinero.of("100.00"))
+                .build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            movimientoService.registrarMovimiento(request);
+        });
+
+        verify(cuentaRepository, never()).incrementarSaldo(anyLong(), anyString(), any(Dinero.class));
+    }
+
+    @Test
+    @DisplayName("Paginar movimientos pidiendo una fila extra y continuar desde el cursor")
+    void testObtenerMovimientosPaginados() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 15, 10, 30, 0, 123456000);
+        List<MovimientoResponseDto> movimientos = List.of(movimiento(30L, fecha), movimiento(20L, fecha), movimiento(10L, fecha));
+        when(movimientoRepository.findPrimeraPagina(Limit.of(3))).thenReturn(movimientos);
+
+        // Act
+        PaginaDto<MovimientoResponseDto> primera = movimientoService.obtenerMovimientos(null, 2);
+        movimientoService.obtenerMovimientos(primera.getSiguienteCursor(), 2);
+
+        // Assert
+        assertEquals(2, primera.getContenido().size());
+        assertNotNull(primera.getSiguienteCursor());
+        verify(movimientoRepository).findPaginaDespuesDe(fecha, 20L, Limit.of(3));
+        verifyNoInteractions(movimientoMapper);
+    }
+
+    @Test
+    @DisplayName("Última página de una cuenta sin cursor siguiente")
+    void testObtenerMovimientosPorCuentaUltimaPagina() {
+        // Arrange
+        when(cuentaRepository.findIdByNumeroCuenta("123456")).thenReturn(Optional.of(1L));
+        when(movimientoRepository.findPrimeraPaginaByCuentaId(1L, Limit.of(51)))
+                .thenReturn(List.of(movimiento(10L, LocalDateTime.now())));
+
+        // Act
+        PaginaDto<MovimientoResponseDto> pagina = movimientoService.obtenerMovimientosPorCuenta("123456", null, 50);
+
+        // Assert
+        assertEquals(1, pagina.getContenido().size());
+        assertNull(pagina.getSiguienteCursor());
+    }
+
+    @Test
+    @DisplayName("Rechazar un cursor que no fue emitido por el servicio")
+    void testCursorInvalido() {
+        assertThrows(CursorInvalidoException.class, () -> movimientoService.obtenerMovimientos("no-es-un-cursor", 10));
+        assertThrows(CursorInvalidoException.class, () -> movimientoService.obtenerMovimientos("%%%", 10));
+        verifyNoInteractions(movimientoRepository);
+    }
+
+    private MovimientoResponseDto movimiento(Long id, LocalDateTime fecha) {
+        return new MovimientoResponseDto(id, fecha, TipoMovimiento.DEPOSITO,
+                Dinero.of("10.00"), Dinero.of("1010.00"), "123456");
+    }
+}
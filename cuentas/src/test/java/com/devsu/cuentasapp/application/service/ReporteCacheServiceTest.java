@@ -0,0 +1,190 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.EstadoCuentaDto;
+import com.devsu.cuentasapp.infrastructure.messaging.ReporteInvalidacionPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ReporteCacheService")
+class ReporteCacheServiceTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2026, 1, 31);
+
+    @Mock
+    private ReporteService reporteService;
+
+    @Mock
+    private ReporteInvalidacionPublisher publisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReporteCacheService reporteCacheService;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("reporteInvalidacionPublisher", publisher);
+        reporteCacheService = new ReporteCacheService(reporteService,
+                beanFactory.getBeanProvider(ReporteInvalidacionPublisher.class), meterRegistry, 1_000,
+                Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Servir el mismo reporte desde caché y registrar aciertos y fallos")
+    void testAciertoDeCache() {
+        // Arrange
+        when(reporteService.generarEstadoCuenta("CLI001", INICIO, FIN)).thenReturn(reporte("CLI001", 3));
+
+        // Act
+        EstadoCuentaDto primero = reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+        EstadoCuentaDto segundo = reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN.plusDays(1));
+
+        // Assert
+        assertSame(primero, segundo);
+        verify(reporteService, times(1)).generarEstadoCuenta("CLI001", INICIO, FIN);
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Regenerar el reporte después de invalidar al cliente, sin afectar a otros")
+    void testInvalidarCliente() {
+        // Arrange
+        when(reporteService.generarEstadoCuenta(anyString(), eq(INICIO), eq(FIN)))
+                .thenAnswer(invocation -> reporte(invocation.getArgument(0), 1));
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+        reporteCacheService.generarEstadoCuenta("CLI002", INICIO, FIN);
+
+        // Act
+        reporteCacheService.invalidarCliente("CLI001");
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+        reporteCacheService.generarEstadoCuenta("CLI002", INICIO, FIN);
+
+        // Assert
+        verify(reporteService, times(2)).generarEstadoCuenta("CLI001", INICIO, FIN);
+        verify(reporteService, times(1)).generarEstadoCuenta("CLI002", INICIO, FIN);
+    }
+
+    @Test
+    @DisplayName("Dentro de una transacción la invalidación se aplica y se avisa recién al confirmar")
+    void testInvalidarAlConfirmar() {
+        // Arrange
+        when(reporteService.generarEstadoCuenta("CLI001", INICIO, FIN)).thenReturn(reporte("CLI001", 1));
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        reporteCacheService.invalidarClientes(List.of("CLI001"));
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+        verifyNoInteractions(publisher);
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+
+        // Assert
+        verify(reporteService, times(2)).generarEstadoCuenta("CLI001", INICIO, FIN);
+        verify(publisher).publicar(List.of("CLI001"));
+    }
+
+    @Test
+    @DisplayName("Los avisos de otras instancias invalidan solo la caché local")
+    void testInvalidarLocal() {
+        // Arrange
+        when(reporteService.generarEstadoCuenta("CLI001", INICIO, FIN)).thenReturn(reporte("CLI001", 1));
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+
+        // Act
+        reporteCacheService.invalidarLocal(List.of("CLI001"));
+        reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN);
+
+        // Assert
+        verify(reporteService, times(2)).generarEstadoCuenta("CLI001", INICIO, FIN);
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    @DisplayName("Las solicitudes concurrentes de un mismo reporte lo generan una sola vez")
+    void testSolicitudesConcurrentes() throws Exception {
+        // Arrange
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(reporteService.generarEstadoCuenta("CLI001", INICIO, FIN)).thenAnswer(invocation -> {
+            enCurso.countDown();
+            liberar.await();
+            return reporte("CLI001", 1);
+        });
+
+        // Act
+        List<Future<EstadoCuentaDto>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            resultados.add(executor.submit(() -> reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN)));
+            enCurso.await();
+            for (int i = 0; i < 4; i++) {
+                resultados.add(executor.submit(() -> reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN)));
+            }
+            liberar.countDown();
+        }
+
+        // Assert
+        for (Future<EstadoCuentaDto> resultado : resultados) {
+            assertSame(resultados.get(0).get(), resultado.get());
+        }
+        verify(reporteService, times(1)).generarEstadoCuenta("CLI001", INICIO, FIN);
+    }
+
+    @Test
+    @DisplayName("Un error al generar no queda en caché")
+    void testErrorNoSeGuarda() {
+        // Arrange
+        when(reporteService.generarEstadoCuenta("CLI001", INICIO, FIN))
+                .thenThrow(new IllegalStateException("sin conexión"))
+                .thenReturn(reporte("CLI001", 1));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN));
+        assertNotNull(reporteCacheService.generarEstadoCuenta("CLI001", INICIO, FIN));
+    }
+
+    private EstadoCuentaDto reporte(String clienteId, int movimientos) {
+        List<EstadoCuentaDto.MovimientoEstadoDto> detalle = new ArrayList<>();
+        for (int i = 0; i < movimientos; i++) {
+            detalle.add(new EstadoCuentaDto.MovimientoEstadoDto());
+        }
+        return EstadoCuentaDto.builder()
+                .clienteId(clienteId)
+                .cuentas(List.of(EstadoCuentaDto.CuentaEstadoDto.builder().movimientos(detalle).build()))
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.application.dto.ReporteJobDto;
+import com.devsu.cuentasapp.application.dto.ReporteJobRequestDto;
+import com.devsu.cuentasapp.domain.exception.ReporteJobNoDisponibleException;
+import com.devsu.cuentasapp.domain.exception.ReporteJobNotFoundException;
+import com.devsu.cuentasapp.domain.exception.ReporteJobRechazadoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ReporteJobService")
+class ReporteJobServiceTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2026, 1, 31);
+
+    @Mock
+    private ReporteService reporteService;
+
+    @TempDir
+    Path directorio;
+
+    private ReporteJobService reporteJobService;
+
+    @AfterEach
+    void tearDown() {
+        if (reporteJobService != null) {
+            reporteJobService.detener();
+        }
+    }
+
+    @Test
+    @DisplayName("Generar el CSV en segundo plano y exponer el archivo al completarse")
+    void testCompletarTrabajo() throws Exception {
+        // Arrange
+        reporteJobService = crear(2, 10, Duration.ofHours(1));
+        doAnswer(invocation -> {
+            OutputStream salida = invocation.getArgument(3);
+            salida.write("fecha;cliente\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(reporteService).escribirEstadoCuentaCsv(eq("CLI001"), eq(INICIO), eq(FIN), any(OutputStream.class));
+
+        // Act
+        ReporteJobDto encolado = reporteJobService.encolar(solicitud("CLI001"));
+        ReporteJobDto finalizado = esperarFin(encolado.getId());
+        ReporteJobService.ArchivoReporte archivo = reporteJobService.obtenerArchivo(encolado.getId());
+
+        // Assert
+        assertEquals(ReporteJobDto.Estado.COMPLETADO, finalizado.getEstado());
+        assertEquals(14L, finalizado.getBytes());
+        assertNotNull(finalizado.getFinalizadoEn());
+        assertEquals("fecha;cliente\n", Files.readString(archivo.ruta()));
+        assertEquals("estado-cuenta-CLI001-2026-01-01-2026-01-31.csv", archivo.nombre());
+        try (var archivos = Files.list(directorio)) {
+            assertTrue(archivos.noneMatch(ruta -> ruta.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    @DisplayName("Marcar el trabajo como fallido y no exponer archivo si la generación falla")
+    void testFallarTrabajo() throws Exception {
+        // Arrange
+        reporteJobService = crear(2, 10, Duration.ofHours(1));
+        when(reporteService.escribirEstadoCuentaCsv(eq("CLI001"), eq(INICIO), eq(FIN), any(OutputStream.class)))
+                .thenThrow(new IllegalStateException("Base de datos no disponible"));
+
+        // Act
+        ReporteJobDto encolado = reporteJobService.encolar(solicitud("CLI001"));
+        ReporteJobDto finalizado = esperarFin(encolado.getId());
+
+        // Assert
+        assertEquals(ReporteJobDto.Estado.FALLIDO, finalizado.getEstado());
+        assertEquals("Base de datos no disponible", finalizado.getError());
+        assertThrows(ReporteJobNoDisponibleException.class, () -> reporteJobService.obtenerArchivo(encolado.getId()));
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(0, archivos.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Rechazar trabajos cuando los hilos y la cola están ocupados")
+    void testRechazarConColaLlena() throws Exception {
+        // Arrange
+        reporteJobService = crear(1, 1, Duration.ofHours(1));
+        CountDownLatch iniciado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            iniciado.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return 0L;
+        }).when(reporteService).escribirEstadoCuentaCsv(any(), any(), any(), any(OutputStream.class));
+
+        // Act
+        ReporteJobDto enEjecucion = reporteJobService.encolar(solicitud("CLI001"));
+        assertTrue(iniciado.await(5, TimeUnit.SECONDS));
+        ReporteJobDto enCola = reporteJobService.encolar(solicitud("CLI002"));
+
+        // Assert
+        assertThrows(ReporteJobRechazadoException.class, () -> reporteJobService.encolar(solicitud("CLI003")));
+        assertEquals(ReporteJobDto.Estado.EN_PROCESO, reporteJobService.obtener(enEjecucion.getId()).getEstado());
+        assertEquals(ReporteJobDto.Estado.PENDIENTE, reporteJobService.obtener(enCola.getId()).getEstado());
+        liberar.countDown();
+        assertEquals(ReporteJobDto.Estado.COMPLETADO, esperarFin(enCola.getId()).getEstado());
+    }
+
+    @Test
+    @DisplayName("Eliminar trabajos y archivos que superan la retención")
+    void testLimpiarPorRetencion() throws Exception {
+        // Arrange
+        reporteJobService = crear(1, 10, Duration.ofMillis(1));
+        when(reporteService.escribirEstadoCuentaCsv(any(), any(), any(), any(OutputStream.class))).thenReturn(0L);
+        ReporteJobDto job = reporteJobService.encolar(solicitud("CLI001"));
+        esperarFin(job.getId());
+        Path huerfano = Files.writeString(directorio.resolve("anterior.csv"), "x");
+        FileTime antiguo = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(huerfano, antiguo);
+        Files.setLastModifiedTime(reporteJobService.obtenerArchivo(job.getId()).ruta(), antiguo);
+        Thread.sleep(5);
+
+        // Act
+        reporteJobService.limpiar();
+
+        // Assert
+        assertThrows(ReporteJobNotFoundException.class, () -> reporteJobService.obtener(job.getId()));
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(0, archivos.count());
+        }
+    }
+
+    private ReporteJobService crear(int workers, int cola, Duration retencion) throws Exception {
+        return new ReporteJobService(reporteService, new ObjectMapper().findAndRegisterModules(),
+                directorio, workers, cola, retencion);
+    }
+
+    private ReporteJobRequestDto solicitud(String clienteId) {
+        ReporteJobRequestDto request = new ReporteJobRequestDto();
+        request.setClienteId(clienteId);
+        request.setFechaInicio(INICIO);
+        request.setFechaFin(FIN);
+        return request;
+    }
+
+    private ReporteJobDto esperarFin(String id) throws InterruptedException {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < limite) {
+            ReporteJobDto job = reporteJobService.obtener(id);
+            if (job.getFinalizadoEn() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("El trabajo de reporte " + id + " no finalizó");
+        return null;
+    }
+}
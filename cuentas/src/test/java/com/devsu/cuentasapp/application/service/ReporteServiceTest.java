@@ -2,9 +2,17 @@ package com.devsu.cuentasapp.application.service;
 
 import com.devsu.cuentasapp.application.dto.EstadoCuentaDto;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
 import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.MovimientoReporte;
+import com.devsu.cuentasapp.domain.model.ResumenCuenta;
+import com.devsu.cuentasapp.domain.model.SaldosPeriodo;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
 import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,16 +21,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.math.BigDecimal;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +47,15 @@ class ReporteServiceTest {
     @Mock
     private MovimientoRepository movimientoRepository;
 
+    @Mock
+    private SaldoFraccionadoService saldoFraccionadoService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ArchivoMovimientos archivoMovimientos;
+
     @InjectMocks
     private ReporteService reporteService;
 
@@ -45,12 +66,15 @@ class ReporteServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(saldoFraccionadoService.saldoVigente(any()))
+                .thenAnswer(invocation -> invocation.<Cuenta>getArgument(0).getSaldoActual());
+
         cuenta1 = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta("123456")
                 .tipoCuenta("AHORROS")
-                .saldoInicial(new BigDecimal("1000.00"))
-                .saldoActual(new BigDecimal("1200.00"))
+                .saldoInicial(Dinero.of("1000.00"))
+                .saldoActual(Dinero.of("1200.00"))
                 .estado(true)
                 .clienteId("CLI001")
                 .clienteNombre("Jose Lema")
@@ -60,8 +84,8 @@ class ReporteServiceTest {
                 .id(2L)
                 .numeroCuenta("789012")
                 .tipoCuenta("CORRIENTE")
-                .saldoInicial(new BigDecimal("500.00"))
-                .saldoActual(new BigDecimal("700.00"))
+                .saldoInicial(Dinero.of("500.00"))
+                .saldoActual(Dinero.of("700.00"))
                 .estado(true)
                 .clienteId("CLI001")
                 .clienteNombre("Jose Lema")
@@ -70,18 +94,18 @@ class ReporteServiceTest {
         movimiento1 = Movimiento.builder()
                 .id(1L)
                 .fecha(LocalDateTime.now().minusDays(2))
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("200.00"))
-                .saldo(new BigDecimal("1200.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("200.00"))
+                .saldo(Dinero.of("1200.00"))
                 .cuenta(cuenta1)
                 .build();
 
         movimiento2 = Movimiento.builder()
                 .id(2L)
                 .fecha(LocalDateTime.now().minusDays(1))
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("200.00"))
-                .saldo(new BigDecimal("700.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("200.00"))
+                .saldo(Dinero.of("700.00"))
                 .cuenta(cuenta2)
                 .build();
     }
@@ -95,9 +119,8 @@ class ReporteServiceTest {
 
         when(cuentaRepository.findByClienteId("CLI001"))
                 .thenReturn(Arrays.asList(cuenta1, cuenta2));
-        when(movimientoRepository.findByCuentaIdAndFechaBetween(anyLong(), any(), any()))
-                .thenReturn(Arrays.asList(movimiento1))
-                .thenReturn(Arrays.asList(movimiento2));
+        when(movimientoRepository.findReporteByClienteIdAndFechaBetween(eq("CLI001"), any(), any()))
+                .thenReturn(Arrays.asList(reporte(movimiento1), reporte(movimiento2)));
 
         // Act
         EstadoCuentaDto result = reporteService.generarEstadoCuenta("CLI001", fechaInicio, fechaFin);
@@ -109,8 +132,12 @@ class ReporteServiceTest {
         assertEquals(2, result.getCuentas().size());
         assertEquals(fechaInicio, result.getFechaInicio());
         assertEquals(fechaFin, result.getFechaFin());
+        assertEquals(Dinero.of("1200.00"), result.getCuentas().get(0).getMovimientos().get(0).getSaldo());
+        assertEquals(Dinero.of("700.00"), result.getCuentas().get(1).getMovimientos().get(0).getSaldo());
 
         verify(cuentaRepository, times(1)).findByClienteId("CLI001");
+        verify(movimientoRepository, times(1))
+                .findReporteByClienteIdAndFechaBetween(eq("CLI001"), any(), any());
     }
 
     @Test
@@ -122,7 +149,7 @@ class ReporteServiceTest {
 
         when(cuentaRepository.findByClienteId("CLI001"))
                 .thenReturn(Arrays.asList(cuenta1));
-        when(movimientoRepository.findByCuentaIdAndFechaBetween(anyLong(), any(), any()))
+        when(movimientoRepository.findReporteByClienteIdAndFechaBetween(eq("CLI001"), any(), any()))
                 .thenReturn(Collections.emptyList());
 
         // Act
@@ -153,6 +180,41 @@ class ReporteServiceTest {
         assertTrue(result.getCuentas().isEmpty());
     }
 
+    @Test
+    @DisplayName("Generar el resumen con los totales agregados y sin cargar movimientos")
+    void testGenerarResumenEstadoCuenta() {
+        // Arrange
+        LocalDate fechaInicio = LocalDate.now().minusDays(7);
+        LocalDate fechaFin = LocalDate.now();
+
+        when(cuentaRepository.findByClienteId("CLI001"))
+                .thenReturn(Arrays.asList(cuenta1, cuenta2));
+        when(movimientoRepository.findResumenByClienteId(
+                "CLI001", fechaInicio.atStartOfDay(), fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(
+                        new ResumenCuenta(1L, Dinero.of("300.00"), Dinero.of("-100.00"), 3L, null, Dinero.of("1200.00")),
+                        new ResumenCuenta(2L, (Dinero) null, null, 0L, null, null)));
+
+        // Act
+        EstadoCuentaDto result = reporteService.generarResumenEstadoCuenta("CLI001", fechaInicio, fechaFin);
+
+        // Assert
+        EstadoCuentaDto.CuentaEstadoDto conMovimientos = result.getCuentas().get(0);
+        assertEquals(Dinero.of("300.00"), conMovimientos.getTotalDepositos());
+        assertEquals(Dinero.of("-100.00"), conMovimientos.getTotalRetiros());
+        assertEquals(3L, conMovimientos.getCantidadMovimientos());
+        assertEquals(Dinero.of("1000.00"), conMovimientos.getSaldoApertura());
+        assertEquals(Dinero.of("1200.00"), conMovimientos.getSaldoCierre());
+        assertNull(conMovimientos.getMovimientos());
+
+        EstadoCuentaDto.CuentaEstadoDto sinMovimientos = result.getCuentas().get(1);
+        assertEquals(Dinero.CERO, sinMovimientos.getTotalDepositos());
+        assertEquals(Dinero.CERO, sinMovimientos.getTotalRetiros());
+        assertEquals(0L, sinMovimientos.getCantidadMovimientos());
+        assertEquals(Dinero.of("500.00"), sinMovimientos.getSaldoCierre());
+        verify(movimientoRepository, never()).findReporteByClienteIdAndFechaBetween(any(), any(), any());
+    }
+
     @Test
     @DisplayName("Verificar que el reporte incluye información correcta de cada cuenta")
     void testReporteIncluyeInformacionCuenta() {
@@ -162,18 +224,23 @@ class ReporteServiceTest {
 
         when(cuentaRepository.findByClienteId("CLI001"))
                 .thenReturn(Arrays.asList(cuenta1));
-        when(movimientoRepository.findByCuentaIdAndFechaBetween(anyLong(), any(), any()))
-                .thenReturn(Arrays.asList(movimiento1));
+        when(movimientoRepository.findReporteByClienteIdAndFechaBetween(eq("CLI001"), any(), any()))
+                .thenReturn(Arrays.asList(reporte(movimiento1)));
+        when(movimientoRepository.findSaldosPeriodoByClienteId(
+                "CLI001", fechaInicio.atStartOfDay(), fechaFin.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(new SaldosPeriodo(1L, null, Dinero.of("1200.00"))));
 
         // Act
         EstadoCuentaDto result = reporteService.generarEstadoCuenta("CLI001", fechaInicio, fechaFin);
 
         // Assert
         EstadoCuentaDto.CuentaEstadoDto cuentaEstado = result.getCuentas().get(0);
+        assertEquals(Dinero.of("1000.00"), cuentaEstado.getSaldoApertura());
+        assertEquals(Dinero.of("1200.00"), cuentaEstado.getSaldoCierre());
         assertEquals("123456", cuentaEstado.getNumeroCuenta());
         assertEquals("AHORROS", cuentaEstado.getTipoCuenta());
-        assertEquals(new BigDecimal("1000.00"), cuentaEstado.getSaldoInicial());
-        assertEquals(new BigDecimal("1200.00"), cuentaEstado.getSaldoActual());
+        assertEquals(Dinero.of("1000.00"), cuentaEstado.getSaldoInicial());
+        assertEquals(Dinero.of("1200.00"), cuentaEstado.getSaldoActual());
         assertTrue(cuentaEstado.getEstado());
     }
 
@@ -186,8 +253,8 @@ class ReporteServiceTest {
 
         when(cuentaRepository.findByClienteId("CLI001"))
                 .thenReturn(Arrays.asList(cuenta1));
-        when(movimientoRepository.findByCuentaIdAndFechaBetween(anyLong(), any(), any()))
-                .thenReturn(Arrays.asList(movimiento1));
+        when(movimientoRepository.findReporteByClienteIdAndFechaBetween(eq("CLI001"), any(), any()))
+                .thenReturn(Arrays.asList(reporte(movimiento1)));
 
         // Act
         EstadoCuentaDto result = reporteService.generarEstadoCuenta("CLI001", fechaInicio, fechaFin);
@@ -199,9 +266,84 @@ class ReporteServiceTest {
         assertEquals(1, movimientos.size());
         EstadoCuentaDto.MovimientoEstadoDto movDto = movimientos.get(0);
         assertEquals("DEPOSITO", movDto.getTipoMovimiento());
-        assertEquals(new BigDecimal("200.00"), movDto.getValor());
-        assertEquals(new BigDecimal("1200.00"), movDto.getSaldo());
+        assertEquals(Dinero.of("200.00"), movDto.getValor());
+        assertEquals(Dinero.of("1200.00"), movDto.getSaldo());
         assertNotNull(movDto.getFecha());
     }
-}
 
+    @Test
+    @DisplayName("Completar el estado de cuenta con los movimientos anteriores al límite del archivo histórico")
+    void testGenerarEstadoCuentaConArchivo() {
+        // Arrange
+        LocalDate fechaInicio = LocalDate.of(2025, 1, 1);
+        LocalDate fechaFin = LocalDate.of(2025, 3, 31);
+        LocalDateTime archivadoHasta = LocalDateTime.of(2025, 2, 1, 0, 0);
+        Movimiento reciente = Movimiento.builder()
+                .id(9L)
+                .fecha(LocalDateTime.of(2025, 2, 15, 10, 0))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("200.00"))
+                .saldo(Dinero.of("1200.00"))
+                .cuenta(cuenta1)
+                .build();
+
+        when(cuentaRepository.findByClienteId("CLI001")).thenReturn(Arrays.asList(cuenta1, cuenta2));
+        when(archivoMovimientos.archivadoHasta()).thenReturn(Optional.of(archivadoHasta));
+        when(movimientoRepository.findReporteByClienteIdAndFechaBetween(
+                "CLI001", archivadoHasta, fechaFin.atTime(LocalTime.MAX)))
+                .thenReturn(List.of(reporte(reciente)));
+        when(archivoMovimientos.leer(1L, fechaInicio.atStartOfDay(), archivadoHasta)).thenReturn(List.of(
+                new MovimientoArchivado(7L, 1L, LocalDateTime.of(2025, 1, 5, 9, 0), TipoMovimiento.DEPOSITO,
+                        Dinero.of("100.00"), Dinero.of("1000.00")),
+                new MovimientoArchivado(8L, 1L, LocalDateTime.of(2025, 1, 10, 9, 0), TipoMovimiento.DEPOSITO,
+                        Dinero.of("0.00"), Dinero.of("1000.00"))));
+        when(archivoMovimientos.saldoAntesDe(1L, fechaInicio.atStartOfDay()))
+                .thenReturn(Optional.of(Dinero.of("900.00")));
+
+        // Act
+        EstadoCuentaDto result = reporteService.generarEstadoCuenta("CLI001", fechaInicio, fechaFin);
+
+        // Assert
+        List<EstadoCuentaDto.MovimientoEstadoDto> movimientos = result.getCuentas().get(0).getMovimientos();
+        assertEquals(3, movimientos.size());
+        assertEquals(LocalDate.of(2025, 2, 15), movimientos.get(0).getFecha());
+        assertEquals(LocalDate.of(2025, 1, 10), movimientos.get(1).getFecha());
+        assertEquals(LocalDate.of(2025, 1, 5), movimientos.get(2).getFecha());
+        assertEquals(Dinero.of("900.00"), result.getCuentas().get(0).getSaldoApertura());
+        assertTrue(result.getCuentas().get(1).getMovimientos().isEmpty());
+        assertEquals(cuenta2.getSaldoInicial(), result.getCuentas().get(1).getSaldoApertura());
+    }
+
+    @Test
+    @DisplayName("Escribir el estado de cuenta en CSV fila por fila")
+    void testEscribirEstadoCuentaCsv() throws Exception {
+        // Arrange
+        LocalDate fechaInicio = LocalDate.now().minusDays(7);
+        LocalDate fechaFin = LocalDate.now();
+        cuenta2.setClienteNombre("Lema, \"Jose\"");
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        when(movimientoRepository.streamEstadoCuentaByClienteId(eq("CLI001"),
+                eq(fechaInicio.atStartOfDay()), eq(fechaFin.plusDays(1).atStartOfDay())))
+                .thenReturn(Stream.of(movimiento1, movimiento2));
+
+        // Act
+        long filas = reporteService.escribirEstadoCuentaCsv("CLI001", fechaInicio, fechaFin, salida);
+
+        // Assert
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, filas);
+        assertEquals(3, lineas.length);
+        assertEquals(ReporteService.ENCABEZADO_CSV, lineas[0]);
+        assertEquals(movimiento1.getFecha().toLocalDate()
+                + ",CLI001,Jose Lema,123456,AHORROS,1000.00,true,DEPOSITO,200.00,1200.00", lineas[1]);
+        assertTrue(lineas[2].contains(",\"Lema, \"\"Jose\"\"\",789012,"));
+        verify(entityManager, times(2)).detach(any());
+        verifyNoInteractions(cuentaRepository);
+    }
+
+    private MovimientoReporte reporte(Movimiento movimiento) {
+        return new MovimientoReporte(movimiento.getCuenta().getId(), movimiento.getFecha(),
+                movimiento.getTipoMovimiento(), movimiento.getValor(), movimiento.getSaldo());
+    }
+}
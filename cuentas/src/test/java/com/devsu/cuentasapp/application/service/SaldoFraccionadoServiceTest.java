@@ -0,0 +1,268 @@
+package com.devsu.cuentasapp.application.service;
+
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.SaldoFraccion;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoDiarioRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.domain.repository.SaldoFraccionRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoMovimientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para SaldoFraccionadoService")
+class SaldoFraccionadoServiceTest {
+
+    private static final int FRACCIONES = 4;
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private SaldoFraccionRepository saldoFraccionRepository;
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @Mock
+    private MovimientoDiarioRepository movimientoDiarioRepository;
+
+    @Mock
+    private ArchivoMovimientos archivoMovimientos;
+
+    @Mock
+    private ReporteCacheService reporteCacheService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SaldoFraccionadoService saldoFraccionadoService;
+    private Cuenta cuenta;
+
+    @BeforeEach
+    void setUp() {
+        saldoFraccionadoService = servicio(false);
+
+        cuenta = Cuenta.builder()
+                .id(1L)
+                .numeroCuenta("123456")
+                .saldoInicial(Dinero.of("1000.01"))
+                .saldoActual(Dinero.of("1000.01"))
+                .clienteId("CLI001")
+                .estado(true)
+                .saldoFraccionado(false)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Debe repartir el saldo en fracciones al activar")
+    @SuppressWarnings("unchecked")
+    void testActivar() {
+        // Arrange
+        when(cuentaRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cuenta));
+        ArgumentCaptor<List<SaldoFraccion>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        Cuenta resultado = saldoFraccionadoService.activar(1L);
+
+        // Assert
+        assertTrue(resultado.getSaldoFraccionado());
+        verify(saldoFraccionRepository).saveAll(captor.capture());
+        List<SaldoFraccion> fracciones = captor.getValue();
+        assertEquals(FRACCIONES, fracciones.size());
+        assertEquals(Dinero.of("250.01"), fracciones.get(0).getSaldo());
+        assertEquals(Dinero.of("250.00"), fracciones.get(3).getSaldo());
+        assertEquals(0, SaldoFraccionadoService.sumar(fracciones).compareTo(Dinero.of("1000.01")));
+    }
+
+    @Test
+    @DisplayName("No debe activarse con el motor de movimientos habilitado")
+    void testActivarConMotorHabilitado() {
+        // Arrange
+        SaldoFraccionadoService conMotor = servicio(true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> conMotor.activar(1L));
+        verify(saldoFraccionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar el depósito sobre una sola fracción sin leer las demás")
+    void testDepositoEnUnaFraccion() {
+        // Arrange
+        when(saldoFraccionRepository.incrementarSaldo(eq(1L), anyInt(), eq(Dinero.of("50.00")))).thenReturn(1);
+
+        // Act
+        boolean aplicado = saldoFraccionadoService.aplicar(1L, Dinero.of("50.00"));
+
+        // Assert
+        assertTrue(aplicado);
+        verify(saldoFraccionRepository, never()).findByCuentaIdForUpdate(anyLong());
+        verify(saldoFraccionRepository, never()).sumarSaldo(anyLong());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar el retiro sobre una fracción libre que lo cubra sin bloquear las demás")
+    void testRetiroEnUnaFraccion() {
+        // Arrange
+        SaldoFraccion fraccion = fracciones("100.00").get(0);
+        when(saldoFraccionRepository.findParaRetiroForUpdate(eq(1L), eq(Dinero.of("-30.00").toBigDecimal()),
+                anyInt(), eq(FRACCIONES))).thenReturn(Optional.of(fraccion));
+
+        // Act
+        boolean aplicado = saldoFraccionadoService.aplicar(1L, Dinero.of("-30.00"));
+
+        // Assert
+        assertTrue(aplicado);
+        assertEquals(Dinero.of("70.00"), fraccion.getSaldo());
+        verify(saldoFraccionRepository, never()).incrementarSaldo(anyLong(), anyInt(), any());
+        verify(saldoFraccionRepository, never()).findByCuentaIdForUpdate(anyLong());
+    }
+
+    @Test
+    @DisplayName("Debe verificar el total cuando la fracción no cubre el retiro")
+    void testRetiroConsolidado() {
+        // Arrange
+        List<SaldoFraccion> fracciones = fracciones("100.00", "10.00", "0.00", "40.00");
+        when(saldoFraccionRepository.findParaRetiroForUpdate(eq(1L), any(), anyInt(), anyInt()))
+                .thenReturn(Optional.empty());
+        when(saldoFraccionRepository.findByCuentaIdForUpdate(1L)).thenReturn(fracciones);
+
+        // Act
+        boolean aplicado = saldoFraccionadoService.aplicar(1L, Dinero.of("-120.00"));
+
+        // Assert: 150 - 120 = 30, repartido en partes iguales
+        assertTrue(aplicado);
+        fracciones.forEach(fraccion -> assertEquals(Dinero.of("7.50"), fraccion.getSaldo()));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el retiro cuando el total no alcanza")
+    void testRetiroSinSaldoTotal() {
+        // Arrange
+        List<SaldoFraccion> fracciones = fracciones("100.00", "10.00", "0.00", "40.00");
+        when(saldoFraccionRepository.findParaRetiroForUpdate(eq(1L), any(), anyInt(), anyInt()))
+                .thenReturn(Optional.empty());
+        when(saldoFraccionRepository.findByCuentaIdForUpdate(1L)).thenReturn(fracciones);
+
+        // Act & Assert
+        assertThrows(SaldoInsuficienteException.class,
+                () -> saldoFraccionadoService.aplicar(1L, Dinero.of("-150.01")));
+        assertEquals(Dinero.of("100.00"), fracciones.get(0).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Debe retornar false si la cuenta ya no tiene fracciones")
+    void testCuentaSinFracciones() {
+        // Arrange
+        when(saldoFraccionRepository.incrementarSaldo(eq(1L), anyInt(), any())).thenReturn(0);
+        when(saldoFraccionRepository.findByCuentaIdForUpdate(1L)).thenReturn(List.of());
+
+        // Act & Assert
+        assertFalse(saldoFraccionadoService.aplicar(1L, Dinero.of("10.00")));
+    }
+
+    @Test
+    @DisplayName("Debe consolidar las fracciones en el saldo de la cuenta al desactivar")
+    void testDesactivar() {
+        // Arrange
+        cuenta.setSaldoFraccionado(true);
+        when(cuentaRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cuenta));
+        when(saldoFraccionRepository.findByCuentaIdForUpdate(1L))
+                .thenReturn(fracciones("100.00", "10.00", "0.00", "40.00"));
+
+        // Act
+        Cuenta resultado = saldoFraccionadoService.desactivar(1L);
+
+        // Assert
+        assertFalse(resultado.getSaldoFraccionado());
+        assertEquals(0, resultado.getSaldoActual().compareTo(Dinero.of("150.00")));
+        verify(saldoFraccionRepository).eliminarPorCuenta(1L);
+    }
+
+    @Test
+    @DisplayName("Debe derivar en orden (fecha, id) el saldo de los movimientos pendientes al consolidar")
+    @SuppressWarnings("unchecked")
+    void testConsolidarDerivaSaldos() {
+        // Arrange: el movimiento 5 se confirmó con una fecha anterior al 6, que ya tenía saldo derivado
+        cuenta.setSaldoFraccionado(true);
+        LocalDateTime fecha = LocalDateTime.of(2026, 5, 4, 10, 0);
+        Movimiento pendiente = movimiento(5L, fecha, "-30.00", null);
+        Movimiento derivado = movimiento(6L, fecha.plusSeconds(1), "50.00", "1120.00");
+        when(cuentaRepository.findIdsConSaldoFraccionado()).thenReturn(List.of(1L));
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(cuentaRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cuenta));
+        when(saldoFraccionRepository.findByCuentaIdForUpdate(1L))
+                .thenReturn(fracciones("300.00", "300.00", "200.00", "220.00"));
+        when(movimientoRepository.findPrimeroSinSaldo(1L, Limit.of(1))).thenReturn(Optional.of(pendiente));
+        when(movimientoRepository.findSaldoAnteriorA(1L, fecha, 5L, Limit.of(1)))
+                .thenReturn(Optional.of(Dinero.of("1000.00")));
+        when(movimientoRepository.findDesde(1L, fecha, 5L)).thenReturn(List.of(pendiente, derivado));
+
+        // Act
+        saldoFraccionadoService.consolidar();
+
+        // Assert
+        assertEquals(Dinero.of("970.00"), pendiente.getSaldo());
+        assertEquals(Dinero.of("1020.00"), derivado.getSaldo());
+        assertEquals(Dinero.of("1020.00"), cuenta.getSaldoActual());
+        verify(movimientoDiarioRepository).actualizarSaldosCierre(1L, LocalDate.of(2026, 5, 4));
+        verify(reporteCacheService).invalidarCliente("CLI001");
+        verifyNoInteractions(archivoMovimientos);
+    }
+
+    private SaldoFraccionadoService servicio(boolean motorHabilitado) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("reporteCacheService", reporteCacheService);
+        return new SaldoFraccionadoService(cuentaRepository, saldoFraccionRepository, movimientoRepository,
+                movimientoDiarioRepository, archivoMovimientos, beanFactory.getBeanProvider(ReporteCacheService.class),
+                transactionTemplate, FRACCIONES, motorHabilitado);
+    }
+
+    private Movimiento movimiento(Long id, LocalDateTime fecha, String valor, String saldo) {
+        return Movimiento.builder()
+                .id(id)
+                .fecha(fecha)
+                .tipoMovimiento(valor.startsWith("-") ? TipoMovimiento.RETIRO : TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of(valor))
+                .saldo(saldo != null ? Dinero.of(saldo) : null)
+                .cuenta(cuenta)
+                .build();
+    }
+
+    private List<SaldoFraccion> fracciones(String... saldos) {
+        List<SaldoFraccion> fracciones = new ArrayList<>();
+        for (int slot = 0; slot < saldos.length; slot++) {
+            fracciones.add(SaldoFraccion.builder().cuenta(cuenta).slot(slot).saldo(Dinero.of(saldos[slot])).build());
+        }
+        return fracciones;
+    }
+}
@@ -0,0 +1,178 @@
+package com.devsu.cuentasapp.benchmark;
+
+import com.devsu.cuentasapp.CuentasApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compara Tomcat con hilos de plataforma (200 por defecto) contra hilos virtuales con 1000 clientes
+ * concurrentes sobre un endpoint que retiene una conexión JDBC durante una consulta lenta (1 s).
+ * Con hilos de plataforma el límite son los hilos de Tomcat; con hilos virtuales lo es el pool de
+ * HikariCP, como muestra la última ejecución con un pool de 100 conexiones.
+ * Ejecutar con: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@DisplayName("Benchmark - Hilos de plataforma vs hilos virtuales")
+class HilosVirtualesBenchmark {
+
+    private static final int CLIENTES = 1_000;
+    private static final long CONSULTA_LENTA_MS = 1_000;
+    private static final long CALENTAMIENTO_MS = 3_000;
+    private static final long MEDICION_MS = 20_000;
+    // Mismas opciones que application-test.properties: las migraciones de h2 dependen del modo PostgreSQL
+    private static final String OPCIONES_H2 =
+            ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000";
+
+    @Test
+    @DisplayName("Throughput y p99 con 1000 clientes y consultas lentas")
+    void compararModosDeEjecucion() throws Exception {
+        Resultado plataforma = ejecutar(false, 400);
+        Resultado virtuales = ejecutar(true, 400);
+        Resultado virtualesPoolReducido = ejecutar(true, 100);
+
+        System.out.printf("%n%d clientes concurrentes, consulta de %d ms con la conexión retenida%n",
+                CLIENTES, CONSULTA_LENTA_MS);
+        System.out.printf("  %-24s %10s %10s %10s %10s%n", "modo", "req/s", "p50 ms", "p99 ms", "errores");
+        imprimir("plataforma, pool 400", plataforma);
+        imprimir("virtuales, pool 400", virtuales);
+        imprimir("virtuales, pool 100", virtualesPoolReducido);
+    }
+
+    private Resultado ejecutar(boolean hilosVirtuales, int tamanoPool) throws Exception {
+        // Los argumentos de línea de comandos tienen prioridad sobre application.properties
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CuentasApplication.class)
+                .profiles("test")
+                .initializers(c -> registrarConsultaLenta((GenericApplicationContext) c))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "--spring.datasource.url=jdbc:h2:mem:hilos" + hilosVirtuales + tamanoPool + OPCIONES_H2,
+                        "--spring.datasource.hikari.maximum-pool-size=" + tamanoPool,
+                        "--spring.datasource.hikari.minimum-idle=" + tamanoPool,
+                        "--spring.datasource.hikari.connection-timeout=30000",
+                        "--logging.level.com.devsu.cuentasapp=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+             HttpClient cliente = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + puerto + "/benchmark/consulta-lenta");
+            generarCarga(cliente, uri, CALENTAMIENTO_MS);
+            return generarCarga(cliente, uri, MEDICION_MS);
+        }
+    }
+
+    private void registrarConsultaLenta(GenericApplicationContext contexto) {
+        contexto.registerBean("consultaLenta", RouterFunction.class, () -> {
+            JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate = contexto.getBean(TransactionTemplate.class);
+            return RouterFunctions.route()
+                    .GET("/benchmark/consulta-lenta", request -> {
+                        transactionTemplate.executeWithoutResult(estado -> {
+                            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                            dormir(CONSULTA_LENTA_MS);
+                        });
+                        return ServerResponse.ok().build();
+                    })
+                    .build();
+        });
+    }
+
+    private Resultado generarCarga(HttpClient cliente, URI uri, long duracionMs) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long inicio = System.nanoTime();
+        long fin = inicio + duracionMs * 1_000_000;
+        List<Future<long[]>> tareas = new ArrayList<>(CLIENTES);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTES; i++) {
+                tareas.add(executor.submit(() -> {
+                    // [0] = errores, [1..] = latencias en microsegundos
+                    long[] muestras = new long[1024];
+                    int cantidad = 1;
+                    while (System.nanoTime() < fin) {
+                        long t0 = System.nanoTime();
+                        int estado;
+                        try {
+                            estado = cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            estado = -1;
+                        }
+                        if (estado != 200) {
+                            muestras[0]++;
+                            continue;
+                        }
+                        if (cantidad == muestras.length) {
+                            muestras = Arrays.copyOf(muestras, cantidad * 2);
+                        }
+                        muestras[cantidad++] = (System.nanoTime() - t0) / 1_000;
+                    }
+                    return Arrays.copyOf(muestras, cantidad);
+                }));
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+
+        long errores = 0;
+        List<long[]> porCliente = new ArrayList<>(CLIENTES);
+        int total = 0;
+        for (Future<long[]> tarea : tareas) {
+            long[] muestras = tarea.get();
+            errores += muestras[0];
+            porCliente.add(muestras);
+            total += muestras.length - 1;
+        }
+        long[] latencias = new long[total];
+        int posicion = 0;
+        for (long[] muestras : porCliente) {
+            System.arraycopy(muestras, 1, latencias, posicion, muestras.length - 1);
+            posicion += muestras.length - 1;
+        }
+        Arrays.sort(latencias);
+        return new Resultado(total * 1_000_000_000.0 / duracion,
+                percentil(latencias, 0.50), percentil(latencias, 0.99), errores);
+    }
+
+    private double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(percentil * ordenadas.length) - 1)] / 1_000.0;
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void imprimir(String modo, Resultado resultado) {
+        System.out.printf("  %-24s %10.0f %10.1f %10.1f %10d%n",
+                modo, resultado.requestsPorSegundo(), resultado.p50(), resultado.p99(), resultado.errores());
+    }
+
+    private record Resultado(double requestsPorSegundo, double p50, double p99, long errores) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.devsu.cuentasapp.benchmark;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.application.service.MovimientoService;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Compara el throughput del registro transaccional actual contra el motor de lanes,
+ * con una mezcla caliente (una sola cuenta) y una fría (muchas cuentas).
+ * Ejecutar con: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "movimientos.engine.enabled=true",
+        "logging.level.com.devsu.cuentasapp=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+@DisplayName("Benchmark - Motor de movimientos vs registro transaccional")
+class MovimientoEngineBenchmark {
+
+    private static final int HILOS = 16;
+    private static final int OPERACIONES = 4_000;
+    private static final int CALENTAMIENTO = 500;
+    private static final Dinero SALDO_INICIAL = Dinero.of("1000000.00");
+    private static final Dinero VALOR = Dinero.of("1.00");
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private MovimientoEngine movimientoEngine;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @BeforeEach
+    void setUp() {
+        movimientoRepository.deleteAll();
+        cuentaRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Mezcla caliente: todas las operaciones sobre una cuenta")
+    void benchmarkCuentaCaliente() throws Exception {
+        comparar("caliente", 1);
+    }
+
+    @Test
+    @DisplayName("Mezcla fría: operaciones repartidas en 256 cuentas")
+    void benchmarkCuentasFrias() throws Exception {
+        comparar("fria", 256);
+    }
+
+    private void comparar(String escenario, int numeroCuentas) throws Exception {
+        Resultado actual = ejecutar("T" + escenario.charAt(0), numeroCuentas, movimientoService::registrarMovimiento);
+        Resultado motor = ejecutar("M" + escenario.charAt(0), numeroCuentas, movimientoEngine::registrar);
+
+        System.out.printf("%n[%s] %d operaciones, %d hilos, %d cuenta(s)%n",
+                escenario, OPERACIONES, HILOS, numeroCuentas);
+        System.out.printf("  %-16s %10s %10s %14s%n", "ruta", "ops/s", "errores", "act. perdidas");
+        imprimir("transaccional", actual);
+        imprimir("motor", motor);
+    }
+
+    private Resultado ejecutar(String prefijo, int numeroCuentas, Consumer<MovimientoRequestDto> registrar)
+            throws Exception {
+        List<String> numeros = crearCuentas(prefijo, numeroCuentas);
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            registrar.accept(deposito(numeros.get(i % numeroCuentas)));
+        }
+
+        AtomicLongArray exitosas = new AtomicLongArray(numeroCuentas);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>(OPERACIONES);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < OPERACIONES; i++) {
+            int indiceCuenta = i % numeroCuentas;
+            tareas.add(executor.submit(() -> {
+                registrar.accept(deposito(numeros.get(indiceCuenta)));
+                exitosas.incrementAndGet(indiceCuenta);
+            }));
+        }
+        int errores = 0;
+        for (Future<?> tarea : tareas) {
+            try {
+                tarea.get();
+            } catch (Exception e) {
+                errores++;
+            }
+        }
+        long duracion = System.nanoTime() - inicio;
+        executor.shutdown();
+
+        // Actualizaciones perdidas: depósitos confirmados que no se reflejan en el saldo final
+        long perdidas = 0;
+        for (int i = 0; i < numeroCuentas; i++) {
+            Dinero esperado = SALDO_INICIAL.sumar(
+                    Dinero.deCentavos(VALOR.centavos() * (exitosas.get(i) + calentamiento(i, numeroCuentas))));
+            Dinero real = cuentaRepository.findByNumeroCuenta(numeros.get(i)).orElseThrow().getSaldoActual();
+            perdidas += esperado.restar(real).centavos() / VALOR.centavos();
+        }
+        return new Resultado(OPERACIONES * 1_000_000_000.0 / duracion, errores, perdidas);
+    }
+
+    private long calentamiento(int indiceCuenta, int numeroCuentas) {
+        return CALENTAMIENTO / numeroCuentas + (indiceCuenta < CALENTAMIENTO % numeroCuentas ? 1 : 0);
+    }
+
+    private List<String> crearCuentas(String prefijo, int numeroCuentas) {
+        List<String> numeros = new ArrayList<>(numeroCuentas);
+        List<Cuenta> cuentas = new ArrayList<>(numeroCuentas);
+        for (int i = 0; i < numeroCuentas; i++) {
+            String numero = prefijo + String.format("%06d", i);
+            numeros.add(numero);
+            cuentas.add(Cuenta.builder()
+                    .numeroCuenta(numero)
+                    .tipoCuenta("AHORROS")
+                    .saldoInicial(SALDO_INICIAL)
+                    .saldoActual(SALDO_INICIAL)
+                    .estado(true)
+                    .clienteId("BENCH")
+                    .build());
+        }
+        cuentaRepository.saveAll(cuentas);
+        return numeros;
+    }
+
+    private MovimientoRequestDto deposito(String numeroCuenta) {
+        return MovimientoRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoMovimiento("DEPOSITO")
+                .valor(VALOR)
+                .build();
+    }
+
+    private void imprimir(String ruta, Resultado resultado) {
+        System.out.printf("  %-16s %10.0f %10d %14d%n",
+                ruta, resultado.opsPorSegundo(), resultado.errores(), resultado.perdidas());
+    }
+
+    private record Resultado(double opsPorSegundo, int errores, long perdidas) {
+    }
+}
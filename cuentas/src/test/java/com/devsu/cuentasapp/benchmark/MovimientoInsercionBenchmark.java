@@ -0,0 +1,148 @@
+package com.devsu.cuentasapp.benchmark;
+
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mide inserciones por segundo de movimientos y cuentas en dos modos:
+ * fila por fila (un round-trip por INSERT, como exigía GenerationType.IDENTITY)
+ * y por lotes (ids de secuencia pooled + hibernate.jdbc.batch_size).
+ * Ejecutar con: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.com.devsu.cuentasapp=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+@DisplayName("Benchmark - Inserción de movimientos y cuentas")
+class MovimientoInsercionBenchmark {
+
+    private static final int FILAS = 10_000;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        movimientoRepository.deleteAll();
+        cuentaRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Inserción de movimientos: fila por fila vs por lotes")
+    void benchmarkMovimientos() {
+        Cuenta cuenta = cuentaRepository.save(cuenta("BM000001"));
+
+        Resultado filaPorFila = medir(() -> movimientos(cuenta).forEach(movimiento -> {
+            entityManager.persist(movimiento);
+            entityManager.flush();
+            entityManager.clear();
+        }));
+        Resultado porLotes = medir(() -> movimientoRepository.saveAll(movimientos(cuenta)));
+
+        imprimir("movimientos", filaPorFila, porLotes);
+    }
+
+    @Test
+    @DisplayName("Inserción de cuentas: fila por fila vs por lotes")
+    void benchmarkCuentas() {
+        Resultado filaPorFila = medir(() -> cuentas("BF").forEach(cuenta -> {
+            entityManager.persist(cuenta);
+            entityManager.flush();
+            entityManager.clear();
+        }));
+        Resultado porLotes = medir(() -> cuentaRepository.saveAll(cuentas("BL")));
+
+        imprimir("cuentas", filaPorFila, porLotes);
+    }
+
+    private Resultado medir(Runnable insercion) {
+        statistics.clear();
+        long inicio = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> insercion.run());
+        long duracion = System.nanoTime() - inicio;
+        return new Resultado(FILAS * 1_000_000_000.0 / duracion, statistics.getPrepareStatementCount());
+    }
+
+    private List<Movimiento> movimientos(Cuenta cuenta) {
+        List<Movimiento> movimientos = new ArrayList<>(FILAS);
+        LocalDateTime fecha = LocalDateTime.now();
+        for (int i = 0; i < FILAS; i++) {
+            movimientos.add(Movimiento.builder()
+                    .fecha(fecha)
+                    .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                    .valor(Dinero.of("1.00"))
+                    .saldo(Dinero.deCentavos(i * 100L))
+                    .cuenta(cuenta)
+                    .build());
+        }
+        return movimientos;
+    }
+
+    private List<Cuenta> cuentas(String prefijo) {
+        List<Cuenta> cuentas = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            cuentas.add(cuenta(prefijo + String.format("%06d", i)));
+        }
+        return cuentas;
+    }
+
+    private Cuenta cuenta(String numeroCuenta) {
+        return Cuenta.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.CERO)
+                .saldoActual(Dinero.CERO)
+                .estado(true)
+                .clienteId("BENCH")
+                .build();
+    }
+
+    private void imprimir(String entidad, Resultado filaPorFila, Resultado porLotes) {
+        System.out.printf("%n[%s] %d filas%n", entidad, FILAS);
+        System.out.printf("  %-14s %12s %14s%n", "modo", "inserts/s", "sentencias");
+        System.out.printf("  %-14s %12.0f %14d%n", "fila por fila", filaPorFila.insertsPorSegundo(), filaPorFila.sentencias());
+        System.out.printf("  %-14s %12.0f %14d%n", "por lotes", porLotes.insertsPorSegundo(), porLotes.sentencias());
+    }
+
+    private record Resultado(double insertsPorSegundo, long sentencias) {
+    }
+}
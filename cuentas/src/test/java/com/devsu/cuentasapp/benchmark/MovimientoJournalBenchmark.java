@@ -0,0 +1,134 @@
+package com.devsu.cuentasapp.benchmark;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.engine.MovimientoEngine;
+import com.devsu.cuentasapp.application.service.MovimientoService;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.journal.MovimientoJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Compara el registro transaccional (un commit por movimiento) contra el motor con journal
+ * en disco y group commit. Para el journal se reporta tanto el throughput confirmado al cliente
+ * como el sostenido hasta que el drenador termina de volcar a la base de datos.
+ * Ejecutar con: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "movimientos.engine.enabled=true",
+        "movimientos.journal.enabled=true",
+        "movimientos.journal.dir=${java.io.tmpdir}/cuentas-journal-${random.uuid}",
+        "logging.level.com.devsu.cuentasapp=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@ActiveProfiles("test")
+@DisplayName("Benchmark - Journal de movimientos vs registro transaccional")
+class MovimientoJournalBenchmark {
+
+    private static final int HILOS = 16;
+    private static final int OPERACIONES = 20_000;
+    private static final int CUENTAS = 256;
+    private static final Dinero SALDO_INICIAL = Dinero.of("1000000.00");
+    private static final Dinero VALOR = Dinero.of("1.00");
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private MovimientoEngine movimientoEngine;
+
+    @Autowired
+    private MovimientoJournal movimientoJournal;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Test
+    @DisplayName("Operaciones repartidas en 256 cuentas")
+    void benchmarkJournal() throws Exception {
+        long inicio = System.nanoTime();
+        int erroresTransaccional = ejecutar("TJ", movimientoService::registrarMovimiento);
+        double transaccional = OPERACIONES * 1_000_000_000.0 / (System.nanoTime() - inicio);
+
+        long movimientosPrevios = movimientoRepository.count();
+        inicio = System.nanoTime();
+        int erroresJournal = ejecutar("MJ", movimientoEngine::registrar);
+        double confirmado = OPERACIONES * 1_000_000_000.0 / (System.nanoTime() - inicio);
+        while (movimientoJournal.getLsnVolcado() < movimientoJournal.getLsnDurable()) {
+            Thread.sleep(1);
+        }
+        double sostenido = OPERACIONES * 1_000_000_000.0 / (System.nanoTime() - inicio);
+        long volcados = movimientoRepository.count() - movimientosPrevios;
+
+        System.out.printf("%n[journal] %d operaciones, %d hilos, %d cuentas%n", OPERACIONES, HILOS, CUENTAS);
+        System.out.printf("  %-26s %10s %10s%n", "ruta", "ops/s", "errores");
+        System.out.printf("  %-26s %10.0f %10d%n", "transaccional", transaccional, erroresTransaccional);
+        System.out.printf("  %-26s %10.0f %10d%n", "journal (confirmado)", confirmado, erroresJournal);
+        System.out.printf("  %-26s %10.0f %10s%n", "journal (volcado a la BD)", sostenido, volcados + " filas");
+    }
+
+    private int ejecutar(String prefijo, Consumer<MovimientoRequestDto> registrar) throws Exception {
+        List<String> numeros = crearCuentas(prefijo);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>(OPERACIONES);
+        for (int i = 0; i < OPERACIONES; i++) {
+            String numeroCuenta = numeros.get(i % CUENTAS);
+            tareas.add(executor.submit(() -> registrar.accept(deposito(numeroCuenta))));
+        }
+        int errores = 0;
+        for (Future<?> tarea : tareas) {
+            try {
+                tarea.get();
+            } catch (Exception e) {
+                errores++;
+            }
+        }
+        executor.shutdown();
+        return errores;
+    }
+
+    private List<String> crearCuentas(String prefijo) {
+        List<String> numeros = new ArrayList<>(CUENTAS);
+        List<Cuenta> cuentas = new ArrayList<>(CUENTAS);
+        for (int i = 0; i < CUENTAS; i++) {
+            String numero = prefijo + String.format("%06d", i);
+            numeros.add(numero);
+            cuentas.add(Cuenta.builder()
+                    .numeroCuenta(numero)
+                    .tipoCuenta("AHORROS")
+                    .saldoInicial(SALDO_INICIAL)
+                    .saldoActual(SALDO_INICIAL)
+                    .estado(true)
+                    .clienteId("BENCH")
+                    .build());
+        }
+        cuentaRepository.saveAll(cuentas);
+        return numeros;
+    }
+
+    private MovimientoRequestDto deposito(String numeroCuenta) {
+        return MovimientoRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoMovimiento("DEPOSITO")
+                .valor(VALOR)
+                .build();
+    }
+}
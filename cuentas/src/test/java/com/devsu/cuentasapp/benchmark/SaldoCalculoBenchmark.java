@@ -0,0 +1,104 @@
+package com.devsu.cuentasapp.benchmark;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del cálculo de saldo de un movimiento: la versión anterior con String y BigDecimal
+ * (toUpperCase, negate/abs, add, compareTo) contra TipoMovimiento y Dinero en centavos.
+ * Reporta latencia por operación y bytes asignados por operación (gc.alloc.rate.norm).
+ * Ejecutar con: ./gradlew benchmark
+ */
+@Tag("benchmark")
+@DisplayName("Benchmark - Cálculo de saldo con BigDecimal vs Dinero")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaldoCalculoBenchmark {
+
+    private static final int N = 1024;
+    private static final String[] TIPOS = {"deposito", "RETIRO", "Deposito", "retiro"};
+
+    private String[] tipos;
+    private BigDecimal[] valoresBigDecimal;
+    private Dinero[] valoresDinero;
+    private BigDecimal saldoBigDecimal;
+    private Dinero saldoDinero;
+    private int indice;
+
+    @Setup
+    public void preparar() {
+        tipos = new String[N];
+        valoresBigDecimal = new BigDecimal[N];
+        valoresDinero = new Dinero[N];
+        for (int i = 0; i < N; i++) {
+            tipos[i] = TIPOS[i % TIPOS.length];
+            valoresBigDecimal[i] = BigDecimal.valueOf(100 + i * 7L, 2);
+            valoresDinero[i] = Dinero.deCentavos(100 + i * 7L);
+        }
+        saldoBigDecimal = new BigDecimal("1000000.00");
+        saldoDinero = Dinero.of("1000000.00");
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        int i = indice++ & (N - 1);
+        String tipoMovimiento = tipos[i].toUpperCase();
+        BigDecimal valor = valoresBigDecimal[i];
+        BigDecimal valorMovimiento;
+        if ("RETIRO".equals(tipoMovimiento)) {
+            valorMovimiento = valor.compareTo(BigDecimal.ZERO) > 0 ? valor.negate() : valor;
+        } else if ("DEPOSITO".equals(tipoMovimiento)) {
+            valorMovimiento = valor.compareTo(BigDecimal.ZERO) < 0 ? valor.abs() : valor;
+        } else {
+            throw new IllegalArgumentException("Tipo de movimiento inválido: " + tipoMovimiento);
+        }
+        BigDecimal nuevoSaldo = saldoBigDecimal.add(valorMovimiento);
+        blackhole.consume(nuevoSaldo.compareTo(BigDecimal.ZERO) < 0);
+        blackhole.consume(nuevoSaldo);
+    }
+
+    @Benchmark
+    public void dinero(Blackhole blackhole) {
+        int i = indice++ & (N - 1);
+        TipoMovimiento tipoMovimiento = TipoMovimiento.desde(tipos[i]);
+        Dinero nuevoSaldo = saldoDinero.sumar(tipoMovimiento.aplicarSigno(valoresDinero[i]));
+        blackhole.consume(nuevoSaldo.esNegativo());
+        blackhole.consume(nuevoSaldo);
+    }
+
+    @Test
+    @DisplayName("Latencia y asignación por cálculo de saldo")
+    void compararCalculoDeSaldo() throws Exception {
+        Options opciones = new OptionsBuilder()
+                .include(SaldoCalculoBenchmark.class.getName() + "\\.(bigDecimal|dinero)$")
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> resultados = new Runner(opciones).run();
+
+        System.out.printf("%n  %-12s %12s %16s%n", "cálculo", "ns/op", "bytes/op");
+        for (RunResult resultado : resultados) {
+            System.out.printf("  %-12s %12.1f %16.1f%n",
+                    resultado.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                    resultado.getPrimaryResult().getScore(),
+                    resultado.getSecondaryResults().get("gc.alloc.rate.norm").getScore());
+        }
+    }
+}
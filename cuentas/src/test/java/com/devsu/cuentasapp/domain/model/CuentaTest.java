@@ -3,8 +3,6 @@ package com.devsu.cuentasapp.domain.model;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
-
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("Tests para la entidad Cuenta")
@@ -18,8 +16,8 @@ class CuentaTest {
                 .id(1L)
                 .numeroCuenta("123456")
                 .tipoCuenta("AHORROS")
-                .saldoInicial(new BigDecimal("1000.00"))
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoInicial(Dinero.of("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .estado(true)
                 .clienteId("CLI001")
                 .clienteNombre("Test Cliente")
@@ -30,8 +28,8 @@ class CuentaTest {
         assertEquals(1L, cuenta.getId());
         assertEquals("123456", cuenta.getNumeroCuenta());
         assertEquals("AHORROS", cuenta.getTipoCuenta());
-        assertEquals(new BigDecimal("1000.00"), cuenta.getSaldoInicial());
-        assertEquals(new BigDecimal("1000.00"), cuenta.getSaldoActual());
+        assertEquals(Dinero.of("1000.00"), cuenta.getSaldoInicial());
+        assertEquals(Dinero.of("1000.00"), cuenta.getSaldoActual());
         assertTrue(cuenta.getEstado());
         assertEquals("CLI001", cuenta.getClienteId());
         assertEquals("Test Cliente", cuenta.getClienteNombre());
@@ -44,7 +42,7 @@ class CuentaTest {
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("789012")
                 .tipoCuenta("CORRIENTE")
-                .saldoInicial(new BigDecimal("500.00"))
+                .saldoInicial(Dinero.of("500.00"))
                 .build();
 
         // Act
@@ -61,7 +59,7 @@ class CuentaTest {
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("456789")
                 .tipoCuenta("AHORROS")
-                .saldoInicial(new BigDecimal("750.50"))
+                .saldoInicial(Dinero.of("750.50"))
                 .build();
 
         // Act
@@ -69,7 +67,7 @@ class CuentaTest {
 
         // Assert
         assertEquals(cuenta.getSaldoInicial(), cuenta.getSaldoActual());
-        assertEquals(new BigDecimal("750.50"), cuenta.getSaldoActual());
+        assertEquals(Dinero.of("750.50"), cuenta.getSaldoActual());
     }
 
     @Test
@@ -77,14 +75,14 @@ class CuentaTest {
     void testModificarSaldoActual() {
         // Arrange
         Cuenta cuenta = Cuenta.builder()
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .build();
 
         // Act
-        cuenta.setSaldoActual(new BigDecimal("1500.00"));
+        cuenta.setSaldoActual(Dinero.of("1500.00"));
 
         // Assert
-        assertEquals(new BigDecimal("1500.00"), cuenta.getSaldoActual());
+        assertEquals(Dinero.of("1500.00"), cuenta.getSaldoActual());
     }
 
     @Test
@@ -108,13 +106,13 @@ class CuentaTest {
         // Act
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("000000")
-                .saldoInicial(BigDecimal.ZERO)
-                .saldoActual(BigDecimal.ZERO)
+                .saldoInicial(Dinero.CERO)
+                .saldoActual(Dinero.CERO)
                 .build();
 
         // Assert
-        assertEquals(BigDecimal.ZERO, cuenta.getSaldoInicial());
-        assertEquals(BigDecimal.ZERO, cuenta.getSaldoActual());
+        assertEquals(Dinero.CERO, cuenta.getSaldoInicial());
+        assertEquals(Dinero.CERO, cuenta.getSaldoActual());
     }
 
     @Test
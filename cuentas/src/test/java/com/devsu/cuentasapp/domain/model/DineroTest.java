@@ -0,0 +1,80 @@
+package com.devsu.cuentasapp.domain.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para Dinero y TipoMovimiento")
+class DineroTest {
+
+    @Test
+    @DisplayName("Leer importes en notación decimal y convertir desde BigDecimal")
+    void testParse() {
+        assertEquals(123450, Dinero.of("1234.5").centavos());
+        assertEquals(-5, Dinero.of("-0.05").centavos());
+        assertEquals(1000, Dinero.of("10").centavos());
+        assertEquals(1000, Dinero.of("10.000").centavos());
+        assertEquals(150000, Dinero.of("1.5E3").centavos());
+        assertEquals(Dinero.of("99.99"), Dinero.of(new BigDecimal("99.990")));
+        assertSame(Dinero.CERO, Dinero.of("0.00"));
+    }
+
+    @Test
+    @DisplayName("Rechazar importes con más de dos decimales o mal formados")
+    void testParseInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> Dinero.of("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Dinero.of(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> Dinero.of("-"));
+        assertThrows(NumberFormatException.class, () -> Dinero.of("12a"));
+    }
+
+    @Test
+    @DisplayName("Aritmética en centavos con verificación de desbordamiento")
+    void testAritmetica() {
+        Dinero saldo = Dinero.of("100.10");
+
+        assertEquals(Dinero.of("150.35"), saldo.sumar(Dinero.of("50.25")));
+        assertEquals(Dinero.of("-0.90"), saldo.restar(Dinero.of("101.00")));
+        assertTrue(saldo.restar(Dinero.of("101.00")).esNegativo());
+        assertEquals(Dinero.of("100.10"), saldo.negar().abs());
+        assertTrue(Dinero.of("0.01").compareTo(Dinero.CERO) > 0);
+        assertThrows(ArithmeticException.class, () -> Dinero.deCentavos(Long.MAX_VALUE).sumar(Dinero.of("0.01")));
+        assertThrows(ArithmeticException.class, () -> Dinero.deCentavos(Long.MIN_VALUE).negar());
+    }
+
+    @Test
+    @DisplayName("Representar el importe con dos decimales en texto y BigDecimal")
+    void testRepresentacion() {
+        assertEquals("1234.05", Dinero.of("1234.05").toString());
+        assertEquals("-0.50", Dinero.of("-0.5").toString());
+        assertEquals(new BigDecimal("7.10"), Dinero.of("7.1").toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("Serializar en JSON como número con dos decimales y leer números o textos")
+    void testJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertEquals("1500.00", objectMapper.writeValueAsString(Dinero.of("1500")));
+        assertEquals(Dinero.of("1500.50"), objectMapper.readValue("1500.5", Dinero.class));
+        assertEquals(Dinero.of("20.00"), objectMapper.readValue("20", Dinero.class));
+        assertEquals(Dinero.of("3.25"), objectMapper.readValue("\"3.25\"", Dinero.class));
+        assertThrows(Exception.class, () -> objectMapper.readValue("1.999", Dinero.class));
+    }
+
+    @Test
+    @DisplayName("TipoMovimiento ignora mayúsculas y aplica el signo del movimiento")
+    void testTipoMovimiento() {
+        assertEquals(TipoMovimiento.DEPOSITO, TipoMovimiento.desde("deposito"));
+        assertEquals(TipoMovimiento.RETIRO, TipoMovimiento.desde("Retiro"));
+        assertThrows(IllegalArgumentException.class, () -> TipoMovimiento.desde("TRANSFERENCIA"));
+
+        assertEquals(Dinero.of("-50.00"), TipoMovimiento.RETIRO.aplicarSigno(Dinero.of("50.00")));
+        assertEquals(Dinero.of("-50.00"), TipoMovimiento.RETIRO.aplicarSigno(Dinero.of("-50.00")));
+        assertEquals(Dinero.of("50.00"), TipoMovimiento.DEPOSITO.aplicarSigno(Dinero.of("-50.00")));
+    }
+}
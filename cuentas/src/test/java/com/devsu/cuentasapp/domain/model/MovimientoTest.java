@@ -3,7 +3,6 @@ package com.devsu.cuentasapp.domain.model;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,25 +17,25 @@ class MovimientoTest {
         Cuenta cuenta = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta("123456")
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .build();
 
         // Act
         Movimiento movimiento = Movimiento.builder()
                 .id(1L)
                 .fecha(LocalDateTime.now())
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("500.00"))
-                .saldo(new BigDecimal("1500.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("500.00"))
+                .saldo(Dinero.of("1500.00"))
                 .cuenta(cuenta)
                 .build();
 
         // Assert
         assertNotNull(movimiento);
-        assertEquals("DEPOSITO", movimiento.getTipoMovimiento());
-        assertEquals(new BigDecimal("500.00"), movimiento.getValor());
-        assertEquals(new BigDecimal("1500.00"), movimiento.getSaldo());
-        assertTrue(movimiento.getValor().compareTo(BigDecimal.ZERO) > 0);
+        assertEquals(TipoMovimiento.DEPOSITO, movimiento.getTipoMovimiento());
+        assertEquals(Dinero.of("500.00"), movimiento.getValor());
+        assertEquals(Dinero.of("1500.00"), movimiento.getSaldo());
+        assertTrue(movimiento.getValor().compareTo(Dinero.CERO) > 0);
     }
 
     @Test
@@ -46,25 +45,25 @@ class MovimientoTest {
         Cuenta cuenta = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta("123456")
-                .saldoActual(new BigDecimal("1000.00"))
+                .saldoActual(Dinero.of("1000.00"))
                 .build();
 
         // Act
         Movimiento movimiento = Movimiento.builder()
                 .id(2L)
                 .fecha(LocalDateTime.now())
-                .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("-300.00"))
-                .saldo(new BigDecimal("700.00"))
+                .tipoMovimiento(TipoMovimiento.RETIRO)
+                .valor(Dinero.of("-300.00"))
+                .saldo(Dinero.of("700.00"))
                 .cuenta(cuenta)
                 .build();
 
         // Assert
         assertNotNull(movimiento);
-        assertEquals("RETIRO", movimiento.getTipoMovimiento());
-        assertEquals(new BigDecimal("-300.00"), movimiento.getValor());
-        assertEquals(new BigDecimal("700.00"), movimiento.getSaldo());
-        assertTrue(movimiento.getValor().compareTo(BigDecimal.ZERO) < 0);
+        assertEquals(TipoMovimiento.RETIRO, movimiento.getTipoMovimiento());
+        assertEquals(Dinero.of("-300.00"), movimiento.getValor());
+        assertEquals(Dinero.of("700.00"), movimiento.getSaldo());
+        assertTrue(movimiento.getValor().compareTo(Dinero.CERO) < 0);
     }
 
     @Test
@@ -76,8 +75,8 @@ class MovimientoTest {
         // Act
         Movimiento movimiento = Movimiento.builder()
                 .fecha(ahora)
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("100.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("100.00"))
                 .build();
 
         // Assert
@@ -96,8 +95,8 @@ class MovimientoTest {
 
         // Act
         Movimiento movimiento = Movimiento.builder()
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("250.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("250.00"))
                 .cuenta(cuenta)
                 .build();
 
@@ -111,19 +110,19 @@ class MovimientoTest {
     @DisplayName("Saldo después del movimiento es correcto")
     void testSaldoDespuesDelMovimiento() {
         // Arrange
-        BigDecimal saldoAnterior = new BigDecimal("800.00");
-        BigDecimal valorDeposito = new BigDecimal("200.00");
-        BigDecimal saldoNuevo = saldoAnterior.add(valorDeposito);
+        Dinero saldoAnterior = Dinero.of("800.00");
+        Dinero valorDeposito = Dinero.of("200.00");
+        Dinero saldoNuevo = saldoAnterior.sumar(valorDeposito);
 
         // Act
         Movimiento movimiento = Movimiento.builder()
-                .tipoMovimiento("DEPOSITO")
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
                 .valor(valorDeposito)
                 .saldo(saldoNuevo)
                 .build();
 
         // Assert
-        assertEquals(new BigDecimal("1000.00"), movimiento.getSaldo());
+        assertEquals(Dinero.of("1000.00"), movimiento.getSaldo());
     }
 
     @Test
@@ -132,14 +131,14 @@ class MovimientoTest {
         // Arrange & Act
         Movimiento mov1 = Movimiento.builder()
                 .id(1L)
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("100.00"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("100.00"))
                 .build();
 
         Movimiento mov2 = Movimiento.builder()
                 .id(2L)
-                .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("-50.00"))
+                .tipoMovimiento(TipoMovimiento.RETIRO)
+                .valor(Dinero.of("-50.00"))
                 .build();
 
         // Assert
@@ -153,14 +152,14 @@ class MovimientoTest {
     void testMovimientoConValorDecimal() {
         // Act
         Movimiento movimiento = Movimiento.builder()
-                .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("123.45"))
-                .saldo(new BigDecimal("1123.45"))
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("123.45"))
+                .saldo(Dinero.of("1123.45"))
                 .build();
 
         // Assert
-        assertEquals(new BigDecimal("123.45"), movimiento.getValor());
-        assertEquals(2, movimiento.getValor().scale());
+        assertEquals(Dinero.of("123.45"), movimiento.getValor());
+        assertEquals(12345, movimiento.getValor().centavos());
     }
 }
 
@@ -0,0 +1,182 @@
+package com.devsu.cuentasapp.infrastructure.messaging;
+
+import com.devsu.cuentasapp.application.dto.MovimientoLoteResultadoDto;
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.dto.MovimientoResultadoEventDto;
+import com.devsu.cuentasapp.application.service.MovimientoMensajeService;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoMessageListener")
+class MovimientoMessageListenerTest {
+
+    private static final String EXCHANGE = "movimiento-resultado-exchange";
+    private static final String ROUTING_KEY = "movimiento.resultado";
+
+    @Mock
+    private MovimientoMensajeService movimientoMensajeService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private final Jackson2JsonMessageConverter productor = new Jackson2JsonMessageConverter();
+
+    private MovimientoMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new MovimientoMessageListener(movimientoMensajeService, rabbitTemplate,
+                new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), EXCHANGE, ROUTING_KEY);
+    }
+
+    @Test
+    @DisplayName("Registrar el lote en una sola llamada y publicar un resultado por mensaje")
+    @SuppressWarnings("unchecked")
+    void testRecibirLote() {
+        // Arrange
+        when(movimientoMensajeService.registrar(anyList(), anyList())).thenReturn(List.of(
+                MovimientoLoteResultadoDto.exitoso(0, MovimientoResponseDto.builder()
+                        .numeroCuenta("123456").saldo(Dinero.of("1100.00")).build()),
+                MovimientoLoteResultadoDto.fallido(1, "Saldo no disponible")));
+
+        // Act
+        listener.recibirMovimientos(List.of(
+                mensaje("c-1", request("123456", "DEPOSITO", "100.00")),
+                mensaje("c-2", request("789012", "RETIRO", "500.00"))));
+
+        // Assert
+        ArgumentCaptor<List<MovimientoRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(movimientoMensajeService, times(1)).registrar(captor.capture(), eq(List.of("c-1", "c-2")));
+        assertEquals(List.of("123456", "789012"),
+                captor.getValue().stream().map(MovimientoRequestDto::getNumeroCuenta).toList());
+
+        List<MovimientoResultadoEventDto> eventos = eventosPublicados(2);
+        assertEquals("c-1", eventos.get(0).getCorrelationId());
+        assertTrue(eventos.get(0).getExitoso());
+        assertEquals(Dinero.of("1100.00"), eventos.get(0).getMovimiento().getSaldo());
+        assertEquals("c-2", eventos.get(1).getCorrelationId());
+        assertFalse(eventos.get(1).getExitoso());
+        assertEquals("Saldo no disponible", eventos.get(1).getError());
+    }
+
+    @Test
+    @DisplayName("Responder los mensajes ilegibles o inválidos sin incluirlos en el lote")
+    @SuppressWarnings("unchecked")
+    void testMensajesInvalidos() {
+        // Arrange
+        MessageProperties propiedades = new MessageProperties();
+        propiedades.setMessageId("m-1");
+        Message ilegible = new Message("no es json".getBytes(StandardCharsets.UTF_8), propiedades);
+        Message sinValor = mensaje("c-2", request("123456", "DEPOSITO", null));
+        when(movimientoMensajeService.registrar(anyList(), anyList())).thenReturn(List.of(
+                MovimientoLoteResultadoDto.exitoso(0, MovimientoResponseDto.builder().numeroCuenta("123456").build())));
+
+        // Act
+        listener.recibirMovimientos(List.of(ilegible, sinValor, mensaje("c-3", request("123456", "DEPOSITO", "10.00"))));
+
+        // Assert
+        ArgumentCaptor<List<MovimientoRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(movimientoMensajeService).registrar(captor.capture(), eq(List.of("c-3")));
+        assertEquals(1, captor.getValue().size());
+
+        List<MovimientoResultadoEventDto> eventos = eventosPublicados(3);
+        assertEquals("m-1", eventos.get(0).getCorrelationId());
+        assertEquals("El mensaje no es un movimiento válido", eventos.get(0).getError());
+        assertEquals("c-2", eventos.get(1).getCorrelationId());
+        assertEquals("El valor es obligatorio", eventos.get(1).getError());
+        assertEquals("c-3", eventos.get(2).getCorrelationId());
+        assertTrue(eventos.get(2).getExitoso());
+    }
+
+    @Test
+    @DisplayName("Identificar cada mensaje por su messageId, o por su correlationId si no lo tiene")
+    void testIdsDeMensaje() {
+        // Arrange
+        Message conMessageId = mensaje("c-1", request("123456", "DEPOSITO", "100.00"));
+        conMessageId.getMessageProperties().setMessageId("m-1");
+        MessageProperties propiedades = new MessageProperties();
+        propiedades.setMessageId("m".repeat(96));
+        Message idLargo = productor.toMessage(request("123456", "DEPOSITO", "10.00"), propiedades);
+        when(movimientoMensajeService.registrar(anyList(), anyList())).thenReturn(List.of(
+                MovimientoLoteResultadoDto.exitoso(0, MovimientoResponseDto.builder().numeroCuenta("123456").build()),
+                MovimientoLoteResultadoDto.exitoso(1, MovimientoResponseDto.builder().numeroCuenta("123456").build())));
+
+        // Act
+        listener.recibirMovimientos(List.of(conMessageId, idLargo,
+                mensaje("c-3", request("123456", "DEPOSITO", "20.00"))));
+
+        // Assert
+        verify(movimientoMensajeService).registrar(anyList(), eq(List.of("m-1", "c-3")));
+        List<MovimientoResultadoEventDto> eventos = eventosPublicados(3);
+        assertEquals("El id del mensaje supera los 95 caracteres", eventos.get(0).getError());
+        assertEquals("c-1", eventos.get(1).getCorrelationId());
+        assertEquals("c-3", eventos.get(2).getCorrelationId());
+    }
+
+    @Test
+    @DisplayName("Propagar el error del lote para que los mensajes vuelvan a la cola")
+    void testErrorDelLote() {
+        // Arrange
+        when(movimientoMensajeService.registrar(anyList(), anyList())).thenThrow(new IllegalStateException("BD caída"));
+        List<Message> mensajes = List.of(mensaje("c-1", request("123456", "DEPOSITO", "100.00")));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> listener.recibirMovimientos(mensajes));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private List<MovimientoResultadoEventDto> eventosPublicados(int cantidad) {
+        ArgumentCaptor<Object> eventos = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<MessagePostProcessor> procesadores = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate, times(cantidad))
+                .convertAndSend(eq(EXCHANGE), eq(ROUTING_KEY), eventos.capture(), procesadores.capture());
+
+        // El correlationId también viaja en las propiedades del mensaje de respuesta
+        List<MovimientoResultadoEventDto> resultado = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            MovimientoResultadoEventDto evento = (MovimientoResultadoEventDto) eventos.getAllValues().get(i);
+            Message respuesta = procesadores.getAllValues().get(i)
+                    .postProcessMessage(new Message(new byte[0], new MessageProperties()));
+            assertEquals(evento.getCorrelationId(), respuesta.getMessageProperties().getCorrelationId());
+            resultado.add(evento);
+        }
+        return resultado;
+    }
+
+    private Message mensaje(String correlationId, MovimientoRequestDto request) {
+        MessageProperties propiedades = new MessageProperties();
+        propiedades.setCorrelationId(correlationId);
+        return productor.toMessage(request, propiedades);
+    }
+
+    private MovimientoRequestDto request(String numeroCuenta, String tipo, String valor) {
+        return MovimientoRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoMovimiento(tipo)
+                .valor(valor != null ? Dinero.of(valor) : null)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.devsu.cuentasapp.infrastructure.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para DetectorPinning")
+class DetectorPinningTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Object monitor = new Object();
+
+    private DetectorPinning detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new DetectorPinning(meterRegistry, 5);
+        detector.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.detener();
+    }
+
+    @Test
+    @DisplayName("Detectar un hilo virtual que se bloquea dentro de synchronized")
+    void testDetectarSynchronized() throws Exception {
+        // Act
+        Thread.ofVirtual().start(() -> {
+            synchronized (monitor) {
+                dormir(50);
+            }
+        }).join();
+
+        // Assert
+        assertTrue(esperarAnclajes(1), "El anclaje dentro de synchronized debe detectarse");
+        assertEquals(detector.getAnclajes(), meterRegistry.counter("jvm.threads.virtual.pinned").count());
+    }
+
+    @Test
+    @DisplayName("No reportar el bloqueo con ReentrantLock, que libera el carrier")
+    void testIgnorarReentrantLock() throws Exception {
+        // Arrange
+        ReentrantLock lock = new ReentrantLock();
+
+        // Act
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                dormir(50);
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+
+        // Assert
+        assertFalse(esperarAnclajes(1));
+    }
+
+    private boolean esperarAnclajes(int cantidad) throws InterruptedException {
+        // El RecordingStream entrega los eventos en bloques, aproximadamente una vez por segundo
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < limite) {
+            if (detector.getAnclajes() >= cantidad) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.devsu.cuentasapp.infrastructure.persistence.archivo;
+
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.MovimientoArchivado;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para ArchivoMovimientos")
+class ArchivoMovimientosTest {
+
+    private static final YearMonth ENERO = YearMonth.of(2025, 1);
+    private static final YearMonth FEBRERO = YearMonth.of(2025, 2);
+
+    @TempDir
+    Path directorio;
+
+    @Mock
+    private ArchivoEstadoRepository estadoRepository;
+
+    private ArchivoMovimientos archivo;
+
+    @BeforeEach
+    void setUp() {
+        archivo = new ArchivoMovimientos(estadoRepository, directorio);
+    }
+
+    @Test
+    @DisplayName("Leer por rango y totalizar un segmento de varios bloques")
+    void testLeerYTotalizarPorRango() throws Exception {
+        // Arrange: suficientes movimientos para varios bloques
+        List<MovimientoArchivado> movimientos = movimientos(1L, ENERO, 2500);
+        archivo.escribir(1L, ENERO, movimientos);
+        LocalDateTime desde = LocalDateTime.of(2025, 1, 10, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2025, 1, 20, 0, 0);
+
+        // Act
+        List<MovimientoArchivado> leidos = archivo.leer(1L, desde, hasta);
+        ArchivoMovimientos.Totales totales = archivo.totalizar(1L, null, hasta);
+
+        // Assert
+        List<MovimientoArchivado> esperados = movimientos.stream()
+                .filter(m -> !m.fecha().isBefore(desde) && m.fecha().isBefore(hasta))
+                .toList();
+        assertEquals(esperados, leidos);
+        ArchivoMovimientos.Totales esperadosTotales = ArchivoMovimientos.Totales.CERO;
+        for (MovimientoArchivado movimiento : movimientos) {
+            if (movimiento.fecha().isBefore(hasta)) {
+                esperadosTotales = esperadosTotales.sumar(ArchivoMovimientos.Totales.de(movimiento));
+            }
+        }
+        assertEquals(esperadosTotales, totales);
+        assertTrue(archivo.leer(2L, null, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Leer hacia atrás entre meses y obtener el saldo anterior a una fecha")
+    void testLeerAnterioresEntreMeses() throws Exception {
+        // Arrange
+        List<MovimientoArchivado> enero = movimientos(1L, ENERO, 3);
+        List<MovimientoArchivado> febrero = movimientos(1L, FEBRERO, 3);
+        archivo.escribir(1L, ENERO, enero);
+        archivo.escribir(1L, FEBRERO, febrero);
+        MovimientoArchivado segundoDeFebrero = febrero.get(1);
+
+        // Act
+        List<MovimientoArchivado> anteriores = archivo.leerAnteriores(
+                1L, segundoDeFebrero.fecha(), segundoDeFebrero.id(), 3);
+        Optional<Dinero> saldo = archivo.saldoAntesDe(1L, FEBRERO.atDay(1).atStartOfDay());
+
+        // Assert
+        assertEquals(List.of(febrero.get(0), enero.get(2), enero.get(1)), anteriores);
+        assertEquals(Optional.of(enero.get(2).saldo()), saldo);
+        assertTrue(archivo.saldoAntesDe(1L, ENERO.atDay(1).atStartOfDay()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Leer hacia atrás descomprimiendo solo los bloques anteriores a la clave")
+    void testLeerAnterioresSoloBloquesNecesarios() throws Exception {
+        // Arrange: el primer bloque queda ilegible; una página del final no debe tocarlo
+        List<MovimientoArchivado> movimientos = movimientos(1L, ENERO, 2500);
+        archivo.escribir(1L, ENERO, movimientos);
+        try (RandomAccessFile raf = new RandomAccessFile(directorio.resolve("2025-01").resolve("1.seg").toFile(), "rw")) {
+            raf.seek(4);
+            int original = raf.read();
+            raf.seek(4);
+            raf.write(original ^ 0xFF);
+        }
+        MovimientoArchivado clave = movimientos.get(2400);
+
+        // Act
+        List<MovimientoArchivado> anteriores = archivo.leerAnteriores(1L, clave.fecha(), clave.id(), 5);
+
+        // Assert
+        assertEquals(List.of(movimientos.get(2399), movimientos.get(2398), movimientos.get(2397),
+                movimientos.get(2396), movimientos.get(2395)), anteriores);
+        assertThrows(UncheckedIOException.class,
+                () -> archivo.leerAnteriores(1L, clave.fecha(), clave.id(), 2400));
+    }
+
+    @Test
+    @DisplayName("Rechazar un bloque con CRC inválido")
+    void testBloqueCorrupto() throws Exception {
+        // Arrange
+        archivo.escribir(1L, ENERO, movimientos(1L, ENERO, 10));
+        Path segmento = directorio.resolve("2025-01").resolve("1.seg");
+        try (RandomAccessFile raf = new RandomAccessFile(segmento.toFile(), "rw")) {
+            raf.seek(4);
+            int original = raf.read();
+            raf.seek(4);
+            raf.write(original ^ 0xFF);
+        }
+
+        // Act & Assert
+        assertThrows(UncheckedIOException.class, () -> archivo.leer(1L, null, null));
+    }
+
+    private List<MovimientoArchivado> movimientos(Long cuentaId, YearMonth mes, int cantidad) {
+        List<MovimientoArchivado> movimientos = new ArrayList<>(cantidad);
+        LocalDateTime fecha = mes.atDay(1).atTime(8, 0, 0, 123_456_000);
+        long saldo = 10_000;
+        for (int i = 0; i < cantidad; i++) {
+            boolean deposito = i % 3 != 0;
+            long valor = deposito ? 1_000 + i : -(500 + i);
+            saldo += valor;
+            movimientos.add(new MovimientoArchivado(mes.getMonthValue() * 100_000L + i, cuentaId,
+                    fecha.plusMinutes(i * 17L), deposito ? TipoMovimiento.DEPOSITO : TipoMovimiento.RETIRO,
+                    Dinero.deCentavos(valor), Dinero.deCentavos(saldo)));
+        }
+        return movimientos;
+    }
+}
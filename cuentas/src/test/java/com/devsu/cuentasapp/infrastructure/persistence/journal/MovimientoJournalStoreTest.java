@@ -0,0 +1,122 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import com.devsu.cuentasapp.application.service.MovimientoDiarioService;
+import com.devsu.cuentasapp.application.service.ReporteCacheService;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoJournalStore")
+class MovimientoJournalStoreTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2026, 5, 4, 10, 0);
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @Mock
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ReporteCacheService reporteCacheService;
+
+    @Mock
+    private MovimientoDiarioService movimientoDiarioService;
+
+    @InjectMocks
+    private MovimientoJournalStore store;
+
+    private Cuenta cuenta;
+
+    @BeforeEach
+    void setUp() {
+        cuenta = Cuenta.builder().id(1L).numeroCuenta("123456").clienteId("CLI001").build();
+    }
+
+    @Test
+    @DisplayName("Volcar con los saldos del journal si la base conserva el saldo del que partieron")
+    @SuppressWarnings("unchecked")
+    void testVolcarSinCambios() {
+        // Arrange
+        cuenta.setSaldoActual(Dinero.of("100.00"));
+        when(cuentaRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cuenta));
+        ArgumentCaptor<List<Movimiento>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        store.volcar(List.of(registro(1, "-30.00", "70.00"), registro(2, "10.00", "80.00")));
+
+        // Assert
+        verify(movimientoRepository).saveAll(captor.capture());
+        assertEquals(List.of(Dinero.of("70.00"), Dinero.of("80.00")),
+                captor.getValue().stream().map(Movimiento::getSaldo).toList());
+        verify(cuentaRepository).sumarSaldo(1L, Dinero.of("-20.00"));
+        verify(checkpointRepository).save(new JournalCheckpoint(1, 2L));
+    }
+
+    @Test
+    @DisplayName("Recalcular los saldos si otra ruta movió la cuenta y aún alcanza")
+    @SuppressWarnings("unchecked")
+    void testVolcarCorrigeSaldos() {
+        // Arrange: otra instancia retiró 50 después de que la lane verificara el saldo
+        cuenta.setSaldoActual(Dinero.of("50.00"));
+        when(cuentaRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cuenta));
+        ArgumentCaptor<List<Movimiento>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        store.volcar(List.of(registro(1, "-30.00", "70.00"), registro(2, "10.00", "80.00")));
+
+        // Assert
+        verify(movimientoRepository).saveAll(captor.capture());
+        assertEquals(List.of(Dinero.of("20.00"), Dinero.of("30.00")),
+                captor.getValue().stream().map(Movimiento::getSaldo).toList());
+        verify(cuentaRepository).sumarSaldo(1L, Dinero.of("-20.00"));
+    }
+
+    @Test
+    @DisplayName("Rechazar los registros de la cuenta si algún saldo quedaría negativo")
+    @SuppressWarnings("unchecked")
+    void testVolcarRechazaSinSaldo() {
+        // Arrange
+        cuenta.setSaldoActual(Dinero.of("20.00"));
+        when(cuentaRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(cuenta));
+        ArgumentCaptor<List<Movimiento>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        store.volcar(List.of(registro(1, "-30.00", "70.00"), registro(2, "40.00", "110.00")));
+
+        // Assert: el checkpoint avanza igual para no reaplicarlos
+        verify(movimientoRepository).saveAll(captor.capture());
+        assertTrue(captor.getValue().isEmpty());
+        verify(cuentaRepository, never()).sumarSaldo(anyLong(), any());
+        verify(checkpointRepository).save(new JournalCheckpoint(1, 2L));
+    }
+
+    private RegistroJournal registro(long lsn, String valor, String saldo) {
+        return new RegistroJournal(lsn, 1L, "123456",
+                valor.startsWith("-") ? TipoMovimiento.RETIRO : TipoMovimiento.DEPOSITO,
+                Dinero.of(valor), Dinero.of(saldo), FECHA.plusSeconds(lsn));
+    }
+}
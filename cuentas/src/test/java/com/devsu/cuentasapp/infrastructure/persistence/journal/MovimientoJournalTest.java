@@ -0,0 +1,218 @@
+package com.devsu.cuentasapp.infrastructure.persistence.journal;
+
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests para MovimientoJournal")
+class MovimientoJournalTest {
+
+    private static final int SEGMENTO = 64 * 1024;
+
+    @TempDir
+    Path directorio;
+
+    @Mock
+    private MovimientoJournalStore store;
+
+    private final List<RegistroJournal> volcados = new CopyOnWriteArrayList<>();
+    private final List<MovimientoJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (MovimientoJournal journal : journals) {
+            journal.detener();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe volcar los movimientos durables en orden y liberar los registros pendientes")
+    void testVolcadoEnOrden() throws Exception {
+        // Arrange
+        registrarVolcados();
+        when(store.leerSaldoConfirmado(1L)).thenReturn(new SaldoConfirmado(Dinero.of("150"), 3L));
+        MovimientoJournal journal = iniciar(SEGMENTO);
+
+        // Act
+        journal.escribir(List.of(movimiento(1L, "100"), movimiento(1L, "150")));
+        journal.escribir(List.of(movimiento(2L, "50")));
+        esperarVolcado(journal, 3);
+
+        // Assert
+        assertEquals(3, journal.getLsnDurable());
+        assertEquals(List.of(1L, 2L, 3L), volcados.stream().map(RegistroJournal::lsn).toList());
+        assertEquals(Dinero.of("150"), volcados.get(1).saldo());
+        assertEquals(Dinero.of("150"), journal.saldoConfirmado(1L));
+    }
+
+    @Test
+    @DisplayName("Debe sumar al saldo de la base los registros posteriores al checkpoint mientras el volcado falla")
+    void testSaldoPendienteSinVolcar() throws Exception {
+        // Arrange
+        when(store.leerCheckpoint()).thenReturn(0L);
+        doThrow(new IllegalStateException("Base de datos no disponible")).when(store).volcar(anyList());
+        // Antes de iniciar: el drenador usa el mock en otro hilo mientras dura la prueba
+        when(store.leerSaldoConfirmado(1L)).thenReturn(new SaldoConfirmado(Dinero.of("70"), 0L));
+        MovimientoJournal journal = iniciar(SEGMENTO);
+
+        // Act
+        journal.escribir(List.of(movimiento(1L, "80"), movimiento(1L, "90")));
+        journal.escribir(List.of(movimiento(2L, "10")));
+
+        // Assert: 70 en la base más dos depósitos de 10 sin volcar
+        assertEquals(Dinero.of("90"), journal.saldoConfirmado(1L));
+        assertEquals(0, journal.getLsnVolcado());
+    }
+
+    @Test
+    @DisplayName("Debe reaplicar al iniciar los registros posteriores al checkpoint")
+    void testReaplicarTrasCaida() throws Exception {
+        // Arrange: el volcado falla, por lo que todo queda solo en el journal
+        when(store.leerCheckpoint()).thenReturn(0L);
+        doThrow(new IllegalStateException("Base de datos no disponible")).when(store).volcar(anyList());
+        MovimientoJournal caido = iniciar(SEGMENTO);
+        caido.escribir(List.of(movimiento(1L, "10"), movimiento(1L, "20"), movimiento(2L, "30")));
+        caido.detener();
+        journals.remove(caido);
+
+        reset(store);
+        registrarVolcados();
+        when(store.leerCheckpoint()).thenReturn(1L);
+
+        // Act
+        MovimientoJournal journal = iniciar(SEGMENTO);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), volcados.stream().map(RegistroJournal::lsn).toList());
+        assertEquals(3, journal.getLsnVolcado());
+        journal.escribir(List.of(movimiento(1L, "40")));
+        esperarVolcado(journal, 4);
+        assertEquals(4L, volcados.get(volcados.size() - 1).lsn());
+    }
+
+    @Test
+    @DisplayName("Debe descartar un registro con CRC inválido y lo que le sigue")
+    void testRegistroCorrupto() throws Exception {
+        // Arrange
+        when(store.leerCheckpoint()).thenReturn(0L);
+        doThrow(new IllegalStateException("Base de datos no disponible")).when(store).volcar(anyList());
+        MovimientoJournal caido = iniciar(SEGMENTO);
+        caido.escribir(List.of(movimiento(1L, "10")));
+        caido.escribir(List.of(movimiento(1L, "20")));
+        caido.detener();
+        journals.remove(caido);
+
+        // Se altera el último byte del segundo registro, simulando una escritura interrumpida
+        Path segmento = segmentos().get(0);
+        int primero = longitudRegistro(segmento, 0);
+        int segundo = longitudRegistro(segmento, 8 + primero);
+        try (RandomAccessFile archivo = new RandomAccessFile(segmento.toFile(), "rw")) {
+            long posicion = 8L + primero + 8 + segundo - 1;
+            archivo.seek(posicion);
+            int original = archivo.read();
+            archivo.seek(posicion);
+            archivo.write(original ^ 0xFF);
+        }
+
+        reset(store);
+        registrarVolcados();
+
+        // Act
+        MovimientoJournal journal = iniciar(SEGMENTO);
+
+        // Assert
+        assertEquals(List.of(1L), volcados.stream().map(RegistroJournal::lsn).toList());
+        assertEquals(1, journal.getLsnDurable());
+    }
+
+    @Test
+    @DisplayName("Debe rotar segmentos y eliminar los ya volcados")
+    void testRotacionDeSegmentos() throws Exception {
+        // Arrange
+        registrarVolcados();
+        MovimientoJournal journal = iniciar(SEGMENTO);
+        List<Movimiento> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lote.add(movimiento(1L, String.valueOf(i)));
+        }
+
+        // Act: ~80 bytes por registro, más de un segmento de 64 KB
+        for (int i = 0; i < 20; i++) {
+            journal.escribir(lote);
+        }
+        esperarVolcado(journal, 2000);
+        journal.escribir(List.of(movimiento(1L, "1")));
+        esperarVolcado(journal, 2001);
+
+        // Assert
+        assertEquals(2001, volcados.size());
+        assertEquals(1, segmentos().size());
+    }
+
+    private MovimientoJournal iniciar(int tamanoSegmento) throws Exception {
+        MovimientoJournal journal = new MovimientoJournal(store, directorio.toString(), tamanoSegmento, 500);
+        journal.iniciar();
+        journals.add(journal);
+        return journal;
+    }
+
+    private void registrarVolcados() {
+        lenient().when(store.leerCheckpoint()).thenReturn(0L);
+        // El journal reutiliza la lista del lote, por lo que se copia en cada llamada
+        lenient().doAnswer(invocation -> volcados.addAll(invocation.getArgument(0)))
+                .when(store).volcar(anyList());
+    }
+
+    private void esperarVolcado(MovimientoJournal journal, long lsn) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (journal.getLsnVolcado() < lsn && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(lsn, journal.getLsnVolcado());
+    }
+
+    private List<Path> segmentos() throws Exception {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.sorted().toList();
+        }
+    }
+
+    private int longitudRegistro(Path segmento, long posicion) throws Exception {
+        try (RandomAccessFile archivo = new RandomAccessFile(segmento.toFile(), "r")) {
+            archivo.seek(posicion);
+            return archivo.readInt();
+        }
+    }
+
+    private Movimiento movimiento(Long cuentaId, String saldo) {
+        return Movimiento.builder()
+                .fecha(LocalDateTime.now())
+                .tipoMovimiento(TipoMovimiento.DEPOSITO)
+                .valor(Dinero.of("10.00"))
+                .saldo(Dinero.of(saldo))
+                .cuenta(Cuenta.builder().id(cuentaId).numeroCuenta(String.format("%06d", cuentaId)).build())
+                .build();
+    }
+}
@@ -4,10 +4,18 @@ import com.devsu.cuentasapp.application.dto.CuentaRequestDto;
 import com.devsu.cuentasapp.application.dto.CuentaResponseDto;
 import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
 import com.devsu.cuentasapp.application.dto.MovimientoResponseDto;
+import com.devsu.cuentasapp.application.service.ArchivoMovimientoService;
 import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.model.Movimiento;
+import com.devsu.cuentasapp.domain.model.TipoMovimiento;
 import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoDiarioRepository;
 import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.persistence.archivo.ArchivoEstadoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,9 +27,13 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -43,11 +55,22 @@ class CuentaMovimientoIntegrationTest {
     @Autowired
     private MovimientoRepository movimientoRepository;
 
+    @Autowired
+    private MovimientoDiarioRepository movimientoDiarioRepository;
+
+    @Autowired
+    private ArchivoEstadoRepository archivoEstadoRepository;
+
+    @Autowired
+    private ArchivoMovimientoService archivoMovimientoService;
+
     @BeforeEach
     void setUp() {
         // Eliminar en orden: primero movimientos, luego cuentas (por integridad referencial)
+        movimientoDiarioRepository.deleteAll();
         movimientoRepository.deleteAll();
         cuentaRepository.deleteAll();
+        archivoEstadoRepository.deleteAll();
     }
 
     @Test
@@ -76,13 +99,13 @@ class CuentaMovimientoIntegrationTest {
         );
 
         assertThat(cuentaResponse.getId()).isNotNull();
-        assertThat(cuentaResponse.getSaldoActual()).isEqualByComparingTo(new BigDecimal("1000.00"));
+        assertThat(cuentaResponse.getSaldoActual()).isEqualByComparingTo(Dinero.of("1000.00"));
 
         // 2. Realizar un depósito
         MovimientoRequestDto depositoRequest = MovimientoRequestDto.builder()
                 .numeroCuenta("123456")
                 .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("500.00"))
+                .valor(Dinero.of("500.00"))
                 .build();
 
         MvcResult depositoResult = mockMvc.perform(post("/movimientos")
@@ -99,7 +122,7 @@ class CuentaMovimientoIntegrationTest {
                 MovimientoResponseDto.class
         );
 
-        assertThat(depositoResponse.getSaldo()).isEqualByComparingTo(new BigDecimal("1500.00"));
+        assertThat(depositoResponse.getSaldo()).isEqualByComparingTo(Dinero.of("1500.00"));
 
         // 3. Verificar que el saldo de la cuenta se actualizó
         mockMvc.perform(get("/cuentas/numero/123456"))
@@ -110,7 +133,7 @@ class CuentaMovimientoIntegrationTest {
         MovimientoRequestDto retiroRequest = MovimientoRequestDto.builder()
                 .numeroCuenta("123456")
                 .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("300.00"))
+                .valor(Dinero.of("300.00"))
                 .build();
 
         MvcResult retiroResult = mockMvc.perform(post("/movimientos")
@@ -126,17 +149,17 @@ class CuentaMovimientoIntegrationTest {
                 MovimientoResponseDto.class
         );
 
-        assertThat(retiroResponse.getSaldo()).isEqualByComparingTo(new BigDecimal("1200.00"));
+        assertThat(retiroResponse.getSaldo()).isEqualByComparingTo(Dinero.of("1200.00"));
 
         // 5. Verificar saldo final
         Cuenta cuentaFinal = cuentaRepository.findByNumeroCuenta("123456").orElseThrow();
-        assertThat(cuentaFinal.getSaldoActual()).isEqualByComparingTo(new BigDecimal("1200.00"));
+        assertThat(cuentaFinal.getSaldoActual()).isEqualByComparingTo(Dinero.of("1200.00"));
 
         // 6. Intentar retiro con saldo insuficiente
         MovimientoRequestDto retiroExcesivoRequest = MovimientoRequestDto.builder()
                 .numeroCuenta("123456")
                 .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("2000.00"))
+                .valor(Dinero.of("2000.00"))
                 .build();
 
         mockMvc.perform(post("/movimientos")
@@ -167,13 +190,13 @@ class CuentaMovimientoIntegrationTest {
         MovimientoRequestDto mov1 = MovimientoRequestDto.builder()
                 .numeroCuenta("789012")
                 .tipoMovimiento("DEPOSITO")
-                .valor(new BigDecimal("100.00"))
+                .valor(Dinero.of("100.00"))
                 .build();
 
         MovimientoRequestDto mov2 = MovimientoRequestDto.builder()
                 .numeroCuenta("789012")
                 .tipoMovimiento("RETIRO")
-                .valor(new BigDecimal("50.00"))
+                .valor(Dinero.of("50.00"))
                 .build();
 
         mockMvc.perform(post("/movimientos")
@@ -189,7 +212,613 @@ class CuentaMovimientoIntegrationTest {
         // Obtener todos los movimientos de la cuenta
         mockMvc.perform(get("/movimientos/cuenta/789012"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.contenido.length()").value(2))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+
+        // Recorrer la cuenta de a un movimiento con el cursor, del más reciente al más antiguo
+        String primeraPagina = mockMvc.perform(get("/movimientos/cuenta/789012").param("tamano", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.contenido[0].tipoMovimiento").value("RETIRO"))
+                .andExpect(jsonPath("$.siguienteCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(primeraPagina).get("siguienteCursor").asText();
+
+        mockMvc.perform(get("/movimientos/cuenta/789012").param("tamano", "1").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.contenido[0].tipoMovimiento").value("DEPOSITO"))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+
+        // Consulta por id con el numeroCuenta tomado del JOIN de la proyección
+        long id = objectMapper.readTree(primeraPagina).get("contenido").get(0).get("id").asLong();
+        mockMvc.perform(get("/movimientos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numeroCuenta").value("789012"))
+                .andExpect(jsonPath("$.valor").value(-50.00))
+                .andExpect(jsonPath("$.saldo").value(550.00));
+
+        mockMvc.perform(get("/movimientos").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/movimientos").param("tamano", "1000"))
+                .andExpect(status().isBadRequest());
     }
-}
 
+    @Test
+    @DisplayName("Registrar un lote de movimientos con resultado por línea")
+    void testRegistrarLoteDeMovimientos() throws Exception {
+        // Crear cuenta
+        CuentaRequestDto cuentaRequest = CuentaRequestDto.builder()
+                .numeroCuenta("345678")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(new BigDecimal("100.00"))
+                .estado(true)
+                .clienteId("CLI003")
+                .build();
+
+        mockMvc.perform(post("/cuentas")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cuentaRequest)))
+                .andExpect(status().isCreated());
+
+        List<MovimientoRequestDto> lote = List.of(
+                MovimientoRequestDto.builder().numeroCuenta("345678").tipoMovimiento("DEPOSITO")
+                        .valor(Dinero.of("50.00")).build(),
+                MovimientoRequestDto.builder().numeroCuenta("345678").tipoMovimiento("RETIRO")
+                        .valor(Dinero.of("500.00")).build(),
+                MovimientoRequestDto.builder().numeroCuenta("345678").tipoMovimiento("RETIRO")
+                        .valor(Dinero.of("30.00")).build());
+
+        mockMvc.perform(post("/movimientos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].exitoso").value(true))
+                .andExpect(jsonPath("$[0].movimiento.saldo").value(150.00))
+                .andExpect(jsonPath("$[0].movimiento.id").isNumber())
+                .andExpect(jsonPath("$[1].exitoso").value(false))
+                .andExpect(jsonPath("$[1].error").value("Saldo no disponible"))
+                .andExpect(jsonPath("$[2].movimiento.saldo").value(120.00));
+
+        Cuenta cuentaFinal = cuentaRepository.findByNumeroCuenta("345678").orElseThrow();
+        assertThat(cuentaFinal.getSaldoActual()).isEqualByComparingTo(Dinero.of("120.00"));
+
+        mockMvc.perform(get("/movimientos/cuenta/345678"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(2));
+
+        // Un lote con líneas mal formadas se rechaza completo
+        mockMvc.perform(post("/movimientos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"numeroCuenta\":\"345678\",\"tipoMovimiento\":\"DEPOSITO\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details['[0].valor']").value("El valor es obligatorio"));
+    }
+
+    @Test
+    @DisplayName("Actualizar una cuenta sin reescribir el saldo que dejaron los movimientos")
+    void testActualizarCuentaConservaSaldo() throws Exception {
+        Cuenta cuenta = cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("902345")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("100.00"))
+                .estado(true)
+                .clienteId("CLI001")
+                .build());
+        // Un movimiento aplicado después de la lectura de la cuenta
+        mockMvc.perform(post("/movimientos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(MovimientoRequestDto.builder()
+                        .numeroCuenta("902345")
+                        .tipoMovimiento("DEPOSITO")
+                        .valor(Dinero.of("40.00"))
+                        .build())))
+                .andExpect(status().isCreated());
+
+        // La petición trae los datos de la lectura anterior y omite el estado
+        CuentaRequestDto request = CuentaRequestDto.builder()
+                .numeroCuenta("902345")
+                .tipoCuenta("corriente")
+                .saldoInicial(new BigDecimal("100.00"))
+                .clienteId("CLI001")
+                .build();
+        mockMvc.perform(put("/cuentas/" + cuenta.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tipoCuenta").value("CORRIENTE"))
+                .andExpect(jsonPath("$.estado").value(true))
+                .andExpect(jsonPath("$.saldoActual").value(140.00));
+    }
+
+    @Test
+    @DisplayName("Reintentos con Idempotency-Key: un solo movimiento y la misma respuesta")
+    void testMovimientoIdempotente() throws Exception {
+        cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("901234")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("100.00"))
+                .estado(true)
+                .clienteId("CLI001")
+                .build());
+
+        MovimientoRequestDto deposito = MovimientoRequestDto.builder()
+                .numeroCuenta("901234")
+                .tipoMovimiento("DEPOSITO")
+                .valor(Dinero.of("25.00"))
+                .build();
+
+        String primera = mockMvc.perform(post("/movimientos")
+                .header("Idempotency-Key", "reintento-901234")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(deposito)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.saldo").value(125.00))
+                .andReturn().getResponse().getContentAsString();
+
+        String segunda = mockMvc.perform(post("/movimientos")
+                .header("Idempotency-Key", "reintento-901234")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(deposito)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readValue(segunda, MovimientoResponseDto.class))
+                .isEqualTo(objectMapper.readValue(primera, MovimientoResponseDto.class));
+        assertThat(cuentaRepository.findByNumeroCuenta("901234").orElseThrow().getSaldoActual())
+                .isEqualByComparingTo(Dinero.of("125.00"));
+
+        // La misma clave con otro movimiento se rechaza
+        deposito.setValor(Dinero.of("50.00"));
+        mockMvc.perform(post("/movimientos")
+                .header("Idempotency-Key", "reintento-901234")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(deposito)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Listar cuentas por páginas con filtros y cursor")
+    void testListarCuentasPaginadas() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            cuentaRepository.save(Cuenta.builder()
+                    .numeroCuenta("55500" + i)
+                    .tipoCuenta(i % 2 == 0 ? "AHORROS" : "CORRIENTE")
+                    .saldoInicial(Dinero.of("10.00"))
+                    .saldoActual(Dinero.of("10.00"))
+                    .estado(i != 4)
+                    .clienteId("CLI005")
+                    .build());
+        }
+
+        // AHORROS activas: 555000 y 555002 (555004 está inactiva)
+        String primera = mockMvc.perform(get("/cuentas")
+                        .param("estado", "true").param("tipoCuenta", "AHORROS").param("tamano", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.contenido[0].numeroCuenta").value("555000"))
+                .andExpect(jsonPath("$.siguienteCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/cuentas")
+                        .param("estado", "true").param("tipoCuenta", "AHORROS").param("tamano", "1")
+                        .param("cursor", objectMapper.readTree(primera).get("siguienteCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.contenido[0].numeroCuenta").value("555002"))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+
+        mockMvc.perform(get("/cuentas").param("clienteId", "CLI005"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(5))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Exportar movimientos en NDJSON con filtros de cuenta y fechas")
+    void testExportarMovimientosNdjson() throws Exception {
+        for (String numeroCuenta : List.of("666001", "666002")) {
+            cuentaRepository.save(Cuenta.builder()
+                    .numeroCuenta(numeroCuenta)
+                    .tipoCuenta("AHORROS")
+                    .saldoInicial(Dinero.of("100.00"))
+                    .saldoActual(Dinero.of("100.00"))
+                    .estado(true)
+                    .clienteId("CLI006")
+                    .build());
+        }
+        for (int i = 1; i <= 3; i++) {
+            for (String numeroCuenta : List.of("666001", "666002")) {
+                mockMvc.perform(post("/movimientos")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(MovimientoRequestDto.builder()
+                                        .numeroCuenta(numeroCuenta)
+                                        .tipoMovimiento("DEPOSITO")
+                                        .valor(Dinero.of(i + ".00"))
+                                        .build())))
+                        .andExpect(status().isCreated());
+            }
+        }
+
+        // La respuesta se escribe de forma asíncrona
+        MvcResult exportacion = mockMvc.perform(get("/movimientos/exportacion")
+                        .param("numeroCuenta", "666001")
+                        .param("fechaInicio", LocalDate.now().toString())
+                        .param("fechaFin", LocalDate.now().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(exportacion))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lineas = cuerpo.split("\n");
+        assertThat(cuerpo).endsWith("\n");
+        assertThat(lineas).hasSize(3);
+        List<MovimientoResponseDto> movimientos = new ArrayList<>();
+        for (String linea : lineas) {
+            movimientos.add(objectMapper.readValue(linea, MovimientoResponseDto.class));
+        }
+        assertThat(movimientos).extracting(MovimientoResponseDto::getNumeroCuenta).containsOnly("666001");
+        assertThat(movimientos).extracting(MovimientoResponseDto::getSaldo)
+                .containsExactly(Dinero.of("101.00"), Dinero.of("103.00"), Dinero.of("106.00"));
+
+        // Sin movimientos en el rango la respuesta queda vacía
+        MvcResult vacia = mockMvc.perform(get("/movimientos/exportacion")
+                        .param("clienteId", "CLI006")
+                        .param("fechaFin", LocalDate.now().minusDays(1).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(vacia))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Estado de cuenta en CSV con Accept text/csv y en JSON por defecto")
+    void testEstadoCuentaCsv() throws Exception {
+        cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("777001")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("100.00"))
+                .estado(true)
+                .clienteId("CLI007")
+                .clienteNombre("Lema, \"Jose\"")
+                .build());
+        for (String tipo : List.of("DEPOSITO", "RETIRO")) {
+            mockMvc.perform(post("/movimientos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(MovimientoRequestDto.builder()
+                                    .numeroCuenta("777001")
+                                    .tipoMovimiento(tipo)
+                                    .valor(Dinero.of("40.00"))
+                                    .build())))
+                    .andExpect(status().isCreated());
+        }
+        String hoy = LocalDate.now().toString();
+
+        MvcResult csv = mockMvc.perform(get("/reportes")
+                        .accept("text/csv")
+                        .param("cliente", "CLI007").param("fechaInicio", hoy).param("fechaFin", hoy))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("estado-cuenta-CLI007")))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(cuerpo.split("\n")).containsExactly(
+                "fecha,clienteId,cliente,numeroCuenta,tipoCuenta,saldoInicial,estado,tipoMovimiento,movimiento,saldoDisponible",
+                hoy + ",CLI007,\"Lema, \"\"Jose\"\"\",777001,AHORROS,100.00,true,DEPOSITO,40.00,140.00",
+                hoy + ",CLI007,\"Lema, \"\"Jose\"\"\",777001,AHORROS,100.00,true,RETIRO,-40.00,100.00");
+
+        mockMvc.perform(get("/reportes")
+                        .param("cliente", "CLI007").param("fechaInicio", hoy).param("fechaFin", hoy))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.cuentas[0].movimientos.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("Trabajo de reporte: encolar, consultar hasta completarse y descargar el archivo")
+    void testReporteJob() throws Exception {
+        cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("777101")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("100.00"))
+                .estado(true)
+                .clienteId("CLI017")
+                .clienteNombre("Jose Lema")
+                .build());
+        mockMvc.perform(post("/movimientos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(MovimientoRequestDto.builder()
+                                .numeroCuenta("777101")
+                                .tipoMovimiento("DEPOSITO")
+                                .valor(Dinero.of("25.00"))
+                                .build())))
+                .andExpect(status().isCreated());
+        String hoy = LocalDate.now().toString();
+        String solicitud = "{\"clienteId\":\"CLI017\",\"fechaInicio\":\"" + hoy + "\",\"fechaFin\":\"" + hoy + "\"}";
+
+        MvcResult encolado = mockMvc.perform(post("/reportes/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(solicitud))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/reportes/jobs/")))
+                .andReturn();
+        String id = objectMapper.readTree(encolado.getResponse().getContentAsString()).get("id").asText();
+
+        String estado = "";
+        for (int intento = 0; intento < 100 && !estado.equals("COMPLETADO"); intento++) {
+            Thread.sleep(50);
+            estado = objectMapper.readTree(mockMvc.perform(get("/reportes/jobs/" + id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("estado").asText();
+        }
+        assertThat(estado).isEqualTo("COMPLETADO");
+
+        String cuerpo = mockMvc.perform(get("/reportes/jobs/" + id + "/archivo"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("estado-cuenta-CLI017")))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(cuerpo.split("\n")).hasSize(2);
+        assertThat(cuerpo).contains("777101", "DEPOSITO", "25.00");
+
+        mockMvc.perform(get("/reportes/jobs/inexistente"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/reportes/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"clienteId\":\"CLI017\",\"fechaInicio\":\"" + hoy + "\",\"fechaFin\":\"" + hoy
+                                + "\",\"formato\":\"xml\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Saldo a una fecha y saldos de apertura y cierre del estado de cuenta")
+    void testSaldoEnFecha() throws Exception {
+        Cuenta cuenta = cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("888001")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("160.00"))
+                .estado(true)
+                .clienteId("CLI008")
+                .clienteNombre("Marianela Montalvo")
+                .build());
+        LocalDateTime dia = LocalDate.of(2026, 3, 10).atStartOfDay();
+        movimientoRepository.saveAll(List.of(
+                movimiento(cuenta, dia.plusHours(9), "50.00", "150.00"),
+                movimiento(cuenta, dia.plusHours(18), "-20.00", "130.00"),
+                movimiento(cuenta, dia.plusDays(2).plusHours(8), "30.00", "160.00")));
+
+        mockMvc.perform(get("/cuentas/888001/saldo").param("fecha", "2026-03-09"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(100.00));
+        mockMvc.perform(get("/cuentas/888001/saldo").param("fecha", "2026-03-11"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numeroCuenta").value("888001"))
+                .andExpect(jsonPath("$.fecha").value("2026-03-11"))
+                .andExpect(jsonPath("$.saldo").value(130.00));
+        mockMvc.perform(get("/cuentas/999999/saldo").param("fecha", "2026-03-11"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/reportes")
+                        .param("cliente", "CLI008").param("fechaInicio", "2026-03-11").param("fechaFin", "2026-03-12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cuentas[0].saldoApertura").value(130.00))
+                .andExpect(jsonPath("$.cuentas[0].saldoCierre").value(160.00))
+                .andExpect(jsonPath("$.cuentas[0].movimientos.length()").value(1));
+        mockMvc.perform(get("/reportes")
+                        .param("cliente", "CLI008").param("fechaInicio", "2026-01-01").param("fechaFin", "2026-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cuentas[0].saldoApertura").value(100.00))
+                .andExpect(jsonPath("$.cuentas[0].saldoCierre").value(100.00));
+    }
+
+    @Test
+    @DisplayName("Resumen del estado de cuenta con totales agregados por cuenta (detalle=false)")
+    void testResumenEstadoCuenta() throws Exception {
+        Cuenta cuenta = cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("888101")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("175.00"))
+                .estado(true)
+                .clienteId("CLI018")
+                .clienteNombre("Juan Osorio")
+                .build());
+        cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("888102")
+                .tipoCuenta("CORRIENTE")
+                .saldoInicial(Dinero.of("50.00"))
+                .saldoActual(Dinero.of("50.00"))
+                .estado(true)
+                .clienteId("CLI018")
+                .clienteNombre("Juan Osorio")
+                .build());
+        LocalDateTime dia = LocalDate.of(2026, 4, 1).atStartOfDay();
+        movimientoRepository.saveAll(List.of(
+                movimiento(cuenta, dia.minusDays(1), "10.00", "110.00"),
+                movimiento(cuenta, dia.plusHours(9), "50.00", "160.00"),
+                movimiento(cuenta, dia.plusHours(10), "40.00", "200.00"),
+                movimiento(cuenta, dia.plusDays(1), "-30.00", "170.00"),
+                movimiento(cuenta, dia.plusDays(5), "5.00", "175.00")));
+
+        mockMvc.perform(get("/reportes")
+                        .param("cliente", "CLI018").param("fechaInicio", "2026-04-01").param("fechaFin", "2026-04-02")
+                        .param("detalle", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clienteNombre").value("Juan Osorio"))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888101')].totalDepositos").value(90.00))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888101')].totalRetiros").value(-30.00))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888101')].cantidadMovimientos").value(3))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888101')].saldoApertura").value(110.00))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888101')].saldoCierre").value(170.00))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888101')].movimientos").doesNotExist())
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888102')].totalDepositos").value(0.00))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888102')].cantidadMovimientos").value(0))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888102')].saldoCierre").value(50.00));
+    }
+
+    @Test
+    @DisplayName("Serie diaria desde los totales acumulados al registrar y desde la reconstrucción")
+    void testSerieDiaria() throws Exception {
+        Cuenta historica = cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("888201")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("130.00"))
+                .estado(true)
+                .clienteId("CLI021")
+                .clienteNombre("Marianela Montalvo")
+                .build());
+        cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("888202")
+                .tipoCuenta("CORRIENTE")
+                .saldoInicial(Dinero.of("50.00"))
+                .saldoActual(Dinero.of("50.00"))
+                .estado(true)
+                .clienteId("CLI021")
+                .clienteNombre("Marianela Montalvo")
+                .build());
+        // Movimientos anteriores a los totales diarios: solo aparecen tras la reconstrucción
+        LocalDateTime ayer = LocalDate.now().minusDays(1).atTime(10, 0);
+        movimientoRepository.saveAll(List.of(
+                movimiento(historica, ayer, "50.00", "150.00"),
+                movimiento(historica, ayer.plusHours(2), "-20.00", "130.00")));
+        for (String[] movimiento : List.of(new String[]{"888201", "DEPOSITO", "30.00"},
+                new String[]{"888201", "RETIRO", "10.00"}, new String[]{"888202", "DEPOSITO", "5.00"})) {
+            mockMvc.perform(post("/movimientos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(MovimientoRequestDto.builder()
+                                    .numeroCuenta(movimiento[0])
+                                    .tipoMovimiento(movimiento[1])
+                                    .valor(Dinero.of(movimiento[2]))
+                                    .build())))
+                    .andExpect(status().isCreated());
+        }
+        String desde = LocalDate.now().minusDays(1).toString();
+        String hoy = LocalDate.now().toString();
+
+        mockMvc.perform(get("/reportes/series")
+                        .param("cliente", "CLI021").param("fechaInicio", desde).param("fechaFin", hoy))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoApertura").value(150.00))
+                .andExpect(jsonPath("$.total.length()").value(1))
+                .andExpect(jsonPath("$.total[0].fecha").value(hoy))
+                .andExpect(jsonPath("$.total[0].cantidadMovimientos").value(3))
+                .andExpect(jsonPath("$.total[0].totalDepositos").value(35.00))
+                .andExpect(jsonPath("$.total[0].totalRetiros").value(-10.00))
+                .andExpect(jsonPath("$.total[0].saldoCierre").value(205.00))
+                .andExpect(jsonPath("$.cuentas[?(@.numeroCuenta == '888201')].puntos[0].saldoCierre").value(150.00));
+
+        mockMvc.perform(post("/reportes/series/reconstruccion"))
+                .andExpect(status().isAccepted());
+        String serie = "";
+        for (int intento = 0; intento < 100; intento++) {
+            serie = mockMvc.perform(get("/reportes/series")
+                            .param("cliente", "CLI021").param("fechaInicio", desde).param("fechaFin", hoy))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            if (objectMapper.readTree(serie).get("total").size() == 2) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        JsonNode total = objectMapper.readTree(serie).get("total");
+        assertThat(total).hasSize(2);
+        assertThat(total.get(0).get("fecha").asText()).isEqualTo(desde);
+        assertThat(total.get(0).get("cantidadMovimientos").asLong()).isEqualTo(2);
+        assertThat(total.get(0).get("saldoCierre").decimalValue()).isEqualByComparingTo("180.00");
+        assertThat(total.get(1).get("cantidadMovimientos").asLong()).isEqualTo(3);
+        assertThat(total.get(1).get("saldoCierre").decimalValue()).isEqualByComparingTo("205.00");
+    }
+
+    @Test
+    @DisplayName("Archivar movimientos antiguos y combinarlos con los de la tabla en las lecturas")
+    void testArchivoHistorico() throws Exception {
+        Cuenta cuenta = cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta("888301")
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of("100.00"))
+                .saldoActual(Dinero.of("190.00"))
+                .estado(true)
+                .clienteId("CLI022")
+                .clienteNombre("Lucia Paredes")
+                .build());
+        LocalDateTime antiguo = LocalDate.now().minusYears(2).withDayOfMonth(10).atTime(9, 0);
+        LocalDateTime reciente = LocalDate.now().minusDays(1).atTime(9, 0);
+        movimientoRepository.saveAll(List.of(
+                movimiento(cuenta, antiguo, "100.00", "200.00"),
+                movimiento(cuenta, antiguo.plusMonths(1), "-30.00", "170.00"),
+                movimiento(cuenta, reciente, "20.00", "190.00")));
+
+        assertThat(archivoMovimientoService.archivar()).isEqualTo(2);
+        assertThat(archivoMovimientoService.purgar()).isEqualTo(2);
+        assertThat(movimientoRepository.count()).isEqualTo(1);
+
+        String desde = antiguo.toLocalDate().withDayOfMonth(1).toString();
+        String hoy = LocalDate.now().toString();
+        mockMvc.perform(get("/reportes")
+                        .param("cliente", "CLI022").param("fechaInicio", desde).param("fechaFin", hoy))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cuentas[0].movimientos.length()").value(3))
+                .andExpect(jsonPath("$.cuentas[0].movimientos[2].saldo").value(200.00))
+                .andExpect(jsonPath("$.cuentas[0].saldoApertura").value(100.00))
+                .andExpect(jsonPath("$.cuentas[0].saldoCierre").value(190.00));
+        mockMvc.perform(get("/reportes")
+                        .param("cliente", "CLI022").param("fechaInicio", desde).param("fechaFin", hoy)
+                        .param("detalle", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cuentas[0].cantidadMovimientos").value(3))
+                .andExpect(jsonPath("$.cuentas[0].totalDepositos").value(120.00))
+                .andExpect(jsonPath("$.cuentas[0].totalRetiros").value(-30.00));
+        mockMvc.perform(get("/cuentas/888301/saldo").param("fecha", antiguo.plusDays(1).toLocalDate().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(200.00));
+        MvcResult csv = mockMvc.perform(get("/reportes")
+                        .accept("text/csv")
+                        .param("cliente", "CLI022").param("fechaInicio", desde).param("fechaFin", hoy))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] filas = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(filas).hasSize(4);
+        assertThat(filas[1]).startsWith(antiguo.toLocalDate() + ",CLI022,").endsWith(",DEPOSITO,100.00,200.00");
+        assertThat(filas[3]).endsWith(",DEPOSITO,20.00,190.00");
+
+        MvcResult primera = mockMvc.perform(get("/movimientos/cuenta/888301").param("tamano", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(2))
+                .andExpect(jsonPath("$.contenido[0].saldo").value(190.00))
+                .andExpect(jsonPath("$.contenido[1].saldo").value(170.00))
+                .andReturn();
+        String cursor = objectMapper.readTree(primera.getResponse().getContentAsString()).get("siguienteCursor").asText();
+        mockMvc.perform(get("/movimientos/cuenta/888301").param("tamano", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenido.length()").value(1))
+                .andExpect(jsonPath("$.contenido[0].saldo").value(200.00))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+    }
+
+    private Movimiento movimiento(Cuenta cuenta, LocalDateTime fecha, String valor, String saldo) {
+        Dinero importe = Dinero.of(valor);
+        return Movimiento.builder()
+                .fecha(fecha)
+                .tipoMovimiento(importe.esNegativo() ? TipoMovimiento.RETIRO : TipoMovimiento.DEPOSITO)
+                .valor(importe)
+                .saldo(Dinero.of(saldo))
+                .cuenta(cuenta)
+                .build();
+    }
+}
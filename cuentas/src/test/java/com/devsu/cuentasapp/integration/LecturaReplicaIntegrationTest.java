@@ -0,0 +1,161 @@
+package com.devsu.cuentasapp.integration;
+
+import com.devsu.cuentasapp.application.dto.CuentaRequestDto;
+import com.devsu.cuentasapp.application.dto.CuentaResponseDto;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoDiarioRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.infrastructure.rest.LecturaPropiaFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Primario y réplica como dos bases H2 en memoria. La réplica no se replica: las pruebas escriben en
+ * ella una versión distinta de la cuenta para ver de cuál de las dos lee cada consulta.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=" + LecturaReplicaIntegrationTest.URL_REPLICA,
+        "datasource.replica.username=sa",
+        "datasource.replica.password="
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Pruebas de Integración - Réplica de lectura")
+class LecturaReplicaIntegrationTest {
+
+    static final String URL_REPLICA =
+            "jdbc:h2:mem:replicadb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private MovimientoDiarioRepository movimientoDiarioRepository;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        movimientoDiarioRepository.deleteAll();
+        movimientoRepository.deleteAll();
+        cuentaRepository.deleteAll();
+
+        // La réplica recibe el mismo esquema por Flyway y se vacía como el primario
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(URL_REPLICA, "sa", "");
+        Flyway.configure().configuration(flyway.getConfiguration()).dataSource(replicaDataSource).load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("DELETE FROM cuentas_schema.movimientos");
+        replica.update("DELETE FROM cuentas_schema.cuentas");
+    }
+
+    @Test
+    @DisplayName("Leer de la réplica salvo con el token de lectura propia vigente")
+    void testLecturaPropia() throws Exception {
+        // Arrange: la réplica tiene la cuenta con un saldo atrasado
+        MvcResult creada = crearCuenta("700001", "100.00");
+        String token = creada.getResponse().getHeader(LecturaPropiaFilter.ENCABEZADO);
+        assertThat(token).isNotNull();
+        CuentaResponseDto cuenta = objectMapper.readValue(creada.getResponse().getContentAsString(),
+                CuentaResponseDto.class);
+        copiarEnReplica(cuenta.getId(), "700001", "90.00");
+
+        // Act & Assert: sin token, de la réplica
+        mockMvc.perform(get("/cuentas/numero/700001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoActual").value(90.00));
+
+        // Con el token de la escritura, del primario
+        mockMvc.perform(get("/cuentas/numero/700001").header(LecturaPropiaFilter.ENCABEZADO, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoActual").value(100.00));
+
+        // Un token vencido ya no fija el primario
+        String vencido = String.valueOf(System.currentTimeMillis() - 1000);
+        mockMvc.perform(get("/cuentas/numero/700001").header(LecturaPropiaFilter.ENCABEZADO, vencido))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoActual").value(90.00));
+    }
+
+    @Test
+    @DisplayName("Las transacciones por defecto de los repositorios leen del primario")
+    void testRepositorioLeeDelPrimario() throws Exception {
+        // Arrange
+        CuentaResponseDto cuenta = objectMapper.readValue(
+                crearCuenta("700002", "100.00").getResponse().getContentAsString(), CuentaResponseDto.class);
+        copiarEnReplica(cuenta.getId(), "700002", "90.00");
+
+        // Act & Assert
+        assertThat(cuentaRepository.findByNumeroCuenta("700002").orElseThrow().getSaldoActual())
+                .isEqualByComparingTo(Dinero.of("100.00"));
+    }
+
+    @Test
+    @DisplayName("Cada ruta tiene su propio pool con métricas")
+    void testPoolsPorRuta() throws Exception {
+        // Arrange: una escritura y una lectura abren ambos pools
+        CuentaResponseDto cuenta = objectMapper.readValue(
+                crearCuenta("700003", "100.00").getResponse().getContentAsString(), CuentaResponseDto.class);
+        copiarEnReplica(cuenta.getId(), "700003", "100.00");
+        mockMvc.perform(get("/cuentas/numero/700003")).andExpect(status().isOk());
+
+        // Assert
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "cuentas-primario").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections").tag("pool", "cuentas-replica").gauge()).isNotNull();
+    }
+
+    private MvcResult crearCuenta(String numeroCuenta, String saldo) throws Exception {
+        CuentaRequestDto request = CuentaRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoCuenta("AHORROS")
+                .saldoInicial(new BigDecimal(saldo))
+                .estado(true)
+                .clienteId("CLI001")
+                .build();
+        return mockMvc.perform(post("/cuentas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    private void copiarEnReplica(Long id, String numeroCuenta, String saldo) {
+        replica.update("INSERT INTO cuentas_schema.cuentas (id, numero_cuenta, tipo_cuenta, saldo_inicial, "
+                        + "saldo_actual, estado, cliente_id, saldo_fraccionado) VALUES (?, ?, 'AHORROS', ?, ?, TRUE, 'CLI001', FALSE)",
+                id, numeroCuenta, new BigDecimal(saldo), new BigDecimal(saldo));
+    }
+}
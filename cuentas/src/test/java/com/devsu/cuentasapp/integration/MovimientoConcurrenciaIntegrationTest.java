@@ -0,0 +1,214 @@
+package com.devsu.cuentasapp.integration;
+
+import com.devsu.cuentasapp.application.dto.MovimientoRequestDto;
+import com.devsu.cuentasapp.application.service.MovimientoService;
+import com.devsu.cuentasapp.application.service.SaldoFraccionadoService;
+import com.devsu.cuentasapp.domain.exception.SaldoInsuficienteException;
+import com.devsu.cuentasapp.domain.model.Cuenta;
+import com.devsu.cuentasapp.domain.model.Dinero;
+import com.devsu.cuentasapp.domain.repository.CuentaRepository;
+import com.devsu.cuentasapp.domain.repository.MovimientoRepository;
+import com.devsu.cuentasapp.domain.repository.SaldoFraccionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Pruebas de Integración - Concurrencia sobre una misma cuenta")
+class MovimientoConcurrenciaIntegrationTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private SaldoFraccionadoService saldoFraccionadoService;
+
+    @Autowired
+    private SaldoFraccionRepository saldoFraccionRepository;
+
+    @BeforeEach
+    void setUp() {
+        movimientoRepository.deleteAll();
+        saldoFraccionRepository.deleteAll();
+        cuentaRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Depósitos y retiros concurrentes no pierden actualizaciones")
+    void testDepositosYRetirosConcurrentes() throws Exception {
+        // Arrange
+        crearCuenta("600001", "1000.00");
+
+        // Act: 300 depósitos de 10 y 300 retiros de 5 intercalados desde 16 hilos
+        AtomicInteger fallidos = new AtomicInteger();
+        ejecutarConcurrente(600, i -> {
+            try {
+                movimientoService.registrarMovimiento(i % 2 == 0
+                        ? request("600001", "DEPOSITO", "10.00")
+                        : request("600001", "RETIRO", "5.00"));
+            } catch (RuntimeException e) {
+                fallidos.incrementAndGet();
+            }
+        });
+
+        // Assert
+        assertThat(fallidos.get()).isZero();
+        assertThat(saldoActual("600001")).isEqualByComparingTo(Dinero.of("2500.00"));
+        assertThat(movimientoRepository.count()).isEqualTo(600);
+    }
+
+    @Test
+    @DisplayName("Retiros concurrentes nunca dejan el saldo negativo")
+    void testRetirosConcurrentesNoSobregiranLaCuenta() throws Exception {
+        // Arrange
+        crearCuenta("600002", "1000.00");
+
+        // Act: 200 retiros de 10 compiten por un saldo que solo cubre 100
+        AtomicInteger exitosos = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+        ejecutarConcurrente(200, i -> {
+            try {
+                movimientoService.registrarMovimiento(request("600002", "RETIRO", "10.00"));
+                exitosos.incrementAndGet();
+            } catch (SaldoInsuficienteException e) {
+                rechazados.incrementAndGet();
+            }
+        });
+
+        // Assert
+        assertThat(exitosos.get()).isEqualTo(100);
+        assertThat(rechazados.get()).isEqualTo(100);
+        assertThat(saldoActual("600002")).isEqualByComparingTo(Dinero.CERO);
+        assertThat(movimientoRepository.count()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Cuenta con saldo fraccionado: movimientos concurrentes y consolidación")
+    void testSaldoFraccionadoConcurrente() throws Exception {
+        // Arrange
+        Cuenta cuenta = crearCuenta("600003", "10000.00");
+        saldoFraccionadoService.activar(cuenta.getId());
+
+        // Act: depósitos y retiros intercalados, con retiros mayores a lo que tiene cada fracción
+        AtomicInteger fallidos = new AtomicInteger();
+        ejecutarConcurrente(600, i -> {
+            try {
+                movimientoService.registrarMovimiento(i % 2 == 0
+                        ? request("600003", "DEPOSITO", "10.00")
+                        : request("600003", "RETIRO", i % 10 == 1 ? "100.00" : "5.00"));
+            } catch (RuntimeException e) {
+                fallidos.incrementAndGet();
+            }
+        });
+
+        // Assert: 300 depósitos de 10, 60 retiros de 100 y 240 de 5
+        assertThat(fallidos.get()).isZero();
+        Dinero esperado = Dinero.of("5800.00");
+        assertThat(saldoFraccionRepository.sumarSaldo(cuenta.getId())).isEqualByComparingTo(esperado);
+        assertThat(movimientoRepository.count()).isEqualTo(600);
+
+        saldoFraccionadoService.consolidar();
+        assertThat(saldoActual("600003")).isEqualByComparingTo(esperado);
+        // Los saldos de los movimientos se derivaron en orden y el último coincide con las fracciones
+        assertThat(movimientoRepository.findPrimeroSinSaldo(cuenta.getId(), Limit.of(1))).isEmpty();
+        assertThat(movimientoRepository.findSaldoAntesDe(cuenta.getId(), LocalDateTime.now().plusDays(1), Limit.of(1)))
+                .hasValueSatisfying(saldo -> assertThat(saldo).isEqualByComparingTo(esperado));
+
+        saldoFraccionadoService.desactivar(cuenta.getId());
+        assertThat(saldoActual("600003")).isEqualByComparingTo(esperado);
+        assertThat(saldoFraccionRepository.sumarSaldo(cuenta.getId())).isEqualByComparingTo(Dinero.CERO);
+    }
+
+    @Test
+    @DisplayName("Cuenta con saldo fraccionado: retiros concurrentes nunca dejan el saldo negativo")
+    void testSaldoFraccionadoNoSobregira() throws Exception {
+        // Arrange
+        Cuenta cuenta = crearCuenta("600004", "1000.00");
+        saldoFraccionadoService.activar(cuenta.getId());
+
+        // Act
+        AtomicInteger exitosos = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+        ejecutarConcurrente(200, i -> {
+            try {
+                movimientoService.registrarMovimiento(request("600004", "RETIRO", "10.00"));
+                exitosos.incrementAndGet();
+            } catch (SaldoInsuficienteException e) {
+                rechazados.incrementAndGet();
+            }
+        });
+
+        // Assert
+        assertThat(exitosos.get()).isEqualTo(100);
+        assertThat(rechazados.get()).isEqualTo(100);
+        assertThat(saldoFraccionRepository.sumarSaldo(cuenta.getId())).isEqualByComparingTo(Dinero.CERO);
+    }
+
+    private void ejecutarConcurrente(int operaciones, IntConsumerConExcepcion operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>(operaciones);
+        for (int i = 0; i < operaciones; i++) {
+            int indice = i;
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                operacion.accept(indice);
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private Cuenta crearCuenta(String numeroCuenta, String saldo) {
+        return cuentaRepository.save(Cuenta.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoCuenta("AHORROS")
+                .saldoInicial(Dinero.of(saldo))
+                .saldoActual(Dinero.of(saldo))
+                .estado(true)
+                .clienteId("CLI001")
+                .build());
+    }
+
+    private Dinero saldoActual(String numeroCuenta) {
+        return cuentaRepository.findByNumeroCuenta(numeroCuenta).orElseThrow().getSaldoActual();
+    }
+
+    private MovimientoRequestDto request(String numeroCuenta, String tipo, String valor) {
+        return MovimientoRequestDto.builder()
+                .numeroCuenta(numeroCuenta)
+                .tipoMovimiento(tipo)
+                .valor(Dinero.of(valor))
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerConExcepcion {
+        void accept(int indice) throws Exception;
+    }
+}